@@ -127,6 +127,9 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 				averageExecutionTime += endTime;
 				averageExecutionTime /= 2;
 
+				// tasks may be waiting for a free agent
+				agentService.notifyTaskProcessed(this);
+
 			} else {
 
 				// queue is empty, quit.
@@ -204,14 +207,14 @@ public abstract class Agent<T> extends Thread implements StatusInfo {
 
 		}
 
-		return size < maxQueueSize;
+		return size < getMaxQueueSize();
 	}
 
 	public boolean createEnclosingTransaction() {
 		return true;
 	}
 
-	public final int getMaxQueueSize() {
+	public int getMaxQueueSize() {
 		return maxQueueSize;
 	}
 
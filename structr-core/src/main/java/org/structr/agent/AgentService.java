@@ -18,8 +18,10 @@
  */
 package org.structr.agent;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -27,8 +29,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.service.Command;
@@ -45,13 +50,16 @@ import org.structr.schema.ConfigurationProvider;
 public class AgentService extends Thread implements RunnableService {
 
 	private static final Logger logger = LoggerFactory.getLogger(AgentService.class.getName());
+	private static final Task WAKEUP    = new AbstractTask<>("wakeup", null);
 
-	private final int maxAgents                          = 10;    // TODO: make configurable
 	private final Map<String, List<Agent>> runningAgents = new ConcurrentHashMap<>(10, 0.9f, 8);
 	private final Map<String, Class> agentClassCache     = new ConcurrentHashMap<>(10, 0.9f, 8);
-	private final Queue<Task> taskQueue                  = new ConcurrentLinkedQueue<>();
+	private final Map<String, Integer> agentLimits       = new ConcurrentHashMap<>(10, 0.9f, 8);
+	private final BlockingQueue<Task> taskQueue          = new LinkedBlockingQueue<>();
+	private final Queue<Task> deferredTasks              = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean wakeupPending            = new AtomicBoolean(false);
 	private Set<Class> supportedCommands                 = null;
-	private boolean run                                  = false;
+	private volatile boolean run                         = false;
 
 	public AgentService() {
 
@@ -64,11 +72,8 @@ public class AgentService extends Thread implements RunnableService {
 
 	public void processTask(Task task) {
 
-		synchronized (taskQueue) {
-
-			taskQueue.add(task);
-			logger.debug("Task {} added to task queue", task);
-		}
+		taskQueue.add(task);
+		logger.debug("Task {} added to task queue", task);
 	}
 
 	@Override
@@ -78,14 +83,26 @@ public class AgentService extends Thread implements RunnableService {
 
 		while (run) {
 
-			Task nextTask = taskQueue.poll();
-			if (nextTask != null) {
+			try {
 
-				assignNextAgentForTask(nextTask);
-			}
+				// block until a task is available or an agent has capacity
+				// for one of the tasks that are waiting for a free agent
+				final Task nextTask = taskQueue.take();
+				if (nextTask == WAKEUP) {
+
+					wakeupPending.set(false);
+
+				} else {
+
+					deferredTasks.add(nextTask);
+				}
 
-			// let others act
-			try { Thread.sleep(10); } catch(Throwable ignore) {}
+				assignDeferredTasks();
+
+			} catch (InterruptedException iex) {
+
+				// interrupted by stopService
+			}
 		}
 	}
 
@@ -94,7 +111,11 @@ public class AgentService extends Thread implements RunnableService {
 		List<Agent> agents = getRunningAgentsForTask(agent.getSupportedTaskType());
 
 		synchronized (agents) {
-			agents.add(agent);
+
+			// agents started by this service are registered before they are started
+			if (!agents.contains(agent)) {
+				agents.add(agent);
+			}
 		}
 	}
 
@@ -105,6 +126,18 @@ public class AgentService extends Thread implements RunnableService {
 		synchronized (agents) {
 			agents.remove(agent);
 		}
+
+		wakeup();
+	}
+
+	/**
+	 * Called by an agent after it has processed a task, i.e. when it can
+	 * accept another one.
+	 *
+	 * @param agent
+	 */
+	public void notifyTaskProcessed(Agent agent) {
+		wakeup();
 	}
 
 	public Map<String, Class<? extends Agent>> getAgents() {
@@ -143,7 +176,11 @@ public class AgentService extends Thread implements RunnableService {
 
 	@Override
 	public void stopService() {
+
 		run = false;
+
+		// wake up the service thread if it is waiting for tasks
+		this.interrupt();
 	}
 
 	@Override
@@ -151,7 +188,59 @@ public class AgentService extends Thread implements RunnableService {
 		return true;
 	}
 
-	private void assignNextAgentForTask(Task nextTask) {
+	/**
+	 * Wakes up the service thread so that it tries to assign the tasks that
+	 * are waiting for a free agent. Does nothing if there are no waiting
+	 * tasks or if a wakeup is already pending.
+	 */
+	private void wakeup() {
+
+		if (!deferredTasks.isEmpty() && wakeupPending.compareAndSet(false, true)) {
+
+			taskQueue.add(WAKEUP);
+		}
+	}
+
+	/**
+	 * Tries to assign all tasks that are waiting for a free agent, in the
+	 * order they were added. Tasks of a type whose agents are all busy
+	 * stay in the queue so that tasks of other types are not blocked by
+	 * them.
+	 */
+	private void assignDeferredTasks() {
+
+		final Set<Class> busyTypes = new LinkedHashSet<>();
+		final Iterator<Task> it    = deferredTasks.iterator();
+
+		while (run && it.hasNext()) {
+
+			final Task task       = it.next();
+			final Class taskClass = task.getClass();
+
+			// keep the order of tasks of the same type
+			if (!busyTypes.contains(taskClass)) {
+
+				if (assignNextAgentForTask(task)) {
+
+					it.remove();
+
+				} else {
+
+					busyTypes.add(taskClass);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assigns the given task to a running agent or starts a new agent for
+	 * it. Returns false if the maximum number of agents for the task type
+	 * is reached and all of them are busy.
+	 *
+	 * @param nextTask
+	 * @return whether the task was assigned
+	 */
+	private boolean assignNextAgentForTask(Task nextTask) {
 
 		Class taskClass    = nextTask.getClass();
 		List<Agent> agents = getRunningAgentsForTask(taskClass);
@@ -168,36 +257,42 @@ public class AgentService extends Thread implements RunnableService {
 					// ok, task is assigned
 					logger.debug("Task assigned to agent {}", agent.getName());
 
-					return;
+					return true;
 				}
 			}
-		}
 
-		// FIXME: find better solution for hard limit here!
-		if (agents.size() < maxAgents) {
+			// check the limit before a new agent is created
+			final Integer maxAgents = agentLimits.get(taskClass.getName());
+			if (maxAgents == null || agents.size() < maxAgents) {
 
-			// if we get here, task was not assigned to any agent, need to
-			// create a new one.
-			Agent agent = createAgent(nextTask);
+				// if we get here, task was not assigned to any agent, need to
+				// create a new one.
+				Agent agent = createAgent(nextTask);
+				if (agent == null) {
 
-			if ((agent != null) && agent.assignTask(nextTask)) {
-				agent.start();
-			} else {
+					logger.warn("No agent found for task {}, discarding task", taskClass.getName());
 
-				// re-add task..
-				synchronized (taskQueue) {
-					taskQueue.add(nextTask);
+					// nothing we can do, the task is dropped
+					return true;
 				}
-			}
-		} else {
 
-			logger.debug("Overall agents limit reached, re-queueing task");
+				agentLimits.put(taskClass.getName(), agent.getMaxAgents());
+
+				if (agents.size() < agent.getMaxAgents() && agent.assignTask(nextTask)) {
+
+					// register the agent before it is started so that the
+					// next task sees the correct number of agents
+					agents.add(agent);
+					agent.start();
 
-			// re-add task..
-			synchronized (taskQueue) {
-				taskQueue.add(nextTask);
+					return true;
+				}
 			}
 		}
+
+		logger.debug("Agents limit reached for task type {}, deferring task", taskClass.getName());
+
+		return false;
 	}
 
 	/**
@@ -275,11 +370,18 @@ public class AgentService extends Thread implements RunnableService {
 	}
 
 	/**
-	 * Returns the current queue of remaining tasks.
+	 * Returns the current queue of remaining tasks, including the tasks
+	 * that are waiting for a free agent.
 	 * @return tasks
 	 */
 	public Collection<Task> getTaskQueue() {
-		return (taskQueue);
+
+		final List<Task> tasks = new LinkedList<>(deferredTasks);
+
+		tasks.addAll(taskQueue);
+		tasks.remove(WAKEUP);
+
+		return (tasks);
 	}
 
 	/**
@@ -320,6 +422,13 @@ public class AgentService extends Thread implements RunnableService {
 		return false;
 	}
 
+	@Override
+	public Set<String> getDependencies() {
+
+		// agents and cron jobs may use dynamic types
+		return new LinkedHashSet<>(Arrays.asList("NodeService", "SchemaService"));
+	}
+
 	// ----- interface Feature -----
 	@Override
 	public String getModuleName() {
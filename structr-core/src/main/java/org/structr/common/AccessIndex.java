@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+import org.structr.api.graph.Direction;
+import org.structr.api.graph.Node;
+import org.structr.api.graph.Relationship;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.AbstractNode;
+import org.structr.core.entity.Principal;
+import org.structr.core.entity.SchemaRelationshipNode;
+import org.structr.core.entity.Security;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.graph.search.SearchCommand;
+import org.structr.core.property.PropertyKey;
+
+/**
+ * Materialized read access index. Each node stores the UUIDs of its owner
+ * and of all principals that have been granted read access to it, so that
+ * visibility can be evaluated by the database instead of instantiating
+ * every search hit and checking its permissions.
+ *
+ * The index is maintained from changes of OWNS and SECURITY relationships
+ * and is only used when it exactly matches the permission resolution of
+ * {@link SecurityContext#isReadable}, i.e. when no permission propagation
+ * over domain relationships and no custom permission queries apply.
+ *
+ * Nodes that were modified while the index was disabled have no or
+ * outdated readers, so the index is only used after a complete rebuild.
+ * A marker in the global settings records that the rebuild has finished
+ * and is removed when access is modified while the index is disabled.
+ */
+public class AccessIndex {
+
+	private static final Logger logger                               = LoggerFactory.getLogger(AccessIndex.class.getName());
+	private static final Map<String, Boolean> customPermissionChecks = new ConcurrentHashMap<>();
+	private static volatile Boolean rebuilt                          = null;
+
+	public static final String READERS_KEY = "_readers";
+	public static final String REBUILT_KEY = "structr.accessindex.rebuilt";
+
+	public static boolean isEnabled() {
+		return Settings.AccessIndex.getValue();
+	}
+
+	/**
+	 * Indicates whether the access index is enabled and has been rebuilt
+	 * completely since it was enabled.
+	 *
+	 * @return whether the access index can be used
+	 */
+	public static boolean isReady() {
+		return isEnabled() && isRebuilt();
+	}
+
+	/**
+	 * Stores the marker that the access index has been rebuilt for all
+	 * nodes. Must only be called after a complete rebuild.
+	 */
+	public static void rebuildFinished() {
+		setRebuilt(true);
+	}
+
+	/**
+	 * Removes the rebuild marker if it is set, must be called when access
+	 * is modified while the index is disabled.
+	 */
+	public static void invalidate() {
+
+		if (isRebuilt()) {
+
+			logger.info("Access was modified while the access index is disabled, the index must be rebuilt before it is used again.");
+
+			setRebuilt(false);
+		}
+	}
+
+	/**
+	 * Recalculates the list of principals with read access for the given
+	 * database node.
+	 *
+	 * @param node the database node
+	 */
+	public static void update(final Node node) {
+
+		final Set<String> readers = new TreeSet<>();
+
+		for (final Relationship rel : node.getRelationships(Direction.INCOMING, RelType.OWNS)) {
+
+			if (!TransactionCommand.isDeleted(rel)) {
+
+				addPrincipal(readers, rel.getStartNode());
+			}
+		}
+
+		for (final Relationship rel : node.getRelationships(Direction.INCOMING, RelType.SECURITY)) {
+
+			if (!TransactionCommand.isDeleted(rel) && SecurityDelegate.getPermissionSet(rel, Security.allowed).contains(Permission.read.name())) {
+
+				addPrincipal(readers, rel.getStartNode());
+			}
+		}
+
+		node.setProperty(READERS_KEY, readers.toArray(new String[readers.size()]));
+	}
+
+	/**
+	 * Indicates whether the access index can be used to filter the search
+	 * results for the given security context.
+	 *
+	 * @param securityContext the security context
+	 *
+	 * @return whether the results can be filtered in the database
+	 */
+	public static boolean canFilter(final SecurityContext securityContext) {
+
+		if (!isReady() || securityContext == null || securityContext.isSuperUser()) {
+			return false;
+		}
+
+		final Principal user = securityContext.getUser(false);
+		if (user == null || user.isAdmin()) {
+			return false;
+		}
+
+		// permissions that are propagated over domain relationships are not part of the index
+		if (!SchemaRelationshipNode.getPropagatingRelationshipTypes().isEmpty()) {
+			return false;
+		}
+
+		final PropertyKey<String> customQueryKey = StructrApp.key(Principal.class, "customPermissionQueryRead");
+
+		for (final Principal principal : getPrincipals(user)) {
+
+			if (customQueryKey != null && StringUtils.isNotEmpty(principal.getProperty(customQueryKey))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Indicates whether the given type or one of its subtypes overrides
+	 * {@link AbstractNode#isGranted}, e.g. thumbnails that inherit the
+	 * permissions of their original image. The access index can not be
+	 * used for such types.
+	 *
+	 * @param type the type, or null for all types
+	 *
+	 * @return whether a subtype has a custom permission check
+	 */
+	public static boolean hasCustomPermissionCheck(final Class type) {
+
+		final String typeName = type != null ? type.getSimpleName() : AbstractNode.class.getSimpleName();
+		final Boolean cached  = customPermissionChecks.get(typeName);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		final Map<String, Class<? extends NodeInterface>> nodeEntities = StructrApp.getConfiguration().getNodeEntities();
+		boolean result                                                 = false;
+
+		for (final String subtype : SearchCommand.getAllSubtypesAsStringSet(typeName)) {
+
+			final Class<? extends NodeInterface> subtypeClass = nodeEntities.get(subtype);
+			if (subtypeClass != null) {
+
+				try {
+
+					if (!AbstractNode.class.equals(subtypeClass.getMethod("isGranted", Permission.class, SecurityContext.class).getDeclaringClass())) {
+
+						result = true;
+						break;
+					}
+
+				} catch (NoSuchMethodException nsmex) {
+					result = true;
+					break;
+				}
+			}
+		}
+
+		customPermissionChecks.put(typeName, result);
+
+		return result;
+	}
+
+	/**
+	 * Clears the cached permission check information, must be called
+	 * when the schema changes.
+	 */
+	public static void clearCache() {
+		customPermissionChecks.clear();
+	}
+
+	/**
+	 * Returns the UUIDs of the given user and of all groups the user is
+	 * a direct or indirect member of.
+	 *
+	 * @param user the user
+	 *
+	 * @return the UUIDs
+	 */
+	public static List<String> getPrincipalIds(final Principal user) {
+
+		final List<String> ids = new ArrayList<>();
+
+		for (final Principal principal : getPrincipals(user)) {
+			ids.add(principal.getUuid());
+		}
+
+		return ids;
+	}
+
+	// ----- private methods -----
+	private static boolean isRebuilt() {
+
+		Boolean value = rebuilt;
+		if (value == null) {
+
+			try {
+
+				value   = "true".equals(String.valueOf(StructrApp.getInstance().getGlobalSetting(REBUILT_KEY, "false")));
+				rebuilt = value;
+
+			} catch (FrameworkException fex) {
+
+				logger.warn("Unable to read access index marker: {}", fex.getMessage());
+				return false;
+			}
+		}
+
+		return value;
+	}
+
+	private static void setRebuilt(final boolean value) {
+
+		try {
+
+			StructrApp.getInstance().setGlobalSetting(REBUILT_KEY, value ? "true" : null);
+			rebuilt = value;
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("Unable to store access index marker: {}", fex.getMessage());
+		}
+	}
+
+	private static Set<Principal> getPrincipals(final Principal user) {
+
+		final Set<Principal> principals = new LinkedHashSet<>();
+
+		collectPrincipals(principals, user);
+
+		return principals;
+	}
+
+	private static void collectPrincipals(final Set<Principal> principals, final Principal principal) {
+
+		if (principal != null && principals.add(principal)) {
+
+			final List<Principal> parents = principal.getParents();
+			if (parents != null) {
+
+				for (final Principal parent : parents) {
+					collectPrincipals(principals, parent);
+				}
+			}
+		}
+	}
+
+	private static void addPrincipal(final Set<String> readers, final Node principal) {
+
+		final Object uuid = principal.getProperty(GraphObject.id.dbName(), null);
+		if (uuid != null) {
+
+			readers.add(uuid.toString());
+		}
+	}
+}
@@ -52,6 +52,28 @@ public class ContextStore {
 		this.amc         = other.amc;
 	}
 
+	/**
+	 * Returns a copy of this store that can be modified independently of
+	 * this store, e.g. in another thread. The mail container is not copied,
+	 * the copy starts with an empty one.
+	 *
+	 * @return a copy of this store
+	 */
+	public ContextStore copy() {
+
+		final ContextStore copy = new ContextStore();
+
+		copy.headers.putAll(headers);
+		copy.constants.putAll(constants);
+		copy.tmpStore.putAll(tmpStore);
+		copy.timerStore.putAll(timerStore);
+		copy.counters.putAll(counters);
+		copy.localizations.addAll(localizations);
+		copy.functionPropertyCache.putAll(functionPropertyCache);
+
+		return copy;
+	}
+
 	// --- Headers ---
 	public void addHeader(final String key, final String value) {
 		headers.put(key, value);
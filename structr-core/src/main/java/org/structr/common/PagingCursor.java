@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.property.PropertyKey;
+
+/**
+ * An opaque continuation cursor for seek paging. The cursor contains the
+ * sort key, the sort order, the database value of the sort key and the
+ * id of the last result of a page, so that the next page can be read
+ * with a predicate instead of skipping all previous results.
+ */
+public class PagingCursor {
+
+	private String sortKey         = null;
+	private boolean sortDescending = false;
+	private Object value           = null;
+	private String id              = null;
+
+	public PagingCursor(final String sortKey, final boolean sortDescending, final Object value, final String id) {
+
+		this.sortKey        = sortKey;
+		this.sortDescending = sortDescending;
+		this.value          = value;
+		this.id             = id;
+	}
+
+	/**
+	 * Creates a cursor that points to the given object, which must be the
+	 * last result of the current page.
+	 *
+	 * @param obj the last result
+	 * @param sortKey the sort key, or null
+	 * @param sortDescending
+	 * @return the cursor
+	 */
+	public static PagingCursor after(final GraphObject obj, final PropertyKey sortKey, final boolean sortDescending) {
+
+		final String dbName = sortKey != null ? sortKey.dbName() : null;
+		Object value        = null;
+
+		if (dbName != null) {
+
+			// the stored value is what the database compares
+			value = obj.getPropertyContainer().getProperty(dbName);
+		}
+
+		return new PagingCursor(dbName, sortDescending, value, obj.getUuid());
+	}
+
+	/**
+	 * Parses the given cursor string, an empty string denotes the start
+	 * of the result set and returns null.
+	 *
+	 * @param source
+	 * @return the cursor or null
+	 *
+	 * @throws FrameworkException if the cursor is invalid
+	 */
+	public static PagingCursor parse(final String source) throws FrameworkException {
+
+		if (source == null || source.isEmpty()) {
+			return null;
+		}
+
+		try {
+
+			final String json = new String(Base64.getUrlDecoder().decode(source), StandardCharsets.UTF_8);
+			final List data   = new Gson().fromJson(json, List.class);
+
+			if (data != null && data.size() == 4 && data.get(3) instanceof String) {
+
+				return new PagingCursor((String)data.get(0), Boolean.TRUE.equals(data.get(1)), toStoredValue(data.get(2)), (String)data.get(3));
+			}
+
+		} catch (IllegalArgumentException | JsonParseException ex) {}
+
+		throw new FrameworkException(400, "Invalid cursor " + source);
+	}
+
+	/**
+	 * Indicates whether this cursor was created for the given sort key
+	 * and sort order.
+	 *
+	 * @param key
+	 * @param descending
+	 * @return whether this cursor matches the given sort order
+	 */
+	public boolean matches(final PropertyKey key, final boolean descending) {
+
+		final String dbName = key != null ? key.dbName() : null;
+
+		return (dbName != null ? dbName.equals(sortKey) : sortKey == null) && sortDescending == descending;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+
+		final String json = new Gson().toJson(Arrays.asList(sortKey, sortDescending, value, id));
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// ----- private methods -----
+	private static Object toStoredValue(final Object value) {
+
+		// JSON numbers are parsed as doubles, integral values are stored as longs
+		if (value instanceof Double) {
+
+			final double d = (Double)value;
+			if (d == Math.rint(d) && !Double.isInfinite(d)) {
+
+				return (long)d;
+			}
+		}
+
+		return value;
+	}
+}
@@ -18,10 +18,12 @@
  */
 package org.structr.common;
 
+import java.text.Collator;
 import java.util.Collections;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.core.GraphObject;
 import org.structr.core.Result;
 
 /**
@@ -78,6 +80,33 @@ public class PagingHelper {
 
 	}
 
+	/**
+	 * Sort the list with the given sort orders and return a single page of
+	 * it. For pages near the beginning of a large list, only the elements
+	 * up to the end of the requested page are sorted.
+	 *
+	 * @param list
+	 * @param orders
+	 * @param collator
+	 * @param pageSize
+	 * @param page
+	 * @return subList
+	 */
+	public static <T extends GraphObject> List<T> sortedSubList(final List<T> list, final List<SortHelper.Order> orders, final Collator collator, int pageSize, int page) {
+
+		if (pageSize <= 0 || page == 0) {
+
+			return Collections.EMPTY_LIST;
+		}
+
+		// negative pages are counted from the end of the list
+		final long limit = page > 0 ? Math.min((long)page * (long)pageSize, (long)list.size()) : list.size();
+
+		SortHelper.sort(list, orders, collator, (int)limit);
+
+		return subList(list, pageSize, page);
+	}
+
 	/**
 	 * Return a single page of the result with the given paging parameters.
 	 *
@@ -80,6 +80,34 @@ public class SecurityContext {
 	private SecurityContext() {
 	}
 
+	/*
+	 * Copy constructor, see copy()
+	 */
+	private SecurityContext(final SecurityContext other) {
+
+		this.uuidWasSetManually           = other.uuidWasSetManually;
+		this.doTransactionNotifications   = other.doTransactionNotifications;
+		this.forceMergeOfNestedProperties = other.forceMergeOfNestedProperties;
+		this.doCascadingDelete            = other.doCascadingDelete;
+		this.modifyAccessTime             = other.modifyAccessTime;
+		this.ignoreResultCount            = other.ignoreResultCount;
+		this.ensureCardinality            = other.ensureCardinality;
+		this.serializationDepth           = other.serializationDepth;
+		this.accessMode                   = other.accessMode;
+		this.authenticator                = other.authenticator;
+		this.cachedUser                   = other.cachedUser;
+		this.request                      = other.request;
+		this.response                     = other.response;
+		this.customView                   = other.customView;
+		this.cachedUserName               = other.cachedUserName;
+		this.cachedUserId                 = other.cachedUserId;
+		this.sessionId                    = other.sessionId;
+		this.contextStore                 = other.getContextStore().copy();
+
+		this.ranges.putAll(other.ranges);
+		this.attrs.putAll(other.attrs);
+	}
+
 	/*
 	 * Alternative constructor for stateful context, e.g. WebSocket
 	 */
@@ -874,6 +902,16 @@ public class SecurityContext {
 		this.contextStore = contextStore;
 	}
 
+	/**
+	 * Returns a copy of this security context with its own copy of the
+	 * context store, so that it can be used in another thread.
+	 *
+	 * @return a copy of this security context
+	 */
+	public SecurityContext copy() {
+		return new SecurityContext(this);
+	}
+
 	// ----- nested classes -----
 	private static class SuperUserSecurityContext extends SecurityContext {
 
@@ -886,6 +924,15 @@ public class SecurityContext {
 		public SuperUserSecurityContext() {
 		}
 
+		private SuperUserSecurityContext(final SecurityContext other) {
+			super(other);
+		}
+
+		@Override
+		public SecurityContext copy() {
+			return new SuperUserSecurityContext(this);
+		}
+
 		//~--- get methods --------------------------------------------
 
 		@Override
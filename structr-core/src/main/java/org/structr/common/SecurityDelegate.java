@@ -24,6 +24,7 @@ import java.util.Set;
 import org.structr.api.graph.PropertyContainer;
 import org.structr.core.app.StructrApp;
 import org.structr.core.graph.RelationshipInterface;
+import org.structr.core.graph.TransactionCommand;
 import org.structr.core.property.PropertyKey;
 
 /**
@@ -67,6 +68,9 @@ public class SecurityDelegate {
 			final PropertyContainer propertyContainer = graphObject.getPropertyContainer();
 			propertyContainer.setProperty(key.dbName(), allowed);
 
+			// permissions are written directly, notify access index
+			TransactionCommand.accessModified(graphObject.getTargetNodeAsSuperUser());
+
 		}
 	}
 
@@ -0,0 +1,378 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.common;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+import org.structr.core.GraphObject;
+import org.structr.core.property.BooleanProperty;
+import org.structr.core.property.DateProperty;
+import org.structr.core.property.DoubleProperty;
+import org.structr.core.property.EnumProperty;
+import org.structr.core.property.ISO8601DateProperty;
+import org.structr.core.property.IntProperty;
+import org.structr.core.property.LongProperty;
+import org.structr.core.property.LowercaseStringProperty;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.property.StringProperty;
+import org.structr.core.property.TypeProperty;
+import org.structr.core.property.UuidProperty;
+
+/**
+ * Utility for in-memory sorting of graph objects.
+ *
+ * The sort values of all objects are extracted once before sorting, so
+ * that expensive properties like function or cypher properties are not
+ * evaluated again for every comparison. The values of stored primitive
+ * properties are extracted in parallel for large lists, all other values
+ * are extracted in the calling thread because they depend on the current
+ * transaction.
+ *
+ * Null values are handled like in {@link GraphObjectComparator}.
+ */
+public class SortHelper {
+
+	private static final Logger logger                         = LoggerFactory.getLogger(SortHelper.class.getName());
+	private static final Set<Class> parallelPropertyTypes      = new HashSet<>(Arrays.asList(
+		StringProperty.class, LowercaseStringProperty.class, IntProperty.class, LongProperty.class, DoubleProperty.class,
+		BooleanProperty.class, DateProperty.class, ISO8601DateProperty.class, EnumProperty.class, UuidProperty.class, TypeProperty.class
+	));
+	private static final int PARALLEL_THRESHOLD                = 10000;
+	private static final int TOP_K_RATIO                       = 8;
+
+	/**
+	 * Sorts the given list by the given property key.
+	 *
+	 * @param list
+	 * @param sortKey
+	 * @param sortDescending
+	 * @param collator the collator for string values, or null
+	 */
+	public static <T extends GraphObject> void sort(final List<T> list, final PropertyKey sortKey, final boolean sortDescending, final Collator collator) {
+		sort(list, Collections.singletonList(new Order(sortKey, sortDescending)), collator, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Sorts the given list by the given sort orders.
+	 *
+	 * @param list
+	 * @param orders
+	 * @param collator the collator for string values, or null
+	 */
+	public static <T extends GraphObject> void sort(final List<T> list, final List<Order> orders, final Collator collator) {
+		sort(list, orders, collator, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Sorts the given list by the given sort orders so that the first
+	 * <code>limit</code> elements are in their final order. The remaining
+	 * elements keep their relative order and are not sorted if the limit
+	 * is small compared to the size of the list.
+	 *
+	 * @param list
+	 * @param orders
+	 * @param collator the collator for string values, or null
+	 * @param limit the number of elements that need to be sorted
+	 */
+	public static <T extends GraphObject> void sort(final List<T> list, final List<Order> orders, final Collator collator, final int limit) {
+
+		final int size = list.size();
+
+		if (size < 2 || limit <= 0 || orders.isEmpty()) {
+			return;
+		}
+
+		final Entry[] entries              = extract(list, orders, collator);
+		final Comparator<Entry> comparator = new EntryComparator(orders);
+		final Entry[] sorted               = limit < size / TOP_K_RATIO ? top(entries, comparator, limit) : entries;
+
+		if (sorted == entries) {
+			Arrays.parallelSort(entries, comparator);
+		}
+
+		final ListIterator<T> iterator = list.listIterator();
+		for (final Entry entry : sorted) {
+
+			iterator.next();
+			iterator.set((T)entry.obj);
+		}
+	}
+
+	/**
+	 * Returns the collator to use for string values in the given context,
+	 * or null if string values should be sorted in their natural order.
+	 *
+	 * @param securityContext
+	 * @return the collator or null
+	 */
+	public static Collator getCollator(final SecurityContext securityContext) {
+
+		if (Settings.SortCollation.getValue()) {
+
+			final Locale locale = securityContext != null ? securityContext.getEffectiveLocale() : Locale.getDefault();
+
+			return Collator.getInstance(locale);
+		}
+
+		return null;
+	}
+
+	// ----- private methods -----
+	private static <T extends GraphObject> Entry[] extract(final List<T> list, final List<Order> orders, final Collator collator) {
+
+		final int size         = list.size();
+		final Entry[] entries  = new Entry[size];
+		int index              = 0;
+
+		for (final T obj : list) {
+
+			entries[index] = new Entry(obj, index, orders.size());
+			index++;
+		}
+
+		if (size >= PARALLEL_THRESHOLD && canExtractInParallel(orders)) {
+
+			final int chunks    = Math.max(1, Runtime.getRuntime().availableProcessors() * 4);
+			final int chunkSize = (size + chunks - 1) / chunks;
+
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+
+				// collators are not thread-safe
+				final Collator local = collator != null ? (Collator)collator.clone() : null;
+				final int end        = Math.min(size, (chunk + 1) * chunkSize);
+
+				for (int i=chunk * chunkSize; i<end; i++) {
+
+					try {
+						entries[i].extract(orders, local);
+
+					} catch (Throwable t) {
+						// will be retried in the calling thread
+					}
+				}
+			});
+		}
+
+		for (final Entry entry : entries) {
+
+			if (!entry.extracted) {
+
+				try {
+					entry.extract(orders, collator);
+
+				} catch (Throwable t) {
+
+					logger.warn("Unable to extract sort value of {}: {}", entry.obj, t.getMessage());
+					entry.extracted = true;
+				}
+			}
+		}
+
+		return entries;
+	}
+
+	private static Entry[] top(final Entry[] entries, final Comparator<Entry> comparator, final int limit) {
+
+		final PriorityQueue<Entry> queue = new PriorityQueue<>(limit + 1, comparator.reversed());
+		final boolean[] selected         = new boolean[entries.length];
+		final Entry[] result             = new Entry[entries.length];
+
+		for (final Entry entry : entries) {
+
+			if (queue.size() < limit) {
+
+				queue.add(entry);
+
+			} else if (comparator.compare(entry, queue.peek()) < 0) {
+
+				queue.poll();
+				queue.add(entry);
+			}
+		}
+
+		// the queue contains the largest of the selected elements at the head
+		for (int i=queue.size()-1; i>=0; i--) {
+
+			final Entry entry = queue.poll();
+
+			selected[entry.index] = true;
+			result[i]             = entry;
+		}
+
+		int index = limit;
+
+		for (final Entry entry : entries) {
+
+			if (!selected[entry.index]) {
+				result[index++] = entry;
+			}
+		}
+
+		return result;
+	}
+
+	private static boolean canExtractInParallel(final List<Order> orders) {
+
+		for (final Order order : orders) {
+
+			final PropertyKey sortKey = order.getSortKey();
+
+			if (sortKey == null || !parallelPropertyTypes.contains(sortKey.getClass())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// ----- nested classes -----
+	/**
+	 * A property key and sort direction.
+	 */
+	public static class Order {
+
+		private PropertyKey sortKey    = null;
+		private boolean sortDescending = false;
+
+		public Order(final PropertyKey sortKey, final boolean sortDescending) {
+
+			this.sortKey        = sortKey;
+			this.sortDescending = sortDescending;
+		}
+
+		public PropertyKey getSortKey() {
+			return sortKey;
+		}
+
+		public boolean isSortDescending() {
+			return sortDescending;
+		}
+	}
+
+	private static class Entry {
+
+		private Comparable[] values = null;
+		private boolean extracted   = false;
+		private GraphObject obj     = null;
+		private int index           = 0;
+
+		public Entry(final GraphObject obj, final int index, final int count) {
+
+			this.values = new Comparable[count];
+			this.index  = index;
+			this.obj    = obj;
+		}
+
+		public void extract(final List<Order> orders, final Collator collator) {
+
+			for (int i=0; i<values.length; i++) {
+
+				final Comparable value = obj.getComparableProperty(orders.get(i).getSortKey());
+
+				if (collator != null && value instanceof String) {
+
+					values[i] = collator.getCollationKey((String)value);
+
+				} else {
+
+					values[i] = value;
+				}
+			}
+
+			extracted = true;
+		}
+	}
+
+	private static class EntryComparator implements Comparator<Entry> {
+
+		private boolean[] descending = null;
+		private boolean warned       = false;
+
+		public EntryComparator(final List<Order> orders) {
+
+			this.descending = new boolean[orders.size()];
+
+			for (int i=0; i<descending.length; i++) {
+				descending[i] = orders.get(i).isSortDescending();
+			}
+		}
+
+		@Override
+		public int compare(final Entry e1, final Entry e2) {
+
+			for (int i=0; i<descending.length; i++) {
+
+				final int result = compare(e1.values[i], e2.values[i], descending[i]);
+				if (result != 0) {
+
+					return result;
+				}
+			}
+
+			// keep the sort stable for the top-k selection
+			return Integer.compare(e1.index, e2.index);
+		}
+
+		private int compare(final Comparable c1, final Comparable c2, final boolean desc) {
+
+			if (c1 == null || c2 == null) {
+
+				if (c1 == null && c2 == null) {
+
+					return 0;
+
+				} else if (c1 == null) {
+
+					return desc ? -1 : 1;
+
+				} else {
+
+					return desc ? 1 : -1;
+				}
+			}
+
+			try {
+
+				return desc ? c2.compareTo(c1) : c1.compareTo(c2);
+
+			} catch (Throwable t) {
+
+				if (!warned) {
+
+					logger.warn("Cannot compare sort values {} and {}: {}", c1, c2, t.getMessage());
+					warned = true;
+				}
+			}
+
+			return 0;
+		}
+	}
+}
@@ -18,6 +18,8 @@
  */
 package org.structr.common.fulltext;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.common.error.FrameworkException;
@@ -35,6 +37,11 @@ public class DummyFulltextIndexer implements FulltextIndexer {
 		logger.warn("No fulltext indexer installed, this is a dummy implementation that does nothing.");
 	}
 
+	@Override
+	public void removeFromFulltextIndex(final String uuid) {
+		// nothing was indexed, so there is nothing to remove
+	}
+
 	@Override
 	public GraphObjectMap getContextObject(String searchTerm, String text, int contextLength) {
 
@@ -42,4 +49,12 @@ public class DummyFulltextIndexer implements FulltextIndexer {
 
 		return new GraphObjectMap();
 	}
+
+	@Override
+	public Map<String, Double> search(final String searchString, final int maxResults) {
+
+		logger.warn("No fulltext indexer installed, this is a dummy implementation that does nothing.");
+
+		return new LinkedHashMap<>();
+	}
 }
@@ -18,6 +18,7 @@
  */
 package org.structr.common.fulltext;
 
+import java.util.Map;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObjectMap;
 
@@ -26,5 +27,18 @@ import org.structr.core.GraphObjectMap;
 public interface FulltextIndexer {
 
 	void addToFulltextIndex(final Indexable indexable) throws FrameworkException;
+	void removeFromFulltextIndex(final String uuid);
 	GraphObjectMap getContextObject(final String searchTerm, final String text, final int contextLength);
+
+	/**
+	 * Searches the fulltext index and returns the UUIDs of the matching
+	 * documents, mapped to their relevance score, in descending order of
+	 * relevance.
+	 *
+	 * @param searchString the search string
+	 * @param maxResults the maximum number of results
+	 *
+	 * @return an ordered map of UUIDs and scores
+	 */
+	Map<String, Double> search(final String searchString, final int maxResults);
 }
@@ -43,6 +43,7 @@ public class Result<T extends GraphObject> {
 	private String queryTime          = null;
 	private String sortOrder          = null;
 	private String sortKey            = null;
+	private String nextCursor         = null;
 
 	private Integer resultCount       	= null;
 	private Integer pageCount         	= null;
@@ -162,6 +163,14 @@ public class Result<T extends GraphObject> {
 		this.page = page;
 	}
 
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(final String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
 	public String getSortOrder() {
 		return sortOrder;
 	}
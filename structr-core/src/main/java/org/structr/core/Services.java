@@ -25,11 +25,13 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -77,6 +79,7 @@ public class Services implements StructrServices {
 	private final Map<Class, Service> serviceCache             = new ConcurrentHashMap<>(10, 0.9f, 8);
 	private final Set<Class> registeredServiceClasses          = new LinkedHashSet<>();
 	private final Set<String> configuredServiceClasses         = new LinkedHashSet<>();
+	private final Map<String, Long> startupTimings             = Collections.synchronizedMap(new LinkedHashMap<>());
 	private LicenseManager licenseManager                      = null;
 	private ConfigurationProvider configuration                = null;
 	private boolean initializationDone                         = false;
@@ -157,6 +160,8 @@ public class Services implements StructrServices {
 
 	private void initialize() {
 
+		final long t0 = System.currentTimeMillis();
+
 		// read structr.conf
 		final String configFileName = "structr.conf";
 		final File configFile       = new File(configFileName);
@@ -184,6 +189,8 @@ public class Services implements StructrServices {
 			}
 		}
 
+		startupTimings.put("Configuration", System.currentTimeMillis() - t0);
+
 		doInitialize();
 	}
 
@@ -204,7 +211,9 @@ public class Services implements StructrServices {
 		// if configuration is not yet established, instantiate it
 		// this is the place where the service classes get the
 		// opportunity to modify the default configuration
+		final long t0 = System.currentTimeMillis();
 		getConfigurationProvider();
+		startupTimings.put("Module scan", System.currentTimeMillis() - t0);
 
 		// do simple heap size check
 		final Runtime runtime = Runtime.getRuntime();
@@ -219,15 +228,12 @@ public class Services implements StructrServices {
 
 		logger.info("Starting services: {}", configuredServiceClasses);
 
+		final long t1 = System.currentTimeMillis();
+
 		// initialize other services
-		for (final String serviceClassName : configuredServiceClasses) {
+		startServices();
 
-				Class serviceClass = getServiceClassForName(serviceClassName);
-				if (serviceClass != null) {
-
-					startService(serviceClass);
-				}
-		}
+		startupTimings.put("Services (total)", System.currentTimeMillis() - t1);
 
 		logger.info("{} service(s) processed", serviceCache.size());
 		logger.info("Registering shutdown hook.");
@@ -271,6 +277,8 @@ public class Services implements StructrServices {
 
 		// only run initialization callbacks if Structr was started with
 		// a configuration file, i.e. when this is NOT this first start.
+		final long t2 = System.currentTimeMillis();
+
 		try {
 			final ExecutorService service = Executors.newSingleThreadExecutor();
 			service.submit(new Runnable() {
@@ -293,6 +301,10 @@ public class Services implements StructrServices {
 			logger.warn("Exception while executing post-initialization tasks", t);
 		}
 
+		startupTimings.put("Initialization callbacks", System.currentTimeMillis() - t2);
+
+		logStartupTimings();
+
 
 		// Don't use logger here because start/stop scripts rely on this line.
 		System.out.println(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.ms").format(new Date()) + "  ---------------- Initialization complete ----------------");
@@ -303,7 +315,7 @@ public class Services implements StructrServices {
 	}
 
 	@Override
-	public void registerInitializationCallback(final InitializationCallback callback) {
+	public synchronized void registerInitializationCallback(final InitializationCallback callback) {
 
 		callbacks.add(callback);
 
@@ -455,93 +467,28 @@ public class Services implements StructrServices {
 
 	public void startService(final Class serviceClass) {
 
-		int retryCount       = 10;
-		int retryDelay       = 30;
-		boolean waitAndRetry = true;
-		boolean isVital      = false;
-
 		logger.info("Creating {}..", serviceClass.getSimpleName());
 
 		try {
 
-			final Service service = (Service) serviceClass.newInstance();
+			startService(serviceClass, (Service) serviceClass.newInstance());
 
-			if (licenseManager != null && !licenseManager.isValid(service)) {
-
-				logger.error("Configured service {} is not part of the currently licensed Structr Edition.", serviceClass.getSimpleName());
-				return;
-			}
-
-			isVital    = service.isVital();
-			retryCount = service.getRetryCount();
-			retryDelay = service.getRetryDelay();
-
-			while (waitAndRetry && retryCount-- > 0) {
-
-				waitAndRetry = service.waitAndRetry();
-
-				try {
-
-					if (service.initialize(this)) {
-
-						if (service instanceof RunnableService) {
-
-							RunnableService runnableService = (RunnableService) service;
-
-							if (runnableService.runOnStartup()) {
-
-								// start RunnableService and cache it
-								runnableService.startService();
-							}
-						}
-
-						if (service.isRunning()) {
-
-							// cache service instance
-							serviceCache.put(serviceClass, service);
-						}
-
-						// initialization callback
-						service.initialized();
-
-						// abort wait and retry loop
-						waitAndRetry = false;
-
-					} else if (isVital && !waitAndRetry) {
-
-						checkVitalService(serviceClass, null);
-					}
-
-				} catch (Throwable t) {
-
-					logger.warn("Service {} failed to start: {}", serviceClass.getSimpleName(), t.getMessage());
-
-					if (isVital && !waitAndRetry) {
-						checkVitalService(serviceClass, t);
-					}
-				}
-
-				if (waitAndRetry) {
-
-					if (retryCount > 0) {
-
-						logger.warn("Retrying in {} seconds..", retryDelay);
-						Thread.sleep(retryDelay * 1000);
-
-					} else {
+		} catch (Throwable t) {
 
-						if (isVital) {
-							checkVitalService(serviceClass, null);
-						}
-					}
-				}
-			}
+			logger.warn("Unable to instantiate service {}: {}", serviceClass.getSimpleName(), t.getMessage());
+		}
+	}
 
-		} catch (Throwable t) {
+	/**
+	 * Returns the time in milliseconds that each phase of the startup
+	 * process took, in the order in which the phases were completed.
+	 *
+	 * @return a map of phase names to durations
+	 */
+	public Map<String, Long> getStartupTimings() {
 
-			if (isVital) {
-				checkVitalService(serviceClass, t);
-			}
+		synchronized (startupTimings) {
+			return new LinkedHashMap<>(startupTimings);
 		}
 	}
 
@@ -771,6 +718,235 @@ public class Services implements StructrServices {
 	}
 
 	// ----- private methods -----
+	private void startService(final Class serviceClass, final Service service) {
+
+		final long t0        = System.currentTimeMillis();
+		int retryCount       = 10;
+		int retryDelay       = 30;
+		boolean waitAndRetry = true;
+		boolean isVital      = false;
+
+		try {
+
+			if (licenseManager != null && !licenseManager.isValid(service)) {
+
+				logger.error("Configured service {} is not part of the currently licensed Structr Edition.", serviceClass.getSimpleName());
+				return;
+			}
+
+			isVital    = service.isVital();
+			retryCount = service.getRetryCount();
+			retryDelay = service.getRetryDelay();
+
+			while (waitAndRetry && retryCount-- > 0) {
+
+				waitAndRetry = service.waitAndRetry();
+
+				try {
+
+					if (service.initialize(this)) {
+
+						if (service instanceof RunnableService) {
+
+							RunnableService runnableService = (RunnableService) service;
+
+							if (runnableService.runOnStartup()) {
+
+								// start RunnableService and cache it
+								runnableService.startService();
+							}
+						}
+
+						if (service.isRunning()) {
+
+							// cache service instance
+							serviceCache.put(serviceClass, service);
+						}
+
+						// initialization callback
+						service.initialized();
+
+						// abort wait and retry loop
+						waitAndRetry = false;
+
+					} else if (isVital && !waitAndRetry) {
+
+						checkVitalService(serviceClass, null);
+					}
+
+				} catch (Throwable t) {
+
+					logger.warn("Service {} failed to start: {}", serviceClass.getSimpleName(), t.getMessage());
+
+					if (isVital && !waitAndRetry) {
+						checkVitalService(serviceClass, t);
+					}
+				}
+
+				if (waitAndRetry) {
+
+					if (retryCount > 0) {
+
+						logger.warn("Retrying in {} seconds..", retryDelay);
+						Thread.sleep(retryDelay * 1000);
+
+					} else {
+
+						if (isVital) {
+							checkVitalService(serviceClass, null);
+						}
+					}
+				}
+			}
+
+		} catch (Throwable t) {
+
+			if (isVital) {
+				checkVitalService(serviceClass, t);
+			}
+
+		} finally {
+
+			startupTimings.put("Service " + serviceClass.getSimpleName(), System.currentTimeMillis() - t0);
+		}
+	}
+
+	/**
+	 * Starts all configured services. If parallel startup is enabled,
+	 * each service waits only for the services it depends on, so that
+	 * independent services are initialized concurrently. Services that
+	 * don't declare their dependencies wait for all services configured
+	 * before them, which is the sequential behaviour.
+	 */
+	private void startServices() {
+
+		final Map<String, Class> serviceClasses = new LinkedHashMap<>();
+
+		for (final String serviceClassName : configuredServiceClasses) {
+
+			final Class serviceClass = getServiceClassForName(serviceClassName);
+			if (serviceClass != null) {
+
+				serviceClasses.put(serviceClass.getSimpleName(), serviceClass);
+			}
+		}
+
+		if (!Settings.ServicesParallel.getValue()) {
+
+			for (final Class serviceClass : serviceClasses.values()) {
+				startService(serviceClass);
+			}
+
+			return;
+		}
+
+		final Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+		final Map<String, Service> services                = new LinkedHashMap<>();
+		final ExecutorService executor                     = Executors.newCachedThreadPool();
+
+		try {
+
+			for (final Map.Entry<String, Class> entry : serviceClasses.entrySet()) {
+
+				final Class serviceClass = entry.getValue();
+
+				logger.info("Creating {}..", serviceClass.getSimpleName());
+
+				try {
+
+					services.put(entry.getKey(), (Service) serviceClass.newInstance());
+
+				} catch (Throwable t) {
+
+					logger.warn("Unable to instantiate service {}: {}", serviceClass.getSimpleName(), t.getMessage());
+				}
+			}
+
+			// dependencies can be configured after the services that depend on them
+			for (final String name : services.keySet()) {
+				scheduleService(name, serviceClasses, services, futures, new LinkedHashSet<>(), executor);
+			}
+
+			CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+
+		} catch (Throwable t) {
+
+			logger.warn("Exception while starting services: {}", t.getMessage());
+
+		} finally {
+
+			executor.shutdown();
+		}
+	}
+
+	private CompletableFuture<Void> scheduleService(final String name, final Map<String, Class> serviceClasses, final Map<String, Service> services, final Map<String, CompletableFuture<Void>> futures, final Set<String> path, final ExecutorService executor) {
+
+		final CompletableFuture<Void> existing = futures.get(name);
+		if (existing != null) {
+
+			return existing;
+		}
+
+		final Service service = services.get(name);
+		if (service == null) {
+
+			// dependency is not configured or could not be instantiated
+			return null;
+		}
+
+		if (!path.add(name)) {
+
+			logger.warn("Circular service dependency {} -> {}, ignoring.", path, name);
+			return null;
+		}
+
+		final List<CompletableFuture<Void>> predecessors = new LinkedList<>();
+		Set<String> dependencies                         = service.getDependencies();
+
+		if (dependencies == null) {
+
+			// depend on all services configured before this one
+			dependencies = new LinkedHashSet<>();
+
+			for (final String other : services.keySet()) {
+
+				if (other.equals(name)) {
+					break;
+				}
+
+				dependencies.add(other);
+			}
+		}
+
+		for (final String dependency : dependencies) {
+
+			final CompletableFuture<Void> predecessor = scheduleService(dependency, serviceClasses, services, futures, path, executor);
+			if (predecessor != null) {
+
+				predecessors.add(predecessor);
+			}
+		}
+
+		path.remove(name);
+
+		final CompletableFuture<Void> future = CompletableFuture
+			.allOf(predecessors.toArray(new CompletableFuture[0]))
+			.thenRunAsync(() -> startService(serviceClasses.get(name), service), executor);
+
+		futures.put(name, future);
+
+		return future;
+	}
+
+	private void logStartupTimings() {
+
+		logger.info("Startup timing report:");
+
+		for (final Map.Entry<String, Long> entry : getStartupTimings().entrySet()) {
+			logger.info("    {} {} ms", StringUtils.rightPad(entry.getKey(), 40, '.'), entry.getValue());
+		}
+	}
+
 	private void checkVitalService(final Class service, final Throwable t) {
 
 		if (t != null) {
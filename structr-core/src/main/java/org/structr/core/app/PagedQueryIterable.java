@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.app;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.Result;
+import org.structr.core.graph.NodeInterface;
+
+/**
+ * An iterable that executes a query lazily in pages of a fixed size, so
+ * that large result sets can be processed without loading all results
+ * into memory at once. A new query is obtained from the given supplier
+ * for each page, the query should have a stable sort order.
+ *
+ * Pages are read with a continuation cursor, so the database seeks to
+ * the start of each page instead of skipping all previous results.
+ *
+ * @param <T>
+ */
+public class PagedQueryIterable<T extends GraphObject> implements Iterable<T> {
+
+	private Supplier<Query<T>> querySupplier = null;
+	private int pageSize                     = 0;
+
+	public PagedQueryIterable(final Supplier<Query<T>> querySupplier, final int pageSize) {
+
+		this.querySupplier = querySupplier;
+		this.pageSize      = pageSize;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new PagedQueryIterator();
+	}
+
+	/**
+	 * Returns an iterable over all nodes of the given type, sorted by id.
+	 *
+	 * @param <T>
+	 * @param securityContext
+	 * @param type
+	 * @param pageSize
+	 * @return the iterable
+	 */
+	public static <T extends NodeInterface> PagedQueryIterable<T> forType(final SecurityContext securityContext, final Class<T> type, final int pageSize) {
+
+		final App app = StructrApp.getInstance(securityContext);
+
+		return new PagedQueryIterable<>(() -> app.nodeQuery(type).sort(GraphObject.id), pageSize);
+	}
+
+	// ----- nested classes -----
+	private class PagedQueryIterator implements Iterator<T> {
+
+		private Iterator<T> current = Collections.emptyIterator();
+		private boolean exhausted   = false;
+		private String cursor       = "";
+
+		@Override
+		public boolean hasNext() {
+
+			while (!current.hasNext() && !exhausted) {
+
+				try {
+
+					final Result<T> result = querySupplier.get().pageSize(pageSize).cursor(cursor).getResult();
+
+					// a short page is the last one and has no cursor
+					cursor    = result.getNextCursor();
+					exhausted = cursor == null;
+					current   = result.getResults().iterator();
+
+				} catch (FrameworkException fex) {
+					throw new RuntimeException(fex);
+				}
+			}
+
+			return current.hasNext();
+		}
+
+		@Override
+		public T next() {
+
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			return current.next();
+		}
+	}
+}
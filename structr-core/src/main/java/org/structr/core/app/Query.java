@@ -54,6 +54,7 @@ public interface Query<T extends GraphObject> extends Iterable<T> {
 	public Query<T> comparator(final Comparator<T> comparator);
 	public Query<T> pageSize(final int pageSize);
 	public Query<T> page(final int page);
+	public Query<T> cursor(final String cursor);
 	public Query<T> publicOnly();
 	public Query<T> includeDeletedAndHidden();
 	public Query<T> publicOnly(final boolean publicOnly);
@@ -73,6 +74,8 @@ public interface Query<T extends GraphObject> extends Iterable<T> {
 	public Query<T> location(final String street, final String postalCode, final String city, final String state, final String country, final double distance);
 	public Query<T> location(final String street, final String house, final String postalCode, final String city, final String state, final String country, final double distance);
 
+	public Query<T> fulltext(final String searchString);
+
 	default public <P> Query<T> and(final String name, final P value) {
 
 		final PropertyKey<P> key = StructrApp.getConfiguration().getPropertyKeyForJSONName(getType(), name, false);
@@ -18,9 +18,13 @@
  */
 package org.structr.core.function;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.structr.common.SecurityContext;
 import org.structr.core.app.Query;
 import org.structr.schema.action.Function;
+import org.structr.schema.action.QueryMemo;
 
 /**
  * Abstract implementation of the basic functions of the Interface QueryFunction.
@@ -65,4 +69,35 @@ public abstract class AbstractQueryFunction extends Function<Object, Object> imp
 		this.start = -1;
 		this.end   = -1;
 	}
+
+	// ----- protected methods -----
+	/**
+	 * Returns the key under which the result of this function is stored
+	 * in the {@link QueryMemo}. Key-value pairs are sorted so that the
+	 * order in which they are given does not matter.
+	 *
+	 * @param securityContext the security context
+	 * @param sources the function parameters
+	 *
+	 * @return the key
+	 */
+	protected String getMemoKey(final SecurityContext securityContext, final Object[] sources) {
+
+		final Object type = sources.length > 0 ? sources[0] : null;
+
+		if (sources.length == 2) {
+
+			return QueryMemo.key(securityContext, getName(), type, sources[1], start, end);
+		}
+
+		final List<String> pairs = new ArrayList<>();
+
+		for (int c = 1; c + 1 < sources.length; c += 2) {
+			pairs.add(QueryMemo.key(null, sources[c], sources[c + 1]));
+		}
+
+		Collections.sort(pairs);
+
+		return QueryMemo.key(securityContext, getName(), type, pairs, start, end);
+	}
 }
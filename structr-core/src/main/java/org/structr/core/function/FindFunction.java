@@ -30,6 +30,7 @@ import org.structr.core.property.PropertyKey;
 import org.structr.core.property.PropertyMap;
 import org.structr.schema.ConfigurationProvider;
 import org.structr.schema.action.ActionContext;
+import org.structr.schema.action.QueryMemo;
 
 /**
  *
@@ -93,6 +94,15 @@ public class FindFunction extends AbstractQueryFunction {
 			// of large collections just for counting all the objects..
 			securityContext.ignoreResultCount(true);
 
+			// identical queries are evaluated only once per request
+			final QueryMemo memo    = ctx.getQueryMemo();
+			final String memoKey    = getMemoKey(securityContext, sources);
+			final Object memoResult = memo.get(memoKey);
+
+			if (memoResult != null) {
+				return memoResult;
+			}
+
 			// extension for native javascript objects
 			if (sources.length == 2 && sources[1] instanceof Map) {
 
@@ -110,7 +120,7 @@ public class FindFunction extends AbstractQueryFunction {
 
 				query.and(key, sources[1].toString());
 
-				return query.getFirst();
+				return memo.put(memoKey, query.getFirst());
 
 			} else {
 
@@ -144,7 +154,7 @@ public class FindFunction extends AbstractQueryFunction {
 				}
 			}
 
-			return query.getAsList();
+			return memo.put(memoKey, query.getAsList());
 
 		} catch (final IllegalArgumentException e) {
 
@@ -28,6 +28,7 @@ import org.structr.core.property.PropertyKey;
 import org.structr.core.property.PropertyMap;
 import org.structr.schema.ConfigurationProvider;
 import org.structr.schema.action.ActionContext;
+import org.structr.schema.action.QueryMemo;
 
 /**
  *
@@ -87,6 +88,15 @@ public class SearchFunction extends AbstractQueryFunction {
 			// of large collections just for counting all the objects..
 			securityContext.ignoreResultCount(true);
 
+			// identical queries are evaluated only once per request
+			final QueryMemo memo    = ctx.getQueryMemo();
+			final String memoKey    = getMemoKey(securityContext, sources);
+			final Object memoResult = memo.get(memoKey);
+
+			if (memoResult != null) {
+				return memoResult;
+			}
+
 			// extension for native javascript objects
 			if (sources.length == 2 && sources[1] instanceof Map) {
 
@@ -126,7 +136,7 @@ public class SearchFunction extends AbstractQueryFunction {
 			}
 
 			// return search results
-			return query.getAsList();
+			return memo.put(memoKey, query.getAsList());
 
 		} catch (final IllegalArgumentException e) {
 			logParameterError(caller, sources, ctx.isJavaScriptContext());
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import org.structr.api.DatabaseService;
+import org.structr.api.util.Iterables;
+import org.structr.common.AccessIndex;
+import org.structr.common.SecurityContext;
+import org.structr.common.StructrAndSpatialPredicate;
+import org.structr.common.error.ErrorBuffer;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.entity.AbstractNode;
+
+/**
+ * Rebuilds the {@link AccessIndex} for all nodes of the given type, or
+ * for all nodes if no type is given.
+ */
+public class BulkRebuildAccessIndexCommand extends NodeServiceCommand implements MaintenanceCommand, TransactionPostProcess {
+
+	@Override
+	public void execute(Map<String, Object> attributes) {
+
+		final String entityType                   = (String) attributes.get("type");
+		final DatabaseService graphDb             = (DatabaseService) arguments.get("graphDb");
+		final SecurityContext superUserContext    = SecurityContext.getSuperUserInstance();
+		final NodeFactory nodeFactory             = new NodeFactory(superUserContext);
+		final Iterator<AbstractNode> nodeIterator = Iterables.map(nodeFactory, Iterables.filter(new StructrAndSpatialPredicate(true, false, false), graphDb.getNodesByTypeProperty(entityType))).iterator();
+
+		if (entityType == null) {
+
+			info("Node type not set or no entity class found. Starting rebuild of access index for all nodes.");
+
+		} else {
+
+			info("Starting rebuild of access index for all nodes of type {}", entityType);
+		}
+
+		final long count = bulkGraphOperation(securityContext, nodeIterator, 10000, "RebuildAccessIndex", new BulkGraphOperation<AbstractNode>() {
+
+			@Override
+			public boolean handleGraphObject(SecurityContext securityContext, AbstractNode node) {
+
+				AccessIndex.update(node.getNode());
+
+				return true;
+			}
+
+			@Override
+			public void handleThrowable(SecurityContext securityContext, Throwable t, AbstractNode node) {
+				warn("Unable to rebuild access index for node {}: {}", node, t.getMessage());
+			}
+
+			@Override
+			public void handleTransactionFailure(SecurityContext securityContext, Throwable t) {
+				warn("Unable to rebuild access index: {}", t.getMessage());
+			}
+		});
+
+		info("Done with rebuilding access index of {} nodes", count);
+
+		// a rebuild for a single type does not cover nodes that were modified while the index was disabled
+		if (entityType == null && AccessIndex.isEnabled()) {
+
+			AccessIndex.rebuildFinished();
+
+		} else if (!AccessIndex.isReady()) {
+
+			info("Access index is not used until it has been rebuilt for all nodes while it is enabled.");
+		}
+	}
+
+	@Override
+	public boolean requiresEnclosingTransaction() {
+		return false;
+	}
+
+	// ----- interface TransactionPostProcess -----
+	@Override
+	public boolean execute(SecurityContext securityContext, ErrorBuffer errorBuffer) throws FrameworkException {
+
+		execute(Collections.EMPTY_MAP);
+
+		return true;
+	}
+
+	@Override
+	public boolean requiresFlushingOfCaches() {
+		return false;
+	}
+}
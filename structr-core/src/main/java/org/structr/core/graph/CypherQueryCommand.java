@@ -24,6 +24,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.DatabaseService;
@@ -45,7 +46,8 @@ import org.structr.core.property.GenericProperty;
  */
 public class CypherQueryCommand extends NodeServiceCommand {
 
-	private static final Logger logger = LoggerFactory.getLogger(CypherQueryCommand.class.getName());
+	private static final Logger logger        = LoggerFactory.getLogger(CypherQueryCommand.class.getName());
+	private static final Pattern WRITE_CLAUSE = Pattern.compile("\\b(CREATE|MERGE|SET|DELETE|REMOVE|DROP|CALL|FOREACH|LOAD)\\b", Pattern.CASE_INSENSITIVE);
 
 	//protected static final ThreadLocalExecutionEngine engine = new ThreadLocalExecutionEngine();
 
@@ -73,6 +75,11 @@ public class CypherQueryCommand extends NodeServiceCommand {
 		// graphdb can be null..
 		if (graphDb != null) {
 
+			// the query bypasses the modification queue, so writes must be registered explicitly
+			if (WRITE_CLAUSE.matcher(query).find()) {
+				TransactionCommand.registerUntrackedWrite();
+			}
+
 			try (final NativeResult result = graphDb.execute(query, parameters != null ? parameters : Collections.emptyMap())) {
 
 				while (result.hasNext()) {
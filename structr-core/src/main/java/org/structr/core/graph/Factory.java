@@ -56,6 +56,8 @@ public abstract class Factory<S, T extends GraphObject> implements Adapter<S, T>
 	protected FactoryDefinition factoryDefinition = StructrApp.getConfiguration().getFactoryDefinition();
 	protected FactoryProfile factoryProfile       = null;
 	protected boolean disablePaging               = false;
+	protected boolean accessFiltered              = false;
+	protected boolean countResults                = true;
 
 	public Factory(final SecurityContext securityContext) {
 
@@ -192,6 +194,26 @@ public abstract class Factory<S, T extends GraphObject> implements Adapter<S, T>
 		this.disablePaging = true;
 	}
 
+	/**
+	 * Indicates that the query result contains only readable objects,
+	 * so that objects outside of the requested page can be counted
+	 * without being instantiated.
+	 *
+	 * @param accessFiltered
+	 */
+	public void setAccessFiltered(final boolean accessFiltered) {
+		this.accessFiltered = accessFiltered;
+	}
+
+	/**
+	 * Stops reading the query result as soon as the requested page is
+	 * complete, so the overall count contains only the objects read so
+	 * far.
+	 */
+	public void disableResultCount() {
+		this.countResults = false;
+	}
+
 	protected Class<T> getClassForName(final String rawType) {
 		return SchemaHelper.getEntityClassForRawType(rawType);
 	}
@@ -222,6 +244,15 @@ public abstract class Factory<S, T extends GraphObject> implements Adapter<S, T>
 
 			for (final S item : tmp) {
 
+				// visibility has been checked by the database, only instantiate the requested page
+				if (accessFiltered && !disablePaging && (position < offset || position >= offset + pageSize)) {
+
+					overallCount++;
+					position++;
+
+					continue;
+				}
+
 				final T n = instantiate(item);
 				if (n != null) {
 
@@ -233,7 +264,7 @@ public abstract class Factory<S, T extends GraphObject> implements Adapter<S, T>
 						nodes.add(n);
 
 						// stop if we got enough nodes
-						if (++count == pageSize && dontCheckCount && !disablePaging) {
+						if (++count == pageSize && (dontCheckCount || !countResults) && !disablePaging) {
 							break;
 						}
 					}
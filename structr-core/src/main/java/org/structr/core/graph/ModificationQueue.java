@@ -23,6 +23,8 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -34,6 +36,7 @@ import org.structr.api.config.Settings;
 import org.structr.api.graph.Node;
 import org.structr.api.graph.Relationship;
 import org.structr.api.graph.RelationshipType;
+import org.structr.common.AccessIndex;
 import org.structr.common.RelType;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.ErrorBuffer;
@@ -56,6 +59,9 @@ public class ModificationQueue {
 	private final Map<String, TransactionPostProcess> postProcesses                         = new LinkedHashMap<>();
 	private final Set<String> alreadyPropagated                                             = new LinkedHashSet<>();
 	private final Set<String> synchronizationKeys                                           = new TreeSet<>();
+	private final List<Runnable> afterCommitActions                                         = new LinkedList<>();
+	private final Map<Long, Node> accessModifications                                       = new LinkedHashMap<>();
+	private boolean hasUntrackedWrites                                                      = false;
 
 	/**
 	 * Returns a set containing the different entity types of
@@ -71,6 +77,18 @@ public class ModificationQueue {
 		return modifications.size();
 	}
 
+	/**
+	 * Registers a write that is not reflected in this queue, e.g. a
+	 * Cypher statement that modifies the database directly.
+	 */
+	public void registerUntrackedWrite() {
+		this.hasUntrackedWrites = true;
+	}
+
+	public boolean hasUntrackedWrites() {
+		return hasUntrackedWrites;
+	}
+
 	public boolean doInnerCallbacks(final SecurityContext securityContext, final ErrorBuffer errorBuffer) throws FrameworkException {
 
 		long t0                  = System.currentTimeMillis();
@@ -143,6 +161,23 @@ public class ModificationQueue {
 		return true;
 	}
 
+	/**
+	 * Recalculates the access index of all nodes whose ownership or
+	 * security relationships were modified in this queue.
+	 */
+	public void updateAccessIndex() {
+
+		for (final Node node : accessModifications.values()) {
+
+			if (!isDeleted(node)) {
+
+				AccessIndex.update(node);
+			}
+		}
+
+		accessModifications.clear();
+	}
+
 	public void doOuterCallbacks(final SecurityContext securityContext) {
 
 		long t0 = System.currentTimeMillis();
@@ -158,6 +193,21 @@ public class ModificationQueue {
 		}
 	}
 
+	public void doAfterCommitActions() {
+
+		for (final Runnable action : afterCommitActions) {
+
+			try {
+				action.run();
+
+			} catch (Throwable t) {
+				logger.warn("Unable to execute after-commit action: {}", t.getMessage());
+			}
+		}
+
+		afterCommitActions.clear();
+	}
+
 	public void updateChangelog() {
 
 		if (Settings.ChangelogEnabled.getValue() && !modificationEvents.isEmpty()) {
@@ -192,6 +242,7 @@ public class ModificationQueue {
 		alreadyPropagated.clear();
 		modifications.clear();
 		modificationEvents.clear();
+		accessModifications.clear();
 	}
 
 	public void create(final Principal user, final NodeInterface node) {
@@ -237,6 +288,26 @@ public class ModificationQueue {
 		getState(node).modifyLocation();
 	}
 
+	public void modifyAccess(final NodeInterface node) {
+
+		if (node != null) {
+
+			if (AccessIndex.isEnabled()) {
+
+				final Node dbNode = node.getNode();
+				if (dbNode != null) {
+
+					accessModifications.put(dbNode.getId(), dbNode);
+				}
+
+			} else {
+
+				// the readers of this node are not updated, so the index is outdated
+				AccessIndex.invalidate();
+			}
+		}
+	}
+
 	public void modify(final Principal user, final NodeInterface node, final PropertyKey key, final Object previousValue, final Object newValue) {
 		getState(node).modify(user, key, previousValue, newValue);
 
@@ -248,6 +319,10 @@ public class ModificationQueue {
 	public void modify(final Principal user, RelationshipInterface relationship, PropertyKey key, Object previousValue, Object newValue) {
 		getState(relationship).modify(user, key, previousValue, newValue);
 
+		if (RelType.SECURITY.equals(relationship.getRelType())) {
+			modifyAccess(relationship.getTargetNodeAsSuperUser());
+		}
+
 		if (key != null && key.requiresSynchronization()) {
 			synchronizationKeys.add(key.getSynchronizationKey());
 		}
@@ -313,6 +388,10 @@ public class ModificationQueue {
 		}
 	}
 
+	public void afterCommit(final Runnable action) {
+		afterCommitActions.add(action);
+	}
+
 	public boolean isDeleted(final Node node) {
 
 		final GraphObjectModificationState state = modifications.get("N" + node.getId());
@@ -417,6 +496,7 @@ public class ModificationQueue {
 
 				modifyOwner(startNode);
 				modifyOwner(endNode);
+				modifyAccess(endNode);
 				return;
 			}
 
@@ -424,6 +504,7 @@ public class ModificationQueue {
 
 				modifySecurity(startNode);
 				modifySecurity(endNode);
+				modifyAccess(endNode);
 				return;
 			}
 
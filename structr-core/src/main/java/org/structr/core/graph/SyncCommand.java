@@ -20,6 +20,8 @@ package org.structr.core.graph;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -33,7 +35,10 @@ import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -43,15 +48,27 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.DatabaseService;
+import org.structr.api.NativeResult;
+import org.structr.api.RetryException;
 import org.structr.api.graph.Direction;
 import org.structr.api.graph.Label;
 import org.structr.api.graph.Node;
@@ -70,6 +87,7 @@ import org.structr.core.entity.AbstractNode;
 import org.structr.core.entity.AbstractRelationship;
 import org.structr.core.entity.AbstractSchemaNode;
 import org.structr.schema.SchemaHelper;
+import org.structr.schema.parser.DatePropertyParser;
 
 /**
  *
@@ -79,6 +97,12 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 
 	private static final Logger logger                = LoggerFactory.getLogger(SyncCommand.class.getName());
 	private static final String STRUCTR_ZIP_DB_NAME   = "db";
+	private static final String STRUCTR_ZIP_INFO_NAME = "sync.info";
+	private static final String NODE_SEGMENT_PREFIX   = "db-nodes-";
+	private static final String REL_SEGMENT_PREFIX    = "db-rels-";
+	private static final int DEFAULT_SEGMENT_SIZE     = 10000;
+	private static final int MAX_RETRIES              = 5;
+	private static final int UUID_MAP_SIZE            = 100000;
 
 	private static final Map<Class, Byte> typeMap     = new HashMap<>();
 	private static final Map<Byte, Class> classMap    = new HashMap<>();
@@ -119,7 +143,10 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 		String fileName         = (String)attributes.get("file");
 		String validate         = (String)attributes.get("validate");
 		String query            = (String)attributes.get("query");
-		Long batchSize          = (Long)attributes.get("batchSize");
+		Long batchSize          = getLongAttribute(attributes, "batchSize");
+		Long segmentSize        = getLongAttribute(attributes, "segmentSize");
+		Long threads            = getLongAttribute(attributes, "threads");
+		Long since              = parseSince(attributes.get("since"));
 		boolean doValidation    = true;
 
 		// should we validate imported nodes?
@@ -140,17 +167,22 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 			throw new FrameworkException(400, "Please specify sync file.");
 		}
 
+		// incremental exports are only supported in the segmented format
+		if (since != null && segmentSize == null) {
+			segmentSize = Long.valueOf(DEFAULT_SEGMENT_SIZE);
+		}
+
 		if ("export".equals(mode)) {
 
-			exportToFile(graphDb, fileName, query, true);
+			exportToFile(graphDb, fileName, query, true, since, segmentSize, threads);
 
 		} else if ("exportDb".equals(mode)) {
 
-			exportToFile(graphDb, fileName, query, false);
+			exportToFile(graphDb, fileName, query, false, since, segmentSize, threads);
 
 		} else if ("import".equals(mode)) {
 
-			importFromFile(graphDb, securityContext, fileName, doValidation, batchSize);
+			importFromFile(graphDb, securityContext, fileName, doValidation, batchSize, threads);
 
 		} else {
 
@@ -178,6 +210,26 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 	 * @throws FrameworkException
 	 */
 	public static void exportToFile(final DatabaseService graphDb, final String fileName, final String query, final boolean includeFiles) throws FrameworkException {
+		exportToFile(graphDb, fileName, query, includeFiles, null, null, null);
+	}
+
+	/**
+	 * Exports the whole structr database to a file with the given name. If
+	 * a segment size is given, the segmented format is written in which
+	 * nodes and relationships are serialized and compressed by parallel
+	 * workers. If a timestamp is given, only entities that were modified
+	 * after that timestamp are exported (incremental export).
+	 *
+	 * @param graphDb
+	 * @param fileName
+	 * @param query
+	 * @param includeFiles
+	 * @param since the modification timestamp for incremental exports, or null
+	 * @param segmentSize the number of entities per segment, or null for the single-entry format
+	 * @param threads the number of serialization workers, or null for the number of available processors
+	 * @throws FrameworkException
+	 */
+	public static void exportToFile(final DatabaseService graphDb, final String fileName, final String query, final boolean includeFiles, final Long since, final Long segmentSize, final Long threads) throws FrameworkException {
 
 		final App app = StructrApp.getInstance();
 
@@ -215,7 +267,7 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 
 			try (final FileOutputStream fos = new FileOutputStream(fileName)) {
 
-				exportToStream(fos, nodes, rels, null, conditionalIncludeFiles);
+				exportToStream(fos, nodes, rels, null, conditionalIncludeFiles, since, segmentSize, threads);
 			}
 
 			tx.success();
@@ -266,6 +318,24 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 	 * @throws FrameworkException
 	 */
 	public static void exportToStream(final OutputStream outputStream, final Iterable<? extends NodeInterface> nodes, final Iterable<? extends RelationshipInterface> relationships, final Iterable<String> filePaths, final boolean includeFiles) throws FrameworkException {
+		exportToStream(outputStream, nodes, relationships, filePaths, includeFiles, null, null, null);
+	}
+
+	/**
+	 * Exports the given part of the structr database to the given output
+	 * stream, optionally in the segmented and / or incremental format.
+	 *
+	 * @param outputStream
+	 * @param nodes
+	 * @param relationships
+	 * @param filePaths
+	 * @param includeFiles
+	 * @param since the modification timestamp for incremental exports, or null
+	 * @param segmentSize the number of entities per segment, or null for the single-entry format
+	 * @param threads the number of serialization workers, or null for the number of available processors
+	 * @throws FrameworkException
+	 */
+	public static void exportToStream(final OutputStream outputStream, final Iterable<? extends NodeInterface> nodes, final Iterable<? extends RelationshipInterface> relationships, final Iterable<String> filePaths, final boolean includeFiles, final Long since, final Long segmentSize, final Long threads) throws FrameworkException {
 
 		try (final ZipOutputStream zos = new ZipOutputStream(outputStream)) {
 
@@ -290,7 +360,14 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 			}
 
 			// export database
-			exportDatabase(zos, new BufferedOutputStream(zos), nodes, relationships);
+			if (segmentSize != null) {
+
+				exportSegmentedDatabase(zos, nodes, relationships, since, segmentSize.intValue(), getThreadCount(threads));
+
+			} else {
+
+				exportDatabase(zos, new BufferedOutputStream(zos), nodes, relationships);
+			}
 
 			// finish ZIP file
 			zos.finish();
@@ -312,10 +389,14 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 	}
 
 	public static void importFromFile(final DatabaseService graphDb, final SecurityContext securityContext, final String fileName, boolean doValidation, final Long batchSize) throws FrameworkException {
+		importFromFile(graphDb, securityContext, fileName, doValidation, batchSize, null);
+	}
+
+	public static void importFromFile(final DatabaseService graphDb, final SecurityContext securityContext, final String fileName, boolean doValidation, final Long batchSize, final Long threads) throws FrameworkException {
 
 		try (final InputStream fis = new FileInputStream(fileName)) {
 
-			importFromStream(graphDb, securityContext, fis, doValidation, batchSize);
+			importFromStream(graphDb, securityContext, fis, doValidation, batchSize, threads);
 
 		} catch (Throwable t) {
 
@@ -326,6 +407,20 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 	}
 
 	public static void importFromStream(final DatabaseService graphDb, final SecurityContext securityContext, final InputStream inputStream, boolean doValidation, final Long batchSize) throws FrameworkException {
+		importFromStream(graphDb, securityContext, inputStream, doValidation, batchSize, null);
+	}
+
+	public static void importFromStream(final DatabaseService graphDb, final SecurityContext securityContext, final InputStream inputStream, boolean doValidation, final Long batchSize, final Long threads) throws FrameworkException {
+
+		final Map<String, Long> uuidMap     = Collections.synchronizedMap(new LRUMap<>(UUID_MAP_SIZE));
+		final List<Future<Long>> nodeJobs   = new LinkedList<>();
+		final List<Future<Long>> relJobs    = new LinkedList<>();
+		final int threadCount               = getThreadCount(threads);
+		final long internalBatchSize        = batchSize != null ? batchSize : 200;
+		ExecutorService executor            = null;
+		boolean incremental                 = false;
+		boolean hasInfo                     = false;
+		double t0                           = System.nanoTime();
 
 		try (final ZipInputStream zis = new ZipInputStream(inputStream)) {
 
@@ -333,10 +428,54 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 
 			while (entry != null) {
 
-				if (STRUCTR_ZIP_DB_NAME.equals(entry.getName())) {
+				final String name = entry.getName();
+
+				if (STRUCTR_ZIP_DB_NAME.equals(name)) {
 
 					importDatabase(graphDb, securityContext, zis, doValidation, batchSize);
 
+				} else if (STRUCTR_ZIP_INFO_NAME.equals(name)) {
+
+					final Properties info = new Properties();
+
+					info.load(new ByteArrayInputStream(IOUtils.toByteArray(zis)));
+
+					incremental = info.getProperty("since") != null;
+					hasInfo     = true;
+
+					logger.info("Importing {} export created at {}", (incremental ? "incremental" : "full"), new Date(Long.valueOf(info.getProperty("exportedAt", "0"))));
+
+				} else if (name.startsWith(NODE_SEGMENT_PREFIX)) {
+
+					if (executor == null) {
+						executor = Executors.newFixedThreadPool(threadCount);
+					}
+
+					final byte[] data = IOUtils.toByteArray(zis);
+
+					nodeJobs.add(executor.submit(() -> importNodeSegment(graphDb, readSegment(data), uuidMap, doValidation, internalBatchSize)));
+
+					// limit the number of segments held in memory
+					waitForCompletion(nodeJobs, threadCount * 2);
+
+				} else if (name.startsWith(REL_SEGMENT_PREFIX)) {
+
+					if (executor == null) {
+						executor = Executors.newFixedThreadPool(threadCount);
+					}
+
+					// all nodes must be present before relationships can be created
+					waitForCompletion(nodeJobs, 0);
+
+					// merge if the export info is missing or comes after the segments (older exports)
+					final byte[] data          = IOUtils.toByteArray(zis);
+					final boolean mergeRels    = incremental || !hasInfo;
+
+					relJobs.add(executor.submit(() -> importRelationshipSegment(graphDb, readSegment(data), uuidMap, doValidation, internalBatchSize, mergeRels)));
+
+					// limit the number of segments held in memory
+					waitForCompletion(relJobs, threadCount * 2);
+
 				} else {
 
 					// store other files in "files" dir..
@@ -346,9 +485,29 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 				entry = zis.getNextEntry();
 			}
 
+			if (executor != null) {
+
+				waitForCompletion(nodeJobs, 0);
+				waitForCompletion(relJobs, 0);
+
+				rebuildSchemaAndLabels(securityContext);
+
+				double t1   = System.nanoTime();
+				double time = ((t1 - t0) / 1000000000.0);
+
+				DecimalFormat decimalFormat  = new DecimalFormat("0.000000000", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+				logger.info("Segmented import done in {} s", decimalFormat.format(time));
+			}
+
 		} catch (IOException ioex) {
 
 			logger.warn("", ioex);
+
+		} finally {
+
+			if (executor != null) {
+				executor.shutdownNow();
+			}
 		}
 	}
 
@@ -798,6 +957,19 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 
 		} while (!finished);
 
+		rebuildSchemaAndLabels(securityContext);
+
+		double t1   = System.nanoTime();
+		double time = ((t1 - t0) / 1000000000.0);
+
+		DecimalFormat decimalFormat  = new DecimalFormat("0.000000000", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+		logger.info("Import done in {} s", decimalFormat.format(time));
+	}
+
+	private static void rebuildSchemaAndLabels(final SecurityContext securityContext) throws FrameworkException {
+
+		final App app = StructrApp.getInstance();
+
 		// build schema
 		try (final Tx tx = app.tx()) {
 
@@ -813,12 +985,534 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 
 		// set correct labels after schema has been compiled
 		app.command(BulkCreateLabelsCommand.class).execute(params);
+	}
 
-		double t1   = System.nanoTime();
-		double time = ((t1 - t0) / 1000000000.0);
+	// ----- segmented format -----
+	private static void exportSegmentedDatabase(final ZipOutputStream zos, final Iterable<? extends NodeInterface> nodes, final Iterable<? extends RelationshipInterface> relationships, final Long since, final int segmentSize, final int threadCount) throws IOException, FrameworkException {
 
-		DecimalFormat decimalFormat  = new DecimalFormat("0.000000000", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
-		logger.info("Import done in {} s", decimalFormat.format(time));
+		final ExecutorService executor                = Executors.newFixedThreadPool(threadCount);
+		final LinkedList<Future<byte[]>> nodeSegments = new LinkedList<>();
+		final LinkedList<Future<byte[]>> relSegments  = new LinkedList<>();
+		final String uuidPropertyName                 = GraphObject.id.dbName();
+		final long exportedAt                         = System.currentTimeMillis();
+		List<SyncRecord> records                      = new ArrayList<>(segmentSize);
+		int nodeSegmentCount                          = 0;
+		int relSegmentCount                           = 0;
+		int nodeCount                                 = 0;
+		int relCount                                  = 0;
+
+		try {
+
+			// write export info first, the import needs to know whether the
+			// export is incremental before it reads the relationship segments
+			final Properties info = new Properties();
+
+			info.setProperty("exportedAt", Long.toString(exportedAt));
+
+			if (since != null) {
+				info.setProperty("since", Long.toString(since));
+			}
+
+			zos.putNextEntry(new ZipEntry(STRUCTR_ZIP_INFO_NAME));
+			info.store(zos, "Structr sync export");
+			zos.closeEntry();
+
+			for (final NodeInterface nodeObject : nodes) {
+
+				// skip schema
+				if (nodeObject instanceof AbstractSchemaNode) {
+					continue;
+				}
+
+				final Node node = nodeObject.getNode();
+
+				// ignore non-structr nodes and unmodified nodes in incremental mode
+				if (node.hasProperty(uuidPropertyName) && isModifiedSince(node, since)) {
+
+					// property values are read here because the database can
+					// only be accessed from the thread that owns the transaction
+					records.add(new SyncRecord('N', node));
+					nodeCount++;
+
+					if (records.size() >= segmentSize) {
+
+						nodeSegments.add(executor.submit(new SegmentWriter(records)));
+						records = new ArrayList<>(segmentSize);
+
+						// keep the number of segments in memory bounded
+						while (nodeSegments.size() > threadCount * 2) {
+							writeSegment(zos, NODE_SEGMENT_PREFIX, nodeSegmentCount++, nodeSegments.removeFirst());
+						}
+					}
+				}
+			}
+
+			if (!records.isEmpty()) {
+
+				nodeSegments.add(executor.submit(new SegmentWriter(records)));
+				records = new ArrayList<>(segmentSize);
+			}
+
+			// node segments must precede relationship segments in the archive
+			while (!nodeSegments.isEmpty()) {
+				writeSegment(zos, NODE_SEGMENT_PREFIX, nodeSegmentCount++, nodeSegments.removeFirst());
+			}
+
+			for (final RelationshipInterface relObject : relationships) {
+
+				final Relationship rel = relObject.getRelationship();
+
+				// ignore non-structr relationships and unmodified relationships in incremental mode
+				if (rel.hasProperty(uuidPropertyName) && isModifiedSince(rel, since)) {
+
+					final Node startNode = rel.getStartNode();
+					final Node endNode   = rel.getEndNode();
+
+					if (startNode.hasProperty(uuidPropertyName) && endNode.hasProperty(uuidPropertyName)) {
+
+						final SyncRecord record = new SyncRecord('R', rel);
+
+						record.startId = (String)startNode.getProperty(uuidPropertyName);
+						record.endId   = (String)endNode.getProperty(uuidPropertyName);
+						record.relType = rel.getType().name();
+
+						records.add(record);
+						relCount++;
+
+						if (records.size() >= segmentSize) {
+
+							relSegments.add(executor.submit(new SegmentWriter(records)));
+							records = new ArrayList<>(segmentSize);
+
+							// keep the number of segments in memory bounded
+							while (relSegments.size() > threadCount * 2) {
+								writeSegment(zos, REL_SEGMENT_PREFIX, relSegmentCount++, relSegments.removeFirst());
+							}
+						}
+					}
+				}
+			}
+
+			if (!records.isEmpty()) {
+				relSegments.add(executor.submit(new SegmentWriter(records)));
+			}
+
+			while (!relSegments.isEmpty()) {
+				writeSegment(zos, REL_SEGMENT_PREFIX, relSegmentCount++, relSegments.removeFirst());
+			}
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+
+		logger.info("Exported {} nodes and {} rels in {} segments", new Object[] { nodeCount, relCount, nodeSegmentCount + relSegmentCount } );
+	}
+
+	private static void writeSegment(final ZipOutputStream zos, final String prefix, final int index, final Future<byte[]> segment) throws IOException, FrameworkException {
+
+		try {
+
+			// segment data is already compressed by the worker, so it is stored as-is
+			final byte[] data    = segment.get();
+			final ZipEntry entry = new ZipEntry(prefix + String.format("%06d", index) + ".gz");
+			final CRC32 crc      = new CRC32();
+
+			crc.update(data);
+
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(data.length);
+			entry.setCompressedSize(data.length);
+			entry.setCrc(crc.getValue());
+
+			zos.putNextEntry(entry);
+			zos.write(data);
+			zos.closeEntry();
+
+		} catch (InterruptedException | ExecutionException ex) {
+
+			throw new FrameworkException(500, "Unable to write export segment: " + ex.getMessage());
+		}
+	}
+
+	private static List<SyncRecord> readSegment(final byte[] data) throws IOException {
+
+		final List<SyncRecord> records = new ArrayList<>();
+
+		try (final DataInputStream dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data))))) {
+
+			int objectType = dis.read();
+
+			while (objectType != -1) {
+
+				if (objectType == 'N' || objectType == 'R') {
+
+					final SyncRecord record = new SyncRecord((char)objectType);
+
+					if (objectType == 'R') {
+
+						record.startId = (String)deserialize(dis);
+						record.endId   = (String)deserialize(dis);
+						record.relType = (String)deserialize(dis);
+					}
+
+					// read key-value pairs until the end of the line, keys are
+					// always strings so a newline cannot be a type marker here
+					dis.mark(1);
+					int next = dis.read();
+
+					while (next != '\n' && next != -1) {
+
+						dis.reset();
+
+						final String key   = (String)deserialize(dis);
+						final Object value = deserialize(dis);
+
+						if (key != null && key.length() > 0 && value != null) {
+							record.properties.put(key, value);
+						}
+
+						dis.mark(1);
+						next = dis.read();
+					}
+
+					records.add(record);
+				}
+
+				objectType = dis.read();
+			}
+		}
+
+		return records;
+	}
+
+	private static long importNodeSegment(final DatabaseService graphDb, final List<SyncRecord> records, final Map<String, Long> uuidMap, final boolean doValidation, final long batchSize) throws FrameworkException {
+
+		final App app                 = StructrApp.getInstance();
+		final String uuidPropertyName = GraphObject.id.dbName();
+		final String typePropertyName = NodeInterface.type.dbName();
+		final int size                = records.size();
+		long count                    = 0;
+
+		for (int from=0; from<size; from+=batchSize) {
+
+			final List<SyncRecord> batch = records.subList(from, (int)Math.min(size, from + batchSize));
+			int retries                  = 0;
+			boolean retry                = true;
+
+			while (retry) {
+
+				retry = false;
+
+				try (final Tx tx = app.tx(doValidation)) {
+
+					final Map<String, Long> createdIds  = new HashMap<>();
+					final Set<String> uuids             = new LinkedHashSet<>();
+
+					for (final SyncRecord record : batch) {
+						uuids.add((String)record.properties.get(uuidPropertyName));
+					}
+
+					// nodes that already exist are updated instead of duplicated
+					final Map<String, Long> existingIds = lookupIds(graphDb, "MATCH (n:NodeInterface) WHERE n.`" + uuidPropertyName + "` IN {uuids} RETURN n.`" + uuidPropertyName + "` AS uuid, ID(n) AS id", uuids);
+
+					for (final SyncRecord record : batch) {
+
+						final String uuid     = (String)record.properties.get(uuidPropertyName);
+						final Long existingId = existingIds.get(uuid);
+						final Object type     = record.properties.get(typePropertyName);
+						final Node node;
+
+						if (existingId != null) {
+
+							node = graphDb.getNodeById(existingId);
+							node.setProperties(record.properties);
+
+						} else {
+
+							final Set<String> labels = type != null ? Collections.singleton(type.toString()) : Collections.emptySet();
+							node = graphDb.createNode(labels, record.properties);
+						}
+
+						createdIds.put(uuid, node.getId());
+					}
+
+					tx.success();
+
+					// publish mapping only after the transaction was committed successfully
+					uuidMap.putAll(createdIds);
+					count += batch.size();
+
+				} catch (RetryException rex) {
+
+					retry = ++retries < MAX_RETRIES;
+					if (!retry) {
+						throw new FrameworkException(500, "Unable to import node segment: " + rex.getMessage());
+					}
+				}
+			}
+		}
+
+		logger.info("Imported segment with {} nodes", count);
+
+		return count;
+	}
+
+	private static long importRelationshipSegment(final DatabaseService graphDb, final List<SyncRecord> records, final Map<String, Long> uuidMap, final boolean doValidation, final long batchSize, final boolean merge) throws FrameworkException {
+
+		final App app                 = StructrApp.getInstance();
+		final String uuidPropertyName = GraphObject.id.dbName();
+		final int size                = records.size();
+		long count                    = 0;
+
+		for (int from=0; from<size; from+=batchSize) {
+
+			final List<SyncRecord> batch = records.subList(from, (int)Math.min(size, from + batchSize));
+			int retries                  = 0;
+			boolean retry                = true;
+
+			while (retry) {
+
+				retry = false;
+
+				try (final Tx tx = app.tx(doValidation)) {
+
+					final Map<String, Long> nodeIds = new HashMap<>();
+					final Set<String> missingNodes  = new LinkedHashSet<>();
+
+					for (final SyncRecord record : batch) {
+
+						for (final String nodeId : new String[] { record.startId, record.endId }) {
+
+							final Long id = uuidMap.get(nodeId);
+							if (id != null) {
+
+								nodeIds.put(nodeId, id);
+
+							} else {
+
+								missingNodes.add(nodeId);
+							}
+						}
+					}
+
+					// the uuid map is bounded, so nodes can be missing from it even if they
+					// were part of this import, nodes of incremental imports are missing too
+					if (!missingNodes.isEmpty()) {
+						nodeIds.putAll(lookupIds(graphDb, "MATCH (n:NodeInterface) WHERE n.`" + uuidPropertyName + "` IN {uuids} RETURN n.`" + uuidPropertyName + "` AS uuid, ID(n) AS id", missingNodes));
+					}
+
+					final Map<String, Long> existingIds = merge ? lookupRelationshipIds(graphDb, batch, nodeIds) : Collections.emptyMap();
+
+					for (final SyncRecord record : batch) {
+
+						final Long existingId = existingIds.get((String)record.properties.get(uuidPropertyName));
+						if (existingId != null) {
+
+							graphDb.getRelationshipById(existingId).setProperties(record.properties);
+
+						} else {
+
+							final Long startNodeId = nodeIds.get(record.startId);
+							final Long endNodeId   = nodeIds.get(record.endId);
+
+							if (startNodeId != null && endNodeId != null) {
+
+								final Node startNode   = graphDb.getNodeById(startNodeId);
+								final Node endNode     = graphDb.getNodeById(endNodeId);
+								final Relationship rel = startNode.createRelationshipTo(endNode, RelationshipType.forName(record.relType));
+
+								rel.setProperties(record.properties);
+
+							} else {
+
+								logger.warn("NOT creating relationship of type {}, start: {}, end: {}", record.relType, record.startId, record.endId);
+							}
+						}
+					}
+
+					tx.success();
+
+					count += batch.size();
+
+				} catch (RetryException rex) {
+
+					retry = ++retries < MAX_RETRIES;
+					if (!retry) {
+						throw new FrameworkException(500, "Unable to import relationship segment: " + rex.getMessage());
+					}
+				}
+			}
+		}
+
+		logger.info("Imported segment with {} rels", count);
+
+		return count;
+	}
+
+	private static Map<String, Long> lookupIds(final DatabaseService graphDb, final String query, final Collection<String> uuids) {
+
+		final Map<String, Object> params = new HashMap<>();
+
+		params.put("uuids", new ArrayList<>(uuids));
+
+		return lookupIds(graphDb, query, params);
+	}
+
+	/**
+	 * Finds the existing relationships of the given records. The relationships
+	 * are expanded from their start nodes, which were already resolved by id, and
+	 * matched by end node, type and uuid, so that no relationship scan is needed.
+	 */
+	private static Map<String, Long> lookupRelationshipIds(final DatabaseService graphDb, final List<SyncRecord> records, final Map<String, Long> nodeIds) {
+
+		final String uuidPropertyName        = GraphObject.id.dbName();
+		final List<Map<String, Object>> rels = new ArrayList<>();
+		final Map<String, Object> params     = new HashMap<>();
+
+		for (final SyncRecord record : records) {
+
+			final Long startNodeId = nodeIds.get(record.startId);
+			final Long endNodeId   = nodeIds.get(record.endId);
+
+			// relationships between nodes that do not exist can not exist either
+			if (startNodeId != null && endNodeId != null) {
+
+				final Map<String, Object> rel = new HashMap<>();
+
+				rel.put("start", startNodeId);
+				rel.put("end",   endNodeId);
+				rel.put("type",  record.relType);
+				rel.put("uuid",  record.properties.get(uuidPropertyName));
+
+				rels.add(rel);
+			}
+		}
+
+		if (rels.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		params.put("rels", rels);
+
+		return lookupIds(graphDb, "UNWIND {rels} AS rel MATCH (s)-[r]->(e) WHERE ID(s) = rel.start AND ID(e) = rel.end AND type(r) = rel.type AND r.`" + uuidPropertyName + "` = rel.uuid RETURN r.`" + uuidPropertyName + "` AS uuid, ID(r) AS id", params);
+	}
+
+	private static Map<String, Long> lookupIds(final DatabaseService graphDb, final String query, final Map<String, Object> params) {
+
+		final Map<String, Long> ids = new HashMap<>();
+
+		try (final NativeResult result = graphDb.execute(query, params)) {
+
+			while (result.hasNext()) {
+
+				final Map<String, Object> row = result.next();
+				final Object uuid             = row.get("uuid");
+				final Object id               = row.get("id");
+
+				if (uuid != null && id instanceof Number) {
+					ids.put(uuid.toString(), ((Number)id).longValue());
+				}
+			}
+		}
+
+		return ids;
+	}
+
+	private static void waitForCompletion(final List<Future<Long>> jobs, final int maxPending) throws FrameworkException {
+
+		try {
+
+			while (jobs.size() > maxPending) {
+
+				// propagate errors of the worker threads
+				jobs.remove(0).get();
+			}
+
+		} catch (InterruptedException | ExecutionException ex) {
+
+			logger.warn("", ex);
+			throw new FrameworkException(500, "Import failed: " + ex.getMessage());
+		}
+	}
+
+	private static boolean isModifiedSince(final PropertyContainer propertyContainer, final Long since) {
+
+		if (since == null) {
+			return true;
+		}
+
+		final Object lastModified = propertyContainer.getProperty(GraphObject.lastModifiedDate.dbName());
+		if (lastModified instanceof Number) {
+
+			return ((Number)lastModified).longValue() > since;
+		}
+
+		// include entities without modification date to be safe
+		return true;
+	}
+
+	private static int getThreadCount(final Long threads) {
+
+		if (threads != null && threads > 0) {
+			return threads.intValue();
+		}
+
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	private static Long getLongAttribute(final Map<String, Object> attributes, final String key) throws FrameworkException {
+
+		final Object value = attributes.get(key);
+
+		if (value instanceof Number) {
+			return ((Number)value).longValue();
+		}
+
+		if (value instanceof String) {
+
+			try {
+				return Long.valueOf((String)value);
+
+			} catch (NumberFormatException nex) {
+
+				throw new FrameworkException(400, "Invalid value for parameter " + key + ": " + value);
+			}
+		}
+
+		return null;
+	}
+
+	private static Long parseSince(final Object value) throws FrameworkException {
+
+		if (value instanceof Number) {
+			return ((Number)value).longValue();
+		}
+
+		if (value instanceof Date) {
+			return ((Date)value).getTime();
+		}
+
+		if (value instanceof String) {
+
+			final String source = (String)value;
+
+			try {
+				return Long.valueOf(source);
+
+			} catch (NumberFormatException nex) {
+
+				final Date date = DatePropertyParser.parseISO8601DateString(source);
+				if (date != null) {
+
+					return date.getTime();
+				}
+
+				throw new FrameworkException(400, "Invalid value for parameter since: " + source);
+			}
+		}
+
+		return null;
 	}
 
 	private static Object readObject(final DataInputStream inputStream, final byte type) throws IOException {
@@ -1055,6 +1749,77 @@ public class SyncCommand extends NodeServiceCommand implements MaintenanceComman
 		return groupedNodes;
 	}
 
+	/**
+	 * A snapshot of a single node or relationship, taken in the exporting
+	 * thread so that the serialization can be done by worker threads.
+	 */
+	private static class SyncRecord {
+
+		private final Map<String, Object> properties = new LinkedHashMap<>();
+		private char objectType                      = 'N';
+		private String startId                       = null;
+		private String endId                         = null;
+		private String relType                       = null;
+
+		public SyncRecord(final char objectType) {
+			this.objectType = objectType;
+		}
+
+		public SyncRecord(final char objectType, final PropertyContainer propertyContainer) {
+
+			this(objectType);
+
+			for (final String key : propertyContainer.getPropertyKeys()) {
+				properties.put(key, propertyContainer.getProperty(key));
+			}
+		}
+
+		public void write(final DataOutputStream dos) throws IOException {
+
+			dos.write(objectType);
+
+			if (objectType == 'R') {
+
+				serialize(dos, startId);
+				serialize(dos, endId);
+				serialize(dos, relType);
+			}
+
+			for (final Entry<String, Object> entry : properties.entrySet()) {
+
+				serialize(dos, entry.getKey());
+				serialize(dos, entry.getValue());
+			}
+
+			// do not use platform-specific line ending here!
+			dos.write('\n');
+		}
+	}
+
+	private static class SegmentWriter implements Callable<byte[]> {
+
+		private List<SyncRecord> records = null;
+
+		public SegmentWriter(final List<SyncRecord> records) {
+			this.records = records;
+		}
+
+		@Override
+		public byte[] call() throws Exception {
+
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+			try (final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(buffer)))) {
+
+				for (final SyncRecord record : records) {
+					record.write(dos);
+				}
+			}
+
+			return buffer.toByteArray();
+		}
+	}
+
 	private static class EndNodes implements Function<Relationship, Node> {
 
 		@Override
@@ -30,6 +30,7 @@ import org.structr.api.NetworkException;
 import org.structr.api.NotInTransactionException;
 import org.structr.api.graph.Node;
 import org.structr.api.graph.Relationship;
+import org.structr.api.metrics.Metrics;
 import org.structr.common.error.DatabaseServiceNetworkException;
 import org.structr.common.error.DatabaseServiceNotAvailableException;
 import org.structr.common.error.ErrorBuffer;
@@ -40,6 +41,7 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.entity.AbstractNode;
 import org.structr.core.entity.Principal;
 import org.structr.core.property.PropertyKey;
+import org.structr.schema.action.QueryMemo;
 
 /**
  * Graph service command for database operations that need to be wrapped in
@@ -96,6 +98,7 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 
 			final ModificationQueue modificationQueue = queues.get();
 			final ErrorBuffer errorBuffer             = buffers.get();
+			long t0                                   = System.nanoTime();
 
 			// 0.5: let transaction listeners examine (and prevent?) commit
 			for (final StructrTransactionListener listener : listeners) {
@@ -109,6 +112,12 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 				throw new FrameworkException(422, "Unable to commit transaction, validation failed", errorBuffer);
 			}
 
+			// 1.5. update access index of nodes with modified ownership or grants
+			modificationQueue.updateAccessIndex();
+
+			Metrics.record(Metrics.CATEGORY_TRANSACTION, "callbacks", t0);
+			t0 = System.nanoTime();
+
 			// 2. fetch all types of entities modified in this tx
 			Set<String> synchronizationKeys = modificationQueue.getSynchronizationKeys();
 
@@ -117,6 +126,9 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 			// 3. acquire semaphores for each modified type
 			try { semaphore.acquire(synchronizationKeys); } catch (InterruptedException iex) { return; }
 
+			Metrics.record(Metrics.CATEGORY_TRANSACTION, "lock", t0);
+			t0 = System.nanoTime();
+
 			// do validation under the protection of the semaphores for each type
 			if (doValidation && !modificationQueue.doValidation(securityContext, errorBuffer, doValidation)) {
 
@@ -126,6 +138,9 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 				throw new FrameworkException(422, "Unable to commit transaction, validation failed", errorBuffer);
 			}
 
+			Metrics.record(Metrics.CATEGORY_TRANSACTION, "validation", t0);
+			t0 = System.nanoTime();
+
 			// finally: execute validatable post-transaction action
 			if (!modificationQueue.doPostProcessing(securityContext, errorBuffer)) {
 
@@ -133,6 +148,8 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 				throw new FrameworkException(422, "Unable to commit transaction, transaction post processing failed", errorBuffer);
 			}
 
+			Metrics.record(Metrics.CATEGORY_TRANSACTION, "postProcessing", t0);
+
 			try {
 				tx.success();
 
@@ -161,11 +178,20 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 				currentCommand.remove();
 				transactions.remove();
 
+				final long t0 = System.nanoTime();
+
 				try {
 					tx.close();
 
 				} finally {
 
+					Metrics.record(Metrics.CATEGORY_TRANSACTION, "commit", t0);
+
+					// memoized query results of other transactions may be stale now
+					if (modificationQueue.getSize() > 0 || modificationQueue.hasUntrackedWrites()) {
+						QueryMemo.invalidateAll();
+					}
+
 					// release semaphores as the transaction is now finished
 					semaphore.release(synchronizationKeys);	// careful: this can be null
 				}
@@ -236,6 +262,30 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 
 	}
 
+	/**
+	 * Registers an action that is executed after the current transaction
+	 * has been committed successfully. Actions registered in a transaction
+	 * that is rolled back are discarded.
+	 *
+	 * @param action the action to execute
+	 * @return true if the action was registered, false if there is no current transaction
+	 */
+	public static boolean afterCommit(final Runnable action) {
+
+		final TransactionCommand command = currentCommand.get();
+		if (command != null) {
+
+			final ModificationQueue modificationQueue = command.getModificationQueue();
+			if (modificationQueue != null) {
+
+				modificationQueue.afterCommit(action);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	public static void nodeCreated(final Principal user, final NodeInterface node) {
 
 		TransactionCommand command = currentCommand.get();
@@ -299,6 +349,19 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 		}
 	}
 
+	public static void accessModified(final NodeInterface node) {
+
+		final TransactionCommand command = currentCommand.get();
+		if (command != null) {
+
+			final ModificationQueue modificationQueue = command.getModificationQueue();
+			if (modificationQueue != null) {
+
+				modificationQueue.modifyAccess(node);
+			}
+		}
+	}
+
 	public static void relationshipCreated(final Principal user, final RelationshipInterface relationship) {
 
 		TransactionCommand command = currentCommand.get();
@@ -413,6 +476,32 @@ public class TransactionCommand extends NodeServiceCommand implements AutoClosea
 		return currentCommand.get() != null;
 	}
 
+	public static TransactionReference getCurrentTransaction() {
+		return transactions.get();
+	}
+
+	public static boolean hasModifications() {
+
+		final ModificationQueue modificationQueue = queues.get();
+		if (modificationQueue != null) {
+
+			return modificationQueue.getSize() > 0 || modificationQueue.hasUntrackedWrites();
+		}
+
+		return false;
+	}
+
+	public static void registerUntrackedWrite() {
+
+		final ModificationQueue modificationQueue = queues.get();
+		if (modificationQueue != null) {
+
+			modificationQueue.registerUntrackedWrite();
+		}
+
+		QueryMemo.invalidateAll();
+	}
+
 	public static boolean isDeleted(final Node node) {
 
 		if (!inTransaction()) {
@@ -21,6 +21,7 @@ package org.structr.core.graph;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.structr.api.RetryException;
+import org.structr.api.metrics.Metrics;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.StructrTransactionListener;
@@ -78,6 +79,7 @@ public class Tx implements AutoCloseable {
 
 		if (success && guard.compareAndSet(false, true)) {
 
+			final long t0  = System.nanoTime();
 			boolean retry  = true;
 			while (retry) {
 
@@ -111,8 +113,14 @@ public class Tx implements AutoCloseable {
 				}
 			}
 
+			Metrics.record(Metrics.CATEGORY_TRANSACTION, "afterCommit", t0);
+
 			guard.set(false);
 		}
+
+		if (success && modificationQueue != null) {
+			modificationQueue.doAfterCommitActions();
+		}
 	}
 
 	public void setSource(final TransactionSource source) {
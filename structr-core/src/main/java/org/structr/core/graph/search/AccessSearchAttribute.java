@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph.search;
+
+import java.util.List;
+import org.structr.api.search.AccessQuery;
+import org.structr.api.search.Occurrence;
+import org.structr.common.AccessIndex;
+import org.structr.core.GraphObject;
+
+/**
+ * Search attribute that restricts a node search to the nodes that are
+ * readable by the given principals, based on the {@link AccessIndex}.
+ */
+public class AccessSearchAttribute extends SearchAttribute<String> implements AccessQuery {
+
+	private List<String> principalIds       = null;
+	private String principalId              = null;
+	private boolean includeDeletedAndHidden = true;
+
+	public AccessSearchAttribute(final String principalId, final List<String> principalIds, final boolean includeDeletedAndHidden) {
+
+		super(Occurrence.REQUIRED);
+
+		this.includeDeletedAndHidden = includeDeletedAndHidden;
+		this.principalIds            = principalIds;
+		this.principalId             = principalId;
+	}
+
+	@Override
+	public String toString() {
+		return "AccessSearchAttribute(" + principalId + ", " + principalIds + ")";
+	}
+
+	@Override
+	public Class getQueryType() {
+		return AccessQuery.class;
+	}
+
+	@Override
+	public String getName() {
+		return AccessIndex.READERS_KEY;
+	}
+
+	@Override
+	public boolean isExactMatch() {
+		return true;
+	}
+
+	@Override
+	public boolean includeInResult(final GraphObject entity) {
+
+		// readability of instantiated objects is checked by the factory
+		return true;
+	}
+
+	// ----- interface AccessQuery -----
+	@Override
+	public String getPrincipalId() {
+		return principalId;
+	}
+
+	@Override
+	public List<String> getPrincipalIds() {
+		return principalIds;
+	}
+
+	@Override
+	public boolean includeDeletedAndHidden() {
+		return includeDeletedAndHidden;
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.graph.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.structr.api.config.Settings;
+import org.structr.api.search.Occurrence;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.NodeInterface;
+
+/**
+ * Represents a ranked search in the fulltext index. The result of this
+ * source attribute is ordered by descending relevance.
+ */
+public class FulltextSearchAttribute extends SourceSearchAttribute<String> {
+
+	private final Map<String, Double> scores = new LinkedHashMap<>();
+	private String searchString              = null;
+
+	public FulltextSearchAttribute(final String searchString, final Occurrence occur) {
+
+		super(occur);
+
+		this.searchString = searchString;
+	}
+
+	@Override
+	public String toString() {
+		return "FulltextSearchAttribute(" + searchString + ")";
+	}
+
+	@Override
+	public String getValue() {
+		return searchString;
+	}
+
+	/**
+	 * Queries the fulltext index and resolves the ranked UUIDs to nodes
+	 * that are visible in the given security context and have one of the
+	 * given types. The maximum number of results is applied to the nodes
+	 * that pass these checks, not to the raw index hits.
+	 *
+	 * @param securityContext
+	 * @param types the search types, or an empty set to allow all types
+	 * @throws FrameworkException
+	 */
+	public void search(final SecurityContext securityContext, final Set<Class> types) throws FrameworkException {
+
+		final App app        = StructrApp.getInstance(securityContext);
+		final int maxResults = Settings.IndexingMaxResults.getValue();
+
+		for (final Entry<String, Double> entry : app.getFulltextIndexer().search(searchString, Integer.MAX_VALUE).entrySet()) {
+
+			if (scores.size() >= maxResults) {
+				break;
+			}
+
+			final NodeInterface node = app.getNodeById(entry.getKey());
+			if (node != null && hasType(node, types)) {
+
+				scores.put(entry.getKey(), entry.getValue());
+				addToResult(node);
+			}
+		}
+	}
+
+	public Double getScore(final GraphObject obj) {
+		return scores.get(obj.getUuid());
+	}
+
+	// ----- private methods -----
+	private boolean hasType(final NodeInterface node, final Set<Class> types) {
+
+		if (types.isEmpty()) {
+			return true;
+		}
+
+		for (final Class type : types) {
+
+			if (type.isAssignableFrom(node.getClass())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
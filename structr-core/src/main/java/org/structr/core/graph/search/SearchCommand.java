@@ -35,9 +35,11 @@ import org.structr.api.graph.PropertyContainer;
 import org.structr.api.index.Index;
 import org.structr.api.search.Occurrence;
 import org.structr.api.search.QueryContext;
-import org.structr.common.GraphObjectComparator;
+import org.structr.common.AccessIndex;
+import org.structr.common.PagingCursor;
 import org.structr.common.PagingHelper;
 import org.structr.common.SecurityContext;
+import org.structr.common.SortHelper;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.geo.GeoCodingResult;
 import org.structr.common.geo.GeoHelper;
@@ -46,6 +48,7 @@ import org.structr.core.Result;
 import org.structr.core.app.StructrApp;
 import org.structr.core.entity.AbstractNode;
 import org.structr.core.entity.AbstractRelationship;
+import org.structr.core.entity.Principal;
 import org.structr.core.graph.Factory;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.NodeServiceCommand;
@@ -78,6 +81,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 	public static final String DISTANCE_SEARCH_KEYWORD    = "distance";
 	public static final String CITY_SEARCH_KEYWORD        = "city";
 	public static final String STREET_SEARCH_KEYWORD      = "street";
+	public static final String FULLTEXT_SEARCH_KEYWORD    = "fulltext";
 
 	static {
 
@@ -96,6 +100,8 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 	private boolean sortDescending               = false;
 	private boolean doNotSort                    = false;
 	private Class type                           = null;
+	private Set<Class> searchTypes               = new LinkedHashSet<>();
+	private String cursor                        = null;
 	private int pageSize                         = Integer.MAX_VALUE;
 	private int page                             = 1;
 	private QueryContext queryContext            = new QueryContext();
@@ -111,9 +117,37 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 			return Result.EMPTY_RESULT;
 		}
 
-		final Factory<S, T> factory  = getFactory(securityContext, includeDeletedAndHidden, publicOnly, pageSize, page);
+		int actualPage = page;
+
+		if (cursor != null) {
+
+			final PagingCursor position = PagingCursor.parse(cursor);
+			if (position != null) {
+
+				if (!position.matches(doNotSort ? null : sortKey, sortDescending)) {
+					throw new FrameworkException(400, "Cursor does not match the sort order of the query");
+				}
+
+				queryContext.seek(position.getValue(), position.getId());
+
+			} else {
+
+				// empty cursor: first page
+				queryContext.seek(null, null);
+			}
+
+			// the database skips the previous pages, so we always need the first page of the result
+			actualPage = 1;
+		}
+
+		final Factory<S, T> factory  = getFactory(securityContext, includeDeletedAndHidden, publicOnly, pageSize, actualPage);
 		boolean hasGraphSources      = false;
 		boolean hasSpatialSource     = false;
+		boolean hasFulltextSource    = false;
+
+		if (cursor != null) {
+			factory.disableResultCount();
+		}
 
 		if (securityContext.getUser(false) == null && !isRelationshipSearch()) {
 
@@ -123,6 +157,13 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 
 			rootGroup.add(new RelationshipVisibilitySearchAttribute());
 
+		} else if (!isRelationshipSearch() && !publicOnly && AccessIndex.canFilter(securityContext) && !hasCustomPermissionCheck()) {
+
+			final Principal user = securityContext.getUser(false);
+
+			// let the database filter, count and page the visible nodes
+			rootGroup.add(new AccessSearchAttribute(user.getUuid(), AccessIndex.getPrincipalIds(user), includeDeletedAndHidden));
+			factory.setAccessFiltered(true);
 		}
 
 		// special handling of deleted and hidden flags
@@ -150,6 +191,13 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 				for (final Iterator<SearchAttribute> groupIterator = ((SearchAttributeGroup)attr).getSearchAttributes().iterator(); groupIterator.hasNext();) {
 
 					final SearchAttribute item = groupIterator.next();
+					if (item instanceof FulltextSearchAttribute) {
+
+						((FulltextSearchAttribute)item).search(securityContext, searchTypes);
+
+						hasFulltextSource = true;
+					}
+
 					if (item instanceof SourceSearchAttribute) {
 
 						sources.add((SourceSearchAttribute)item);
@@ -183,6 +231,14 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 				hasSpatialSource = true;
 			}
 
+			// query fulltext index
+			if (attr instanceof FulltextSearchAttribute) {
+
+				((FulltextSearchAttribute)attr).search(securityContext, searchTypes);
+
+				hasFulltextSource = true;
+			}
+
 			// store source attributes for later use
 			if (attr instanceof SourceSearchAttribute) {
 
@@ -200,6 +256,11 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 			}
 		}
 
+		// seek paging needs a result that is filtered and sorted by the database
+		if (cursor != null && (comparator != null || hasGraphSources || hasSpatialSource || hasFulltextSource)) {
+			throw new FrameworkException(400, "Cursor paging is not supported for this query");
+		}
+
 		// only do "normal" query if no other sources are present
 		// use filters to filter sources otherwise
 		if (!hasSpatialSource && !sources.isEmpty()) {
@@ -233,7 +294,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 
 					Collections.sort(rawResult, comparator);
 
-					return new Result(PagingHelper.subList(rawResult, pageSize, page), rawResult.size(), true, false);
+					return new Result(PagingHelper.subList(rawResult, pageSize, actualPage), rawResult.size(), true, false);
 				}
 			}
 		}
@@ -284,11 +345,15 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 				}
 			}
 
-			// sort list
-			Collections.sort(finalResult, new GraphObjectComparator(sortKey, sortDescending));
+			// sort list and return paged final result, fulltext results are already ranked by relevance
+			if (sortKey != null) {
 
-			// return paged final result
-			return new Result(PagingHelper.subList(finalResult, pageSize, page), resultCount, true, false);
+				final List<SortHelper.Order> orders = Collections.singletonList(new SortHelper.Order(sortKey, sortDescending));
+
+				return new Result(PagingHelper.sortedSubList(finalResult, orders, SortHelper.getCollator(securityContext), pageSize, actualPage), resultCount, true, false);
+			}
+
+			return new Result(PagingHelper.subList(finalResult, pageSize, actualPage), resultCount, true, false);
 
 		} else {
 
@@ -297,6 +362,22 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 		}
 	}
 
+	private boolean hasCustomPermissionCheck() {
+
+		if (searchTypes.isEmpty()) {
+			return AccessIndex.hasCustomPermissionCheck(null);
+		}
+
+		for (final Class searchType : searchTypes) {
+
+			if (AccessIndex.hasCustomPermissionCheck(searchType)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	private Set<GraphObject> mergeSources(List<SourceSearchAttribute> sources) {
 
 		final Set<GraphObject> mergedResult = new LinkedHashSet<>();
@@ -338,7 +419,18 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 
 	@Override
 	public Result<T> getResult() throws FrameworkException {
-		return doSearch();
+
+		final Result<T> result = doSearch();
+
+		// a full page can be followed by more results
+		if (cursor != null && pageSize < Integer.MAX_VALUE && result.size() >= pageSize) {
+
+			final T last = result.get(result.size() - 1);
+
+			result.setNextCursor(PagingCursor.after(last, doNotSort ? null : sortKey, sortDescending).toString());
+		}
+
+		return result;
 	}
 
 	@Override
@@ -432,6 +524,12 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 		return this;
 	}
 
+	@Override
+	public org.structr.core.app.Query<T> cursor(final String cursor) {
+		this.cursor = cursor;
+		return this;
+	}
+
 	@Override
 	public org.structr.core.app.Query<T> publicOnly() {
 		this.publicOnly = true;
@@ -468,6 +566,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 	public org.structr.core.app.Query<T> andType(final Class type) {
 
 		this.type = type;
+		searchTypes.add(type);
 
 		currentGroup.getSearchAttributes().add(new TypeSearchAttribute(type, Occurrence.REQUIRED, true));
 		return this;
@@ -477,6 +576,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 	public org.structr.core.app.Query<T> orType(final Class type) {
 
 		this.type = type;
+		searchTypes.add(type);
 
 		currentGroup.getSearchAttributes().add(new TypeSearchAttribute(type, Occurrence.OPTIONAL, true));
 		return this;
@@ -539,6 +639,12 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 		return this;
 	}
 
+	@Override
+	public org.structr.core.app.Query<T> fulltext(final String searchString) {
+		currentGroup.getSearchAttributes().add(new FulltextSearchAttribute(searchString, Occurrence.REQUIRED));
+		return this;
+	}
+
 	@Override
 	public <P> org.structr.core.app.Query<T> and(final PropertyKey<P> key, final P value) {
 
@@ -738,6 +844,7 @@ public abstract class SearchCommand<S extends PropertyContainer, T extends Graph
 	// ----- static methods -----
 	public static synchronized void clearInheritanceMap() {
 		subtypeMapForType.clear();
+		AccessIndex.clearCache();
 	}
 
 	public static synchronized Set<String> getAllSubtypesAsStringSet(final String type) {
@@ -336,13 +336,14 @@ public class PropertyMap {
 		if (batchType.equals(source.get("type"))) {
 
 			// only to batching if a type is set for which batch is enable
-			final Integer count   = securityContext.getAttribute("objectCount", 0);
-			final Integer overall = securityContext.getAttribute("overallCount", 0);
+			final Integer batchSize = securityContext.getAttribute("batchSize", 100);
+			final Integer count     = securityContext.getAttribute("objectCount", 0);
+			final Integer overall   = securityContext.getAttribute("overallCount", 0);
 
 			securityContext.setAttribute("objectCount",  count   + 1);
 			securityContext.setAttribute("overallCount", overall + 1);
 
-			if (count == 100) {
+			if (count >= batchSize) {
 
 				final Tx tx = (Tx)securityContext.getAttribute("currentTransaction");
 				if (tx != null) {
@@ -25,10 +25,24 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
 import org.structr.common.error.FrameworkException;
 
+/**
+ * Manages the queue of import and script jobs. Queued jobs are started
+ * by priority (and fair share among users for equal priorities) as long
+ * as the configured limits for the overall number of jobs, the number of
+ * jobs per type and the free heap memory allow it.
+ *
+ * All changes to the queued and active jobs are made while holding the
+ * lock of the manager, so the limits are checked against a consistent
+ * state.
+ */
 public class JobQueueManager {
 
+	private static final Logger logger               = LoggerFactory.getLogger(JobQueueManager.class.getName());
 	private static JobQueueManager singletonInstance = null;
 
 	private final Map<Long, ScheduledJob> queuedJobs  = new ConcurrentHashMap<>();
@@ -41,7 +55,7 @@ public class JobQueueManager {
 	/*
 	 * Public API
 	 */
-	public static JobQueueManager getInstance() {
+	public static synchronized JobQueueManager getInstance() {
 
 		if (singletonInstance == null) {
 			singletonInstance = new JobQueueManager();
@@ -57,16 +71,20 @@ public class JobQueueManager {
 			final Long jobId = importJobIdCount.incrementAndGet();
 			job.setJobId(jobId);
 
-			appendToQueueInternal(job);
+			final boolean queued;
 
-			if (!hasRunningJobs()) {
+			synchronized (this) {
 
-				startNextJobInQueue();
+				appendToQueueInternal(job);
 
-			} else {
+				startQueuedJobs();
 
-				job.reportQueued();
+				queued = queuedJobs.containsKey(jobId);
+			}
 
+			if (queued) {
+
+				job.reportQueued();
 			}
 		}
 	}
@@ -77,7 +95,7 @@ public class JobQueueManager {
 	 * @param jobId Job to start
 	 * @return boolean "job started"
 	 */
-	public boolean startJob(final Long jobId) {
+	public synchronized boolean startJob(final Long jobId) {
 
 		final ScheduledJob job = removeFromQueueInternal(jobId);
 
@@ -102,7 +120,7 @@ public class JobQueueManager {
 		activeJobs.get(jobId).abortJob();
 	}
 
-	public void cancelQueuedJob(final Long jobId) {
+	public synchronized void cancelQueuedJob(final Long jobId) {
 		removeFromQueueInternal(jobId);
 	}
 
@@ -122,27 +140,26 @@ public class JobQueueManager {
 	}
 
 	private void addJobToList (final List<Map<String, Object>> list, final ScheduledJob job) {
-		list.add(job.getJobInfo());
+
+		final Map<String, Object> jobInfo = job.getJobInfo();
+
+		jobInfo.putAll(job.getMetrics());
+
+		list.add(jobInfo);
 	}
 
-	protected void jobFinished (final ScheduledJob job) {
+	protected synchronized void jobFinished (final ScheduledJob job) {
 
 		activeJobs.remove(job.jobId());
 
-		if (!hasRunningJobs()) {
-			startNextJobInQueue();
-		}
-
+		startQueuedJobs();
 	}
 
-	protected void jobAborted (final ScheduledJob job) {
+	protected synchronized void jobAborted (final ScheduledJob job) {
 
 		activeJobs.remove(job.jobId());
 
-		if (!hasRunningJobs()) {
-			startNextJobInQueue();
-		}
-
+		startQueuedJobs();
 	}
 
 
@@ -158,35 +175,78 @@ public class JobQueueManager {
 		return queuedJobs.remove(jobId);
 	}
 
-	private boolean hasRunningJobs() {
+	private synchronized void startQueuedJobs() {
+
+		ScheduledJob next = selectNextJob();
 
-		// if any job is RUNNING or PAUSED, dont auto-start new tasks
-		return (!activeJobs.isEmpty());
+		while (next != null) {
 
-//		// if any job is RUNNING, dont auto-start new tasks
-//		// this effectively means that if a user PAUSES a job, the queue is stopped BUT
-//		// if another job is queued or the last running job finishes, then the next queued job is started
-//		boolean hasRunningJob = false;
-//
-//		for (ImportJob job : activeJobs.values()) {
-//			if (job.getCurrentStatus().equals(ImportJob.JobStatus.RUNNING)) {
-//				hasRunningJob = true;
-//			}
-//		}
-//
-//		return hasRunningJob;
+			startJob(next.jobId());
 
+			next = selectNextJob();
+		}
 	}
 
-	private void startNextJobInQueue() {
-		final Long jobId = jobIdQueue.peek();
+	private ScheduledJob selectNextJob() {
+
+		final int maxJobs        = Math.max(1, Settings.JobQueueMaxJobs.getValue());
+		final int maxJobsPerType = Math.max(1, Settings.JobQueueMaxJobsPerType.getValue());
+		ScheduledJob candidate   = null;
+
+		// jobs that are RUNNING or PAUSED count as active
+		if (activeJobs.size() >= maxJobs) {
+			return null;
+		}
+
+		// the first job is always admitted, all others need enough free memory
+		if (!activeJobs.isEmpty() && !hasEnoughFreeMemory()) {
 
-		if (jobId != null) {
-			boolean didStart = startJob(jobId);
-			if (!didStart) {
-				startNextJobInQueue();
+			logger.info("Not starting queued jobs, free memory is below {} MB", Settings.JobQueueMinFreeMemory.getValue());
+			return null;
+		}
+
+		// iterate in queue order so that jobs with equal rank are started first-come, first-served
+		for (final Long jobId : jobIdQueue) {
+
+			final ScheduledJob job = queuedJobs.get(jobId);
+			if (job != null && countActiveJobsOfType(job.getJobType()) < maxJobsPerType) {
+
+				if (candidate == null || isPreferred(job, candidate)) {
+					candidate = job;
+				}
 			}
 		}
+
+		return candidate;
 	}
-}
 
+	private boolean isPreferred(final ScheduledJob job, final ScheduledJob other) {
+
+		final int priority      = job.getPriority();
+		final int otherPriority = other.getPriority();
+
+		if (priority != otherPriority) {
+			return priority > otherPriority;
+		}
+
+		// fair share: prefer users with fewer active jobs
+		return countActiveJobsOfUser(job.getUsername()) < countActiveJobsOfUser(other.getUsername());
+	}
+
+	private int countActiveJobsOfType(final String jobType) {
+		return (int)activeJobs.values().stream().filter(job -> jobType.equals(job.getJobType())).count();
+	}
+
+	private int countActiveJobsOfUser(final String username) {
+		return (int)activeJobs.values().stream().filter(job -> username != null && username.equals(job.getUsername())).count();
+	}
+
+	private boolean hasEnoughFreeMemory() {
+
+		final Runtime runtime = Runtime.getRuntime();
+		final long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+		final long freeMemory = runtime.maxMemory() - usedMemory;
+
+		return freeMemory >= Settings.JobQueueMinFreeMemory.getValue() * 1024L * 1024L;
+	}
+}
@@ -18,8 +18,13 @@
  */
 package org.structr.core.scheduler;
 
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -47,8 +52,12 @@ public abstract class ScheduledJob {
 	final Lock lock          = new ReentrantLock();
 	final Condition paused   = lock.newCondition();
 
+	private final AtomicLong processedObjects   = new AtomicLong(0L);
+	private final AtomicInteger committedChunks = new AtomicInteger(0);
+
 	private Thread jobThread = null;
 	private Long jobId       = null;
+	private long startTime   = 0L;
 
 	protected Map<String, Object> configuration;
 	protected Principal user;
@@ -79,6 +88,7 @@ public abstract class ScheduledJob {
 
 	public void startJob() {
 		currentStatus = JobStatus.RUNNING;
+		startTime     = System.currentTimeMillis();
 
 		startNewThread(getRunnable(), false);
 	}
@@ -140,10 +150,62 @@ public abstract class ScheduledJob {
 		return configuration;
 	}
 
+	/**
+	 * Returns the scheduling priority of this job. Jobs with a higher
+	 * priority are started first, the default priority is 0.
+	 *
+	 * @return the priority
+	 */
+	public int getPriority() {
+
+		if (configuration != null) {
+			return parseInt(configuration.get("priority"), 0);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns the progress and throughput metrics of this job.
+	 *
+	 * @return a map with the metrics of this job
+	 */
+	public Map<String, Object> getMetrics() {
+
+		final Map<String, Object> metrics = new LinkedHashMap<>();
+		final DecimalFormat decimalFormat = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+		final long objects                = processedObjects.get();
+
+		metrics.put("priority",         getPriority());
+		metrics.put("objectsProcessed", objects);
+		metrics.put("chunksCommitted",  committedChunks.get());
+
+		if (startTime > 0L) {
+
+			final long duration = Math.max(1L, System.currentTimeMillis() - startTime);
+
+			metrics.put("runningTime",      decimalFormat.format(duration / 1000.0) + "s");
+			metrics.put("objectsPerSecond", decimalFormat.format(objects / (duration / 1000.0)));
+		}
+
+		return metrics;
+	}
+
 	public void waitForExit() throws InterruptedException {
 		jobThread.join();
 	}
 
+	/**
+	 * Records the completion of a chunk of work for the job metrics.
+	 *
+	 * @param objectCount the number of objects processed in the chunk
+	 */
+	protected void chunkCommitted(final int objectCount) {
+
+		processedObjects.addAndGet(objectCount);
+		committedChunks.incrementAndGet();
+	}
+
 	protected void jobFinished() {
 		JobQueueManager.getInstance().jobFinished(this);
 	}
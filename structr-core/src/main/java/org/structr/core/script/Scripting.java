@@ -41,6 +41,7 @@ import org.mozilla.javascript.Undefined;
 import org.renjin.script.RenjinScriptEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.metrics.Metrics;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.error.UnlicensedScriptException;
@@ -193,35 +194,44 @@ public class Scripting {
 			securityContext.setDoTransactionNotifications(false);
 		}
 
-		if (isScriptEngine) {
+		final long t0 = System.nanoTime();
 
-			return evaluateScript(actionContext, entity, engine, source);
+		try {
 
-		} else if (isJavascript) {
+			if (isScriptEngine) {
 
-			final Object result = evaluateJavascript(actionContext, entity, new Snippet(methodName, source));
-			
-			if (enableTransactionNotifactions && securityContext != null) {
-				securityContext.setDoTransactionNotifications(true);
-			}
-			
-			return result;
+				return evaluateScript(actionContext, entity, engine, source);
 
-		} else {
+			} else if (isJavascript) {
 
-			Object extractedValue = Functions.evaluate(actionContext, entity, source);
-			final String value    = extractedValue != null ? extractedValue.toString() : "";
-			final String output   = actionContext.getOutput();
+				final Object result = evaluateJavascript(actionContext, entity, new Snippet(methodName, source));
 
-			if (StringUtils.isEmpty(value) && output != null && !output.isEmpty()) {
-				extractedValue = output;
-			}
+				if (enableTransactionNotifactions && securityContext != null) {
+					securityContext.setDoTransactionNotifications(true);
+				}
+
+				return result;
+
+			} else {
 
-			if (enableTransactionNotifactions && securityContext != null) {
-				securityContext.setDoTransactionNotifications(true);
+				Object extractedValue = Functions.evaluate(actionContext, entity, source);
+				final String value    = extractedValue != null ? extractedValue.toString() : "";
+				final String output   = actionContext.getOutput();
+
+				if (StringUtils.isEmpty(value) && output != null && !output.isEmpty()) {
+					extractedValue = output;
+				}
+
+				if (enableTransactionNotifactions && securityContext != null) {
+					securityContext.setDoTransactionNotifications(true);
+				}
+
+				return extractedValue;
 			}
-			
-			return extractedValue;
+
+		} finally {
+
+			Metrics.record(Metrics.CATEGORY_SCRIPT, methodName, t0);
 		}
 	}
 
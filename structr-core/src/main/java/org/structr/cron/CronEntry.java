@@ -253,18 +253,8 @@ public class CronEntry implements Delayed {
 		throw new IllegalArgumentException("Invalid field: '" + field + "'");
 	}
 
-	@Override
-	public int compareTo(Delayed o) {
-
-		Long myDelay = getDelay(TimeUnit.MILLISECONDS);
-		Long oDelay  = o.getDelay(TimeUnit.MILLISECONDS);
-
-		return myDelay.compareTo(oDelay);
-	}
-
-	public long getDelayToNextExecutionInMillis() {
+	private Calendar findNextExecution(final Calendar now) {
 
-		Calendar now       = GregorianCalendar.getInstance();
 		int nowSeconds     = now.get(Calendar.SECOND);
 		int nowMinutes     = now.get(Calendar.MINUTE);
 		int nowHours       = now.get(Calendar.HOUR_OF_DAY);
@@ -334,7 +324,39 @@ public class CronEntry implements Delayed {
 			throw new IllegalArgumentException("Unable to determine next cron date for task " + name + ", aborting.");
 		}
 
-		return now.getTimeInMillis() - System.currentTimeMillis();
+		return now;
+	}
+
+	@Override
+	public int compareTo(Delayed o) {
+
+		Long myDelay = getDelay(TimeUnit.MILLISECONDS);
+		Long oDelay  = o.getDelay(TimeUnit.MILLISECONDS);
+
+		return myDelay.compareTo(oDelay);
+	}
+
+	public long getDelayToNextExecutionInMillis() {
+		return findNextExecution(GregorianCalendar.getInstance()).getTimeInMillis() - System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the time of the next execution of this entry strictly after
+	 * the given timestamp, in milliseconds since the epoch.
+	 *
+	 * @param after the timestamp after which the next execution happens
+	 * @return the time of the next execution
+	 */
+	public long getNextExecutionTime(final long after) {
+
+		final Calendar now = GregorianCalendar.getInstance();
+
+		// cron expressions have a granularity of one second
+		now.setTimeInMillis(after);
+		now.set(Calendar.MILLISECOND, 0);
+		now.add(Calendar.SECOND, 1);
+
+		return findNextExecution(now).getTimeInMillis();
 	}
 
 	public CronField getSeconds() {
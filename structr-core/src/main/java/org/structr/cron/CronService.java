@@ -18,9 +18,14 @@
  */
 package org.structr.cron;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +41,8 @@ import org.structr.schema.action.Actions;
 
 /**
  * A service that keeps track of registered tasks and runs
- * them at their scheduled time.
+ * them at their scheduled time. Each entry is scheduled for
+ * its next fire time individually, so there is no polling.
  *
  *
  */
@@ -49,8 +55,9 @@ public class CronService extends Thread implements RunnableService {
 	public static final long     GRANULARITY       = 1;
 	public static final int      NUM_FIELDS        = 6;
 
-	private LinkedList<CronEntry> cronEntries = new LinkedList<>();
-	private boolean doRun = false;
+	private LinkedList<CronEntry> cronEntries     = new LinkedList<>();
+	private ScheduledThreadPoolExecutor scheduler = null;
+	private volatile boolean doRun                = false;
 
 	public CronService() {
 		super("CronService");
@@ -70,42 +77,25 @@ public class CronService extends Thread implements RunnableService {
 		// sleep 5 seconds more
 		try { Thread.sleep(5000); } catch(InterruptedException iex) { }
 
-		while (doRun) {
+		if (doRun) {
 
-			// sleep for some time
-			try { Thread.sleep(GRANULARITY_UNIT.toMillis(GRANULARITY)); } catch(InterruptedException iex) { }
+			final AtomicInteger threadCount = new AtomicInteger(0);
 
-			for (CronEntry entry : cronEntries) {
+			scheduler = new ScheduledThreadPoolExecutor(Math.max(1, Settings.CronPoolSize.getValue()), (final Runnable runnable) -> {
 
-				if (entry.getDelayToNextExecutionInMillis() < GRANULARITY_UNIT.toMillis(GRANULARITY)) {
+				final Thread thread = new Thread(runnable, "CronService-" + threadCount.incrementAndGet());
 
-					final String taskClassName = entry.getName();
-					final Class taskClass      = instantiate(taskClassName);
+				thread.setDaemon(true);
 
-					try {
+				return thread;
+			});
 
-						if (taskClass != null) {
+			// do not keep cancelled executions in the queue
+			scheduler.setRemoveOnCancelPolicy(true);
 
-							Task task = (Task)taskClass.newInstance();
+			for (final CronEntry entry : cronEntries) {
 
-							logger.debug("Starting task {}", taskClassName);
-							StructrApp.getInstance().processTasks(task);
-
-						} else {
-
-							try (final Tx tx = StructrApp.getInstance().tx()) {
-
-								// check for schema method with the given name
-								Actions.callAsSuperUser(taskClassName, Collections.EMPTY_MAP);
-
-								tx.success();
-							}
-						}
-
-					} catch (Throwable t) {
-						logger.warn("Exception while executing cron task {}: {}", taskClassName, t.getMessage());
-					}
-				}
+				scheduleNextExecution(entry, System.currentTimeMillis());
 			}
 		}
 	}
@@ -119,7 +109,12 @@ public class CronService extends Thread implements RunnableService {
 
 	@Override
 	public void stopService() {
+
 		this.doRun = false;
+
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
 	}
 
 	@Override
@@ -177,7 +172,7 @@ public class CronService extends Thread implements RunnableService {
 
 	@Override
 	public void shutdown() {
-		this.doRun = false;
+		stopService();
 	}
 
 	@Override
@@ -190,7 +185,71 @@ public class CronService extends Thread implements RunnableService {
 		return false;
 	}
 
+	@Override
+	public Set<String> getDependencies() {
+
+		// agents and cron jobs may use dynamic types
+		return new LinkedHashSet<>(Arrays.asList("NodeService", "SchemaService"));
+	}
+
 	// ----- private methods -----
+	private void scheduleNextExecution(final CronEntry entry, final long after) {
+
+		if (doRun) {
+
+			try {
+
+				final long nextExecution = entry.getNextExecutionTime(after);
+				final long delay         = Math.max(0L, nextExecution - System.currentTimeMillis());
+
+				logger.debug("{} ms until start of task {}", delay, entry.getName());
+
+				scheduler.schedule(() -> {
+
+					execute(entry);
+
+					// next execution is scheduled after this one has finished, so
+					// long-running tasks do not overlap with themselves
+					scheduleNextExecution(entry, Math.max(nextExecution, System.currentTimeMillis()));
+
+				}, delay, TimeUnit.MILLISECONDS);
+
+			} catch (Throwable t) {
+				logger.warn("Unable to schedule cron task {}: {}", entry.getName(), t.getMessage());
+			}
+		}
+	}
+
+	private void execute(final CronEntry entry) {
+
+		final String taskClassName = entry.getName();
+		final Class taskClass      = instantiate(taskClassName);
+
+		try {
+
+			if (taskClass != null) {
+
+				Task task = (Task)taskClass.newInstance();
+
+				logger.debug("Starting task {}", taskClassName);
+				StructrApp.getInstance().processTasks(task);
+
+			} else {
+
+				try (final Tx tx = StructrApp.getInstance().tx()) {
+
+					// check for schema method with the given name
+					Actions.callAsSuperUser(taskClassName, Collections.EMPTY_MAP);
+
+					tx.success();
+				}
+			}
+
+		} catch (Throwable t) {
+			logger.warn("Exception while executing cron task {}: {}", taskClassName, t.getMessage());
+		}
+	}
+
 	private Class instantiate(final String taskClass) {
 
 		try {
@@ -52,6 +52,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.agent.Agent;
+import org.structr.api.config.Settings;
+import org.structr.api.module.ModuleIndex;
 import org.structr.api.service.LicenseManager;
 import org.structr.api.service.Service;
 import org.structr.common.DefaultFactoryDefinition;
@@ -1010,13 +1012,14 @@ public class JarConfigurationProvider implements ConfigurationProvider {
 	// ----- private methods -----
 	private void scanResources() {
 
+		final long t0             = System.currentTimeMillis();
 		Set<String> resourcePaths = getResourcesToScan();
 		for (String resourcePath : resourcePaths) {
 
 			scanResource(resourcePath);
 		}
 
-		logger.info("{} JARs scanned", resourcePaths.size());
+		logger.info("{} JARs scanned in {} ms", resourcePaths.size(), System.currentTimeMillis() - t0);
 
 	}
 
@@ -1137,6 +1140,10 @@ public class JarConfigurationProvider implements ConfigurationProvider {
 						// only scan and load modules that are licensed
 						if (name != null && (licenseManager == null || licenseManager.isModuleLicensed(name))) {
 
+							// use build-time index instead of loading all classes
+							final ModuleIndex index   = readModuleIndex(jarFile);
+							final Set<String> indexed = index != null ? index.getClasses() : null;
+
 							for (final Enumeration<? extends JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
 
 								final JarEntry entry = entries.nextElement();
@@ -1144,22 +1151,17 @@ public class JarConfigurationProvider implements ConfigurationProvider {
 
 								if (entryName.endsWith(".class")) {
 
-									// cat entry > /dev/null (necessary to get signers below)
-									IOUtils.copy(jarFile.getInputStream(entry), new ByteArrayOutputStream(65535));
+									final String fileEntry = entry.getName().replaceAll("[/]+", ".");
+									final String fqcn      = fileEntry.substring(0, fileEntry.length() - 6);
 
-									// verify module
-									if (licenseManager == null || licenseManager.isValid(entry.getCodeSigners())) {
+									if (indexed == null || indexed.contains(fqcn)) {
 
-										final String fileEntry = entry.getName().replaceAll("[/]+", ".");
-										final String fqcn      = fileEntry.substring(0, fileEntry.length() - 6);
+										addClassEntry(jarFile, entry, fqcn, classes);
 
-										// add class entry to Module
-										classes.add(fqcn);
+									} else if (licenseManager != null) {
 
-										if (licenseManager != null) {
-											// store licensing information
-											licenseManager.addLicensedClass(fqcn);
-										}
+										// classes that are not registered must still be licensed
+										verifyClassEntry(jarFile, entry, fqcn);
 									}
 								}
 							}
@@ -1168,20 +1170,88 @@ public class JarConfigurationProvider implements ConfigurationProvider {
 				}
 			}
 
-		} else if (resource.endsWith(classesDir)) {
+		} else if (resource.endsWith(classesDir) || resource.endsWith(testClassesDir)) {
+
+			// class directories are always scanned, because an incremental build
+			// leaves a module index behind that only contains the recompiled types
+			if (resource.endsWith(classesDir)) {
 
-			// this is for testing only!
-			addClassesRecursively(new File(resource), classesDir, classes);
+				// this is for testing only!
+				addClassesRecursively(new File(resource), classesDir, classes);
 
-		} else if (resource.endsWith(testClassesDir)) {
+			} else {
 
-			// this is for testing only!
-			addClassesRecursively(new File(resource), testClassesDir, classes);
+				// this is for testing only!
+				addClassesRecursively(new File(resource), testClassesDir, classes);
+			}
 		}
 
 		return ret;
 	}
 
+	private void addClassEntry(final JarFile jarFile, final JarEntry entry, final String fqcn, final Set<String> classes) throws IOException {
+
+		if (licenseManager == null || verifyClassEntry(jarFile, entry, fqcn)) {
+
+			// add class entry to Module
+			classes.add(fqcn);
+		}
+	}
+
+	private boolean verifyClassEntry(final JarFile jarFile, final JarEntry entry, final String fqcn) throws IOException {
+
+		// cat entry > /dev/null (necessary to get signers below)
+		IOUtils.copy(jarFile.getInputStream(entry), new ByteArrayOutputStream(65535));
+
+		// verify module
+		if (licenseManager.isValid(entry.getCodeSigners())) {
+
+			// store licensing information
+			licenseManager.addLicensedClass(fqcn);
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Reads the build-time module index of the given jar file. Returns null
+	 * if there is no index, if the index is disabled, or if the number of
+	 * top-level classes in the jar file does not match the index, which
+	 * happens when the module was built incrementally.
+	 */
+	private ModuleIndex readModuleIndex(final JarFile jarFile) throws IOException {
+
+		final JarEntry indexEntry = jarFile.getJarEntry(ModuleIndex.RESOURCE_NAME);
+		if (indexEntry == null || !Settings.ModuleIndexEnabled.getValue()) {
+
+			return null;
+		}
+
+		final ModuleIndex index = ModuleIndex.read(jarFile.getInputStream(indexEntry));
+		int typeCount           = 0;
+
+		for (final Enumeration<? extends JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+
+			final String entryName = entries.nextElement().getName();
+			final String fileName  = entryName.substring(entryName.lastIndexOf('/') + 1);
+
+			// nested, anonymous and package-info classes are not top-level types
+			if (fileName.endsWith(".class") && !fileName.contains("$") && !fileName.equals("package-info.class")) {
+				typeCount++;
+			}
+		}
+
+		if (index.getTypeCount() != typeCount) {
+
+			logger.info("Module index of {} is incomplete ({} of {} types), scanning all classes.", jarFile.getName(), index.getTypeCount(), typeCount);
+			return null;
+		}
+
+		return index;
+	}
+
 	private void addClassesRecursively(final File dir, final String prefix, final Set<String> classes) {
 
 		if (dir == null) {
@@ -34,6 +34,7 @@ import graphql.schema.GraphQLType;
 import java.lang.reflect.Modifier;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -48,6 +49,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.config.Settings;
+import org.structr.api.metrics.Metrics;
 import org.structr.api.service.Command;
 import org.structr.api.service.Service;
 import org.structr.api.service.StructrServices;
@@ -125,7 +127,8 @@ public class SchemaService implements Service {
 		// compiling must only be done once
 		if (compiling.compareAndSet(false, true)) {
 
-			final long t0 = System.currentTimeMillis();
+			final long t0    = System.currentTimeMillis();
+			final long start = System.nanoTime();
 
 			try {
 
@@ -352,6 +355,8 @@ public class SchemaService implements Service {
 
 				logger.info("Schema build took a total of {} ms", System.currentTimeMillis() - t0);
 
+				Metrics.record(Metrics.CATEGORY_SCHEMA, "reload", start);
+
 				// compiling done
 				compiling.set(false);
 
@@ -419,6 +424,11 @@ public class SchemaService implements Service {
 		return 1;
 	}
 
+	@Override
+	public Set<String> getDependencies() {
+		return Collections.singleton("NodeService");
+	}
+
 	// ----- interface Feature -----
 	@Override
 	public String getModuleName() {
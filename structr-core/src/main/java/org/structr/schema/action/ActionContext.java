@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringUtils;
@@ -62,6 +63,8 @@ public class ActionContext {
 	protected Locale locale                        = Locale.getDefault();
 	private boolean javaScriptContext              = false;
 	private ContextStore temporaryContextStore     = new ContextStore();
+	private QueryMemo queryMemo                    = new QueryMemo();
+	private Map<String, Object> isolatedVariables  = null;
 
 	public ActionContext(final SecurityContext securityContext) {
 		this(securityContext, null);
@@ -85,6 +88,7 @@ public class ActionContext {
 		this.errorBuffer     = other.errorBuffer;
 		this.securityContext = other.securityContext;
 		this.locale          = other.locale;
+		this.queryMemo       = other.queryMemo;
 	}
 
 	public SecurityContext getSecurityContext() {
@@ -450,4 +454,59 @@ public class ActionContext {
 	public ContextStore getContextStore() {
 		return this.securityContext.getContextStore();
 	}
+
+	public QueryMemo getQueryMemo() {
+		return queryMemo;
+	}
+
+	/**
+	 * Gives this context its own error buffer, query memo and a copy of
+	 * the security context and its context store, so that it can be used
+	 * in another thread than the context it was copied from. Use
+	 * {@link #merge(ActionContext)} to merge the results back into the
+	 * original context.
+	 */
+	public void isolate() {
+
+		this.errorBuffer = new ErrorBuffer();
+		this.queryMemo   = new QueryMemo();
+
+		if (securityContext != null) {
+
+			this.securityContext   = securityContext.copy();
+			this.isolatedVariables = new HashMap<>(getAllVariables());
+		}
+	}
+
+	/**
+	 * Merges the errors, memoized queries and stored values of the given
+	 * isolated context into this context.
+	 *
+	 * @param other the isolated context
+	 */
+	public void merge(final ActionContext other) {
+
+		if (securityContext != null && other.isolatedVariables != null) {
+
+			// only values that were stored by the other context
+			for (final Map.Entry<String, Object> entry : other.getAllVariables().entrySet()) {
+
+				final String key = entry.getKey();
+
+				if (!other.isolatedVariables.containsKey(key) || !Objects.equals(other.isolatedVariables.get(key), entry.getValue())) {
+					store(key, entry.getValue());
+				}
+			}
+		}
+
+		for (final ErrorToken token : other.errorBuffer.getErrorTokens()) {
+			errorBuffer.add(token);
+		}
+
+		if (other.errorBuffer.getStatus() != 0) {
+			errorBuffer.setStatus(other.errorBuffer.getStatus());
+		}
+
+		queryMemo.merge(other.queryMemo);
+	}
 }
@@ -0,0 +1,291 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.schema.action;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.structr.api.config.Settings;
+import org.structr.common.SecurityContext;
+import org.structr.core.GraphObject;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.graph.TransactionReference;
+
+/**
+ * Request-scoped cache for the results of queries that are evaluated
+ * repeatedly in the same {@link ActionContext}, e.g. the same find()
+ * call in every row of a repeater.
+ *
+ * The cache is bound to the first transaction it is used in. Lookups
+ * from other transactions bypass the cache, and the cache is cleared
+ * and disabled as soon as the bound transaction contains a write,
+ * including writes by cypher(). All caches are cleared when any other
+ * transaction that contains writes is committed.
+ */
+public class QueryMemo {
+
+	private static final AtomicLong generation = new AtomicLong();
+
+	private final Map<String, Object> results = new HashMap<>();
+	private TransactionReference transaction  = null;
+	private boolean enabled                   = Settings.QueryMemoization.getValue();
+	private long validGeneration              = generation.get();
+	private int hitCount                      = 0;
+	private int missCount                     = 0;
+
+	/**
+	 * Returns the memoized result for the given key, or null if there is
+	 * no such result or the cache can not be used in the current state.
+	 *
+	 * @param key the key
+	 *
+	 * @return the memoized result or null
+	 */
+	public synchronized Object get(final String key) {
+
+		if (isUsable()) {
+
+			final Object result = results.get(key);
+			if (result != null) {
+
+				hitCount++;
+
+				// return a copy so callers can not modify the memoized result
+				if (result instanceof List) {
+					return new ArrayList<>((List)result);
+				}
+
+				return result;
+			}
+
+			missCount++;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Stores the given result under the given key if the cache can be
+	 * used in the current state.
+	 *
+	 * @param <T>
+	 * @param key the key
+	 * @param result the result
+	 *
+	 * @return the given result
+	 */
+	public synchronized <T> T put(final String key, final T result) {
+
+		if (result != null && isUsable()) {
+
+			if (result instanceof List) {
+
+				results.put(key, new ArrayList<>((List)result));
+
+			} else {
+
+				results.put(key, result);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds the statistics and the memoized results of the given cache to
+	 * this cache. Results are only taken over if neither cache has seen a
+	 * write and both are valid for the same database generation.
+	 *
+	 * @param other the cache to merge
+	 */
+	public synchronized void merge(final QueryMemo other) {
+
+		synchronized (other) {
+
+			hitCount  += other.hitCount;
+			missCount += other.missCount;
+
+			if (enabled && other.enabled && validGeneration == other.validGeneration && validGeneration == generation.get()) {
+
+				for (final Map.Entry<String, Object> entry : other.results.entrySet()) {
+					results.putIfAbsent(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	public synchronized int size() {
+		return results.size();
+	}
+
+	/**
+	 * Creates a normalized cache key from the given query type, security
+	 * context and query parameters. Map parameters are sorted by key, and
+	 * graph objects are represented by their UUID.
+	 *
+	 * @param securityContext the security context the query runs in
+	 * @param parts the query type and parameters
+	 *
+	 * @return the key
+	 */
+	public static String key(final SecurityContext securityContext, final Object... parts) {
+
+		final StringBuilder buf = new StringBuilder();
+
+		if (securityContext != null) {
+
+			final Principal user = securityContext.getUser(false);
+
+			buf.append(securityContext.isSuperUser() ? "superuser" : user != null ? user.getUuid() : "anonymous");
+		}
+
+		for (final Object part : parts) {
+
+			buf.append("|");
+			normalize(buf, part);
+		}
+
+		return buf.toString();
+	}
+
+	/**
+	 * Invalidates the memoized results of all caches, must be called when
+	 * the database has been modified.
+	 */
+	public static void invalidateAll() {
+		generation.incrementAndGet();
+	}
+
+	// ----- private methods -----
+	private boolean isUsable() {
+
+		if (!enabled) {
+			return false;
+		}
+
+		final TransactionReference current = TransactionCommand.getCurrentTransaction();
+		if (current == null) {
+
+			return false;
+		}
+
+		if (transaction == null) {
+
+			transaction = current;
+		}
+
+		if (current != transaction) {
+
+			return false;
+		}
+
+		final long currentGeneration = generation.get();
+		if (currentGeneration != validGeneration) {
+
+			// the database has been modified since the results were memoized
+			results.clear();
+			validGeneration = currentGeneration;
+		}
+
+		if (TransactionCommand.hasModifications()) {
+
+			// a write happened in this transaction, memoized results may be stale
+			results.clear();
+			enabled = false;
+
+			return false;
+		}
+
+		return true;
+	}
+
+	private static void normalize(final StringBuilder buf, final Object value) {
+
+		if (value == null) {
+
+			buf.append("null");
+
+		} else if (value instanceof GraphObject) {
+
+			buf.append(((GraphObject)value).getUuid());
+
+		} else if (value instanceof Map) {
+
+			final Map<String, Object> sorted = new TreeMap<>();
+
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+				sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+			}
+
+			buf.append("{");
+
+			for (final Map.Entry<String, Object> entry : sorted.entrySet()) {
+
+				buf.append(entry.getKey()).append("=");
+				normalize(buf, entry.getValue());
+				buf.append(",");
+			}
+
+			buf.append("}");
+
+		} else if (value instanceof Collection) {
+
+			buf.append("[");
+
+			for (final Object element : (Collection)value) {
+
+				normalize(buf, element);
+				buf.append(",");
+			}
+
+			buf.append("]");
+
+		} else if (value.getClass().isArray()) {
+
+			buf.append("[");
+
+			final int length = Array.getLength(value);
+			for (int i=0; i<length; i++) {
+
+				normalize(buf, Array.get(value, i));
+				buf.append(",");
+			}
+
+			buf.append("]");
+
+		} else {
+
+			buf.append(value.getClass().getSimpleName()).append(":").append(value);
+		}
+	}
+}
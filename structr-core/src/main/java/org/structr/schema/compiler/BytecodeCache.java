@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.schema.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache for the byte code of dynamic types.
+ *
+ * Each source file is stored in its own cache file, together with a key
+ * that is computed from the source code and a fingerprint of the runtime
+ * environment (Java version and Structr build). A cache entry is only
+ * used if the key of the current source code matches the stored key, so
+ * changed sources and updated installations always cause a recompilation.
+ */
+public class BytecodeCache {
+
+	private static final Logger logger  = LoggerFactory.getLogger(BytecodeCache.class.getName());
+	private static final String SUFFIX  = ".cache";
+	private static final int MAGIC      = 0x53424331;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+	private final Set<String> classNames     = new LinkedHashSet<>();
+	private final String fingerprint         = getFingerprint();
+	private Path directory                   = null;
+
+	public BytecodeCache(final Path directory) {
+
+		this.directory = directory;
+
+		try {
+
+			Files.createDirectories(directory);
+
+			try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+
+				for (final Path path : stream) {
+
+					final String name = path.getFileName().toString();
+
+					classNames.add(name.substring(0, name.length() - SUFFIX.length()));
+				}
+			}
+
+		} catch (IOException ioex) {
+			logger.warn("Unable to initialize schema bytecode cache in {}: {}", directory, ioex.getMessage());
+		}
+	}
+
+	/**
+	 * Computes the cache key for the given source code.
+	 *
+	 * @param source
+	 * @return the cache key
+	 */
+	public String getKey(final String source) {
+
+		try {
+
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+			digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+			digest.update(source.getBytes(StandardCharsets.UTF_8));
+
+			return Hex.encodeHexString(digest.digest());
+
+		} catch (NoSuchAlgorithmException nex) {
+			throw new IllegalStateException(nex);
+		}
+	}
+
+	/**
+	 * Returns the names of all classes for which a cache entry exists,
+	 * regardless of whether the entry is still valid.
+	 *
+	 * @return class names
+	 */
+	public Set<String> getClassNames() {
+		return classNames;
+	}
+
+	/**
+	 * Returns the cached byte code for the given class if the stored key
+	 * matches the given key, or null otherwise.
+	 *
+	 * @param className
+	 * @param key
+	 * @return map of binary names and byte code, or null
+	 */
+	public Map<String, byte[]> get(final String className, final String key) {
+
+		Entry entry = entries.get(className);
+		if (entry == null && classNames.contains(className)) {
+
+			entry = read(className);
+			if (entry != null) {
+
+				entries.put(className, entry);
+			}
+		}
+
+		if (entry != null && entry.key.equals(key)) {
+			return entry.classes;
+		}
+
+		return null;
+	}
+
+	public void put(final String className, final String key, final Map<String, byte[]> classes) {
+
+		final Entry entry = new Entry(key, classes);
+
+		entries.put(className, entry);
+		classNames.add(className);
+
+		write(className, entry);
+	}
+
+	/**
+	 * Removes all entries for classes that are not contained in the given
+	 * set of class names, i.e. types that were deleted from the schema.
+	 *
+	 * @param currentClassNames
+	 */
+	public void retainAll(final Set<String> currentClassNames) {
+
+		final Set<String> removed = new LinkedHashSet<>(classNames);
+
+		removed.removeAll(currentClassNames);
+
+		for (final String className : removed) {
+
+			entries.remove(className);
+			classNames.remove(className);
+
+			try {
+
+				Files.deleteIfExists(getPath(className));
+
+			} catch (IOException ioex) {
+				logger.warn("Unable to remove schema bytecode cache entry for {}: {}", className, ioex.getMessage());
+			}
+		}
+	}
+
+	// ----- private methods -----
+	private Entry read(final String className) {
+
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(getPath(className))))) {
+
+			if (in.readInt() != MAGIC) {
+				return null;
+			}
+
+			final Map<String, byte[]> classes = new LinkedHashMap<>();
+			final String key                  = in.readUTF();
+			final int count                   = in.readInt();
+
+			for (int i=0; i<count; i++) {
+
+				final String name  = in.readUTF();
+				final byte[] bytes = new byte[in.readInt()];
+
+				in.readFully(bytes);
+
+				classes.put(name, bytes);
+			}
+
+			return new Entry(key, classes);
+
+		} catch (IOException ioex) {
+			logger.warn("Unable to read schema bytecode cache entry for {}: {}", className, ioex.getMessage());
+		}
+
+		return null;
+	}
+
+	private void write(final String className, final Entry entry) {
+
+		final Path path = getPath(className);
+		final Path tmp  = path.resolveSibling(path.getFileName().toString() + ".tmp");
+
+		try {
+
+			try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+
+				out.writeInt(MAGIC);
+				out.writeUTF(entry.key);
+				out.writeInt(entry.classes.size());
+
+				for (final Map.Entry<String, byte[]> cls : entry.classes.entrySet()) {
+
+					out.writeUTF(cls.getKey());
+					out.writeInt(cls.getValue().length);
+					out.write(cls.getValue());
+				}
+			}
+
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		} catch (IOException ioex) {
+			logger.warn("Unable to write schema bytecode cache entry for {}: {}", className, ioex.getMessage());
+		}
+	}
+
+	private Path getPath(final String className) {
+		return directory.resolve(className + SUFFIX);
+	}
+
+	/**
+	 * Computes a fingerprint of the environment the schema is compiled in.
+	 * The compiler uses the class path of the JVM, so the fingerprint
+	 * contains the path, size and modification time of every jar and of
+	 * every file in the class directories on the class path.
+	 */
+	private static String getFingerprint() {
+
+		final StringBuilder buf = new StringBuilder();
+
+		buf.append(System.getProperty("java.vm.version"));
+
+		try {
+
+			for (final String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+
+				if (entry.endsWith("*")) {
+
+					final File[] jars = new File(entry.substring(0, entry.length() - 1)).listFiles((dir, name) -> name.endsWith(".jar"));
+					if (jars != null) {
+
+						Arrays.sort(jars);
+
+						for (final File jar : jars) {
+							appendFingerprint(buf, jar);
+						}
+					}
+
+				} else if (!entry.isEmpty()) {
+
+					appendFingerprint(buf, new File(entry));
+				}
+			}
+
+			appendFingerprint(buf, new File(NodeExtender.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+
+			return Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(buf.toString().getBytes(StandardCharsets.UTF_8)));
+
+		} catch (Throwable t) {
+
+			// no code source available, use a fingerprint that is only valid for this run
+			return buf.append(System.currentTimeMillis()).toString();
+		}
+	}
+
+	private static void appendFingerprint(final StringBuilder buf, final File file) throws IOException {
+
+		buf.append(file.getAbsolutePath());
+
+		if (file.isDirectory()) {
+
+			long count    = 0L;
+			long size     = 0L;
+			long modified = 0L;
+
+			try (final Stream<Path> stream = Files.walk(file.toPath())) {
+
+				for (final Path path : (Iterable<Path>)stream::iterator) {
+
+					final File child = path.toFile();
+					if (child.isFile()) {
+
+						count++;
+						size     += child.length();
+						modified += child.lastModified();
+					}
+				}
+			}
+
+			buf.append(count);
+			buf.append(size);
+			buf.append(modified);
+
+		} else {
+
+			buf.append(file.length());
+			buf.append(file.lastModified());
+		}
+
+		buf.append(File.pathSeparator);
+	}
+
+	// ----- nested classes -----
+	private static class Entry {
+
+		private Map<String, byte[]> classes = null;
+		private String key                  = null;
+
+		public Entry(final String key, final Map<String, byte[]> classes) {
+
+			this.classes = classes;
+			this.key     = key;
+		}
+	}
+}
@@ -20,19 +20,25 @@ package org.structr.schema.compiler;
 
 import java.io.IOException;
 import java.security.SecureClassLoader;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.tools.FileObject;
 import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.JavaFileObject.Kind;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.structr.module.JarConfigurationProvider;
 
 /**
  *
  *
  */
-public class ClassFileManager extends ForwardingJavaFileManager {
+public class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
 
 	/**
 	 * Instance of JavaClassObject that will store the compiled byte code of
@@ -40,6 +46,14 @@ public class ClassFileManager extends ForwardingJavaFileManager {
 	 */
 	private final Map<String, JavaClassObject> objects = new LinkedHashMap<>();
 
+	/**
+	 * Precompiled classes that are visible to the compiler on the class
+	 * path, and the names of the classes generated for each source file
+	 * in the current compilation run.
+	 */
+	private final Map<String, JavaClassObject> classPath = new LinkedHashMap<>();
+	private final Map<String, Set<String>> outputs       = new LinkedHashMap<>();
+
 	/**
 	 * Will initialize the manager with the specified standard java file
 	 * manager
@@ -94,7 +108,89 @@ public class ClassFileManager extends ForwardingJavaFileManager {
 		JavaClassObject obj = new JavaClassObject(className, kind);
 		
 		objects.put(className, obj);
+
+		if (sibling instanceof CharSequenceJavaFileObject) {
+			outputs.computeIfAbsent(((CharSequenceJavaFileObject)sibling).getClassName(), k -> new LinkedHashSet<>()).add(className);
+		}
 		
 		return obj;
 	}
+
+	/**
+	 * Lists the precompiled dynamic classes in addition to the classes
+	 * found by the standard file manager, so that sources compiled in
+	 * an incremental run can reference types that are not recompiled.
+	 */
+	@Override
+	public Iterable<JavaFileObject> list(final Location location, final String packageName, final Set<Kind> kinds, final boolean recurse) throws IOException {
+
+		final Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+
+		if (StandardLocation.CLASS_PATH.equals(location) && JarConfigurationProvider.DYNAMIC_TYPES_PACKAGE.equals(packageName) && kinds.contains(Kind.CLASS) && !classPath.isEmpty()) {
+
+			final List<JavaFileObject> result = new ArrayList<>();
+
+			for (final JavaFileObject file : files) {
+				result.add(file);
+			}
+
+			result.addAll(classPath.values());
+
+			return result;
+		}
+
+		return files;
+	}
+
+	@Override
+	public String inferBinaryName(final Location location, final JavaFileObject file) {
+
+		if (file instanceof JavaClassObject) {
+			return ((JavaClassObject)file).getBinaryName();
+		}
+
+		return super.inferBinaryName(location, file);
+	}
+
+	/**
+	 * Prepares the next compilation run by replacing the set of
+	 * precompiled classes that are visible to the compiler.
+	 *
+	 * @param precompiled map of binary names and byte code
+	 */
+	public void prepare(final Map<String, byte[]> precompiled) {
+
+		classPath.clear();
+		outputs.clear();
+
+		for (final Map.Entry<String, byte[]> entry : precompiled.entrySet()) {
+
+			final JavaClassObject obj = new JavaClassObject(entry.getKey(), entry.getValue());
+
+			classPath.put(entry.getKey(), obj);
+			objects.put(entry.getKey(), obj);
+		}
+	}
+
+	/**
+	 * Returns the byte code of all classes that were generated from the
+	 * source file with the given class name in the last compilation run.
+	 *
+	 * @param className the class name of the source file
+	 * @return map of binary names and byte code
+	 */
+	public Map<String, byte[]> getOutput(final String className) {
+
+		final Map<String, byte[]> result = new LinkedHashMap<>();
+		final Set<String> names          = outputs.get(className);
+
+		if (names != null) {
+
+			for (final String name : names) {
+				result.put(name, objects.get(name).getBytes());
+			}
+		}
+
+		return result;
+	}
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ package org.structr.schema.compiler;
 
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -28,15 +29,17 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.tools.Diagnostic;
 import javax.tools.Diagnostic.Kind;
 import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
-import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
 import org.apache.commons.lang.StringUtils;
@@ -51,26 +54,36 @@ import org.structr.core.graph.TransactionCommand;
 import org.structr.module.JarConfigurationProvider;
 
 /**
+ * Compiles the dynamic types of the schema.
  *
- *
+ * If the bytecode cache is enabled, only the types whose source code has
+ * changed since the last compilation are recompiled, together with the
+ * types that reference them and all subtypes of recompiled types. All
+ * other types are loaded from the cache and made visible to the compiler
+ * as precompiled classes.
  */
 public class NodeExtender {
 
 	private static final Logger logger   = LoggerFactory.getLogger(NodeExtender.class.getName());
 
-	private static final JavaCompiler compiler       = ToolProvider.getSystemJavaCompiler();
-	private static final JavaFileManager fileManager = new ClassFileManager(compiler.getStandardFileManager(null, null, null));
-	private static final ClassLoader classLoader     = fileManager.getClassLoader(null);
-	private static final Map<String, Class> classes  = new TreeMap<>();
+	private static final Pattern IDENTIFIER_PATTERN   = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+	private static final JavaCompiler compiler        = ToolProvider.getSystemJavaCompiler();
+	private static final ClassFileManager fileManager = new ClassFileManager(compiler.getStandardFileManager(null, null, null));
+	private static final ClassLoader classLoader      = fileManager.getClassLoader(null);
+	private static final Map<String, Class> classes   = new TreeMap<>();
+	private static BytecodeCache cache                = null;
+	private static int compiledCount                  = 0;
 
-	private List<JavaFileObject> jfiles  = null;
-	private Set<String> fqcns            = null;
-	private String initiatedBySessionId  = null;
+	private Map<String, JavaFileObject> jfiles = null;
+	private Map<String, String> sources        = null;
+	private Set<String> fqcns                  = null;
+	private String initiatedBySessionId        = null;
 
 	public NodeExtender(final String initiatedBySessionId) {
 
 		this.initiatedBySessionId = initiatedBySessionId;
-		this.jfiles               = new ArrayList<>();
+		this.jfiles               = new LinkedHashMap<>();
+		this.sources              = new LinkedHashMap<>();
 		this.fqcns                = new LinkedHashSet<>();
 	}
 
@@ -92,7 +105,8 @@ public class NodeExtender {
 
 			final String packageName = JarConfigurationProvider.DYNAMIC_TYPES_PACKAGE;
 
-			jfiles.add(new CharSequenceJavaFileObject(className, content));
+			jfiles.put(className, new CharSequenceJavaFileObject(className, content));
+			sources.put(className, content);
 			fqcns.add(packageName.concat(".".concat(className)));
 
 			if (Settings.LogSchemaOutput.getValue()) {
@@ -110,16 +124,23 @@ public class NodeExtender {
 
 	public synchronized Map<String, Class> compile(final ErrorBuffer errorBuffer) throws ClassNotFoundException {
 
-		final Writer errorWriter     = new StringWriter();
 		final List<Class> newClasses = new LinkedList<>();
 
 		if (!jfiles.isEmpty()) {
 
-			logger.info("Compiling {} dynamic entities...", jfiles.size());
+			final long t0   = System.currentTimeMillis();
+			boolean success = false;
+
+			if (Settings.SchemaCacheEnabled.getValue()) {
 
-			final long t0 = System.currentTimeMillis();
+				success = compileIncremental(errorBuffer);
 
-			Boolean success = compiler.getTask(errorWriter, fileManager, new Listener(errorBuffer), null, null, jfiles).call();
+			} else {
+
+				fileManager.prepare(new LinkedHashMap<>());
+
+				success = compile(jfiles.values(), errorBuffer);
+			}
 
 			logger.info("Compiling done in {} ms", System.currentTimeMillis() - t0);
 
@@ -154,7 +175,7 @@ public class NodeExtender {
 					classes.put(newType.getName(), newType);
 				}
 
-				logger.info("Successfully compiled {} dynamic entities: {}", new Object[] { jfiles.size(), jfiles.stream().map(f -> f.getName().replaceFirst("/", "")).collect(Collectors.joining(", ")) });
+				logger.info("Successfully loaded {} dynamic entities, {} of them compiled", jfiles.size(), compiledCount);
 
 				final Map<String, Object> data = new LinkedHashMap();
 				data.put("success", true);
@@ -167,6 +188,16 @@ public class NodeExtender {
 		return classes;
 	}
 
+	/**
+	 * Returns the number of source files that were actually compiled in
+	 * the last compilation run, as opposed to loaded from the cache.
+	 *
+	 * @return the number of compiled source files
+	 */
+	public static int getCompiledCount() {
+		return compiledCount;
+	}
+
 	public String getInitiatedBySessionId () {
 		return initiatedBySessionId;
 	}
@@ -175,6 +206,211 @@ public class NodeExtender {
 		this.initiatedBySessionId = initiatedBySessionId;
 	}
 
+	// ----- private methods -----
+	private boolean compileIncremental(final ErrorBuffer errorBuffer) {
+
+		final BytecodeCache bytecodeCache     = getCache();
+		final Map<String, byte[]> precompiled = new LinkedHashMap<>();
+		final Map<String, String> keys        = new LinkedHashMap<>();
+		final Set<String> changed             = new LinkedHashSet<>();
+
+		// types that were removed from the schema count as changed for their dependents
+		changed.addAll(bytecodeCache.getClassNames());
+		changed.removeAll(sources.keySet());
+
+		for (final Entry<String, String> entry : sources.entrySet()) {
+
+			final String className = entry.getKey();
+			final String key       = bytecodeCache.getKey(entry.getValue());
+
+			keys.put(className, key);
+
+			if (bytecodeCache.get(className, key) == null) {
+				changed.add(className);
+			}
+		}
+
+		bytecodeCache.retainAll(sources.keySet());
+
+		final Set<String> recompile = getTypesToRecompile(changed);
+
+		if (recompile.isEmpty()) {
+
+			logger.info("Loading {} dynamic entities from bytecode cache", sources.size());
+
+			for (final String className : sources.keySet()) {
+				precompiled.putAll(bytecodeCache.get(className, keys.get(className)));
+			}
+
+			fileManager.prepare(precompiled);
+
+			return true;
+		}
+
+		final List<JavaFileObject> files = new ArrayList<>();
+
+		for (final String className : sources.keySet()) {
+
+			if (recompile.contains(className)) {
+
+				files.add(jfiles.get(className));
+
+			} else {
+
+				precompiled.putAll(bytecodeCache.get(className, keys.get(className)));
+			}
+		}
+
+		fileManager.prepare(precompiled);
+
+		final boolean incremental = files.size() < jfiles.size();
+		final ErrorBuffer buffer  = incremental ? new ErrorBuffer() : errorBuffer;
+		boolean success           = compile(files, buffer);
+
+		if (!success && incremental) {
+
+			// cached classes may be inconsistent with the changed sources, try again with all sources
+			logger.info("Incremental compilation failed, compiling all dynamic entities");
+
+			fileManager.prepare(new LinkedHashMap<>());
+
+			files.clear();
+			files.addAll(jfiles.values());
+
+			success = compile(files, errorBuffer);
+		}
+
+		if (success) {
+
+			for (final JavaFileObject file : files) {
+
+				final String className = ((CharSequenceJavaFileObject)file).getClassName();
+
+				bytecodeCache.put(className, keys.get(className), fileManager.getOutput(className));
+			}
+		}
+
+		return success;
+	}
+
+	private boolean compile(final Iterable<JavaFileObject> files, final ErrorBuffer errorBuffer) {
+
+		final Writer errorWriter = new StringWriter();
+		final List<String> names = new ArrayList<>();
+
+		for (final JavaFileObject file : files) {
+			names.add(((CharSequenceJavaFileObject)file).getClassName());
+		}
+
+		logger.info("Compiling {} dynamic entities: {}", names.size(), StringUtils.join(names, ", "));
+
+		compiledCount = names.size();
+
+		return compiler.getTask(errorWriter, fileManager, new Listener(errorBuffer), null, null, files).call();
+	}
+
+	/**
+	 * Returns the given changed types, all types that reference a changed
+	 * type, and (transitively) all subtypes of those types.
+	 */
+	private Set<String> getTypesToRecompile(final Set<String> changed) {
+
+		final Set<String> result = new LinkedHashSet<>();
+
+		if (changed.isEmpty()) {
+			return result;
+		}
+
+		final Map<String, Set<String>> supertypes = new LinkedHashMap<>();
+
+		for (final Entry<String, String> entry : sources.entrySet()) {
+
+			final String className = entry.getKey();
+			final String source    = entry.getValue();
+
+			if (changed.contains(className)) {
+
+				result.add(className);
+
+			} else {
+
+				final Set<String> references = getIdentifiers(source);
+
+				references.retainAll(changed);
+
+				if (!references.isEmpty()) {
+					result.add(className);
+				}
+			}
+
+			supertypes.put(className, getSupertypes(className, source));
+		}
+
+		boolean modified = true;
+
+		while (modified) {
+
+			modified = false;
+
+			for (final Entry<String, Set<String>> entry : supertypes.entrySet()) {
+
+				final String className = entry.getKey();
+
+				if (!result.contains(className)) {
+
+					for (final String supertype : entry.getValue()) {
+
+						if (result.contains(supertype)) {
+
+							result.add(className);
+							modified = true;
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private Set<String> getSupertypes(final String className, final String source) {
+
+		final Matcher matcher = Pattern.compile("(class|interface)\\s+" + Pattern.quote(className) + "\\b([^{]*)\\{").matcher(source);
+		if (matcher.find()) {
+
+			final Set<String> supertypes = getIdentifiers(matcher.group(2));
+
+			supertypes.retainAll(sources.keySet());
+
+			return supertypes;
+		}
+
+		return new LinkedHashSet<>();
+	}
+
+	private Set<String> getIdentifiers(final String source) {
+
+		final Set<String> identifiers = new LinkedHashSet<>();
+		final Matcher matcher         = IDENTIFIER_PATTERN.matcher(source);
+
+		while (matcher.find()) {
+			identifiers.add(matcher.group());
+		}
+
+		return identifiers;
+	}
+
+	private static synchronized BytecodeCache getCache() {
+
+		if (cache == null) {
+			cache = new BytecodeCache(Paths.get(Settings.getFullSettingPath(Settings.SchemaCachePath)));
+		}
+
+		return cache;
+	}
+
+	// ----- nested classes -----
 	private static class Listener implements DiagnosticListener<JavaFileObject> {
 
 		private ErrorBuffer errorBuffer = null;
@@ -0,0 +1,232 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.agent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.structr.common.StructrTest;
+
+/**
+ * Tests the assignment of tasks to agents in the {@link AgentService}.
+ */
+public class AgentServiceTest extends StructrTest {
+
+	private static CountDownLatch started   = null;
+	private static CountDownLatch gate      = null;
+	private static CountDownLatch processed = null;
+	private static CountDownLatch other     = null;
+
+	@Test
+	public void testDeferredTasksAreAssigned() {
+
+		started   = new CountDownLatch(1);
+		gate      = new CountDownLatch(1);
+		processed = new CountDownLatch(5);
+		other     = new CountDownLatch(0);
+
+		final AgentService service = startAgentService();
+
+		try {
+
+			for (int i=0; i<5; i++) {
+				service.processTask(new BlockingTask());
+			}
+
+			assertTrue("Task was not started", started.await(10, TimeUnit.SECONDS));
+
+			// one task is running and at most one is queued in the only
+			// agent, the remaining tasks must wait for a free agent
+			waitForQueueSize(service, 3);
+
+			assertEquals("Agent limit not respected", 1, service.getRunningAgents().get(BlockingTask.class.getName()).size());
+
+			gate.countDown();
+
+			assertTrue("Deferred tasks were not assigned after the agent became free", processed.await(10, TimeUnit.SECONDS));
+
+		} catch (InterruptedException iex) {
+
+			fail("Unexpected exception.");
+
+		} finally {
+
+			gate.countDown();
+			service.stopService();
+		}
+	}
+
+	@Test
+	public void testBusyTaskTypeDoesNotBlockOtherTypes() {
+
+		started   = new CountDownLatch(1);
+		gate      = new CountDownLatch(1);
+		processed = new CountDownLatch(4);
+		other     = new CountDownLatch(1);
+
+		final AgentService service = startAgentService();
+
+		try {
+
+			for (int i=0; i<4; i++) {
+				service.processTask(new BlockingTask());
+			}
+
+			assertTrue("Task was not started", started.await(10, TimeUnit.SECONDS));
+
+			waitForQueueSize(service, 2);
+
+			// all agents for BlockingTask are busy, the other task type must not wait for them
+			service.processTask(new OtherTask());
+
+			assertTrue("Task was blocked by tasks of another type", other.await(10, TimeUnit.SECONDS));
+			assertEquals("Blocked tasks must not be processed yet", 4, processed.getCount());
+
+			gate.countDown();
+
+			assertTrue("Deferred tasks were not assigned after the agent became free", processed.await(10, TimeUnit.SECONDS));
+
+		} catch (InterruptedException iex) {
+
+			fail("Unexpected exception.");
+
+		} finally {
+
+			gate.countDown();
+			service.stopService();
+		}
+	}
+
+	// ----- private methods -----
+	private AgentService startAgentService() {
+
+		final AgentService service = new AgentService() {
+
+			@Override
+			public Map<String, Class<? extends Agent>> getAgents() {
+
+				final Map<String, Class<? extends Agent>> agents = new LinkedHashMap<>();
+
+				agents.put(BlockingAgent.class.getSimpleName(), BlockingAgent.class);
+				agents.put(OtherAgent.class.getSimpleName(), OtherAgent.class);
+
+				return agents;
+			}
+		};
+
+		try {
+
+			service.startService();
+
+		} catch (Exception ex) {
+
+			fail("Unexpected exception.");
+		}
+
+		return service;
+	}
+
+	private void waitForQueueSize(final AgentService service, final int size) throws InterruptedException {
+
+		for (int i=0; i<100; i++) {
+
+			if (service.getTaskQueue().size() >= size) {
+				return;
+			}
+
+			Thread.sleep(100);
+		}
+
+		fail("Task queue did not reach the minimum size of " + size + ", was " + service.getTaskQueue().size());
+	}
+
+	// ----- nested classes -----
+	public static class BlockingTask extends AbstractTask<Object> {
+
+		public BlockingTask() {
+			super("BlockingTask", null);
+		}
+	}
+
+	public static class OtherTask extends AbstractTask<Object> {
+
+		public OtherTask() {
+			super("OtherTask", null);
+		}
+	}
+
+	public static class BlockingAgent extends Agent<Object> {
+
+		@Override
+		public ReturnValue processTask(final Task<Object> task) throws Throwable {
+
+			started.countDown();
+			gate.await();
+			processed.countDown();
+
+			return ReturnValue.Success;
+		}
+
+		@Override
+		public Class getSupportedTaskType() {
+			return BlockingTask.class;
+		}
+
+		@Override
+		public boolean createEnclosingTransaction() {
+			return false;
+		}
+
+		@Override
+		public int getMaxAgents() {
+			return 1;
+		}
+
+		@Override
+		public int getMaxQueueSize() {
+			return 1;
+		}
+	}
+
+	public static class OtherAgent extends Agent<Object> {
+
+		@Override
+		public ReturnValue processTask(final Task<Object> task) throws Throwable {
+
+			other.countDown();
+
+			return ReturnValue.Success;
+		}
+
+		@Override
+		public Class getSupportedTaskType() {
+			return OtherTask.class;
+		}
+
+		@Override
+		public boolean createEnclosingTransaction() {
+			return false;
+		}
+	}
+}
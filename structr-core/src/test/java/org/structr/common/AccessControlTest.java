@@ -18,7 +18,10 @@
  */
 package org.structr.common;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -28,6 +31,7 @@ import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
 import org.structr.api.graph.Direction;
 import org.structr.api.graph.Relationship;
 import org.structr.api.util.Iterables;
@@ -44,6 +48,7 @@ import org.structr.core.entity.ResourceAccess;
 import org.structr.core.entity.TestOne;
 import org.structr.core.entity.relationship.Ownership;
 import org.structr.core.entity.relationship.PrincipalOwnsNode;
+import org.structr.core.graph.BulkRebuildAccessIndexCommand;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.Tx;
 import org.structr.core.property.PropertyKey;
@@ -1204,6 +1209,130 @@ public class AccessControlTest extends StructrTest {
 		}		
 	}
 
+	@Test
+	public void test12AccessIndexPagingWithHiddenNodes() {
+
+		// remove auto-generated resource access objects
+		clearResourceAccess();
+
+		Settings.AccessIndex.setValue(true);
+
+		try {
+
+			app.command(BulkRebuildAccessIndexCommand.class).execute(new LinkedHashMap<>());
+
+			assertTrue("Access index must be used after a rebuild", AccessIndex.isReady());
+
+			final List<Principal> users = createTestNodes(Principal.class, 2);
+			final Principal user1       = users.get(0);
+			final Principal user2       = users.get(1);
+			final List<TestOne> nodes   = new LinkedList<>();
+
+			for (int i=0; i<10; i++) {
+
+				final PropertyMap props = new PropertyMap();
+				props.put(AbstractNode.name, "node0" + i);
+
+				nodes.add(createTestNode(TestOne.class, props, user1));
+			}
+
+			// nodes of another user must not be counted either
+			createTestNode(TestOne.class, user2);
+			createTestNode(TestOne.class, user2);
+
+			try (final Tx tx = app.tx()) {
+
+				// hidden nodes on the first page shift the offset of the second page
+				nodes.get(1).setProperty(AbstractNode.hidden, true);
+				nodes.get(2).setProperty(AbstractNode.hidden, true);
+				nodes.get(4).setProperty(AbstractNode.hidden, true);
+				tx.success();
+			}
+
+			final SecurityContext user1Context = SecurityContext.getInstance(user1, AccessMode.Backend);
+
+			try (final Tx tx = app.tx()) {
+
+				final Result result = StructrApp.getInstance(user1Context).nodeQuery(TestOne.class).includeDeletedAndHidden(false).sort(AbstractNode.name).page(2).pageSize(3).getResult();
+
+				assertEquals(7, (int)result.getRawResultCount());
+				assertEquals(3, result.size());
+
+				assertEquals(nodes.get(6).getUuid(), result.get(0).getUuid());
+				assertEquals(nodes.get(7).getUuid(), result.get(1).getUuid());
+				assertEquals(nodes.get(8).getUuid(), result.get(2).getUuid());
+
+				tx.success();
+			}
+
+		} catch (FrameworkException ex) {
+
+			logger.warn("", ex);
+			fail("Unexpected exception");
+
+		} finally {
+
+			Settings.AccessIndex.setValue(false);
+		}
+	}
+
+	@Test
+	public void test13AccessIndexRequiresRebuild() {
+
+		try {
+
+			// ownership changes while the index is disabled are not recorded in the index
+			final Principal user = createTestNode(Principal.class);
+			createTestNode(TestOne.class, user);
+
+			Settings.AccessIndex.setValue(true);
+
+			assertFalse("Access index must not be used before a rebuild", AccessIndex.isReady());
+
+			try (final Tx tx = app.tx()) {
+
+				assertFalse("Access index must not be used before a rebuild", AccessIndex.canFilter(SecurityContext.getInstance(user, AccessMode.Backend)));
+				tx.success();
+			}
+
+			// a rebuild of a single type does not cover all nodes
+			final Map<String, Object> params = new LinkedHashMap<>();
+			params.put("type", "TestOne");
+
+			app.command(BulkRebuildAccessIndexCommand.class).execute(params);
+
+			assertFalse("Access index must not be used after a partial rebuild", AccessIndex.isReady());
+
+			app.command(BulkRebuildAccessIndexCommand.class).execute(new LinkedHashMap<>());
+
+			assertTrue("Access index must be used after a rebuild", AccessIndex.isReady());
+
+			try (final Tx tx = app.tx()) {
+
+				assertTrue("Access index must be used after a rebuild", AccessIndex.canFilter(SecurityContext.getInstance(user, AccessMode.Backend)));
+				tx.success();
+			}
+
+			Settings.AccessIndex.setValue(false);
+
+			// this ownership change invalidates the index
+			createTestNode(TestOne.class, user);
+
+			Settings.AccessIndex.setValue(true);
+
+			assertFalse("Access index must not be used after changes while it was disabled", AccessIndex.isReady());
+
+		} catch (FrameworkException ex) {
+
+			logger.warn("", ex);
+			fail("Unexpected exception");
+
+		} finally {
+
+			Settings.AccessIndex.setValue(false);
+		}
+	}
+
 	/**
 	 * Test whether users are allowed to add themselves to a group they don't have write access for (they shouldn't).
 	 * 
@@ -1461,6 +1461,55 @@ public class BasicTest extends StructrTest {
 		}
 	}
 
+	@Test
+	public void testSortHelperMultipleKeys() {
+
+		try {
+
+			final List<TestOne> nodes = createTestNodes(TestOne.class, 100);
+
+			try (final Tx tx = app.tx()) {
+
+				for (int i=0; i<nodes.size(); i++) {
+
+					final TestOne node = nodes.get(i);
+
+					node.setProperty(TestOne.anInt, i % 10);
+					node.setProperty(TestOne.aString, i % 3 == 0 ? null : "string" + (i % 7));
+				}
+
+				tx.success();
+			}
+
+			try (final Tx tx = app.tx()) {
+
+				final List<SortHelper.Order> orders = new LinkedList<>();
+
+				orders.add(new SortHelper.Order(TestOne.anInt, true));
+				orders.add(new SortHelper.Order(TestOne.aString, false));
+
+				final List<TestOne> expected = new LinkedList<>(nodes);
+				final List<TestOne> sorted   = new LinkedList<>(nodes);
+				final List<TestOne> top      = new LinkedList<>(nodes);
+
+				Collections.sort(expected, new GraphObjectComparator(TestOne.aString, false));
+				Collections.sort(expected, new GraphObjectComparator(TestOne.anInt, true));
+
+				SortHelper.sort(sorted, orders, null);
+				SortHelper.sort(top, orders, null, 5);
+
+				assertEquals("Invalid sort result", expected, sorted);
+				assertEquals("Invalid top-k sort result", expected.subList(0, 5), top.subList(0, 5));
+				assertEquals("Invalid paging of sorted list", expected.subList(10, 20), PagingHelper.sortedSubList(new LinkedList<>(nodes), orders, null, 10, 2));
+			}
+
+		} catch (FrameworkException ex) {
+
+			logger.error(ex.toString());
+			fail("Unexpected exception");
+		}
+	}
+
 	@Test
 	public void testNodeCacheInvalidationInRelationshipWrapper() {
 
@@ -23,10 +23,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import static org.junit.Assert.assertEquals;
@@ -35,10 +37,12 @@ import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.util.Iterables;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.Result;
 import org.structr.core.app.App;
+import org.structr.core.app.PagedQueryIterable;
 import org.structr.core.app.Query;
 import org.structr.core.app.StructrApp;
 import org.structr.core.entity.AbstractNode;
@@ -2073,4 +2077,46 @@ public class SearchAndSortingTest extends StructrTest {
 
 		}
 	}
+
+	@Test
+	public void testPagedQueryIterable() {
+
+		final Set<String> expected = new LinkedHashSet<>();
+
+		try {
+
+			for (final TestOne node : createTestNodes(TestOne.class, 10)) {
+				expected.add(node.getUuid());
+			}
+
+		} catch (FrameworkException fex) {
+			fail("Unexpected exception.");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final List<String> ids = new LinkedList<>();
+
+			// a page size of 3 crosses three page boundaries and ends with a short page
+			for (final TestOne node : PagedQueryIterable.forType(securityContext, TestOne.class, 3)) {
+				ids.add(node.getUuid());
+			}
+
+			assertEquals("Paged iteration should return every node exactly once", 10, ids.size());
+			assertEquals("Paged iteration should return every node exactly once", expected, new LinkedHashSet<>(ids));
+
+			final List<String> sorted = new LinkedList<>(ids);
+			Collections.sort(sorted);
+
+			assertEquals("Paged iteration should be sorted by id", sorted, ids);
+
+			// a page size that divides the result count ends with an empty page
+			assertEquals("Paged iteration should return every node exactly once", 10, Iterables.count(PagedQueryIterable.forType(securityContext, TestOne.class, 5)));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fail("Unexpected exception.");
+		}
+	}
 }
@@ -390,6 +390,10 @@ public class StructrTest {
 	}
 
 	protected Map<String, Object> toMap(final String key1, final Object value1, final String key2, final Object value2, final String key3, final Object value3) {
+		return toMap(key1, value1, key2, value2, key3, value3, null, null);
+	}
+
+	protected Map<String, Object> toMap(final String key1, final Object value1, final String key2, final Object value2, final String key3, final Object value3, final String key4, final Object value4) {
 
 		final Map<String, Object> map = new LinkedHashMap<>();
 
@@ -405,6 +409,10 @@ public class StructrTest {
 			map.put(key3, value3);
 		}
 
+		if (key4 != null && value4 != null) {
+			map.put(key4, value4);
+		}
+
 		return map;
 	}
 
@@ -44,6 +44,7 @@ import org.structr.common.StructrTest;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.Result;
 import org.structr.core.entity.Group;
+import org.structr.core.entity.OneTwoOneToOne;
 import org.structr.core.entity.TestEleven;
 import org.structr.core.entity.TestOne;
 import org.structr.core.entity.TestTwo;
@@ -52,6 +53,8 @@ import org.structr.core.graph.BulkRebuildIndexCommand;
 import org.structr.core.graph.BulkSetNodePropertiesCommand;
 import org.structr.core.graph.SyncCommand;
 import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.core.property.StringProperty;
 
 /**
  *
@@ -168,6 +171,89 @@ public class MaintenanceTest extends StructrTest {
 		}
 	}
 
+	@Test
+	public void testSyncCommandSegmentedIncrementalExportImport() {
+
+		final String incrementalFileName = "___structr-test-export-incremental___.zip";
+
+		try {
+			// create test nodes
+			final List<TestOne> testNodes = createTestNodes(TestOne.class, 100);
+			final List<TestTwo> testTwos  = createTestNodes(TestTwo.class, 10);
+			final PropertyKey<String> key = new StringProperty("note");
+
+			try (final Tx tx = app.tx()) {
+
+				for (int i=0; i<10; i++) {
+					app.create(testNodes.get(i), testTwos.get(i), OneTwoOneToOne.class);
+				}
+
+				tx.success();
+			}
+
+			// test segmented export with small segments and multiple workers
+			app.command(SyncCommand.class).execute(toMap("mode", "export", "file", EXPORT_FILENAME, "segmentSize", 7L, "threads", 4L));
+
+			final Path exportFile = Paths.get(EXPORT_FILENAME);
+
+			assertTrue("Export file doesn't exist!", Files.exists(exportFile));
+
+			final long since = System.currentTimeMillis();
+
+			// make sure the modification timestamps differ
+			Thread.sleep(10);
+
+			try (final Tx tx = app.tx()) {
+
+				for (final TestOne node : testNodes.subList(0, 10)) {
+					node.setProperty(TestOne.name, "modified");
+				}
+
+				// modified relationships must be updated, not duplicated
+				for (final OneTwoOneToOne rel : app.relationshipQuery(OneTwoOneToOne.class).getAsList()) {
+					rel.setProperty(key, "modified");
+				}
+
+				tx.success();
+			}
+
+			// test incremental export
+			app.command(SyncCommand.class).execute(toMap("mode", "export", "file", incrementalFileName, "since", Long.toString(since)));
+
+			final Path incrementalFile = Paths.get(incrementalFileName);
+
+			assertTrue("Incremental export file doesn't exist!", Files.exists(incrementalFile));
+
+			cleanDatabase();
+
+			// import full export first, then apply the incremental export on top
+			app.command(SyncCommand.class).execute(toMap("mode", "import", "file", EXPORT_FILENAME, "batchSize", 20L, "threads", 4L));
+			app.command(SyncCommand.class).execute(toMap("mode", "import", "file", incrementalFileName));
+
+			try (final Tx tx = app.tx()) {
+
+				assertEquals(100, app.nodeQuery(TestOne.class).getResult().size());
+				assertEquals(10, app.nodeQuery(TestOne.class).and(TestOne.name, "modified").getResult().size());
+
+				final List<OneTwoOneToOne> rels = app.relationshipQuery(OneTwoOneToOne.class).getAsList();
+
+				assertEquals("Incremental import must not duplicate relationships", 10, rels.size());
+
+				for (final OneTwoOneToOne rel : rels) {
+					assertEquals("Incremental import must update relationships", "modified", rel.getProperty(key));
+				}
+			}
+
+			// clean-up after test
+			Files.delete(exportFile);
+			Files.delete(incrementalFile);
+
+		} catch (Exception ex) {
+			logger.warn("", ex);
+			fail("Unexpected exception.");
+		}
+	}
+
 	@Test
 	public void testSyncCommandInheritance() {
 
@@ -0,0 +1,311 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.core.scheduler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.structr.api.config.Settings;
+import org.structr.common.ContextStore;
+import org.structr.common.StructrTest;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.Tx;
+
+/**
+ * Tests the scheduling of jobs in the {@link JobQueueManager}.
+ */
+public class JobQueueManagerTest extends StructrTest {
+
+	private final List<String> started = Collections.synchronizedList(new LinkedList<>());
+	private final List<TestJob> jobs   = new LinkedList<>();
+	private Principal user             = null;
+
+	@Before
+	public void createUser() {
+
+		try (final Tx tx = app.tx()) {
+
+			user = app.create(Principal.class, "tester");
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fail("Unexpected exception.");
+		}
+	}
+
+	@After
+	public void resetSettings() {
+
+		// release all jobs so that the next test starts with an empty queue
+		for (final TestJob job : jobs) {
+			job.release.countDown();
+		}
+
+		for (final TestJob job : jobs) {
+			JobQueueManager.getInstance().cancelQueuedJob(job.jobId());
+		}
+
+		for (final TestJob job : jobs) {
+
+			try {
+				job.finished.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException ignore) {}
+		}
+
+		Settings.JobQueueMaxJobs.setValue(Settings.JobQueueMaxJobs.getDefaultValue());
+		Settings.JobQueueMaxJobsPerType.setValue(Settings.JobQueueMaxJobsPerType.getDefaultValue());
+		Settings.JobQueueMinFreeMemory.setValue(Settings.JobQueueMinFreeMemory.getDefaultValue());
+	}
+
+	@Test
+	public void testJobsAreStartedByPriority() {
+
+		Settings.JobQueueMaxJobs.setValue(1);
+		Settings.JobQueueMaxJobsPerType.setValue(10);
+
+		try {
+
+			final TestJob first = addJob("first", "test", 0);
+
+			waitForStart(first);
+
+			final TestJob low1  = addJob("low1",  "test", 0);
+			final TestJob high  = addJob("high",  "test", 5);
+			final TestJob low2  = addJob("low2",  "test", 0);
+
+			low1.release.countDown();
+			high.release.countDown();
+			low2.release.countDown();
+
+			// only one job may run at a time
+			assertEquals(Arrays.asList("first"), started);
+
+			first.release.countDown();
+
+			waitForFinish(low2);
+
+			assertEquals(Arrays.asList("first", "high", "low1", "low2"), started);
+
+		} catch (FrameworkException fex) {
+
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testJobsPerTypeAreLimited() {
+
+		Settings.JobQueueMaxJobs.setValue(4);
+		Settings.JobQueueMaxJobsPerType.setValue(1);
+
+		try {
+
+			final TestJob csv1 = addJob("csv1", "CSV", 0);
+			final TestJob csv2 = addJob("csv2", "CSV", 0);
+			final TestJob xml  = addJob("xml",  "XML", 0);
+
+			waitForStart(csv1);
+			waitForStart(xml);
+
+			// jobs of other types must not wait for the queued job
+			assertEquals(2, started.size());
+			assertTrue(started.containsAll(Arrays.asList("csv1", "xml")));
+
+			csv1.release.countDown();
+
+			waitForStart(csv2);
+
+			assertEquals(3, started.size());
+			assertEquals("csv2", started.get(2));
+
+		} catch (FrameworkException fex) {
+
+			fail("Unexpected exception.");
+		}
+	}
+
+	@Test
+	public void testJobsRequireFreeMemory() {
+
+		Settings.JobQueueMaxJobs.setValue(4);
+		Settings.JobQueueMaxJobsPerType.setValue(4);
+		Settings.JobQueueMinFreeMemory.setValue(Integer.MAX_VALUE);
+
+		try {
+
+			// the first job is always started
+			final TestJob first  = addJob("first",  "test", 0);
+			final TestJob second = addJob("second", "test", 0);
+
+			waitForStart(first);
+
+			assertEquals(Arrays.asList("first"), started);
+
+			Settings.JobQueueMinFreeMemory.setValue(0);
+
+			first.release.countDown();
+
+			waitForStart(second);
+
+			assertEquals(Arrays.asList("first", "second"), started);
+
+		} catch (FrameworkException fex) {
+
+			fail("Unexpected exception.");
+		}
+	}
+
+	// ----- private methods -----
+	private TestJob addJob(final String name, final String type, final int priority) throws FrameworkException {
+
+		final Map<String, Object> configuration = new HashMap<>();
+
+		configuration.put("priority", priority);
+
+		final TestJob job = new TestJob(name, type, user, configuration);
+
+		jobs.add(job);
+
+		JobQueueManager.getInstance().addJob(job);
+
+		return job;
+	}
+
+	private void waitForStart(final TestJob job) {
+
+		try {
+
+			assertTrue("Job " + job.name + " was not started", job.running.await(10, TimeUnit.SECONDS));
+
+		} catch (InterruptedException iex) {
+
+			fail("Unexpected exception.");
+		}
+	}
+
+	private void waitForFinish(final TestJob job) {
+
+		try {
+
+			assertTrue("Job " + job.name + " did not finish", job.finished.await(10, TimeUnit.SECONDS));
+
+		} catch (InterruptedException iex) {
+
+			fail("Unexpected exception.");
+		}
+	}
+
+	// ----- nested classes -----
+	private class TestJob extends ScheduledJob {
+
+		private final CountDownLatch running  = new CountDownLatch(1);
+		private final CountDownLatch release  = new CountDownLatch(1);
+		private final CountDownLatch finished = new CountDownLatch(1);
+		private String type                   = null;
+		private String name                   = null;
+
+		public TestJob(final String name, final String type, final Principal user, final Map<String, Object> configuration) {
+
+			super(name, user, configuration, new ContextStore());
+
+			this.name = name;
+			this.type = type;
+		}
+
+		@Override
+		public boolean runInitialChecks() throws FrameworkException {
+			return true;
+		}
+
+		@Override
+		public Runnable getRunnable() {
+
+			return () -> {
+
+				started.add(name);
+				running.countDown();
+
+				try {
+
+					release.await();
+
+				} catch (InterruptedException ignore) {
+
+				} finally {
+
+					jobFinished();
+					finished.countDown();
+				}
+			};
+		}
+
+		@Override
+		public String getJobType() {
+			return type;
+		}
+
+		@Override
+		public String getJobStatusType() {
+			return "TEST_JOB_STATUS";
+		}
+
+		@Override
+		public String getJobExceptionMessageType() {
+			return "TEST_JOB_EXCEPTION";
+		}
+
+		@Override
+		public Map<String, Object> getStatusData(final JobStatusMessageSubtype subtype) {
+
+			final Map<String, Object> data = new HashMap<>();
+
+			data.put("type",    getJobStatusType());
+			data.put("jobId",   jobId());
+			data.put("subtype", subtype);
+
+			return data;
+		}
+
+		@Override
+		public Map<String, Object> getJobInfo() {
+
+			final Map<String, Object> data = new HashMap<>();
+
+			data.put("jobId",    jobId());
+			data.put("jobtype",  getJobType());
+			data.put("username", getUsername());
+
+			return data;
+		}
+	}
+}
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Random;
 import org.apache.commons.lang3.StringUtils;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -44,6 +45,7 @@ import org.structr.common.AccessMode;
 import org.structr.common.SecurityContext;
 import org.structr.common.StructrTest;
 import org.structr.common.error.FrameworkException;
+import org.structr.common.error.SemanticErrorToken;
 import org.structr.common.error.UnlicensedScriptException;
 import org.structr.common.geo.GeoCodingResult;
 import org.structr.common.geo.GeoHelper;
@@ -2487,4 +2489,91 @@ public class ScriptingTest extends StructrTest {
 			fail("Unexpected exception.");
 		}
 	}
+
+	@Test
+	public void testQueryMemoInvalidation() {
+
+		Settings.QueryMemoization.setValue(true);
+
+		try (final Tx tx = app.tx()) {
+
+			final ActionContext ctx = new ActionContext(securityContext, null);
+
+			assertEquals("Invalid find() result", 0, ((Number)Scripting.evaluate(ctx, null, "${size(find('TestOne'))}", "test")).intValue());
+			assertEquals("find() result should be memoized", 1, ctx.getQueryMemo().size());
+
+			// commit a new node in another transaction
+			final Thread writer = new Thread(() -> {
+
+				try (final Tx writerTx = app.tx()) {
+
+					app.create(TestOne.class, "memo");
+					writerTx.success();
+
+				} catch (FrameworkException fex) {
+					fex.printStackTrace();
+				}
+			});
+
+			writer.start();
+			writer.join();
+
+			assertEquals("Memoized result must be invalidated by a commit in another transaction", 1, ((Number)Scripting.evaluate(ctx, null, "${size(find('TestOne'))}", "test")).intValue());
+			assertEquals("Invalid find() result", 0, ((Number)Scripting.evaluate(ctx, null, "${size(find('TestOne', 'name', 'modified'))}", "test")).intValue());
+
+			// modify the node with cypher() which bypasses the modification queue
+			Scripting.evaluate(ctx, null, "${cypher('MATCH (n:TestOne) SET n.name = \"modified\"')}", "test");
+
+			assertEquals("Memoized result must be invalidated by cypher()", 1, ((Number)Scripting.evaluate(ctx, null, "${size(find('TestOne', 'name', 'modified'))}", "test")).intValue());
+
+			tx.success();
+
+		} catch (InterruptedException | FrameworkException ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+
+		} finally {
+
+			Settings.QueryMemoization.setValue(false);
+		}
+	}
+
+	@Test
+	public void testIsolatedContextMerge() {
+
+		Settings.QueryMemoization.setValue(true);
+
+		try (final Tx tx = app.tx()) {
+
+			final ActionContext parent = new ActionContext(securityContext, null);
+			final ActionContext copy   = new ActionContext(parent);
+
+			copy.isolate();
+
+			assertEquals("Invalid find() result", 0, ((Number)Scripting.evaluate(copy, null, "${size(find('TestOne'))}", "test")).intValue());
+			copy.raiseError(422, new SemanticErrorToken("TestOne", null, "test_error"));
+
+			assertEquals("Isolated context must not share the query memo", 0, parent.getQueryMemo().size());
+			assertFalse("Isolated context must not share the error buffer",   parent.hasError());
+
+			parent.merge(copy);
+
+			assertEquals("Memoized results should be merged", 1,   parent.getQueryMemo().size());
+			assertEquals("Memo statistics should be merged",  1,   parent.getQueryMemo().getMissCount());
+			assertTrue("Errors should be merged",                  parent.hasError());
+			assertEquals("Error status should be merged",     422, parent.getErrorBuffer().getStatus());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+
+		} finally {
+
+			Settings.QueryMemoization.setValue(false);
+		}
+	}
 }
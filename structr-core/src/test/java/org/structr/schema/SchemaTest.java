@@ -49,6 +49,7 @@ import org.structr.core.graph.NodeAttribute;
 import org.structr.core.graph.Tx;
 import org.structr.core.property.PropertyKey;
 import org.structr.schema.action.Actions;
+import org.structr.schema.compiler.NodeExtender;
 import org.structr.schema.export.StructrSchema;
 import org.structr.schema.json.InvalidSchemaException;
 import org.structr.schema.json.JsonObjectType;
@@ -716,6 +717,52 @@ public class SchemaTest extends StructrTest {
 		}
 	}
 
+	@Test
+	public void testIncrementalSchemaCompilation() {
+
+		cleanDatabaseAndSchema();
+
+		try (final Tx tx = app.tx()) {
+
+			final JsonSchema schema = StructrSchema.createFromDatabase(app);
+
+			schema.addType("Project").addStringProperty("projectId", PropertyView.Public);
+			schema.addType("Customer").addStringProperty("customerId", PropertyView.Public);
+
+			StructrSchema.extendDatabaseSchema(app, schema);
+
+			tx.success();
+
+		} catch (Throwable t) {
+			t.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		// modify a single type, unrelated types should be loaded from the bytecode cache
+		try (final Tx tx = app.tx()) {
+
+			final JsonSchema schema = StructrSchema.createFromDatabase(app);
+
+			schema.getType("Project").addStringProperty("description", PropertyView.Public);
+
+			StructrSchema.extendDatabaseSchema(app, schema);
+
+			tx.success();
+
+		} catch (Throwable t) {
+			t.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		assertTrue("Only the modified type and its dependents should be recompiled", NodeExtender.getCompiledCount() < NodeExtender.getClasses().size());
+
+		final Class project  = StructrApp.getConfiguration().getNodeEntityClass("Project");
+		final Class customer = StructrApp.getConfiguration().getNodeEntityClass("Customer");
+
+		assertNotNull("Type from incremental compilation should exist", StructrApp.key(project, "description"));
+		assertNotNull("Type from bytecode cache should exist", StructrApp.key(customer, "customerId"));
+	}
+
 	// ----- private methods -----
 	private void checkSchemaString(final String source) {
 
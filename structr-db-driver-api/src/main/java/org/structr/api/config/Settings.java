@@ -70,6 +70,8 @@ public class Settings {
 	public static final Setting<String> LogName               = new StringSetting(generalGroup,   "Logging",     "log.name",                   "structr-yyyy_mm_dd.request.log");
 	public static final Setting<String> Configuration         = new StringSetting(generalGroup,   "hidden",      "configuration.provider",     "org.structr.module.JarConfigurationProvider");
 	public static final StringSetting Services                = new StringSetting(generalGroup,   "Services",    "configured.services",        "NodeService AgentService CronService SchemaService LogService HttpService");
+	public static final Setting<Boolean> ServicesParallel     = new BooleanSetting(generalGroup,  "Services",    "configured.services.parallel", false, "Starts services that do not depend on each other in parallel.");
+	public static final Setting<Boolean> ModuleIndexEnabled   = new BooleanSetting(generalGroup,  "Services",    "modules.index.enabled",        true, "Uses the build-time module index instead of scanning all classes of a module on startup.");
 
 	// server settings
 	public static final Setting<String> ApplicationHost       = new StringSetting(serverGroup,  "Interfaces", "application.host",              "0.0.0.0");
@@ -123,6 +125,7 @@ public class Settings {
 	// application settings
 	public static final Setting<Integer> ResolutionDepth          = new IntegerSetting(applicationGroup, "Security",     "application.security.resolution.depth",       5);
 	public static final Setting<String> OwnerlessNodes            = new StringSetting(applicationGroup,  "Security",     "application.security.ownerless.nodes",        "read");
+	public static final Setting<Boolean> AccessIndex              = new BooleanSetting(applicationGroup, "Security",     "application.security.accessindex",            false, "Maintains a list of principals with read access on each node and uses it to filter search results in the database. The index is used after the maintenance command rebuildAccessIndex has been run for all nodes while this setting is enabled.");
 	public static final Setting<Boolean> ChangelogEnabled         = new BooleanSetting(applicationGroup, "Changelog",    "application.changelog.enabled",               false);
 	public static final Setting<Boolean> FilesystemEnabled        = new BooleanSetting(applicationGroup, "Filesystem",   "application.filesystem.enabled",              false);
 	public static final Setting<Boolean> UniquePaths              = new BooleanSetting(applicationGroup, "Filesystem",   "application.filesystem.unique.paths",         true);
@@ -131,14 +134,38 @@ public class Settings {
 	public static final Setting<Integer> IndexingLimit            = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.limit",       50000);
 	public static final Setting<Integer> IndexingMinLength        = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.minlength",   3);
 	public static final Setting<Integer> IndexingMaxLength        = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.maxlength",   30);
+	public static final Setting<String> IndexingPath              = new StringSetting(applicationGroup,  "Filesystem",   "application.filesystem.indexing.path",        "fulltext" + File.separator, "IMPORTANT: Path is relative to base.path");
+	public static final Setting<Integer> IndexingFlushSize        = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.flushsize",   1000);
+	public static final Setting<Integer> IndexingFlushInterval    = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.flushinterval", 10);
+	public static final Setting<Integer> IndexingMaxSegments      = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.maxsegments", 8);
+	public static final Setting<Integer> IndexingMaxResults       = new IntegerSetting(applicationGroup, "Filesystem",   "application.filesystem.indexing.maxresults",  1000);
 	public static final Setting<Boolean> FollowSymlinks           = new BooleanSetting(applicationGroup, "Filesystem",   "application.filesystem.mount.followSymlinks", true);
 	public static final Setting<String> DefaultUploadFolder       = new StringSetting(applicationGroup,  "Filesystem",   "application.uploads.folder",                  "");
 	public static final Setting<String> HttpProxyUrl              = new StringSetting(applicationGroup,  "Proxy",        "application.proxy.http.url",                  "");
 	public static final Setting<String> HttpProxyUser             = new StringSetting(applicationGroup,  "Proxy",        "application.proxy.http.username",             "");
 	public static final Setting<String> HttpProxyPassword         = new StringSetting(applicationGroup,  "Proxy",        "application.proxy.http.password",             "");
 	public static final Setting<Boolean> SchemAutoMigration       = new BooleanSetting(applicationGroup, "Schema",       "application.schema.automigration",            false);
+	public static final Setting<Boolean> SchemaCacheEnabled       = new BooleanSetting(applicationGroup, "Schema",       "application.schema.cache.enabled",            true, "Enables incremental schema compilation and the persistent bytecode cache for dynamic types.");
+	public static final Setting<String> SchemaCachePath           = new StringSetting(applicationGroup,  "Schema",       "application.schema.cache.path",               "schema-cache" + File.separator, "IMPORTANT: Path is relative to base.path");
 	public static final Setting<Boolean> AllowUnknownPropertyKeys = new BooleanSetting(applicationGroup, "Schema",       "application.schema.allowUnknownKeys",         false, "Enables get() and set() built-in functions to use property keys that are not defined in the schema.");
 	public static final Setting<Boolean> logMissingLocalizations  = new BooleanSetting(applicationGroup, "Localization", "application.localization.logMissing",         false, "Turns on logging for requested but non-existing localizations.");
+	public static final Setting<Boolean> SortCollation            = new BooleanSetting(applicationGroup, "Localization", "application.localization.collation",          false, "Sorts string values in search and REST results according to the locale of the request instead of their natural order.");
+	public static final Setting<Integer> JobQueueMaxJobs          = new IntegerSetting(applicationGroup, "Scheduler",    "application.scheduler.maxjobs",               4, "Maximum number of import and script jobs that run at the same time, paused jobs included. Additional jobs are queued.");
+	public static final Setting<Integer> JobQueueMaxJobsPerType   = new IntegerSetting(applicationGroup, "Scheduler",    "application.scheduler.maxjobs.pertype",       1, "Maximum number of running jobs of the same type, e.g. CSV or XML import.");
+	public static final Setting<Integer> JobQueueMinFreeMemory    = new IntegerSetting(applicationGroup, "Scheduler",    "application.scheduler.minfreememory",         256, "Free heap memory in MB that is required to start a job while other jobs are running.");
+	public static final Setting<Integer> MessagingThreads         = new IntegerSetting(applicationGroup, "Messaging",    "application.messaging.dispatch.threads",      4);
+	public static final Setting<Integer> MessagingQueueSize       = new IntegerSetting(applicationGroup, "Messaging",    "application.messaging.dispatch.queuesize",    10000);
+	public static final Setting<Integer> MessagingBatchSize       = new IntegerSetting(applicationGroup, "Messaging",    "application.messaging.dispatch.batchsize",    100);
+	public static final Setting<Integer> MessagingEnqueueTimeout  = new IntegerSetting(applicationGroup, "Messaging",    "application.messaging.dispatch.timeout",      30);
+	public static final Setting<Boolean> ParallelRendering        = new BooleanSetting(applicationGroup, "Rendering",    "application.rendering.parallel",              false, "Enables concurrent rendering of page elements that are marked with renderIndependently.");
+	public static final Setting<Integer> RenderingThreads         = new IntegerSetting(applicationGroup, "Rendering",    "application.rendering.threads",               8);
+	public static final Setting<Integer> RenderingRequestLimit    = new IntegerSetting(applicationGroup, "Rendering",    "application.rendering.perrequest",            4);
+	public static final Setting<Boolean> RenderByteBuffers        = new BooleanSetting(applicationGroup, "Rendering",    "application.rendering.bytebuffers",           true,  "Streams rendered pages to the client through pooled direct byte buffers instead of collecting them in a string. Output is sent while the page is rendered, so errors during rendering cannot be reported with an error page.");
+	public static final Setting<Integer> RenderBufferSize         = new IntegerSetting(applicationGroup, "Rendering",    "application.rendering.buffersize",            65536);
+	public static final Setting<Integer> RenderBufferPoolSize     = new IntegerSetting(applicationGroup, "Rendering",    "application.rendering.bufferpoolsize",        256);
+	public static final Setting<Boolean> QueryMemoization         = new BooleanSetting(applicationGroup, "Rendering",    "application.rendering.querymemo",             false, "Caches the results of identical find(), search() and REST queries while rendering a page, until the first write in the same transaction or the next commit of another transaction.");
+	public static final Setting<Boolean> MetricsEnabled           = new BooleanSetting(applicationGroup, "Metrics",      "application.metrics.enabled",                 true, "Collects timings of REST requests, page rendering, Cypher statements, transactions, scripts and schema compilations, see the metrics REST endpoint.");
+	public static final Setting<Integer> SlowQueryThreshold       = new IntegerSetting(applicationGroup, "Metrics",      "application.metrics.slowquery.threshold",     100);
 
 	// mail settings
 	public static final Setting<String> SmtpHost              = new StringSetting(smtpGroup,  "SMTP Settings", "smtp.host",         "localhost");
@@ -161,6 +188,7 @@ public class Settings {
 	public static final Setting<String> DefaultDateFormat        = new StringSetting(advancedGroup,  "Date Format", "DateProperty.defaultFormat",    "yyyy-MM-dd'T'HH:mm:ssZ");
 	public static final Setting<Boolean> InheritanceDetection    = new BooleanSetting(advancedGroup, "hidden",      "importer.inheritancedetection", true);
 	public static final Setting<Boolean> CmisEnabled             = new BooleanSetting(advancedGroup, "hidden",      "cmis.enabled",                  false);
+	public static final Setting<Integer> CmisChangeLogSize       = new IntegerSetting(advancedGroup, "hidden",      "cmis.changelog.size",           100000);
 
 	// servlets
 	public static final Setting<String> Servlets              = new StringSetting(servletsGroup,  "General", "HttpService.servlets",             "JsonRestServlet HtmlServlet WebSocketServlet CsvServlet UploadServlet ProxyServlet GraphQLServlet");
@@ -254,6 +282,7 @@ public class Settings {
 
 	// cron settings
 	public static final Setting<String> CronTasks               = new StringSetting(cronGroup,  "CronService.tasks", "");
+	public static final Setting<Integer> CronPoolSize           = new IntegerSetting(cronGroup, "CronService.poolsize", 4);
 
 	// oauth settings
 	public static final Setting<String> OAuthServers            = new StringSetting(oauthGroup, "General", "oauth.servers", "github twitter linkedin google facebook");
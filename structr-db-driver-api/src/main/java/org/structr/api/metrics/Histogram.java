@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations with exponential buckets. Bucket
+ * n holds the durations below 2^n microseconds, so the percentiles
+ * are approximated by the upper bound of the bucket they fall into.
+ */
+public class Histogram {
+
+	private static final int BUCKET_COUNT = 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAccumulator max     = new LongAccumulator(Long::max, 0L);
+	private final LongAdder total         = new LongAdder();
+	private final LongAdder count         = new LongAdder();
+
+	public void update(final long nanos) {
+
+		final long micros = Math.max(0L, nanos / 1000L);
+		final int bucket  = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+		buckets.incrementAndGet(bucket);
+		max.accumulate(nanos);
+		total.add(nanos);
+		count.increment();
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotal() {
+		return total.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public long getMean() {
+
+		final long n = count.sum();
+		if (n > 0) {
+
+			return total.sum() / n;
+		}
+
+		return 0L;
+	}
+
+	/**
+	 * Returns the approximate duration in nanoseconds below which the
+	 * given fraction of all recorded durations lies.
+	 *
+	 * @param fraction the fraction, e.g. 0.95 for the 95th percentile
+	 * @return the upper bound of the bucket the percentile falls into
+	 */
+	public long getPercentile(final double fraction) {
+
+		final long[] snapshot = new long[BUCKET_COUNT];
+		long sum              = 0L;
+
+		// the buckets are read one by one, so we must use their sum
+		// instead of the count, which can already be ahead of them
+		for (int i=0; i<BUCKET_COUNT; i++) {
+
+			snapshot[i] = buckets.get(i);
+			sum        += snapshot[i];
+		}
+
+		final long target = (long)Math.ceil(sum * fraction);
+		long current      = 0L;
+
+		for (int i=0; i<BUCKET_COUNT; i++) {
+
+			current += snapshot[i];
+
+			if (current >= target && current > 0) {
+
+				return Math.min((1L << i) * 1000L, max.get());
+			}
+		}
+
+		return 0L;
+	}
+
+	public Map<String, Object> toMap() {
+
+		final Map<String, Object> data = new LinkedHashMap<>();
+
+		data.put("count", getCount());
+		data.put("total", toMillis(getTotal()));
+		data.put("mean",  toMillis(getMean()));
+		data.put("max",   toMillis(getMax()));
+		data.put("p50",   toMillis(getPercentile(0.50)));
+		data.put("p95",   toMillis(getPercentile(0.95)));
+		data.put("p99",   toMillis(getPercentile(0.99)));
+
+		return data;
+	}
+
+	// ----- public static methods -----
+	public static double toMillis(final long nanos) {
+		return Math.round(nanos / 1000.0) / 1000.0;
+	}
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.structr.api.config.Settings;
+
+/**
+ * Registry for the timing histograms of the hot paths. Timings are
+ * grouped in categories and keyed by a name, e.g. the resource
+ * signature of a REST request or the normalized Cypher statement.
+ *
+ * The number of names per category is limited, timings of additional
+ * names are collected under a common key to keep the memory bounded.
+ */
+public class Metrics {
+
+	public static final String CATEGORY_REST        = "rest";
+	public static final String CATEGORY_HTML        = "html";
+	public static final String CATEGORY_CYPHER      = "cypher";
+	public static final String CATEGORY_TRANSACTION = "transaction";
+	public static final String CATEGORY_SCRIPT      = "script";
+	public static final String CATEGORY_SCHEMA      = "schema";
+
+	private static final Map<String, Map<String, Histogram>> categories = new ConcurrentHashMap<>();
+	private static final SlowQueryLog slowQueries                       = new SlowQueryLog(100);
+	private static final String OVERFLOW_KEY                            = "(other)";
+	private static final String UNKNOWN_KEY                             = "(unknown)";
+	private static final int MAX_NAMES_PER_CATEGORY                     = 1000;
+
+	public static boolean isEnabled() {
+		return Settings.MetricsEnabled.getValue();
+	}
+
+	/**
+	 * Records the time elapsed since t0 for the given name.
+	 *
+	 * @param category the category
+	 * @param name the name
+	 * @param t0 the start time as returned by System.nanoTime()
+	 */
+	public static void record(final String category, final String name, final long t0) {
+
+		if (isEnabled()) {
+
+			getHistogram(category, name).update(System.nanoTime() - t0);
+		}
+	}
+
+	/**
+	 * Records the time elapsed since t0 for the normalized form of the
+	 * given statement, and adds the statement to the slow query log if
+	 * it took longer than the configured threshold.
+	 *
+	 * @param statement the Cypher statement
+	 * @param t0 the start time as returned by System.nanoTime()
+	 */
+	public static void recordQuery(final String statement, final long t0) {
+
+		if (statement != null && isEnabled()) {
+
+			final long duration = System.nanoTime() - t0;
+
+			getHistogram(CATEGORY_CYPHER, normalize(statement)).update(duration);
+
+			if (duration >= Settings.SlowQueryThreshold.getValue() * 1000000L) {
+
+				slowQueries.add(statement, duration);
+			}
+		}
+	}
+
+	/**
+	 * Returns the timings of all categories, sorted by the total time
+	 * spent so that the most expensive names come first.
+	 *
+	 * @return a map of category names to lists of timings
+	 */
+	public static Map<String, List<Map<String, Object>>> getTimings() {
+
+		final Map<String, List<Map<String, Object>>> result = new TreeMap<>();
+
+		for (final Map.Entry<String, Map<String, Histogram>> category : categories.entrySet()) {
+
+			final List<Map.Entry<String, Histogram>> entries = new ArrayList<>(category.getValue().entrySet());
+			final List<Map<String, Object>> timings          = new ArrayList<>(entries.size());
+
+			Collections.sort(entries, (a, b) -> Long.compare(b.getValue().getTotal(), a.getValue().getTotal()));
+
+			for (final Map.Entry<String, Histogram> entry : entries) {
+
+				final Map<String, Object> data = new LinkedHashMap<>();
+
+				data.put("name", entry.getKey());
+				data.putAll(entry.getValue().toMap());
+
+				timings.add(data);
+			}
+
+			result.put(category.getKey(), timings);
+		}
+
+		return result;
+	}
+
+	public static List<Map<String, Object>> getSlowQueries(final int n) {
+
+		final List<Map<String, Object>> result = new ArrayList<>();
+
+		for (final SlowQueryLog.Entry entry : slowQueries.getSlowest(n)) {
+			result.add(entry.toMap());
+		}
+
+		return result;
+	}
+
+	public static void reset() {
+
+		categories.clear();
+		slowQueries.clear();
+	}
+
+	/**
+	 * Replaces string and number literals in the given statement with
+	 * a placeholder and collapses whitespace, so that statements which
+	 * only differ in their literal values share the same timings.
+	 *
+	 * @param statement the statement
+	 * @return the normalized statement
+	 */
+	public static String normalize(final String statement) {
+
+		final StringBuilder buf = new StringBuilder(statement.length());
+		final int length        = statement.length();
+		boolean whitespace      = false;
+
+		for (int i=0; i<length; i++) {
+
+			final char c = statement.charAt(i);
+
+			if (Character.isWhitespace(c)) {
+
+				whitespace = true;
+				continue;
+			}
+
+			if (whitespace && buf.length() > 0) {
+				buf.append(' ');
+			}
+
+			whitespace = false;
+
+			switch (c) {
+
+				case '\'':
+				case '"':
+					// skip string literal, including escaped quotes
+					while (++i < length && statement.charAt(i) != c) {
+
+						if (statement.charAt(i) == '\\') {
+							i++;
+						}
+					}
+					buf.append('?');
+					break;
+
+				case '`':
+					// keep quoted identifiers
+					final int end = statement.indexOf('`', i + 1);
+					final int pos = end >= 0 ? end : length - 1;
+
+					buf.append(statement, i, pos + 1);
+					i = pos;
+					break;
+
+				default:
+					if (Character.isDigit(c) && (buf.length() == 0 || !Character.isJavaIdentifierPart(buf.charAt(buf.length() - 1)))) {
+
+						// skip number literal
+						while (i + 1 < length && (Character.isDigit(statement.charAt(i + 1)) || statement.charAt(i + 1) == '.')) {
+							i++;
+						}
+						buf.append('?');
+
+					} else {
+
+						buf.append(c);
+					}
+					break;
+			}
+		}
+
+		return buf.toString();
+	}
+
+	// ----- private static methods -----
+	private static Histogram getHistogram(final String category, final String name) {
+
+		final String key                  = name != null ? name : UNKNOWN_KEY;
+		Map<String, Histogram> histograms = categories.get(category);
+
+		if (histograms == null) {
+
+			histograms = categories.computeIfAbsent(category, k -> new ConcurrentHashMap<>());
+		}
+
+		// avoid computeIfAbsent for existing names, it locks the bin
+		final Histogram histogram = histograms.get(key);
+		if (histogram != null) {
+
+			return histogram;
+		}
+
+		// collect the timings of additional names under a common key
+		return histograms.computeIfAbsent(histograms.size() < MAX_NAMES_PER_CATEGORY ? key : OVERFLOW_KEY, k -> new Histogram());
+	}
+}
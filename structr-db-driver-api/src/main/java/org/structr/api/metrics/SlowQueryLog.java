@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free ring buffer that keeps the most recent slow queries,
+ * the oldest entry is overwritten when the buffer is full.
+ */
+public class SlowQueryLog {
+
+	private final AtomicLong position                 = new AtomicLong(0L);
+	private final AtomicReferenceArray<Entry> entries;
+
+	public SlowQueryLog(final int size) {
+		this.entries = new AtomicReferenceArray<>(size);
+	}
+
+	public void add(final String statement, final long nanos) {
+
+		final int index = (int)(position.getAndIncrement() % entries.length());
+
+		entries.set(index, new Entry(statement, nanos, System.currentTimeMillis(), Thread.currentThread().getName()));
+	}
+
+	/**
+	 * Returns the n slowest entries of the buffer, slowest first.
+	 *
+	 * @param n the maximum number of entries
+	 * @return the slowest entries
+	 */
+	public List<Entry> getSlowest(final int n) {
+
+		final List<Entry> list = new ArrayList<>(entries.length());
+
+		for (int i=0; i<entries.length(); i++) {
+
+			final Entry entry = entries.get(i);
+			if (entry != null) {
+
+				list.add(entry);
+			}
+		}
+
+		Collections.sort(list, (a, b) -> Long.compare(b.getDuration(), a.getDuration()));
+
+		return list.subList(0, Math.min(n, list.size()));
+	}
+
+	public void clear() {
+
+		for (int i=0; i<entries.length(); i++) {
+			entries.set(i, null);
+		}
+	}
+
+	// ----- nested classes -----
+	public static class Entry {
+
+		private String statement = null;
+		private String thread    = null;
+		private long timestamp   = 0L;
+		private long duration    = 0L;
+
+		public Entry(final String statement, final long duration, final long timestamp, final String thread) {
+
+			this.statement = statement;
+			this.duration  = duration;
+			this.timestamp = timestamp;
+			this.thread    = thread;
+		}
+
+		public String getStatement() {
+			return statement;
+		}
+
+		public long getDuration() {
+			return duration;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public String getThread() {
+			return thread;
+		}
+
+		public Map<String, Object> toMap() {
+
+			final Map<String, Object> data = new LinkedHashMap<>();
+
+			data.put("statement", statement);
+			data.put("time",      Histogram.toMillis(duration));
+			data.put("timestamp", timestamp);
+			data.put("thread",    thread);
+
+			return data;
+		}
+	}
+}
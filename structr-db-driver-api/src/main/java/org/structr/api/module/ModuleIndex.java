@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.module;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The build-time index of a Structr module. The index is generated by the
+ * {@link ModuleIndexProcessor} when a module is compiled and lists all
+ * classes that must be registered when the module is loaded, so that the
+ * module does not need to be scanned at runtime.
+ *
+ * Each line of the index file contains a category and a fully qualified
+ * class name, separated by a single space. The index also records the
+ * number of top-level types of the compilation, so that an index that was
+ * written by an incremental build (which only sees the recompiled types)
+ * can be detected and ignored.
+ */
+public class ModuleIndex {
+
+	public static final String RESOURCE_NAME = "META-INF/structr/module.index";
+
+	public static final String NODE          = "node";
+	public static final String RELATIONSHIP  = "relationship";
+	public static final String SERVICE       = "service";
+	public static final String AGENT         = "agent";
+	public static final String MODULE        = "module";
+	public static final String COMMAND       = "command";
+	public static final String CONSOLE       = "console";
+	public static final String SHELL         = "shell";
+	public static final String WEBSOCKET     = "websocket";
+	public static final String PRELOAD       = "preload";
+	public static final String TYPE_COUNT    = "types";
+
+	public static final List<String> CATEGORIES = Collections.unmodifiableList(Arrays.asList(NODE, RELATIONSHIP, SERVICE, AGENT, MODULE, COMMAND, CONSOLE, SHELL, WEBSOCKET, PRELOAD));
+
+	private final Map<String, Set<String>> classes = new LinkedHashMap<>();
+	private int typeCount                          = -1;
+
+	public ModuleIndex() {
+
+		for (final String category : CATEGORIES) {
+			classes.put(category, new LinkedHashSet<>());
+		}
+	}
+
+	public static ModuleIndex read(final InputStream is) throws IOException {
+
+		final ModuleIndex index = new ModuleIndex();
+
+		try (final BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+
+			String line = null;
+
+			while ((line = reader.readLine()) != null) {
+
+				final String trimmed = line.trim();
+				if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+					continue;
+				}
+
+				final String[] parts = trimmed.split(" ", 2);
+				if (parts.length == 2) {
+
+					if (TYPE_COUNT.equals(parts[0])) {
+
+						try {
+
+							index.typeCount = Integer.parseInt(parts[1].trim());
+
+						} catch (NumberFormatException nfex) {}
+
+					} else {
+
+						index.add(parts[0], parts[1].trim());
+					}
+				}
+			}
+		}
+
+		return index;
+	}
+
+	public void add(final String category, final String fqcn) {
+
+		final Set<String> set = classes.get(category);
+		if (set != null) {
+
+			set.add(fqcn);
+		}
+	}
+
+	public Set<String> getClasses(final String category) {
+		return classes.get(category);
+	}
+
+	/**
+	 * Returns the number of top-level types that were compiled when the
+	 * index was generated, or -1 if the index does not contain a count.
+	 *
+	 * @return the number of top-level types
+	 */
+	public int getTypeCount() {
+		return typeCount;
+	}
+
+	public void incrementTypeCount() {
+		typeCount = Math.max(typeCount, 0) + 1;
+	}
+
+	/**
+	 * Returns the names of all indexed classes, regardless of their category.
+	 *
+	 * @return all indexed class names
+	 */
+	public Set<String> getClasses() {
+
+		final Set<String> all = new LinkedHashSet<>();
+
+		for (final Set<String> set : classes.values()) {
+			all.addAll(set);
+		}
+
+		return all;
+	}
+
+	public boolean isEmpty() {
+		return getClasses().isEmpty();
+	}
+
+	@Override
+	public String toString() {
+
+		final StringBuilder buf = new StringBuilder();
+
+		if (typeCount >= 0) {
+
+			buf.append(TYPE_COUNT);
+			buf.append(" ");
+			buf.append(typeCount);
+			buf.append("\n");
+		}
+
+		for (final Map.Entry<String, Set<String>> entry : classes.entrySet()) {
+
+			for (final String fqcn : entry.getValue()) {
+
+				buf.append(entry.getKey());
+				buf.append(" ");
+				buf.append(fqcn);
+				buf.append("\n");
+			}
+		}
+
+		return buf.toString();
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.module;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates the {@link ModuleIndex} of a module
+ * at compile time. The processor does not require any annotations, it
+ * inspects all compiled types and records the ones that are subtypes of
+ * the Structr base types which are registered by the configuration
+ * provider (node and relationship types, services, agents and modules)
+ * or which register themselves when they are loaded (maintenance, console
+ * and websocket commands). Other classes that must be loaded with their
+ * module can be marked with {@link Preload}.
+ *
+ * The processor is registered via META-INF/services and thus runs in
+ * every module that has structr-db-driver-api on its class path.
+ */
+@SupportedAnnotationTypes("*")
+public class ModuleIndexProcessor extends AbstractProcessor {
+
+	private static final Map<String, String> BASE_TYPES = new LinkedHashMap<>();
+
+	static {
+
+		BASE_TYPES.put(ModuleIndex.NODE,         "org.structr.core.graph.NodeInterface");
+		BASE_TYPES.put(ModuleIndex.RELATIONSHIP, "org.structr.core.entity.AbstractRelationship");
+		BASE_TYPES.put(ModuleIndex.SERVICE,      "org.structr.api.service.Service");
+		BASE_TYPES.put(ModuleIndex.AGENT,        "org.structr.agent.Agent");
+		BASE_TYPES.put(ModuleIndex.MODULE,       "org.structr.module.StructrModule");
+
+		// commands register themselves in a static initializer when they are loaded
+		BASE_TYPES.put(ModuleIndex.COMMAND,      "org.structr.core.graph.MaintenanceCommand");
+		BASE_TYPES.put(ModuleIndex.CONSOLE,      "org.structr.console.rest.RestCommand");
+		BASE_TYPES.put(ModuleIndex.SHELL,        "org.structr.console.shell.AdminConsoleCommand");
+		BASE_TYPES.put(ModuleIndex.WEBSOCKET,    "org.structr.websocket.command.AbstractCommand");
+	}
+
+	private final ModuleIndex index = new ModuleIndex();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+
+		if (roundEnv.processingOver()) {
+
+			writeIndex();
+
+		} else {
+
+			for (final Element element : roundEnv.getRootElements()) {
+
+				if (element instanceof TypeElement) {
+					index.incrementTypeCount();
+				}
+
+				inspect(element);
+			}
+		}
+
+		// never claim any annotations
+		return false;
+	}
+
+	// ----- private methods -----
+	private void inspect(final Element element) {
+
+		if (element instanceof TypeElement) {
+
+			final TypeElement type   = (TypeElement)element;
+			final Elements elements  = processingEnv.getElementUtils();
+			final Types types        = processingEnv.getTypeUtils();
+			final boolean isAbstract = type.getModifiers().contains(Modifier.ABSTRACT) || type.getKind() == ElementKind.INTERFACE;
+			final TypeMirror mirror  = types.erasure(type.asType());
+
+			for (final Map.Entry<String, String> entry : BASE_TYPES.entrySet()) {
+
+				final String category      = entry.getKey();
+				final TypeElement baseType = elements.getTypeElement(entry.getValue());
+
+				// node types are registered including interfaces and abstract classes
+				if (baseType != null && (!isAbstract || ModuleIndex.NODE.equals(category)) && types.isAssignable(mirror, types.erasure(baseType.asType()))) {
+
+					index.add(category, elements.getBinaryName(type).toString());
+				}
+			}
+
+			if (type.getAnnotation(Preload.class) != null) {
+				index.add(ModuleIndex.PRELOAD, elements.getBinaryName(type).toString());
+			}
+
+			// nested types
+			for (final Element enclosed : type.getEnclosedElements()) {
+				inspect(enclosed);
+			}
+		}
+	}
+
+	private void writeIndex() {
+
+		if (index.isEmpty()) {
+			return;
+		}
+
+		try {
+
+			final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ModuleIndex.RESOURCE_NAME);
+
+			try (final Writer writer = file.openWriter()) {
+
+				writer.write("# generated by " + ModuleIndexProcessor.class.getName() + ", do not edit\n");
+				writer.write(index.toString());
+			}
+
+		} catch (IOException ioex) {
+
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to write Structr module index: " + ioex.getMessage());
+		}
+	}
+}
@@ -27,6 +27,10 @@ public class QueryContext {
 	private int skip = -1;
 	private int limit = -1;
 
+	private boolean seek = false;
+	private Object seekValue = null;
+	private String seekId = null;
+
 	private boolean isPing = false;
 
 	public QueryContext() {
@@ -53,6 +57,36 @@ public class QueryContext {
 		return limit;
 	}
 
+	/**
+	 * Enables seek paging: the results are ordered by the sort key and
+	 * the id, and only the results after the given position are returned.
+	 * A null id denotes the start of the result set.
+	 *
+	 * @param sortValue the sort key value of the last seen result
+	 * @param id the id of the last seen result, or null
+	 * @return this
+	 */
+	public QueryContext seek(final Object sortValue, final String id) {
+
+		seek = true;
+		seekValue = sortValue;
+		seekId = id;
+
+		return this;
+	}
+
+	public boolean isSeek() {
+		return seek;
+	}
+
+	public Object getSeekValue() {
+		return seekValue;
+	}
+
+	public String getSeekId() {
+		return seekId;
+	}
+
 	public QueryContext isPing(final boolean isPing) {
 		this.isPing = isPing;
 		return this;
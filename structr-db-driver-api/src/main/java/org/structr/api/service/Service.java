@@ -18,6 +18,8 @@
  */
 package org.structr.api.service;
 
+import java.util.Set;
+
 /**
  * The base class for services in structr.
  */
@@ -89,4 +91,15 @@ public interface Service extends Feature {
 	default int getRetryDelay() {
 		return 30;
 	}
+
+	/**
+	 * Return the names of the services that must be started before this
+	 * service. The default implementation returns null, which means that
+	 * the service depends on all services that are configured before it.
+	 *
+	 * @return a set of service names, or null
+	 */
+	default Set<String> getDependencies() {
+		return null;
+	}
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.metrics;
+
+import java.util.List;
+import org.junit.Assert;
+
+/**
+ *
+ */
+public class MetricsTest {
+
+	@org.junit.Test
+	public void testNormalize() {
+
+		Assert.assertEquals("Invalid normalized statement", "MATCH (n:Page {name: ?}) WHERE n.position > ? RETURN n LIMIT ?", Metrics.normalize("MATCH (n:Page {name: 'a \\' b'})\n\tWHERE n.position > 12.5  RETURN n LIMIT 10"));
+		Assert.assertEquals("Invalid normalized statement", "MATCH (n:Node2) WHERE n.id = {id0} RETURN n.`name2`",  Metrics.normalize("MATCH (n:Node2) WHERE n.id = {id0} RETURN n.`name2`"));
+		Assert.assertEquals("Invalid normalized statement", "RETURN ?, ?",                                            Metrics.normalize("RETURN \"x\", 1"));
+	}
+
+	@org.junit.Test
+	public void testHistogram() {
+
+		final Histogram histogram = new Histogram();
+
+		// 90 fast and 10 slow updates
+		for (int i=0; i<90; i++) {
+			histogram.update(100000L);
+		}
+
+		for (int i=0; i<10; i++) {
+			histogram.update(50000000L);
+		}
+
+		Assert.assertEquals("Invalid histogram count", 100L, histogram.getCount());
+		Assert.assertEquals("Invalid histogram max", 50000000L, histogram.getMax());
+
+		// percentiles are the upper bound of the bucket, capped by the max
+		Assert.assertTrue("Invalid histogram percentile", histogram.getPercentile(0.5) >= 100000L);
+		Assert.assertTrue("Invalid histogram percentile", histogram.getPercentile(0.5) < 50000000L);
+		Assert.assertEquals("Invalid histogram percentile", 50000000L, histogram.getPercentile(0.99));
+	}
+
+	@org.junit.Test
+	public void testSlowQueryLog() {
+
+		final SlowQueryLog log = new SlowQueryLog(10);
+
+		for (int i=0; i<100; i++) {
+			log.add("query" + i, i);
+		}
+
+		final List<SlowQueryLog.Entry> slowest = log.getSlowest(3);
+
+		// only the last 10 entries are kept
+		Assert.assertEquals("Invalid slow query log size", 10, log.getSlowest(100).size());
+		Assert.assertEquals("Invalid slow query log size", 3, slowest.size());
+		Assert.assertEquals("Invalid slow query log order", "query99", slowest.get(0).getStatement());
+		Assert.assertEquals("Invalid slow query log order", "query97", slowest.get(2).getStatement());
+	}
+}
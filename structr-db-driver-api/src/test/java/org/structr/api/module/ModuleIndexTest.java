@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.api.module;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+
+/**
+ *
+ */
+public class ModuleIndexTest {
+
+	@org.junit.Test
+	public void testReadWrite() throws IOException {
+
+		final ModuleIndex index = new ModuleIndex();
+
+		index.incrementTypeCount();
+		index.incrementTypeCount();
+		index.add(ModuleIndex.NODE,    "org.structr.test.Node1");
+		index.add(ModuleIndex.SERVICE, "org.structr.test.Service1");
+		index.add(ModuleIndex.COMMAND, "org.structr.test.Command1");
+		index.add(ModuleIndex.PRELOAD, "org.structr.test.Context1");
+
+		final ModuleIndex read = ModuleIndex.read(new ByteArrayInputStream(index.toString().getBytes(StandardCharsets.UTF_8)));
+
+		Assert.assertEquals("Invalid type count", 2, read.getTypeCount());
+		Assert.assertTrue("Missing indexed class", read.getClasses(ModuleIndex.NODE).contains("org.structr.test.Node1"));
+		Assert.assertTrue("Missing indexed class", read.getClasses(ModuleIndex.SERVICE).contains("org.structr.test.Service1"));
+		Assert.assertTrue("Missing indexed class", read.getClasses(ModuleIndex.COMMAND).contains("org.structr.test.Command1"));
+		Assert.assertEquals("Type count must not be read as a class", 4, read.getClasses().size());
+	}
+
+	@org.junit.Test
+	public void testMissingTypeCount() throws IOException {
+
+		// indexes without a type count can not be validated
+		final ModuleIndex read = ModuleIndex.read(new ByteArrayInputStream("node org.structr.test.Node1\n".getBytes(StandardCharsets.UTF_8)));
+
+		Assert.assertEquals("Invalid type count", -1, read.getTypeCount());
+	}
+}
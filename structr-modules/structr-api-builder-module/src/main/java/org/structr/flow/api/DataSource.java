@@ -20,11 +20,23 @@ package org.structr.flow.api;
 
 import org.structr.core.graph.NodeInterface;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 
 /**
  *
  */
-public interface DataSource<T> extends NodeInterface {
+public interface DataSource<T> extends NodeInterface, ValueSource<T> {
 
+	@Override
 	T get(final Context context);
+
+	/**
+	 * Compiles this data source into a value source that doesn't
+	 * access the database when it is evaluated.
+	 *
+	 * @param builder the builder of the plan this data source is part of
+	 *
+	 * @return the compiled value source
+	 */
+	ValueSource<T> compileSource(final FlowPlan.Builder builder);
 }
@@ -23,7 +23,7 @@ package org.structr.flow.api;
  */
 public interface Decision extends FlowElement {
 
-	DataSource getCondition();
+	ValueSource getCondition();
 	FlowElement getTrueElement();
 	FlowElement getFalseElement();
 
@@ -24,7 +24,7 @@ package org.structr.flow.api;
 public interface ForEach<T> extends FlowElement {
 
 	DataHandler<T> getDataHandler();
-	DataSource<T> getDataSource();
+	ValueSource<T> getDataSource();
 	FlowElement getLoopBody();
 
 	@Override
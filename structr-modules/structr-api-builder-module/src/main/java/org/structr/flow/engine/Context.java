@@ -39,6 +39,7 @@ public class Context {
 	private GraphObject thisObject   		= null;
 	private Object result            		= null;
 	private FlowError error          		= null;
+	private SecurityContext securityContext	= null;
 
 	public Context() {
 		this(null);
@@ -57,6 +58,14 @@ public class Context {
 		return thisObject;
 	}
 
+	public void setSecurityContext(final SecurityContext securityContext) {
+		this.securityContext = securityContext;
+	}
+
+	public SecurityContext getSecurityContext() {
+		return securityContext;
+	}
+
 	public void error(final FlowError error) {
 		this.error = error;
 	}
@@ -104,9 +113,13 @@ public class Context {
 	}
 
 	public ActionContext getActionContext(final SecurityContext securityContext, final FlowBaseNode node) {
+		return getActionContext(securityContext, node.getUuid());
+	}
+
+	public ActionContext getActionContext(final SecurityContext securityContext, final String uuid) {
 		ActionContext ctx = new ActionContext(securityContext);
-		if(this.data.get(node.getUuid()) != null) {
-			ctx.setConstant("data", this.data.get(node.getUuid()));
+		if(this.data.get(uuid) != null) {
+			ctx.setConstant("data", this.data.get(uuid));
 		}
 		return ctx;
 	}
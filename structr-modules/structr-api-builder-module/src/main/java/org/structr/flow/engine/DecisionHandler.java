@@ -19,9 +19,9 @@
 package org.structr.flow.engine;
 
 import org.structr.flow.api.FlowHandler;
-import org.structr.flow.api.DataSource;
 import org.structr.flow.api.FlowElement;
 import org.structr.flow.api.Decision;
+import org.structr.flow.api.ValueSource;
 
 /**
  *
@@ -31,8 +31,8 @@ public class DecisionHandler implements FlowHandler<Decision> {
 	@Override
 	public FlowElement handle(final Context context, final Decision flowElement) {
 
-		final DataSource condition = flowElement.getCondition();
-		final Object value         = condition.get(context);
+		final ValueSource condition = flowElement.getCondition();
+		final Object value          = condition.get(context);
 
 		if (isTrue(value)) {
 
@@ -0,0 +1,377 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.flow.engine;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.app.StructrApp;
+import org.structr.flow.api.Action;
+import org.structr.flow.api.DataHandler;
+import org.structr.flow.api.DataSource;
+import org.structr.flow.api.Decision;
+import org.structr.flow.api.FlowElement;
+import org.structr.flow.api.FlowResult;
+import org.structr.flow.api.ForEach;
+import org.structr.flow.api.Return;
+import org.structr.flow.api.Store;
+import org.structr.flow.api.ValueSource;
+import org.structr.flow.impl.FlowContainer;
+import org.structr.flow.impl.FlowNode;
+
+/**
+ * An immutable, compiled representation of a {@link FlowContainer}.
+ *
+ * A plan contains the elements of a flow with pre-read scripts and
+ * resolved successors and data sources, so executing it does not
+ * traverse the database. Plans are cached per container and dropped
+ * when one of the nodes they were compiled from changes.
+ *
+ * Plans describe the structure of a flow, so they are compiled with a
+ * superuser context and shared between all callers. Permissions apply
+ * when the plan is executed with the security context of the caller.
+ */
+public class FlowPlan {
+
+	private static final Logger logger = LoggerFactory.getLogger(FlowPlan.class);
+
+	private static final Map<String, FlowPlan> cache = new ConcurrentHashMap<>();
+	private static final AtomicLong generation       = new AtomicLong();
+
+	private FlowElement startElement = null;
+	private Set<String> nodeIds      = null;
+	private String containerId       = null;
+
+	private FlowPlan(final String containerId, final FlowElement startElement, final Set<String> nodeIds) {
+
+		this.nodeIds      = Collections.unmodifiableSet(nodeIds);
+		this.startElement = startElement;
+		this.containerId  = containerId;
+	}
+
+	/**
+	 * Returns the cached plan for the given container, compiling it
+	 * if necessary.
+	 *
+	 * @param container
+	 *
+	 * @return the plan
+	 */
+	public static FlowPlan get(final FlowContainer container) {
+
+		final String uuid = container.getUuid();
+		FlowPlan plan     = cache.get(uuid);
+
+		if (plan == null) {
+
+			final long current = generation.get();
+
+			plan = compile(getStructuralContainer(container));
+
+			// don't cache a plan if a flow node was modified while it was compiled
+			if (generation.get() == current) {
+				cache.put(uuid, plan);
+			}
+		}
+
+		return plan;
+	}
+
+	public static FlowPlan compile(final FlowContainer container) {
+
+		final Builder builder     = new Builder();
+		final FlowElement element = builder.element(container.getProperty(FlowContainer.startNode));
+
+		return new FlowPlan(container.getUuid(), element, builder.nodeIds);
+	}
+
+	/**
+	 * Removes all plans that contain the node with the given UUID from
+	 * the cache.
+	 *
+	 * @param uuid
+	 */
+	public static void invalidate(final String uuid) {
+
+		if (uuid != null) {
+
+			generation.incrementAndGet();
+
+			cache.values().removeIf(plan -> plan.contains(uuid));
+		}
+	}
+
+	public static void clearCache() {
+
+		generation.incrementAndGet();
+		cache.clear();
+	}
+
+	public boolean contains(final String uuid) {
+		return containerId.equals(uuid) || nodeIds.contains(uuid);
+	}
+
+	public FlowElement getStartElement() {
+		return startElement;
+	}
+
+	public FlowResult execute(final SecurityContext securityContext, final Context context) {
+
+		context.setSecurityContext(securityContext);
+
+		return new FlowEngine(context).execute(context, startElement);
+	}
+
+	// ----- private methods -----
+	private static FlowContainer getStructuralContainer(final FlowContainer container) {
+
+		try {
+
+			final FlowContainer structural = StructrApp.getInstance().get(FlowContainer.class, container.getUuid());
+			if (structural != null) {
+
+				return structural;
+			}
+
+		} catch (FrameworkException fex) {
+			logger.warn("Unable to load flow container {}: {}", container.getUuid(), fex.getMessage());
+		}
+
+		return container;
+	}
+
+	// ----- nested classes -----
+	/**
+	 * Compiles flow nodes into the elements of a plan. Every node is
+	 * compiled only once, so shared data sources and loops in the flow
+	 * are preserved.
+	 */
+	public static class Builder {
+
+		private final Map<String, FlowElement> elements = new HashMap<>();
+		private final Map<String, ValueSource> sources  = new HashMap<>();
+		private final Set<String> nodeIds               = new LinkedHashSet<>();
+
+		private Builder() {}
+
+		public FlowElement element(final FlowElement node) {
+
+			if (node instanceof FlowNode) {
+
+				final FlowNode flowNode = (FlowNode)node;
+				final String uuid       = flowNode.getUuid();
+				FlowElement element     = elements.get(uuid);
+
+				if (element == null) {
+
+					element = flowNode.compileElement(this);
+
+					// register element before its successors are resolved
+					// so that loops in the flow graph terminate
+					elements.put(uuid, element);
+					nodeIds.add(uuid);
+
+					element.connect(element(flowNode.next()));
+
+					if (element instanceof DecisionElement) {
+
+						final Decision decision = (Decision)flowNode;
+
+						((DecisionElement)element).setBranches(element(decision.getTrueElement()), element(decision.getFalseElement()));
+					}
+
+					if (element instanceof ForEachElement) {
+
+						((ForEachElement)element).setLoopBody(element(((ForEach)flowNode).getLoopBody()));
+					}
+				}
+
+				return element;
+			}
+
+			return node;
+		}
+
+		public <T> ValueSource<T> source(final DataSource<T> node) {
+
+			if (node != null) {
+
+				final String uuid     = node.getUuid();
+				ValueSource<T> source = sources.get(uuid);
+
+				if (source == null) {
+
+					source = node.compileSource(this);
+
+					sources.put(uuid, source);
+					nodeIds.add(uuid);
+				}
+
+				return source;
+			}
+
+			return null;
+		}
+
+		/**
+		 * Registers a node that is neither an element nor a data source
+		 * but contributes to the plan, so that the plan is invalidated
+		 * when the node changes.
+		 *
+		 * @param node
+		 */
+		public void register(final GraphObject node) {
+
+			if (node != null) {
+				nodeIds.add(node.getUuid());
+			}
+		}
+	}
+
+	static abstract class Element implements FlowElement {
+
+		private FlowElement next = null;
+
+		@Override
+		public FlowElement next() {
+			return next;
+		}
+
+		@Override
+		public void connect(final FlowElement next) {
+			this.next = next;
+		}
+	}
+
+	public static class ActionElement extends Element implements Action {
+
+		private Consumer<Context> action = null;
+
+		public ActionElement(final Consumer<Context> action) {
+			this.action = action;
+		}
+
+		@Override
+		public void execute(final Context context) {
+			action.accept(context);
+		}
+	}
+
+	public static class StoreElement extends Element implements Store {
+
+		private Consumer<Context> storage = null;
+
+		public StoreElement(final Consumer<Context> storage) {
+			this.storage = storage;
+		}
+
+		@Override
+		public void handleStorage(final Context context) {
+			storage.accept(context);
+		}
+	}
+
+	public static class ReturnElement extends Element implements Return {
+
+		private ValueSource result = null;
+
+		public ReturnElement(final ValueSource result) {
+			this.result = result;
+		}
+
+		@Override
+		public Object getResult(final Context context) {
+			return result.get(context);
+		}
+	}
+
+	public static class DecisionElement extends Element implements Decision {
+
+		private FlowElement falseElement = null;
+		private FlowElement trueElement  = null;
+		private ValueSource condition    = null;
+
+		public DecisionElement(final ValueSource condition) {
+			this.condition = condition;
+		}
+
+		@Override
+		public ValueSource getCondition() {
+			return condition;
+		}
+
+		@Override
+		public FlowElement getTrueElement() {
+			return trueElement;
+		}
+
+		@Override
+		public FlowElement getFalseElement() {
+			return falseElement;
+		}
+
+		private void setBranches(final FlowElement trueElement, final FlowElement falseElement) {
+
+			this.trueElement  = trueElement;
+			this.falseElement = falseElement;
+		}
+	}
+
+	public static class ForEachElement extends Element implements ForEach {
+
+		private DataHandler dataHandler = null;
+		private ValueSource dataSource  = null;
+		private FlowElement loopBody    = null;
+
+		public ForEachElement(final ValueSource dataSource, final DataHandler dataHandler) {
+
+			this.dataSource  = dataSource;
+			this.dataHandler = dataHandler;
+		}
+
+		@Override
+		public DataHandler getDataHandler() {
+			return dataHandler;
+		}
+
+		@Override
+		public ValueSource getDataSource() {
+			return dataSource;
+		}
+
+		@Override
+		public FlowElement getLoopBody() {
+			return loopBody;
+		}
+
+		private void setLoopBody(final FlowElement loopBody) {
+			this.loopBody = loopBody;
+		}
+	}
+}
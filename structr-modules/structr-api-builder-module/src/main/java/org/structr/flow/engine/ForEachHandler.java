@@ -21,9 +21,9 @@ package org.structr.flow.engine;
 import java.util.Collection;
 import org.structr.flow.api.FlowHandler;
 import org.structr.flow.api.DataHandler;
-import org.structr.flow.api.DataSource;
 import org.structr.flow.api.ForEach;
 import org.structr.flow.api.FlowElement;
+import org.structr.flow.api.ValueSource;
 import org.structr.schema.action.ActionContext;
 
 /**
@@ -36,12 +36,14 @@ public class ForEachHandler<T> implements FlowHandler<ForEach<T>> {
 
 		final FlowEngine engine       = new FlowEngine(context);
 		final DataHandler dataHandler = flowElement.getDataHandler();
-		final DataSource dataSource   = flowElement.getDataSource();
+		final ValueSource dataSource  = flowElement.getDataSource();
 		final FlowElement loopBody    = flowElement.getLoopBody();
 		final Object data             = dataSource.get(context);
 
 		Context loopContext = new Context(context.getThisObject());
 
+		loopContext.setSecurityContext(context.getSecurityContext());
+
 		if (data instanceof Collection) {
 
 			for (final Object o : ((Collection)data)) {
@@ -19,21 +19,29 @@
 package org.structr.flow.impl;
 
 import org.structr.common.PropertyView;
+import org.structr.common.SecurityContext;
 import org.structr.common.View;
 import org.structr.common.error.FrameworkException;
+import org.structr.core.app.StructrApp;
 import org.structr.core.property.EndNodes;
 import org.structr.core.property.Property;
 import org.structr.core.property.StartNode;
 import org.structr.core.property.StringProperty;
 import org.structr.core.script.Scripting;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.FlowElement;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowDataInput;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
 public class FlowAction extends FlowActionNode implements DataSource {
 
+	private static final Pattern thisPattern = Pattern.compile("\\bthis\\b");
+
 	public static final Property<DataSource> dataSource = new StartNode<>("dataSource", FlowDataInput.class);
 	public static final Property<List<FlowBaseNode>> dataTarget		= new EndNodes<>("dataTarget", FlowDataInput.class);
 	public static final Property<String> script             		= new StringProperty("script");
@@ -43,31 +51,56 @@ public class FlowAction extends FlowActionNode implements DataSource {
 
 	@Override
 	public void execute(final Context context) {
-		final String _script = getProperty(script);
+		execute(context, securityContext, this, true, getUuid(), getProperty(script), getProperty(dataSource));
+	}
+
+	@Override
+	public Object get(Context context) {
+		return context.getData(getUuid());
+	}
+
+	@Override
+	public FlowElement compileElement(final FlowPlan.Builder builder) {
+
+		final ValueSource _dataSource = builder.source(getProperty(dataSource));
+		final String _script          = getProperty(script);
+		final String uuid             = getUuid();
+		final boolean usesThis        = _script != null && thisPattern.matcher(_script).find();
+
+		return new FlowPlan.ActionElement(context -> execute(context, context.getSecurityContext(), null, usesThis, uuid, _script, _dataSource));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final String uuid = getUuid();
+
+		return context -> context.getData(uuid);
+	}
+
+	// ----- private methods -----
+	private static void execute(final Context context, final SecurityContext securityContext, final FlowAction action, final boolean usesThis, final String uuid, final String _script, final ValueSource _dataSource) {
+
 		if (_script != null) {
 
 			try {
 
-				final DataSource _dataSource = getProperty(FlowAction.dataSource);
-
 				// make data available to action if present
 				if (_dataSource != null) {
-					context.setData(getUuid(), _dataSource.get(context));
+					context.setData(uuid, _dataSource.get(context));
 				}
 
+				// the action node itself is the this object of the script, plans hold no node
+				// instances, so it is only looked up for the caller if the script refers to it
+				final FlowAction thisObject = action != null || !usesThis ? action : StructrApp.getInstance(securityContext).get(FlowAction.class, uuid);
+
 				// Evaluate script and write result to context
-				Object result = Scripting.evaluate(context.getActionContext(securityContext, this), this, "${" + _script + "}", "FlowAction(" + getUuid() + ")");
-				context.setData(getUuid(), result);
+				Object result = Scripting.evaluate(context.getActionContext(securityContext, uuid), thisObject, "${" + _script + "}", "FlowAction(" + uuid + ")");
+				context.setData(uuid, result);
 
 			} catch (FrameworkException fex) {
 				fex.printStackTrace();
 			}
 		}
-
-	}
-
-	@Override
-	public Object get(Context context) {
-		return context.getData(getUuid());
 	}
 }
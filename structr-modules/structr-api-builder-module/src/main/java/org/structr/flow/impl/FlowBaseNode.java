@@ -19,10 +19,17 @@
 package org.structr.flow.impl;
 
 import org.structr.common.PropertyView;
+import org.structr.common.SecurityContext;
 import org.structr.common.View;
+import org.structr.common.error.ErrorBuffer;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
 import org.structr.core.entity.AbstractNode;
+import org.structr.core.graph.ModificationQueue;
 import org.structr.core.property.Property;
+import org.structr.core.property.PropertyMap;
 import org.structr.core.property.StartNode;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowContainerBaseNode;
 
 /**
@@ -33,4 +40,37 @@ public abstract class FlowBaseNode extends AbstractNode {
 
 	public static final View defaultView = new View(FlowContainer.class, PropertyView.Public, flowContainer);
 	public static final View uiView      = new View(FlowContainer.class, PropertyView.Ui,     flowContainer);
+
+	@Override
+	public void onModification(final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
+
+		super.onModification(securityContext, errorBuffer, modificationQueue);
+
+		FlowPlan.invalidate(getUuid());
+	}
+
+	@Override
+	public void onDeletion(final SecurityContext securityContext, final ErrorBuffer errorBuffer, final PropertyMap properties) throws FrameworkException {
+
+		super.onDeletion(securityContext, errorBuffer, properties);
+
+		FlowPlan.invalidate(properties.get(GraphObject.id));
+	}
+
+	@Override
+	public void afterModification(final SecurityContext securityContext) {
+
+		super.afterModification(securityContext);
+
+		// invalidate again after commit, a plan may have been compiled from the old state in the meantime
+		FlowPlan.invalidate(getUuid());
+	}
+
+	@Override
+	public void afterDeletion(final SecurityContext securityContext, final PropertyMap properties) {
+
+		super.afterDeletion(securityContext, properties);
+
+		FlowPlan.invalidate(properties.get(GraphObject.id));
+	}
 }
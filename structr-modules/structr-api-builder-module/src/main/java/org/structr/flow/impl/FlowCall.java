@@ -22,19 +22,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.common.PropertyView;
 import org.structr.common.View;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.StructrApp;
 import org.structr.core.property.EndNode;
 import org.structr.core.property.EndNodes;
 import org.structr.core.property.Property;
 import org.structr.core.property.StartNodes;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.FlowElement;
 import org.structr.flow.api.FlowResult;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
 import org.structr.flow.engine.FlowEngine;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowCallContainer;
 import org.structr.flow.impl.rels.FlowCallParameter;
 import org.structr.flow.impl.rels.FlowDataInput;
 
+import java.util.LinkedList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public class FlowCall extends FlowActionNode implements DataSource {
 
@@ -56,6 +63,8 @@ public class FlowCall extends FlowActionNode implements DataSource {
 
 			Context functionContext = new Context(context.getThisObject());
 
+			functionContext.setSecurityContext(context.getSecurityContext());
+
 			final FlowEngine engine = new FlowEngine(functionContext);
 			FlowNode startNode = flow.getProperty(FlowContainer.startNode);
 
@@ -89,4 +98,77 @@ public class FlowCall extends FlowActionNode implements DataSource {
 	public Object get(Context context) {
 		return context.getData(getUuid());
 	}
+
+	@Override
+	public FlowElement compileElement(final FlowPlan.Builder builder) {
+
+		final List<BiConsumer<Context, Context>> _parameters = new LinkedList<>();
+		final List<FlowParameterInput> params                = getProperty(parameters);
+		final FlowContainer _flow                            = getProperty(flow);
+		final String flowId                                  = _flow != null ? _flow.getUuid() : null;
+		final String uuid                                    = getUuid();
+
+		if (params != null) {
+
+			for (final FlowParameterInput p : params) {
+				_parameters.add(p.compile(builder));
+			}
+		}
+
+		// the called flow is not compiled into this plan, it has its own plan
+		return new FlowPlan.ActionElement(context -> execute(context, uuid, flowId, _parameters));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final String uuid = getUuid();
+
+		return context -> context.getData(uuid);
+	}
+
+	// ----- private methods -----
+	private static void execute(final Context context, final String uuid, final String flowId, final List<BiConsumer<Context, Context>> _parameters) {
+
+		if (flowId != null) {
+
+			try {
+
+				final FlowContainer container = StructrApp.getInstance(context.getSecurityContext()).get(FlowContainer.class, flowId);
+				if (container != null) {
+
+					final FlowPlan plan = FlowPlan.get(container);
+					if (plan.getStartElement() != null) {
+
+						final Context functionContext = new Context(context.getThisObject());
+
+						// Inject all parameters into context
+						for (final BiConsumer<Context, Context> parameter : _parameters) {
+							parameter.accept(context, functionContext);
+						}
+
+						final FlowResult result = plan.execute(context.getSecurityContext(), functionContext);
+
+						// Save result
+						context.setData(uuid, result.getResult());
+
+					} else {
+
+						logger.warn("Unable to evaluate FlowCall {}, flow container doesn't specify a start node.", uuid);
+					}
+
+				} else {
+
+					logger.warn("Unable to evaluate FlowCall {}, flow container {} not found.", uuid, flowId);
+				}
+
+			} catch (FrameworkException fex) {
+				logger.warn("Unable to evaluate FlowCall {}: {}", uuid, fex.getMessage());
+			}
+
+		} else {
+
+			logger.warn("Unable to evaluate FlowCall {}, missing flow container.", uuid);
+		}
+	}
 }
@@ -22,16 +22,22 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.structr.common.PropertyView;
+import org.structr.common.SecurityContext;
 import org.structr.common.View;
+import org.structr.common.error.ErrorBuffer;
+import org.structr.common.error.FrameworkException;
 import org.structr.core.Export;
+import org.structr.core.GraphObject;
 import org.structr.core.entity.AbstractNode;
+import org.structr.core.graph.ModificationQueue;
 import org.structr.core.property.EndNode;
 import org.structr.core.property.EndNodes;
 import org.structr.core.property.Property;
+import org.structr.core.property.PropertyMap;
 import org.structr.core.property.StringProperty;
 import org.structr.flow.api.FlowResult;
 import org.structr.flow.engine.Context;
-import org.structr.flow.engine.FlowEngine;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowContainerBaseNode;
 import org.structr.flow.impl.rels.FlowContainerFlowNode;
 
@@ -50,8 +56,8 @@ public class FlowContainer extends AbstractNode {
 	@Export
 	public Map<String, Object> evaluate(final Map<String, Object> parameters) {
 
-		final FlowEngine engine       = new FlowEngine(new Context(null, parameters));
-		final FlowResult result       = engine.execute(getProperty(startNode));
+		final FlowPlan plan           = FlowPlan.get(this);
+		final FlowResult result       = plan.execute(securityContext, new Context(null, parameters));
 		final Map<String, Object> map = new LinkedHashMap<>();
 
 		map.put("error",  result.getError());
@@ -60,4 +66,36 @@ public class FlowContainer extends AbstractNode {
 		return map;
 	}
 
+	@Override
+	public void onModification(final SecurityContext securityContext, final ErrorBuffer errorBuffer, final ModificationQueue modificationQueue) throws FrameworkException {
+
+		super.onModification(securityContext, errorBuffer, modificationQueue);
+
+		FlowPlan.invalidate(getUuid());
+	}
+
+	@Override
+	public void onDeletion(final SecurityContext securityContext, final ErrorBuffer errorBuffer, final PropertyMap properties) throws FrameworkException {
+
+		super.onDeletion(securityContext, errorBuffer, properties);
+
+		FlowPlan.invalidate(properties.get(GraphObject.id));
+	}
+
+	@Override
+	public void afterModification(final SecurityContext securityContext) {
+
+		super.afterModification(securityContext);
+
+		// invalidate again after commit, a plan may have been compiled from the old state in the meantime
+		FlowPlan.invalidate(getUuid());
+	}
+
+	@Override
+	public void afterDeletion(final SecurityContext securityContext, final PropertyMap properties) {
+
+		super.afterDeletion(securityContext, properties);
+
+		FlowPlan.invalidate(properties.get(GraphObject.id));
+	}
 }
@@ -20,7 +20,9 @@ package org.structr.flow.impl;
 
 import org.structr.flow.api.DataHandler;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 
 /**
  *
@@ -36,4 +38,21 @@ public class FlowDataHandler extends FlowDataSource implements DataHandler, Data
 	public Object get(final Context context) {
 		return context.getData(getUuid());
 	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final String uuid = getUuid();
+
+		return context -> context.getData(uuid);
+	}
+
+	public DataHandler compileHandler(final FlowPlan.Builder builder) {
+
+		final String uuid = getUuid();
+
+		builder.register(this);
+
+		return (context, value) -> context.setData(uuid, value);
+	}
 }
@@ -19,6 +19,7 @@
 package org.structr.flow.impl;
 
 import org.structr.common.PropertyView;
+import org.structr.common.SecurityContext;
 import org.structr.common.View;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.property.EndNodes;
@@ -26,7 +27,9 @@ import org.structr.core.property.Property;
 import org.structr.core.property.StringProperty;
 import org.structr.core.script.Scripting;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowDataInput;
 
 import java.util.List;
@@ -44,18 +47,31 @@ public class FlowDataSource extends FlowBaseNode implements DataSource {
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, securityContext, getUuid(), getProperty(query));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final String _script = getProperty(query);
+		final String uuid    = getUuid();
+
+		return context -> get(context, context.getSecurityContext(), uuid, _script);
+	}
+
+	// ----- private methods -----
+	private static Object get(final Context context, final SecurityContext securityContext, final String uuid, final String _script) {
 
-		Object currentData = context.getData(getUuid());
+		Object currentData = context.getData(uuid);
 
 		if(currentData == null) {
 
-			final String _script = getProperty(query);
 			if (_script != null) {
 
 				try {
 
-					Object result = Scripting.evaluate(context.getActionContext(securityContext, this), context.getThisObject(), "${" + _script + "}", "FlowDataSource(" + getUuid() + ")");
-					context.setData(getUuid(), result);
+					Object result = Scripting.evaluate(context.getActionContext(securityContext, uuid), context.getThisObject(), "${" + _script + "}", "FlowDataSource(" + uuid + ")");
+					context.setData(uuid, result);
 					return result;
 				} catch (FrameworkException fex) {
 
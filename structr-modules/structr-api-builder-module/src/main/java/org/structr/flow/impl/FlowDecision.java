@@ -29,6 +29,7 @@ import org.structr.core.property.StartNode;
 import org.structr.flow.api.DataSource;
 import org.structr.flow.api.Decision;
 import org.structr.flow.api.FlowElement;
+import org.structr.flow.engine.FlowPlan;
 
 /**
  *
@@ -56,4 +57,9 @@ public class FlowDecision extends FlowNode implements Decision {
 	public FlowElement getFalseElement() {
 		return getProperty(falseElement);
 	}
+
+	@Override
+	public FlowElement compileElement(final FlowPlan.Builder builder) {
+		return new FlowPlan.DecisionElement(builder.source(getProperty(condition)));
+	}
 }
@@ -27,6 +27,7 @@ import org.structr.flow.api.DataHandler;
 import org.structr.flow.api.DataSource;
 import org.structr.flow.api.FlowElement;
 import org.structr.flow.api.ForEach;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowForEachBody;
 import org.structr.flow.impl.rels.FlowForEachDataHandler;
 import org.structr.flow.impl.rels.FlowForEachDataInput;
@@ -57,4 +58,12 @@ public class FlowForEach extends FlowNode implements ForEach {
 	public FlowElement getLoopBody() {
 		return getProperty(loopBody);
 	}
+
+	@Override
+	public FlowElement compileElement(final FlowPlan.Builder builder) {
+
+		final FlowDataHandler _dataHandler = getProperty(dataHandler);
+
+		return new FlowPlan.ForEachElement(builder.source(getProperty(dataSource)), _dataHandler != null ? _dataHandler.compileHandler(builder) : null);
+	}
 }
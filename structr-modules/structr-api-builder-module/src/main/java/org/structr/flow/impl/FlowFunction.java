@@ -22,7 +22,8 @@ import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.app.StructrApp;
 import org.structr.flow.api.FlowResult;
-import org.structr.flow.engine.FlowEngine;
+import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.schema.action.ActionContext;
 import org.structr.schema.action.Function;
 
@@ -45,11 +46,11 @@ public class FlowFunction extends Function<Object, Object> {
 
 				if (container != null) {
 
-					final FlowNode node = container.getProperty(FlowContainer.startNode);
-					if (node != null) {
+					final FlowPlan plan = FlowPlan.get(container);
+					if (plan.getStartElement() != null) {
 
-						final FlowEngine engine = new FlowEngine(caller instanceof GraphObject ? (GraphObject)caller : null);
-						final FlowResult result = engine.execute(node);
+						final Context context   = new Context(caller instanceof GraphObject ? (GraphObject)caller : null);
+						final FlowResult result = plan.execute(ctx.getSecurityContext(), context);
 
 						return result.getResult();
 
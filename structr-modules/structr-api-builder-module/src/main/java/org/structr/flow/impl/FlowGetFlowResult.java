@@ -24,9 +24,12 @@ import org.structr.common.PropertyView;
 import org.structr.common.View;
 import org.structr.core.property.EndNode;
 import org.structr.core.property.Property;
+import org.structr.flow.api.FlowElement;
 import org.structr.flow.api.FlowResult;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
 import org.structr.flow.engine.FlowEngine;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowDataSourceFlowNode;
 
 /**
@@ -43,8 +46,21 @@ public class FlowGetFlowResult extends FlowDataSource {
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, getUuid(), getProperty(otherFlow));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final FlowElement _otherSource = builder.element(getProperty(otherFlow));
+		final String uuid              = getUuid();
+
+		return context -> get(context, uuid, _otherSource);
+	}
+
+	// ----- private methods -----
+	private static Object get(final Context context, final String uuid, final FlowElement _otherSource) {
 
-		final FlowNode _otherSource = getProperty(otherFlow);
 		if (_otherSource != null) {
 
 			final FlowEngine engine = new FlowEngine(context);
@@ -55,7 +71,7 @@ public class FlowGetFlowResult extends FlowDataSource {
 
 		} else {
 
-			logger.warn("Unable to evaluate FlowDataSource {}, missing flow source.", getUuid());
+			logger.warn("Unable to evaluate FlowDataSource {}, missing flow source.", uuid);
 		}
 
 		return null;
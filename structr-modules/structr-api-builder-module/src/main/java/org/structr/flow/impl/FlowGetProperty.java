@@ -27,7 +27,9 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.property.Property;
 import org.structr.core.property.PropertyKey;
 import org.structr.core.property.StartNode;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowNodeDataSource;
 import org.structr.flow.impl.rels.FlowNameDataSource;
 
@@ -46,9 +48,21 @@ public class FlowGetProperty extends FlowDataSource {
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, getUuid(), getProperty(nodeSource), getProperty(propertyNameSource));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final ValueSource _nodeSource = builder.source(getProperty(nodeSource));
+		final ValueSource _nameSource = builder.source(getProperty(propertyNameSource));
+		final String uuid             = getUuid();
+
+		return context -> get(context, uuid, _nodeSource, _nameSource);
+	}
 
-		final FlowDataSource _nodeSource = getProperty(nodeSource);
-		final FlowDataSource _nameSource = getProperty(propertyNameSource);
+	// ----- private methods -----
+	private static Object get(final Context context, final String uuid, final ValueSource _nodeSource, final ValueSource _nameSource) {
 
 		if (_nodeSource != null && _nameSource != null) {
 
@@ -69,28 +83,28 @@ public class FlowGetProperty extends FlowDataSource {
 
 							} else {
 
-								logger.warn("Name source of {} returned unknown property key {}", getUuid(), name);
+								logger.warn("Name source of {} returned unknown property key {}", uuid, name);
 							}
 						}
 
 					} else {
 
-						logger.warn("Name source of {} returned null", getUuid());
+						logger.warn("Name source of {} returned null", uuid);
 					}
 
 				} else {
 
-					logger.warn("Node data source of {} returned invalid object of type {}", getUuid(), node.getClass().getName());
+					logger.warn("Node data source of {} returned invalid object of type {}", uuid, node.getClass().getName());
 				}
 
 			} else {
 
-				logger.warn("Node data source of {} returned null", getUuid());
+				logger.warn("Node data source of {} returned null", uuid);
 			}
 
 		} else {
 
-			logger.warn("Unable to evaluate FlowDataSource {}, missing at least one source.", getUuid());
+			logger.warn("Unable to evaluate FlowDataSource {}, missing at least one source.", uuid);
 		}
 
 		return null;
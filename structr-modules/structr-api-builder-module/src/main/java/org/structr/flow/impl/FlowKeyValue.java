@@ -25,7 +25,9 @@ import org.structr.common.View;
 import org.structr.core.property.Property;
 import org.structr.core.property.StartNode;
 import org.structr.flow.api.KeyValue;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowKeySource;
 import org.structr.flow.impl.rels.FlowValueSource;
 
@@ -44,9 +46,21 @@ public class FlowKeyValue extends FlowDataSource {
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, getUuid(), getProperty(keySource), getProperty(valueSource));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final ValueSource _keySource   = builder.source(getProperty(keySource));
+		final ValueSource _valueSource = builder.source(getProperty(valueSource));
+		final String uuid              = getUuid();
+
+		return context -> get(context, uuid, _keySource, _valueSource);
+	}
 
-		final FlowDataSource _keySource   = getProperty(keySource);
-		final FlowDataSource _valueSource = getProperty(valueSource);
+	// ----- private methods -----
+	private static Object get(final Context context, final String uuid, final ValueSource _keySource, final ValueSource _valueSource) {
 
 		if (_keySource != null && _valueSource != null) {
 
@@ -60,17 +74,17 @@ public class FlowKeyValue extends FlowDataSource {
 
 				} else {
 
-					logger.warn("Value source of {} returned no data", getUuid());
+					logger.warn("Value source of {} returned no data", uuid);
 				}
 
 			} else {
 
-				logger.warn("Key source of {} returned no data", getUuid());
+				logger.warn("Key source of {} returned no data", uuid);
 			}
 
 		} else {
 
-			logger.warn("Unable to evaluate FlowKeyValue {}, missing at least one source.", getUuid());
+			logger.warn("Unable to evaluate FlowKeyValue {}, missing at least one source.", uuid);
 		}
 
 		return null;
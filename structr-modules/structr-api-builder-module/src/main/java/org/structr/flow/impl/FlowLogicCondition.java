@@ -18,6 +18,7 @@
  */
 package org.structr.flow.impl;
 
+import java.util.LinkedList;
 import java.util.List;
 import org.structr.common.PropertyView;
 import org.structr.common.View;
@@ -25,7 +26,9 @@ import org.structr.core.property.Property;
 import org.structr.core.property.StartNodes;
 import static org.structr.flow.impl.FlowAction.script;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowConditionCondition;
 
 /**
@@ -42,8 +45,25 @@ public abstract class FlowLogicCondition extends FlowCondition implements DataSo
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, getProperty(dataSources));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final List<ValueSource> _dataSources = new LinkedList<>();
+
+		for (final FlowCondition _dataSource : getProperty(dataSources)) {
+			_dataSources.add(builder.source(_dataSource));
+		}
+
+		// combine() is stateless, so referencing this node doesn't access the database
+		return context -> get(context, _dataSources);
+	}
+
+	// ----- protected methods -----
+	protected Object get(final Context context, final List<? extends ValueSource> _dataSources) {
 
-		final List<FlowCondition> _dataSources = getProperty(dataSources);
 		if (_dataSources.isEmpty()) {
 
 			return false;
@@ -51,7 +71,7 @@ public abstract class FlowLogicCondition extends FlowCondition implements DataSo
 
 		boolean result = true;
 
-		for (final FlowCondition _dataSource : getProperty(dataSources)) {
+		for (final ValueSource _dataSource : _dataSources) {
 
 			result = combine(result, getBoolean(context, _dataSource));
 		}
@@ -59,8 +79,7 @@ public abstract class FlowLogicCondition extends FlowCondition implements DataSo
 		return result;
 	}
 
-	// ----- protected methods -----
-	protected boolean getBoolean(final Context context, final DataSource source) {
+	protected boolean getBoolean(final Context context, final ValueSource source) {
 
 		if (source != null) {
 
@@ -25,6 +25,7 @@ import org.structr.core.property.EndNode;
 import org.structr.core.property.Property;
 import org.structr.core.property.StartNode;
 import org.structr.flow.api.FlowElement;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowContainerFlowNode;
 
 /**
@@ -47,4 +48,14 @@ public abstract class FlowNode extends FlowBaseNode implements FlowElement {
 	@Override
 	public void connect(FlowElement next) {
 	}
+
+	/**
+	 * Compiles this node into an element of a {@link FlowPlan}. The
+	 * successors of the element are resolved by the builder.
+	 *
+	 * @param builder the builder of the plan
+	 *
+	 * @return the compiled flow element
+	 */
+	public abstract FlowElement compileElement(final FlowPlan.Builder builder);
 }
@@ -18,13 +18,16 @@
  */
 package org.structr.flow.impl;
 
+import java.util.LinkedList;
 import java.util.List;
 import org.structr.common.PropertyView;
 import org.structr.common.View;
 import org.structr.core.property.Property;
 import org.structr.core.property.StartNodes;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowConditionDataInput;
 
 /**
@@ -39,14 +42,30 @@ public class FlowNotNull extends FlowCondition implements DataSource {
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, getProperty(dataSources));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final List<ValueSource> _dataSources = new LinkedList<>();
+
+		for (final DataSource _dataSource : getProperty(dataSources)) {
+			_dataSources.add(builder.source(_dataSource));
+		}
+
+		return context -> get(context, _dataSources);
+	}
+
+	// ----- private methods -----
+	private static Object get(final Context context, final List<? extends ValueSource> _dataSources) {
 
-		final List<DataSource> _dataSources = getProperty(dataSources);
 		if (_dataSources.isEmpty()) {
 
 			return false;
 		}
 
-		for (final DataSource _dataSource : getProperty(dataSources)) {
+		for (final ValueSource _dataSource : _dataSources) {
 
 			if (_dataSource.get(context) == null) {
 				return false;
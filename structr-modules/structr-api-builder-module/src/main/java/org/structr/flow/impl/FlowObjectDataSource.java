@@ -28,7 +28,9 @@ import org.structr.common.View;
 import org.structr.core.property.Property;
 import org.structr.core.property.StartNodes;
 import org.structr.flow.api.KeyValue;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowKeyValueObjectInput;
 
 /**
@@ -46,11 +48,36 @@ public class FlowObjectDataSource extends FlowDataSource {
 	@Override
 	public Object get(final Context context) {
 
-		final Map<String, Object> result = new LinkedHashMap<>();
+		final Map<String, ValueSource> _keySources = new LinkedHashMap<>();
+
+		for (final FlowKeyValue _keySource : getProperty(keyValueSources)) {
+			_keySources.put(_keySource.getUuid(), _keySource);
+		}
+
+		return get(context, getUuid(), _keySources);
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final Map<String, ValueSource> _keySources = new LinkedHashMap<>();
+		final String uuid                          = getUuid();
 
 		for (final FlowKeyValue _keySource : getProperty(keyValueSources)) {
+			_keySources.put(_keySource.getUuid(), builder.source(_keySource));
+		}
+
+		return context -> get(context, uuid, _keySources);
+	}
+
+	// ----- private methods -----
+	private static Object get(final Context context, final String uuid, final Map<String, ValueSource> _keySources) {
+
+		final Map<String, Object> result = new LinkedHashMap<>();
+
+		for (final Map.Entry<String, ValueSource> _keySource : _keySources.entrySet()) {
 
-			final Object item = _keySource.get(context);
+			final Object item = _keySource.getValue().get(context);
 			if (item != null && item instanceof KeyValue) {
 
 				final KeyValue keyValue = (KeyValue)item;
@@ -59,7 +86,7 @@ public class FlowObjectDataSource extends FlowDataSource {
 
 			} else {
 
-				logger.warn("KeyValue source {} of {} returned invalid value {}", _keySource.getUuid(), getUuid(), item);
+				logger.warn("KeyValue source {} of {} returned invalid value {}", _keySource.getKey(), uuid, item);
 			}
 		}
 
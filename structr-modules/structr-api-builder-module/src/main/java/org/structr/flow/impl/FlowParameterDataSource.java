@@ -24,7 +24,9 @@ import org.structr.core.property.EndNodes;
 import org.structr.core.property.Property;
 import org.structr.core.property.StringProperty;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowDataInput;
 
 import java.util.List;
@@ -45,4 +47,12 @@ public class FlowParameterDataSource extends FlowBaseNode implements DataSource
         }
         return null;
     }
+
+    @Override
+    public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+        final String _key = getProperty(key);
+
+        return context -> _key != null ? context.getParameter(_key) : null;
+    }
 }
@@ -18,6 +18,7 @@
  */
 package org.structr.flow.impl;
 
+import java.util.function.BiConsumer;
 import org.structr.common.PropertyView;
 import org.structr.common.View;
 import org.structr.core.property.EndNode;
@@ -25,7 +26,9 @@ import org.structr.core.property.Property;
 import org.structr.core.property.StartNode;
 import org.structr.core.property.StringProperty;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowCallParameter;
 import org.structr.flow.impl.rels.FlowDataInput;
 
@@ -41,13 +44,25 @@ public class FlowParameterInput extends FlowBaseNode {
 
 
 	public void process(final Context context, final Context functionContext) {
-		DataSource _ds = getProperty(dataSource);
-		String _key = getProperty(key);
+		process(context, functionContext, getProperty(key), getProperty(dataSource));
+	}
+
+	public BiConsumer<Context, Context> compile(final FlowPlan.Builder builder) {
+
+		final ValueSource _ds = builder.source(getProperty(dataSource));
+		final String _key     = getProperty(key);
+
+		builder.register(this);
+
+		return (context, functionContext) -> process(context, functionContext, _key, _ds);
+	}
+
+	// ----- private methods -----
+	private static void process(final Context context, final Context functionContext, final String _key, final ValueSource _ds) {
 
 		if(_ds != null && _key != null) {
 			Object data = _ds.get(context);
 			functionContext.setParameter(_key, data);
 		}
-
 	}
 }
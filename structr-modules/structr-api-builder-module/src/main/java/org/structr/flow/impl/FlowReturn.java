@@ -19,6 +19,7 @@
 package org.structr.flow.impl;
 
 import org.structr.common.PropertyView;
+import org.structr.common.SecurityContext;
 import org.structr.common.View;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.property.Property;
@@ -26,10 +27,12 @@ import org.structr.core.property.StartNode;
 import org.structr.core.property.StringProperty;
 import org.structr.core.script.Scripting;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.FlowElement;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.impl.rels.FlowDataInput;
-import org.structr.schema.action.ActionContext;
 import org.structr.flow.api.Return;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 
 /**
  *
@@ -44,9 +47,21 @@ public class FlowReturn extends FlowNode implements Return {
 
 	@Override
 	public Object getResult(final Context context) {
+		return getResult(context, securityContext, getUuid(), getProperty(result), getProperty(dataSource));
+	}
+
+	@Override
+	public FlowElement compileElement(final FlowPlan.Builder builder) {
 
-		final DataSource ds = getProperty(dataSource);
+		final ValueSource ds = builder.source(getProperty(dataSource));
 		final String _script = getProperty(result);
+		final String uuid    = getUuid();
+
+		return new FlowPlan.ReturnElement(context -> getResult(context, context.getSecurityContext(), uuid, _script, ds));
+	}
+
+	// ----- private methods -----
+	private static Object getResult(final Context context, final SecurityContext securityContext, final String uuid, final String _script, final ValueSource ds) {
 
 		String script = _script;
 		if (script == null) {
@@ -54,11 +69,11 @@ public class FlowReturn extends FlowNode implements Return {
 		}
 
 		if (ds != null) {
-			context.setData(getUuid(), ds.get(context));
+			context.setData(uuid, ds.get(context));
 		}
 
 		try {
-			return Scripting.evaluate(context.getActionContext(securityContext, this), context.getThisObject(), "${" + script + "}", "FlowReturn(" + getUuid() + ")");
+			return Scripting.evaluate(context.getActionContext(securityContext, uuid), context.getThisObject(), "${" + script + "}", "FlowReturn(" + uuid + ")");
 
 		} catch (FrameworkException fex) {
 			fex.printStackTrace();
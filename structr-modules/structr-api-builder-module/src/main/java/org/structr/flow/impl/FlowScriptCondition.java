@@ -19,6 +19,7 @@
 package org.structr.flow.impl;
 
 import org.structr.common.PropertyView;
+import org.structr.common.SecurityContext;
 import org.structr.common.View;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.property.Property;
@@ -26,7 +27,9 @@ import org.structr.core.property.StartNode;
 import org.structr.core.property.StringProperty;
 import org.structr.core.script.Scripting;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowDataInput;
 
 /**
@@ -42,18 +45,30 @@ public class FlowScriptCondition extends FlowCondition implements DataSource {
 
 	@Override
 	public Object get(final Context context) {
+		return get(context, securityContext, getUuid(), getProperty(script), getProperty(dataSource));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final ValueSource _ds = builder.source(getProperty(dataSource));
+		final String _script  = getProperty(script);
+		final String uuid     = getUuid();
+
+		return context -> get(context, context.getSecurityContext(), uuid, _script, _ds);
+	}
 
-		final DataSource _ds = getProperty(dataSource);
-		final String _script = getProperty(script);
+	// ----- private methods -----
+	private static Object get(final Context context, final SecurityContext securityContext, final String uuid, final String _script, final ValueSource _ds) {
 
 		if (_script != null) {
 
 			if (_ds != null) {
-				context.setData(getUuid(), _ds.get(context));
+				context.setData(uuid, _ds.get(context));
 			}
 
 			try {
-				return Scripting.evaluate(context.getActionContext(securityContext, this), context.getThisObject(), "${" + _script + "}", "FlowDataSource(" + getUuid() + ")");
+				return Scripting.evaluate(context.getActionContext(securityContext, uuid), context.getThisObject(), "${" + _script + "}", "FlowDataSource(" + uuid + ")");
 
 			} catch (FrameworkException fex) {
 				fex.printStackTrace();
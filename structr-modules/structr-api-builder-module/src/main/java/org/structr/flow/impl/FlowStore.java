@@ -24,8 +24,11 @@ import org.structr.common.PropertyView;
 import org.structr.common.View;
 import org.structr.core.property.*;
 import org.structr.flow.api.DataSource;
+import org.structr.flow.api.FlowElement;
 import org.structr.flow.api.Store;
+import org.structr.flow.api.ValueSource;
 import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowPlan;
 import org.structr.flow.impl.rels.FlowDataInput;
 
 import java.util.List;
@@ -49,10 +52,35 @@ public class FlowStore extends FlowNode implements Store, DataSource {
 
 	@Override
 	public void handleStorage(Context context) {
+		handleStorage(context, getUuid(), getProperty(operation), getProperty(key), getProperty(dataSource));
+	}
+
+	@Override
+	public Object get(Context context) {
+		return context.getData(getUuid());
+	}
 
-		Operation op = getProperty(operation);
-		String _key = getProperty(key);
-		DataSource ds = getProperty(dataSource);
+	@Override
+	public FlowElement compileElement(final FlowPlan.Builder builder) {
+
+		final ValueSource ds = builder.source(getProperty(dataSource));
+		final Operation op   = getProperty(operation);
+		final String _key    = getProperty(key);
+		final String uuid    = getUuid();
+
+		return new FlowPlan.StoreElement(context -> handleStorage(context, uuid, op, _key, ds));
+	}
+
+	@Override
+	public ValueSource compileSource(final FlowPlan.Builder builder) {
+
+		final String uuid = getUuid();
+
+		return context -> context.getData(uuid);
+	}
+
+	// ----- private methods -----
+	private static void handleStorage(final Context context, final String uuid, final Operation op, final String _key, final ValueSource ds) {
 
 		if(op != null && _key != null ) {
 
@@ -63,21 +91,14 @@ public class FlowStore extends FlowNode implements Store, DataSource {
 					}
 					break;
 				case retrieve:
-					context.setData(getUuid(), context.retrieveFromStore(_key));
+					context.setData(uuid, context.retrieveFromStore(_key));
 					break;
 			}
 
 		} else {
 
-			logger.warn("Unable to handle FlowStore{}, missing operation or key.", getUuid());
+			logger.warn("Unable to handle FlowStore{}, missing operation or key.", uuid);
 		}
-
-
-	}
-
-	@Override
-	public Object get(Context context) {
-		return context.getData(getUuid());
 	}
 
 }
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.common.AccessMode;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.NodeAttribute;
+import org.structr.core.graph.Tx;
+import org.structr.flow.engine.Context;
+import org.structr.flow.engine.FlowEngine;
+import org.structr.flow.engine.FlowPlan;
+import org.structr.flow.impl.FlowAction;
+import org.structr.flow.impl.FlowContainer;
+import org.structr.flow.impl.FlowDecision;
+import org.structr.flow.impl.FlowNode;
+import org.structr.flow.impl.FlowReturn;
+import org.structr.flow.impl.FlowScriptCondition;
+import org.structr.transform.StructrApiModuleTest;
+
+/**
+ *
+ */
+public class FlowPlanTest extends StructrApiModuleTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(FlowPlanTest.class.getName());
+
+	@Test
+	public void testCompiledFlowInvocations() {
+
+		final int count    = 1000;
+		String containerId = null;
+		String returnId    = null;
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = createTestFlow();
+
+			containerId = container.getUuid();
+			returnId    = ((FlowNode)((FlowDecision)container.getProperty(FlowContainer.startNode).next()).getTrueElement()).getUuid();
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.get(FlowContainer.class, containerId);
+			final FlowNode startNode      = container.getProperty(FlowContainer.startNode);
+
+			long t0 = System.nanoTime();
+
+			for (int i=0; i<count; i++) {
+				assertEquals("Invalid flow result", "ab", new FlowEngine(new Context()).execute(startNode).getResult());
+			}
+
+			final double interpreted = count / ((System.nanoTime() - t0) / 1_000_000_000.0);
+
+			t0 = System.nanoTime();
+
+			for (int i=0; i<count; i++) {
+				assertEquals("Invalid flow result", "ab", FlowPlan.get(container).execute(securityContext, new Context()).getResult());
+			}
+
+			final double compiled = count / ((System.nanoTime() - t0) / 1_000_000_000.0);
+
+			logger.info("Flow invocations per second: {} interpreted, {} compiled", (int)interpreted, (int)compiled);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		// modify a node of the flow, the cached plan must be invalidated
+		try (final Tx tx = app.tx()) {
+
+			app.get(FlowReturn.class, returnId).setProperty(FlowReturn.result, "'changed'");
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.get(FlowContainer.class, containerId);
+
+			assertEquals("Cached flow plan was not invalidated", "changed", FlowPlan.get(container).execute(securityContext, new Context()).getResult());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+	}
+
+	@Test
+	public void testPlanIndependentOfFirstCaller() {
+
+		String containerId = null;
+		Principal user     = null;
+
+		try (final Tx tx = app.tx()) {
+
+			// the user can see the container, but not the nodes of the flow
+			final FlowContainer container = createTestFlow();
+
+			container.setProperty(FlowContainer.visibleToAuthenticatedUsers, true);
+
+			user        = app.create(Principal.class, "user");
+			containerId = container.getUuid();
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		FlowPlan.clearCache();
+
+		final SecurityContext userContext = SecurityContext.getInstance(user, AccessMode.Backend);
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = StructrApp.getInstance(userContext).get(FlowContainer.class, containerId);
+
+			assertEquals("Flow plan must not depend on the permissions of the first caller", "ab", FlowPlan.get(container).execute(userContext, new Context()).getResult());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final FlowContainer container = app.get(FlowContainer.class, containerId);
+
+			assertEquals("Flow plan must not depend on the permissions of the first caller", "ab", FlowPlan.get(container).execute(securityContext, new Context()).getResult());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+	}
+
+	// ----- private methods -----
+	private FlowContainer createTestFlow() throws FrameworkException {
+
+		final FlowContainer container       = app.create(FlowContainer.class, new NodeAttribute<>(FlowContainer.name, "test"));
+		final FlowAction action             = app.create(FlowAction.class, new NodeAttribute<>(FlowAction.script, "concat('a', 'b')"));
+		final FlowScriptCondition condition = app.create(FlowScriptCondition.class, new NodeAttribute<>(FlowScriptCondition.script, "equal(1, 1)"));
+		final FlowDecision decision         = app.create(FlowDecision.class, new NodeAttribute<>(FlowDecision.condition, condition));
+		final FlowReturn yes                = app.create(FlowReturn.class, new NodeAttribute<>(FlowReturn.result, "data"));
+		final FlowReturn no                 = app.create(FlowReturn.class, new NodeAttribute<>(FlowReturn.result, "'no'"));
+
+		yes.setProperty(FlowReturn.dataSource, action);
+		decision.setProperty(FlowDecision.trueElement, yes);
+		decision.setProperty(FlowDecision.falseElement, no);
+		action.setProperty(FlowNode.next, decision);
+		container.setProperty(FlowContainer.startNode, action);
+
+		return container;
+	}
+}
@@ -546,4 +546,150 @@ public class CsvImportTest extends StructrApiModuleTest {
 		}
 
 	}
+
+	@Test
+	public void testChunkedCsvFileImport() {
+
+		final String newFileId = createNumberedCsvFile(10);
+
+		final Map<String, Object> params = new LinkedHashMap<>();
+
+		// import parameters, 10 rows in four chunks written by two threads
+		params.put("targetType",     "Item");
+		params.put("quoteChar",      "");
+		params.put("delimiter",      ";");
+		params.put("commitInterval", 3);
+		params.put("threads",        2);
+		params.put("mappings",       getNumberedMappings());
+
+		startCsvImport(newFileId, params);
+
+		// wait for result (import is async.)
+		try { Thread.sleep(2000); } catch (Throwable t) {}
+
+		assertImportedOriginIds(0, 10);
+	}
+
+	@Test
+	public void testResumedCsvFileImport() {
+
+		final String newFileId = createNumberedCsvFile(10);
+
+		final Map<String, Object> params = new LinkedHashMap<>();
+
+		// import parameters, the first four rows were committed by a previous run
+		params.put("targetType",     "Item");
+		params.put("quoteChar",      "");
+		params.put("delimiter",      ";");
+		params.put("commitInterval", 3);
+		params.put("threads",        2);
+		params.put("startRow",       4);
+		params.put("mappings",       getNumberedMappings());
+
+		startCsvImport(newFileId, params);
+
+		// wait for result (import is async.)
+		try { Thread.sleep(2000); } catch (Throwable t) {}
+
+		assertImportedOriginIds(4, 10);
+	}
+
+	// ----- private methods -----
+	private String createNumberedCsvFile(final int rows) {
+
+		// test setup
+		try (final Tx tx = app.tx()) {
+
+			final StringBuilder csvData = new StringBuilder("id;name\n");
+
+			for (int i=0; i<rows; i++) {
+				csvData.append(i).append(";name: ").append(i).append("\n");
+			}
+
+			final byte[] fileData = csvData.toString().getBytes("utf-8");
+			final File file       = FileHelper.createFile(securityContext, fileData, "text/csv", File.class, "test.csv");
+
+			// create new type
+			final JsonSchema schema = StructrSchema.createEmptySchema();
+			final JsonType newType  = schema.addType("Item");
+
+			newType.addStringProperty("name");
+			newType.addIntegerProperty("originId").isIndexed();
+
+			StructrSchema.extendDatabaseSchema(app, schema);
+
+			// create test user
+			app.create(User.class,
+				new NodeAttribute<>(StructrApp.key(User.class, "name"),     "admin"),
+				new NodeAttribute<>(StructrApp.key(User.class, "password"), "admin"),
+				new NodeAttribute<>(StructrApp.key(User.class, "isAdmin"),  true)
+			);
+
+			tx.success();
+
+			return file.getUuid();
+
+		} catch (Throwable t) {
+			t.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		return null;
+	}
+
+	private Map<String, Object> getNumberedMappings() {
+
+		final Map<String, Object> mappings = new LinkedHashMap<>();
+
+		mappings.put("originId", "id");
+		mappings.put("name",     "name");
+
+		return mappings;
+	}
+
+	private void startCsvImport(final String fileId, final Map<String, Object> params) {
+
+		final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+		RestAssured.given()
+			.contentType("application/json; charset=UTF-8")
+			.header("X-User",     "admin")
+			.header("X-Password", "admin")
+			.filter(RequestLoggingFilter.logRequestTo(System.out))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(401))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(400))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(403))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(404))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(422))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(500))
+			.body(gson.toJson(params))
+			.expect().statusCode(200).when().post("/File/" + fileId + "/doCSVImport");
+	}
+
+	private void assertImportedOriginIds(final int from, final int to) {
+
+		// check imported data for correct import
+		try (final Tx tx = app.tx()) {
+
+			final ConfigurationProvider conf = StructrApp.getConfiguration();
+			final Class type                 = conf.getNodeEntityClass("Item");
+			final List<NodeInterface> items  = app.nodeQuery(type).sort(conf.getPropertyKeyForJSONName(type, "originId")).getAsList();
+
+			assertEquals("Invalid CSV import result, rows must be imported exactly once. ", to - from, items.size());
+
+			for (int i=0; i<items.size(); i++) {
+
+				final NodeInterface item = items.get(i);
+
+				assertEquals("Invalid CSV mapping result", from + i,            item.getProperty(conf.getPropertyKeyForJSONName(type, "originId")));
+				assertEquals("Invalid CSV mapping result", "name: " + (from + i), item.getProperty(conf.getPropertyKeyForJSONName(type, "name")));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
 }
@@ -41,6 +41,7 @@ public class CSVModule implements StructrModule {
 
 		Functions.put(basicEdition, LicenseManager.Basic, "from_csv",        new FromCsvFunction());
 		Functions.put(basicEdition, LicenseManager.Basic, "to_csv",          new ToCsvFunction());
+		Functions.put(basicEdition, LicenseManager.Basic, "to_csv_file",     new ToCsvFileFunction());
 		Functions.put(basicEdition, LicenseManager.Basic, "get_csv_headers", new GetCsvHeadersFunction());
 	}
 
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.csv;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.PagedQueryIterable;
+import org.structr.core.app.StructrApp;
+import org.structr.schema.action.ActionContext;
+import org.structr.web.common.ExportProgress;
+import org.structr.web.entity.File;
+import org.structr.web.function.UiFunction;
+
+/**
+ * Streaming variant of to_csv() that writes the CSV directly into a file
+ * instead of building a string in memory. If a type name is given instead
+ * of a collection, the nodes are fetched lazily in pages.
+ */
+public class ToCsvFileFunction extends UiFunction {
+
+	public static final String ERROR_MESSAGE_TO_CSV_FILE    = "Usage: ${to_csv_file(file, nodesOrType, propertiesOrView[, delimiterChar[, quoteChar[, recordSeparator[, includeHeader[, localizeHeader[, headerLocalizationDomain]]]]]])}. Example: ${to_csv_file(first(find('File', 'name', 'export.csv')), 'Project', 'ui')}";
+	public static final String ERROR_MESSAGE_TO_CSV_FILE_JS = "Usage: ${{Structr.to_csv_file(file, nodesOrType, propertiesOrView[, delimiterChar[, quoteChar[, recordSeparator[, includeHeader[, localizeHeader[, headerLocalizationDomain]]]]]])}}. Example: ${{Structr.to_csv_file(file, 'Project', 'ui'))}}";
+
+	private static final int PAGE_SIZE         = 1000;
+	private static final int PROGRESS_INTERVAL = 10000;
+
+	@Override
+	public String getName() {
+		return "to_csv_file()";
+	}
+
+	@Override
+	public Object apply(ActionContext ctx, Object caller, Object[] sources) throws FrameworkException {
+
+		try {
+
+			assertArrayHasMinLengthAndMaxLengthAndAllElementsNotNull(sources, 3, 9);
+
+			if ( !(sources[0] instanceof File) ) {
+				logParameterError(caller, sources, ctx.isJavaScriptContext());
+				return "ERROR: First parameter must be a file!".concat(usage(ctx.isJavaScriptContext()));
+			}
+
+			final File file                         = (File)sources[0];
+			Iterable nodes                          = null;
+			String delimiterChar                    = ";";
+			String quoteChar                        = "\"";
+			String recordSeparator                  = "\n";
+			boolean includeHeader                   = true;
+			boolean localizeHeader                  = false;
+			String headerLocalizationDomain         = null;
+			String propertyView                     = null;
+			List<String> properties                 = null;
+
+			if (sources[1] instanceof List) {
+
+				nodes = (List)sources[1];
+
+			} else if (sources[1] instanceof String) {
+
+				final Class type = StructrApp.getConfiguration().getNodeEntityClass((String)sources[1]);
+				if (type == null) {
+
+					logParameterError(caller, sources, ctx.isJavaScriptContext());
+					return "ERROR: Unknown type " + sources[1] + "!".concat(usage(ctx.isJavaScriptContext()));
+				}
+
+				nodes = PagedQueryIterable.forType(ctx.getSecurityContext(), type, PAGE_SIZE);
+
+			} else {
+
+				logParameterError(caller, sources, ctx.isJavaScriptContext());
+				return "ERROR: Second parameter must be a collection or a type name!".concat(usage(ctx.isJavaScriptContext()));
+			}
+
+			switch (sources.length) {
+				case 9: headerLocalizationDomain = (String)sources[8];
+				case 8: localizeHeader = (Boolean)sources[7];
+				case 7: includeHeader = (Boolean)sources[6];
+				case 6: recordSeparator = (String)sources[5];
+				case 5: quoteChar = (String)sources[4];
+				case 4: delimiterChar = (String)sources[3];
+				case 3: {
+					if (sources[2] instanceof String) {
+						// view is given
+						propertyView = (String)sources[2];
+
+					} else if (sources[2] instanceof List) {
+						// named properties are given
+						properties = (List)sources[2];
+
+						// we are using size() instead of isEmpty() because NativeArray.isEmpty() always returns true
+						if (properties.size() == 0) {
+							logger.warn("to_csv_file(): Can not create CSV if list of properties is empty!");
+							logParameterError(caller, sources, ctx.isJavaScriptContext());
+							return "";
+						}
+
+					} else {
+						logParameterError(caller, sources, ctx.isJavaScriptContext());
+						return "ERROR: Third parameter must be a collection of property names or a single property view!".concat(usage(ctx.isJavaScriptContext()));
+					}
+				}
+			}
+
+			final ExportProgress progress = new ExportProgress(ctx.getSecurityContext(), "CSV_EXPORT_STATUS", file.getName(), PROGRESS_INTERVAL);
+
+			try (final Writer writer = new BufferedWriter(new OutputStreamWriter(file.getOutputStream(true, false), StandardCharsets.UTF_8))) {
+
+				ToCsvFunction.writeCsv(progress.track(nodes), writer, propertyView, properties, quoteChar.charAt(0), delimiterChar.charAt(0), recordSeparator, includeHeader, localizeHeader, headerLocalizationDomain, ctx.getLocale());
+
+			} catch (IOException ioex) {
+
+				logger.warn("to_csv_file(): Unable to write to file '{}'", file.getPath(), ioex);
+				return "";
+			}
+
+			progress.finish();
+
+			return file;
+
+		} catch (IllegalArgumentException e) {
+
+			logParameterError(caller, sources, e.getMessage(), ctx.isJavaScriptContext());
+			return usage(ctx.isJavaScriptContext());
+		}
+	}
+
+	@Override
+	public String usage(boolean inJavaScriptContext) {
+		return (inJavaScriptContext ? ERROR_MESSAGE_TO_CSV_FILE_JS : ERROR_MESSAGE_TO_CSV_FILE);
+	}
+
+	@Override
+	public String shortDescription() {
+		return "Writes a CSV representation of the given nodes into a file";
+	}
+}
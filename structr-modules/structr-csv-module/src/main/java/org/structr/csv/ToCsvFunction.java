@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -158,7 +159,7 @@ public class ToCsvFunction extends UiFunction {
 	}
 
 	public static void writeCsv(
-			final List list,
+			final Iterable list,
 			final Writer out,
 			final String propertyView,
 			final List<String> properties,
@@ -171,7 +172,10 @@ public class ToCsvFunction extends UiFunction {
 			final Locale locale
 	) throws IOException {
 
+		final Iterator iterator = list.iterator();
 		final StringBuilder row = new StringBuilder();
+		final boolean isEmpty   = !iterator.hasNext();
+		final Object first      = isEmpty ? null : iterator.next();
 
 		if (includeHeader) {
 
@@ -181,10 +185,8 @@ public class ToCsvFunction extends UiFunction {
 
 			if (propertyView != null) {
 
-				final Object obj = list.get(0);
-
-				if (obj instanceof GraphObject) {
-					for (PropertyKey key : ((GraphObject)obj).getPropertyKeys(propertyView)) {
+				if (first instanceof GraphObject) {
+					for (PropertyKey key : ((GraphObject)first).getPropertyKeys(propertyView)) {
 						String value = key.dbName();
 						if (localizeHeader) {
 							try {
@@ -196,7 +198,7 @@ public class ToCsvFunction extends UiFunction {
 
 						isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
 					}
-				} else {
+				} else if (!isEmpty) {
 					row.append("Error: Object is not of type GraphObject, can not determine properties of view for header row");
 				}
 
@@ -216,58 +218,71 @@ public class ToCsvFunction extends UiFunction {
 				}
 			}
 
-			out.append(row).append(recordSeparator).flush();
+			out.append(row).append(recordSeparator);
 
 		}
 
-		for (final Object obj : list) {
+		if (!isEmpty) {
 
-			row.setLength(0);
+			writeRow(first, out, row, propertyView, properties, quoteChar, delimiterChar, recordSeparator);
 
-			boolean isFirstCol = true;
+			// rows are written one by one, so the source can be consumed lazily
+			while (iterator.hasNext()) {
 
-			if (propertyView != null) {
+				writeRow(iterator.next(), out, row, propertyView, properties, quoteChar, delimiterChar, recordSeparator);
+			}
+		}
 
-				if (obj instanceof GraphObject) {
+		out.flush();
+	}
 
-					for (PropertyKey key : ((GraphObject)obj).getPropertyKeys(propertyView)) {
+	// ----- private methods -----
+	private static void writeRow(final Object obj, final Writer out, final StringBuilder row, final String propertyView, final List<String> properties, final char quoteChar, final char delimiterChar, final String recordSeparator) throws IOException {
 
-						final Object value = ((GraphObject)obj).getProperty(key);
-						isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
-					}
-				} else {
-					row.append("Error: Object is not of type GraphObject, can not determine properties of object");
-				}
+		row.setLength(0);
 
-			} else if (properties != null) {
+		boolean isFirstCol = true;
 
-				if (obj instanceof GraphObject) {
+		if (propertyView != null) {
 
-					final GraphObject castedObj = (GraphObject)obj;
+			if (obj instanceof GraphObject) {
 
-					for (final String colName : properties) {
-						final PropertyKey key = StructrApp.key(obj.getClass(), colName);
-						final Object value = castedObj.getProperty(key);
-						isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
-					}
-				} else if (obj instanceof Map) {
+				for (PropertyKey key : ((GraphObject)obj).getPropertyKeys(propertyView)) {
 
-					final Map castedObj = (Map)obj;
+					final Object value = ((GraphObject)obj).getProperty(key);
+					isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
+				}
+			} else {
+				row.append("Error: Object is not of type GraphObject, can not determine properties of object");
+			}
 
-					for (final String colName : properties) {
-						final Object value = castedObj.get(colName);
-						isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
-					}
+		} else if (properties != null) {
+
+			if (obj instanceof GraphObject) {
 
+				final GraphObject castedObj = (GraphObject)obj;
+
+				for (final String colName : properties) {
+					final PropertyKey key = StructrApp.key(obj.getClass(), colName);
+					final Object value = castedObj.getProperty(key);
+					isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
 				}
-			}
+			} else if (obj instanceof Map) {
 
-			// Replace \r and \n so we dont get multi-line CSV (needs to be four backslashes because regex)
-			final String rowWithoutRecordSeparator = row.toString().replaceAll("\n", "\\\\n").replaceAll("\r", "\\\\r");
+				final Map castedObj = (Map)obj;
 
-			out.append(rowWithoutRecordSeparator).append(recordSeparator).flush();
+				for (final String colName : properties) {
+					final Object value = castedObj.get(colName);
+					isFirstCol = appendColumnString(row, value, isFirstCol, quoteChar, delimiterChar);
+				}
+
+			}
 		}
 
+		// Replace \r and \n so we dont get multi-line CSV (needs to be four backslashes because regex)
+		final String rowWithoutRecordSeparator = row.toString().replaceAll("\n", "\\\\n").replaceAll("\r", "\\\\r");
+
+		out.append(rowWithoutRecordSeparator).append(recordSeparator);
 	}
 
 	private static boolean appendColumnString (final StringBuilder row, final Object value, boolean isFirstColumn, final char quoteChar, final char delimiter) {
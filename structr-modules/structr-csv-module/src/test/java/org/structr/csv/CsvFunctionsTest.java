@@ -18,10 +18,14 @@
  */
 package org.structr.csv;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -37,6 +41,8 @@ import org.structr.csv.entity.CsvTestEnum;
 import org.structr.csv.entity.CsvTestOne;
 import org.structr.csv.entity.CsvTestTwo;
 import org.structr.schema.action.ActionContext;
+import org.structr.web.common.FileHelper;
+import org.structr.web.entity.File;
 
 public class CsvFunctionsTest extends StructrCsvModuleTest {
 
@@ -369,4 +375,74 @@ public class CsvFunctionsTest extends StructrCsvModuleTest {
 		}
 	}
 
+	@Test
+	public void testToCsvFile() {
+
+		File file = null;
+
+		try (final Tx tx = app.tx()) {
+
+			int index = 0;
+
+			for (final CsvTestOne csvTestOne : createTestNodes(CsvTestOne.class, 5)) {
+
+				csvTestOne.setProperty(CsvTestOne.name, "CSV Test Node " + StringUtils.leftPad(Integer.toString(index+1), 4, "0"));
+				csvTestOne.setProperty(CsvTestOne.index, index+1);
+
+				index++;
+			}
+
+			file = FileHelper.createFile(securityContext, new byte[0], "text/csv", File.class, "export.csv");
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			logger.warn("", ex);
+
+			fail("Unexpected exception");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final ActionContext ctx = new ActionContext(securityContext, null);
+			ctx.setLocale(Locale.ENGLISH);
+
+			final String expectedCsvWithNameAndIndex = "\"name\";\"index\"\n"
+					+ "\"CSV Test Node 0001\";\"1\"\n"
+					+ "\"CSV Test Node 0002\";\"2\"\n"
+					+ "\"CSV Test Node 0003\";\"3\"\n"
+					+ "\"CSV Test Node 0004\";\"4\"\n"
+					+ "\"CSV Test Node 0005\";\"5\"\n";
+
+			// collection of nodes
+			Scripting.replaceVariables(ctx, null, "${to_csv_file(first(find('File', 'name', 'export.csv')), find('CsvTestOne'), merge('name', 'index'))}");
+
+			assertEquals(
+					"Invalid result of to_csv_file() call with a collection (StructrScript)",
+					expectedCsvWithNameAndIndex,
+					FileUtils.readFileToString(file.getFileOnDisk(), StandardCharsets.UTF_8)
+			);
+
+			// type name, nodes are fetched in pages and sorted by id
+			Scripting.replaceVariables(ctx, null, "${to_csv_file(first(find('File', 'name', 'export.csv')), 'CsvTestOne', merge('name', 'index'), ';', '\"', '\\n', false)}");
+
+			final List<String> lines = Arrays.asList(FileUtils.readFileToString(file.getFileOnDisk(), StandardCharsets.UTF_8).split("\n"));
+
+			assertEquals("Invalid result of to_csv_file() call with a type name (StructrScript)", 5, lines.size());
+
+			for (int i=1; i<=5; i++) {
+
+				assertTrue("Invalid result of to_csv_file() call with a type name (StructrScript)", lines.contains("\"CSV Test Node 000" + i + "\";\"" + i + "\""));
+			}
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			logger.warn("", ex);
+
+			fail(ex.getMessage());
+		}
+	}
 }
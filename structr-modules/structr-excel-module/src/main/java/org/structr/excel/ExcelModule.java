@@ -38,6 +38,7 @@ public class ExcelModule implements StructrModule {
 		final boolean enterpriseEdition    = licenseManager == null || licenseManager.isEdition(LicenseManager.Enterprise);
 
 		Functions.put(enterpriseEdition, LicenseManager.Enterprise, "to_excel",        new ToExcelFunction());
+		Functions.put(enterpriseEdition, LicenseManager.Enterprise, "to_excel_file",   new ToExcelFileFunction());
 	}
 
 	@Override
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.excel;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.PagedQueryIterable;
+import org.structr.core.app.StructrApp;
+import org.structr.schema.action.ActionContext;
+import org.structr.web.common.ExportProgress;
+import org.structr.web.entity.File;
+
+/**
+ * Streaming variant of to_excel() that writes the workbook directly into
+ * a file, keeping only a window of rows in memory. If a type name is given
+ * instead of a collection, the nodes are fetched lazily in pages.
+ */
+public class ToExcelFileFunction extends ToExcelFunction {
+
+	public static final String ERROR_MESSAGE_TO_EXCEL_FILE    = "Usage: ${to_excel_file(file, nodesOrType, propertiesOrView[, includeHeader[, localizeHeader[, headerLocalizationDomain[, maxCellLength[, overflowMode]]]]])}. Example: ${to_excel_file(first(find('File', 'name', 'export.xlsx')), 'Project', 'ui')}";
+	public static final String ERROR_MESSAGE_TO_EXCEL_FILE_JS = "Usage: ${{Structr.to_excel_file(file, nodesOrType, propertiesOrView[, includeHeader[, localizeHeader[, headerLocalizationDomain[, maxCellLength[, overflowMode]]]]])}}. Example: ${{Structr.to_excel_file(file, 'Project', 'ui'))}}";
+
+	private static final int PAGE_SIZE         = 1000;
+	private static final int PROGRESS_INTERVAL = 10000;
+
+	@Override
+	public String getName() {
+		return "to_excel_file()";
+	}
+
+	@Override
+	public Object apply(ActionContext ctx, Object caller, Object[] sources) throws FrameworkException {
+
+		try {
+
+			assertArrayHasMinLengthAndMaxLengthAndAllElementsNotNull(sources, 3, 8);
+
+			if ( !(sources[0] instanceof File) ) {
+				logParameterError(caller, sources, ctx.isJavaScriptContext());
+				return "ERROR: First parameter must be a file! ".concat(usage(ctx.isJavaScriptContext()));
+			}
+
+			final File file                         = (File)sources[0];
+			Iterable nodes                          = null;
+			boolean includeHeader                   = true;
+			boolean localizeHeader                  = false;
+			String headerLocalizationDomain         = null;
+			Integer maxCellLength                   = 32767;
+			String overflowMode                     = "o";
+			String propertyView                     = null;
+			List<String> properties                 = null;
+
+			if (sources[1] instanceof List) {
+
+				nodes = (List)sources[1];
+
+			} else if (sources[1] instanceof String) {
+
+				final Class type = StructrApp.getConfiguration().getNodeEntityClass((String)sources[1]);
+				if (type == null) {
+
+					logParameterError(caller, sources, ctx.isJavaScriptContext());
+					return "ERROR: Unknown type " + sources[1] + "! ".concat(usage(ctx.isJavaScriptContext()));
+				}
+
+				nodes = PagedQueryIterable.forType(ctx.getSecurityContext(), type, PAGE_SIZE);
+
+			} else {
+
+				logParameterError(caller, sources, ctx.isJavaScriptContext());
+				return "ERROR: Second parameter must be a collection or a type name! ".concat(usage(ctx.isJavaScriptContext()));
+			}
+
+			switch (sources.length) {
+				case 8: overflowMode = (String)sources[7];
+				case 7: maxCellLength = Math.min(maxCellLength, (Integer)sources[6]);
+				case 6: headerLocalizationDomain = (String)sources[5];
+				case 5: localizeHeader = (Boolean)sources[4];
+				case 4: includeHeader = (Boolean)sources[3];
+				case 3: {
+					if (sources[2] instanceof String) {
+						// view is given
+						propertyView = (String)sources[2];
+
+					} else if (sources[2] instanceof List) {
+						// named properties are given
+						properties = (List)sources[2];
+
+						// we are using size() instead of isEmpty() because NativeArray.isEmpty() always returns true
+						if (properties.size() == 0) {
+							logger.warn("to_excel_file(): Can not create Excel if list of properties is empty!");
+							logParameterError(caller, sources, ctx.isJavaScriptContext());
+							return "";
+						}
+
+					} else {
+						logParameterError(caller, sources, ctx.isJavaScriptContext());
+						return "ERROR: Third parameter must be a collection of property names or a single property view!".concat(usage(ctx.isJavaScriptContext()));
+					}
+				}
+			}
+
+			final ExportProgress progress = new ExportProgress(ctx.getSecurityContext(), "EXCEL_EXPORT_STATUS", file.getName(), PROGRESS_INTERVAL);
+			SXSSFWorkbook wb              = null;
+
+			try (final FileOutputStream fos = file.getOutputStream(true, false)) {
+
+				wb = writeExcel(progress.track(nodes), propertyView, properties, includeHeader, localizeHeader, headerLocalizationDomain, ctx.getLocale(), maxCellLength, overflowMode);
+				wb.write(fos);
+
+			} catch (IOException ioex) {
+
+				logger.warn("to_excel_file(): Unable to write to file '{}'", file.getPath(), ioex);
+				return "";
+
+			} finally {
+
+				// remove temporary files
+				if (wb != null) {
+					wb.dispose();
+				}
+			}
+
+			progress.finish();
+
+			return file;
+
+		} catch (IllegalArgumentException e) {
+
+			logParameterError(caller, sources, e.getMessage(), ctx.isJavaScriptContext());
+			return usage(ctx.isJavaScriptContext());
+		}
+	}
+
+	@Override
+	public String usage(boolean inJavaScriptContext) {
+		return (inJavaScriptContext ? ERROR_MESSAGE_TO_EXCEL_FILE_JS : ERROR_MESSAGE_TO_EXCEL_FILE);
+	}
+
+	@Override
+	public String shortDescription() {
+		return "Writes an Excel representation of the given nodes into a file";
+	}
+}
@@ -24,17 +24,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Comment;
 import org.apache.poi.ss.usermodel.CreationHelper;
 import org.apache.poi.ss.usermodel.Drawing;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.app.StructrApp;
@@ -47,6 +47,9 @@ import org.structr.schema.parser.DatePropertyParser;
 
 public class ToExcelFunction extends Function<Object, Object> {
 
+	// number of rows kept in memory, older rows are flushed to a temporary file
+	public static final int ROW_ACCESS_WINDOW = 1000;
+
 	public static final String ERROR_MESSAGE_TO_EXCEL    = "Usage: ${to_excel(nodes, propertiesOrView[, includeHeader[, localizeHeader[, headerLocalizationDomain[, maxCellLength[, overflowMode]]]]])}. Example: ${to_excel(find('Page'), 'ui')}";
 	public static final String ERROR_MESSAGE_TO_EXCEL_JS = "Usage: ${{Structr.to_excel(nodes, propertiesOrView[, includeHeader[, localizeHeader[, headerLocalizationDomain[, maxCellLength[, overflowMode]]]]])}}. Example: ${{Structr.to_excel(Structr.find('Page'), 'ui'))}}";
 
@@ -114,9 +117,19 @@ public class ToExcelFunction extends Function<Object, Object> {
 
 			try {
 
-				final Workbook wb = writeExcel(nodes, propertyView, properties, includeHeader, localizeHeader, headerLocalizationDomain, ctx.getLocale(), maxCellLength, overflowMode);
+				final SXSSFWorkbook wb = writeExcel(nodes, propertyView, properties, includeHeader, localizeHeader, headerLocalizationDomain, ctx.getLocale(), maxCellLength, overflowMode);
 				final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				wb.write(baos);
+
+				try {
+
+					wb.write(baos);
+
+				} finally {
+
+					// remove temporary files
+					wb.dispose();
+				}
+
 				return baos.toString("ISO-8859-1");
 
 			} catch (Throwable t) {
@@ -141,33 +154,39 @@ public class ToExcelFunction extends Function<Object, Object> {
 		return "Creates Excel from given data";
 	}
 
-	public Workbook writeExcel(final List list, final String propertyView, final List<String> properties, final boolean includeHeader, final boolean localizeHeader, final String headerLocalizationDomain, final Locale locale, final Integer maxCellLength, final String overflowMode) throws IOException {
+	/**
+	 * Writes the given objects into a streaming workbook that keeps only
+	 * a window of rows in memory, the caller must call dispose() on the
+	 * workbook after writing it to remove the temporary files.
+	 */
+	public SXSSFWorkbook writeExcel(final Iterable list, final String propertyView, final List<String> properties, final boolean includeHeader, final boolean localizeHeader, final String headerLocalizationDomain, final Locale locale, final Integer maxCellLength, final String overflowMode) throws IOException {
 
-		final Workbook workbook = new XSSFWorkbook();
+		final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
 		final CreationHelper factory = workbook.getCreationHelper();
-		final XSSFSheet sheet = (XSSFSheet) workbook.createSheet();
-		final Drawing drawing = sheet.createDrawingPatriarch();
+		final Sheet sheet            = workbook.createSheet();
+		final Drawing drawing        = sheet.createDrawingPatriarch();
+		final Iterator iterator      = list.iterator();
+		final boolean isEmpty        = !iterator.hasNext();
+		final Object first           = isEmpty ? null : iterator.next();
 
 		int rowCount = 0;
 		int cellCount = 0;
 
-		XSSFRow currentRow = null;
-		XSSFCell cell = null;
+		Row currentRow = null;
+		Cell cell = null;
 
 		if (includeHeader) {
 
-			currentRow = (XSSFRow)sheet.createRow(rowCount++);
+			currentRow = sheet.createRow(rowCount++);
 			cellCount = 0;
 
 			if (propertyView != null) {
 
-				final Object obj = list.get(0);
-
-				if (obj instanceof GraphObject) {
+				if (first instanceof GraphObject) {
 
-					for (PropertyKey key : ((GraphObject)obj).getPropertyKeys(propertyView)) {
+					for (PropertyKey key : ((GraphObject)first).getPropertyKeys(propertyView)) {
 
-						cell = (XSSFCell)currentRow.createCell(cellCount++);
+						cell = currentRow.createCell(cellCount++);
 
 						String value = key.dbName();
 						if (localizeHeader) {
@@ -181,8 +200,8 @@ public class ToExcelFunction extends Function<Object, Object> {
 						cell.setCellValue(value);
 					}
 
-				} else {
-					cell = (XSSFCell)currentRow.createCell(cellCount++);
+				} else if (!isEmpty) {
+					cell = currentRow.createCell(cellCount++);
 					cell.setCellValue("Error: Object is not of type GraphObject, can not determine properties of view for header row");
 				}
 
@@ -190,7 +209,7 @@ public class ToExcelFunction extends Function<Object, Object> {
 
 				for (final String colName : properties) {
 
-					cell = (XSSFCell)currentRow.createCell(cellCount++);
+					cell = currentRow.createCell(cellCount++);
 					String value = colName;
 					if (localizeHeader) {
 						try {
@@ -205,54 +224,14 @@ public class ToExcelFunction extends Function<Object, Object> {
 			}
 		}
 
-		for (final Object obj : list) {
-
-			currentRow = (XSSFRow)sheet.createRow(rowCount++);
-			cellCount = 0;
-
-			if (propertyView != null) {
-
-				if (obj instanceof GraphObject) {
-
-					for (PropertyKey key : ((GraphObject)obj).getPropertyKeys(propertyView)) {
-
-						final Object value = ((GraphObject)obj).getProperty(key);
-
-						cell = (XSSFCell)currentRow.createCell(cellCount++);
-
-						writeToCell(factory, drawing, cell, value, maxCellLength, overflowMode);
-					}
-
-				} else {
-					cell = (XSSFCell)currentRow.createCell(cellCount++);
-					cell.setCellValue("Error: Object is not of type GraphObject, can not determine properties of object");
-				}
-
-			} else if (properties != null) {
-
-				if (obj instanceof GraphObject) {
-
-					final GraphObject castedObj = (GraphObject)obj;
-
-					for (final String colName : properties) {
-						final PropertyKey key = StructrApp.key(obj.getClass(), colName);
-						final Object value = castedObj.getProperty(key);
-						cell = (XSSFCell)currentRow.createCell(cellCount++);
-
-						writeToCell(factory, drawing, cell, value, maxCellLength, overflowMode);
-					}
-
-				} else if (obj instanceof Map) {
+		if (!isEmpty) {
 
-					final Map castedObj = (Map)obj;
+			writeRow(first, sheet.createRow(rowCount++), factory, drawing, propertyView, properties, maxCellLength, overflowMode);
 
-					for (final String colName : properties) {
-						final Object value = castedObj.get(colName);
-						cell = (XSSFCell)currentRow.createCell(cellCount++);
+			// rows are written one by one, so the source can be consumed lazily
+			while (iterator.hasNext()) {
 
-						writeToCell(factory, drawing, cell, value, maxCellLength, overflowMode);
-					}
-				}
+				writeRow(iterator.next(), sheet.createRow(rowCount++), factory, drawing, propertyView, properties, maxCellLength, overflowMode);
 			}
 		}
 
@@ -295,7 +274,7 @@ public class ToExcelFunction extends Function<Object, Object> {
 		return result;
 	}
 
-	public void writeToCell(final CreationHelper factory, final Drawing drawing, final XSSFCell cell, final Object value, final Integer maxCellLength, final String overflowMode) {
+	public void writeToCell(final CreationHelper factory, final Drawing drawing, final Cell cell, final Object value, final Integer maxCellLength, final String overflowMode) {
 
 		final String cellValue = escapeForExcel(value);
 
@@ -321,4 +300,56 @@ public class ToExcelFunction extends Function<Object, Object> {
 			}
 		}
 	}
+
+	// ----- private methods -----
+	private void writeRow(final Object obj, final Row currentRow, final CreationHelper factory, final Drawing drawing, final String propertyView, final List<String> properties, final Integer maxCellLength, final String overflowMode) {
+
+		int cellCount = 0;
+		Cell cell     = null;
+
+		if (propertyView != null) {
+
+			if (obj instanceof GraphObject) {
+
+				for (PropertyKey key : ((GraphObject)obj).getPropertyKeys(propertyView)) {
+
+					final Object value = ((GraphObject)obj).getProperty(key);
+
+					cell = currentRow.createCell(cellCount++);
+
+					writeToCell(factory, drawing, cell, value, maxCellLength, overflowMode);
+				}
+
+			} else {
+				cell = currentRow.createCell(cellCount++);
+				cell.setCellValue("Error: Object is not of type GraphObject, can not determine properties of object");
+			}
+
+		} else if (properties != null) {
+
+			if (obj instanceof GraphObject) {
+
+				final GraphObject castedObj = (GraphObject)obj;
+
+				for (final String colName : properties) {
+					final PropertyKey key = StructrApp.key(obj.getClass(), colName);
+					final Object value = castedObj.getProperty(key);
+					cell = currentRow.createCell(cellCount++);
+
+					writeToCell(factory, drawing, cell, value, maxCellLength, overflowMode);
+				}
+
+			} else if (obj instanceof Map) {
+
+				final Map castedObj = (Map)obj;
+
+				for (final String colName : properties) {
+					final Object value = castedObj.get(colName);
+					cell = currentRow.createCell(cellCount++);
+
+					writeToCell(factory, drawing, cell, value, maxCellLength, overflowMode);
+				}
+			}
+		}
+	}
 }
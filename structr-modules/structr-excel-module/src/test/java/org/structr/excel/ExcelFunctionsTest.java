@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.excel;
+
+import java.io.FileInputStream;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.AbstractNode;
+import org.structr.core.entity.Localization;
+import org.structr.core.graph.NodeAttribute;
+import org.structr.core.graph.Tx;
+import org.structr.core.script.Scripting;
+import org.structr.excel.common.StructrExcelModuleTest;
+import org.structr.schema.action.ActionContext;
+import org.structr.web.common.FileHelper;
+import org.structr.web.entity.File;
+
+public class ExcelFunctionsTest extends StructrExcelModuleTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExcelFunctionsTest.class.getName());
+
+	@Test
+	public void testToExcelFile() {
+
+		File file = null;
+
+		try (final Tx tx = app.tx()) {
+
+			for (int i=1; i<=5; i++) {
+
+				app.create(Localization.class,
+					new NodeAttribute<>(AbstractNode.name,                                   "key" + i),
+					new NodeAttribute<>(StructrApp.key(Localization.class, "localizedName"), "Value " + i)
+				);
+			}
+
+			file = FileHelper.createFile(securityContext, new byte[0], "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", File.class, "export.xlsx");
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			logger.warn("", ex);
+
+			fail("Unexpected exception");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final ActionContext ctx = new ActionContext(securityContext, null);
+			ctx.setLocale(Locale.ENGLISH);
+
+			// collection of nodes
+			Scripting.replaceVariables(ctx, null, "${to_excel_file(first(find('File', 'name', 'export.xlsx')), find('Localization'), merge('name', 'localizedName'))}");
+
+			assertWorkbook(file, "Invalid result of to_excel_file() call with a collection (StructrScript)");
+
+			// type name, nodes are fetched in pages
+			Scripting.replaceVariables(ctx, null, "${to_excel_file(first(find('File', 'name', 'export.xlsx')), 'Localization', merge('name', 'localizedName'))}");
+
+			assertWorkbook(file, "Invalid result of to_excel_file() call with a type name (StructrScript)");
+
+			tx.success();
+
+		} catch (Exception ex) {
+
+			logger.warn("", ex);
+
+			fail("Unexpected exception");
+		}
+	}
+
+	// ----- private methods -----
+	private void assertWorkbook(final File file, final String message) throws Exception {
+
+		try (final FileInputStream is = new FileInputStream(file.getFileOnDisk()); final XSSFWorkbook workbook = new XSSFWorkbook(is)) {
+
+			final Sheet sheet       = workbook.getSheetAt(0);
+			final Set<String> lines = new LinkedHashSet<>();
+
+			for (final Row row : sheet) {
+				lines.add(row.getCell(0).getStringCellValue() + ";" + row.getCell(1).getStringCellValue());
+			}
+
+			assertEquals(message, 6, lines.size());
+			assertTrue(message, lines.contains("name;localizedName"));
+
+			for (int i=1; i<=5; i++) {
+
+				assertTrue(message, lines.contains("key" + i + ";Value " + i));
+			}
+		}
+	}
+}
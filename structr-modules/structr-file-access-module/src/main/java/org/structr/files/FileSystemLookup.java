@@ -0,0 +1,437 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.files;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.NativeResult;
+import org.structr.api.graph.Node;
+import org.structr.api.util.FixedSizeCache;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.StructrTransactionListener;
+import org.structr.core.TransactionSource;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.AbstractNode;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.ModificationEvent;
+import org.structr.core.graph.NodeFactory;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.web.entity.AbstractFile;
+
+/**
+ * Index-backed lookup of files and folders for the FTP and SSH file
+ * systems.
+ *
+ * Directory listings are read lazily in pages, each page in its own
+ * transaction, so that large folders are never loaded into memory at
+ * once. Paths are resolved component by component with a lookup of the
+ * child name below the parent node, and the resolved ids are kept in a
+ * cache that is cleared when a file or folder is renamed, moved or
+ * deleted.
+ */
+public class FileSystemLookup implements StructrTransactionListener {
+
+	private static final Logger logger       = LoggerFactory.getLogger(FileSystemLookup.class.getName());
+	private static final int PAGE_SIZE       = 100;
+	private static final int CACHE_SIZE      = 10000;
+	private static FileSystemLookup instance = null;
+
+	private final FixedSizeCache<String, String> pathCache = new FixedSizeCache<>(CACHE_SIZE);
+
+	private FileSystemLookup() {}
+
+	public static synchronized FileSystemLookup getInstance() {
+
+		if (instance == null) {
+
+			instance = new FileSystemLookup();
+
+			TransactionCommand.registerTransactionListener(instance);
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Returns the children of the folder with the given id, or the
+	 * top-level files and folders if the id is null, sorted by name.
+	 * The children are read in pages when the iterable is consumed,
+	 * the mapper is applied inside the transaction of each page.
+	 *
+	 * @param <T>
+	 * @param securityContext
+	 * @param parentId the id of the parent folder, or null
+	 * @param mapper
+	 * @return a lazy iterable over the mapped children
+	 */
+	public <T> Iterable<T> getChildren(final SecurityContext securityContext, final String parentId, final Function<AbstractFile, T> mapper) {
+		return () -> new ChildIterator<>(securityContext, parentId, mapper);
+	}
+
+	/**
+	 * Returns the number of children of the folder with the given id,
+	 * or the number of top-level files and folders if the id is null,
+	 * that are visible in the given security context. Only a superuser
+	 * sees all children, so the count query is used for superusers only,
+	 * other users count the children page by page.
+	 *
+	 * @param securityContext
+	 * @param parentId the id of the parent folder, or null
+	 * @return the number of children
+	 */
+	public long countChildren(final SecurityContext securityContext, final String parentId) {
+
+		if (!securityContext.isSuperUser()) {
+
+			long count = 0L;
+
+			for (final AbstractFile child : getChildren(securityContext, parentId, Function.identity())) {
+				count++;
+			}
+
+			return count;
+		}
+
+		final App app                    = StructrApp.getInstance(securityContext);
+		final Map<String, Object> params = new HashMap<>();
+		final String query;
+
+		if (parentId != null) {
+
+			query = "MATCH (p" + label(app, "Folder") + " {id: {id}})-[:CONTAINS]->(n" + label(app, "AbstractFile") + ") RETURN count(n) AS count";
+			params.put("id", parentId);
+
+		} else {
+
+			query = "MATCH (n" + label(app, "AbstractFile") + ") WHERE n.hasParent = false RETURN count(n) AS count";
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			long count = 0L;
+
+			try (final NativeResult result = app.getDatabaseService().execute(query, params)) {
+
+				if (result.hasNext()) {
+
+					final Object value = result.next().get("count");
+					if (value instanceof Number) {
+
+						count = ((Number)value).longValue();
+					}
+				}
+			}
+
+			tx.success();
+
+			return count;
+
+		} catch (FrameworkException fex) {
+			logger.warn("Unable to count children of {}: {}", parentId, fex.getMessage());
+		}
+
+		return 0L;
+	}
+
+	/**
+	 * Returns the file or folder with the given absolute path, or null if
+	 * no such file exists or if it is not visible in the given security
+	 * context. Must be called inside a transaction.
+	 *
+	 * @param securityContext
+	 * @param path the absolute path, without the leading slash or with it
+	 * @return the file or null
+	 *
+	 * @throws FrameworkException
+	 */
+	public AbstractFile getFileByPath(final SecurityContext securityContext, final String path) throws FrameworkException {
+
+		final App app           = StructrApp.getInstance(securityContext);
+		final String[] parts    = path.split("/");
+		final StringBuilder buf = new StringBuilder();
+		AbstractFile current    = null;
+
+		for (final String part : parts) {
+
+			if (part.isEmpty()) {
+				continue;
+			}
+
+			buf.append("/").append(part);
+
+			// resolved paths depend on the visibility of the nodes, so
+			// each principal gets its own cache entries
+			final String currentPath = getCacheKey(securityContext, buf.toString());
+			final String cachedId    = pathCache.get(currentPath);
+			AbstractFile next        = null;
+
+			if (cachedId != null) {
+
+				next = app.get(AbstractFile.class, cachedId);
+
+				// the cache is cleared on rename and move, but the node can
+				// still be deleted or replaced, so we need to check the name
+				if (next == null || !part.equals(next.getProperty(AbstractNode.name))) {
+
+					pathCache.remove(currentPath);
+					next = null;
+				}
+			}
+
+			if (next == null) {
+
+				next = getChild(securityContext, app, current != null ? current.getUuid() : null, part);
+				if (next == null) {
+
+					return null;
+				}
+
+				pathCache.put(currentPath, next.getUuid());
+			}
+
+			current = next;
+		}
+
+		return current;
+	}
+
+	// ----- interface StructrTransactionListener -----
+	@Override
+	public void beforeCommit(final SecurityContext securityContext, final Collection<ModificationEvent> modificationEvents, final TransactionSource source) {
+	}
+
+	@Override
+	public void afterCommit(final SecurityContext securityContext, final Collection<ModificationEvent> modificationEvents, final TransactionSource source) {
+
+		if (pathCache.isEmpty()) {
+			return;
+		}
+
+		for (final ModificationEvent event : modificationEvents) {
+
+			if (invalidates(event)) {
+
+				pathCache.clear();
+				return;
+			}
+		}
+	}
+
+	// ----- private methods -----
+	private String getCacheKey(final SecurityContext securityContext, final String path) {
+
+		if (securityContext.isSuperUser()) {
+
+			return "superuser:" + path;
+		}
+
+		final Principal user = securityContext.getUser(false);
+		if (user != null) {
+
+			return user.getUuid() + ":" + path;
+		}
+
+		return "anonymous:" + path;
+	}
+
+	private AbstractFile getChild(final SecurityContext securityContext, final App app, final String parentId, final String name) throws FrameworkException {
+
+		if (parentId == null) {
+
+			final PropertyKey<Boolean> hasParentKey = StructrApp.key(AbstractFile.class, "hasParent");
+
+			return app.nodeQuery(AbstractFile.class).and(hasParentKey, false).andName(name).getFirst();
+		}
+
+		final NodeFactory<AbstractFile> factory = new NodeFactory<>(securityContext);
+		final Map<String, Object> params        = new HashMap<>();
+
+		params.put("id",   parentId);
+		params.put("name", name);
+
+		try (final NativeResult result = app.getDatabaseService().execute("MATCH (p" + label(app, "Folder") + " {id: {id}})-[:CONTAINS]->(n" + label(app, "AbstractFile") + " {name: {name}}) RETURN n", params)) {
+
+			final Iterator<Node> nodes = result.columnAs("n");
+			while (nodes.hasNext()) {
+
+				final AbstractFile child = factory.instantiate(nodes.next());
+				if (child != null) {
+
+					return child;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private boolean invalidates(final ModificationEvent event) {
+
+		if (event.isNode()) {
+
+			if (event.isDeleted()) {
+
+				return isFileType(event.getRemovedProperties().get(GraphObject.type));
+			}
+
+			final GraphObject obj = event.getGraphObject();
+
+			return obj instanceof AbstractFile && event.isModified() && event.getModifiedProperties().containsKey(AbstractNode.name);
+		}
+
+		// a move removes the CONTAINS relationship to the old parent
+		return event.isDeleted() && event.getRelationshipType() != null && "CONTAINS".equals(event.getRelationshipType().name());
+	}
+
+	private boolean isFileType(final Object type) {
+
+		if (type != null) {
+
+			final Class entityType = StructrApp.getConfiguration().getNodeEntityClass(type.toString());
+
+			return entityType != null && AbstractFile.class.isAssignableFrom(entityType);
+		}
+
+		return false;
+	}
+
+	private String label(final App app, final String type) {
+
+		final String tenantIdentifier = app.getDatabaseService().getTenantIdentifier();
+		if (tenantIdentifier != null) {
+
+			return ":" + tenantIdentifier + ":" + type;
+		}
+
+		return ":" + type;
+	}
+
+	// ----- nested classes -----
+	private class ChildIterator<T> implements Iterator<T> {
+
+		private Function<AbstractFile, T> mapper = null;
+		private Iterator<T> current              = Collections.emptyIterator();
+		private SecurityContext securityContext  = null;
+		private String parentId                  = null;
+		private boolean exhausted                = false;
+		private int page                         = 0;
+
+		public ChildIterator(final SecurityContext securityContext, final String parentId, final Function<AbstractFile, T> mapper) {
+
+			this.securityContext = securityContext;
+			this.parentId        = parentId;
+			this.mapper          = mapper;
+		}
+
+		@Override
+		public boolean hasNext() {
+
+			while (!current.hasNext() && !exhausted) {
+
+				current = nextPage().iterator();
+			}
+
+			return current.hasNext();
+		}
+
+		@Override
+		public T next() {
+
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			return current.next();
+		}
+
+		// ----- private methods -----
+		private List<T> nextPage() {
+
+			final App app       = StructrApp.getInstance(securityContext);
+			final List<T> list  = new ArrayList<>(PAGE_SIZE);
+			int rows            = 0;
+
+			try (final Tx tx = app.tx()) {
+
+				if (parentId == null) {
+
+					final PropertyKey<Boolean> hasParentKey = StructrApp.key(AbstractFile.class, "hasParent");
+
+					for (final AbstractFile child : app.nodeQuery(AbstractFile.class).and(hasParentKey, false).sort(AbstractNode.name).pageSize(PAGE_SIZE).page(page + 1).getAsList()) {
+
+						list.add(mapper.apply(child));
+						rows++;
+					}
+
+				} else {
+
+					final NodeFactory<AbstractFile> factory = new NodeFactory<>(securityContext);
+					final Map<String, Object> params        = new HashMap<>();
+
+					params.put("id",    parentId);
+					params.put("skip",  page * PAGE_SIZE);
+					params.put("limit", PAGE_SIZE);
+
+					// page over the raw rows, nodes that are not visible are
+					// filtered afterwards so they don't shorten the page
+					try (final NativeResult result = app.getDatabaseService().execute("MATCH (p" + label(app, "Folder") + " {id: {id}})-[:CONTAINS]->(n" + label(app, "AbstractFile") + ") RETURN n ORDER BY n.name SKIP {skip} LIMIT {limit}", params)) {
+
+						final Iterator<Node> nodes = result.columnAs("n");
+						while (nodes.hasNext()) {
+
+							final AbstractFile child = factory.instantiate(nodes.next());
+							if (child != null) {
+
+								list.add(mapper.apply(child));
+							}
+
+							rows++;
+						}
+					}
+				}
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+
+				logger.warn("Unable to list children of {}: {}", parentId, fex.getMessage());
+			}
+
+			// a short page is the last one
+			exhausted = rows < PAGE_SIZE;
+			page++;
+
+			return list;
+		}
+	}
+}
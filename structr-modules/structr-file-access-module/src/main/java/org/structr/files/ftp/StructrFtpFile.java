@@ -21,7 +21,11 @@ package org.structr.files.ftp;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import org.apache.commons.io.IOUtils;
 import org.apache.ftpserver.ftplet.FtpFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -98,11 +102,29 @@ public class StructrFtpFile extends AbstractStructrFtpFile {
 
 		try (Tx tx = StructrApp.getInstance(securityContext).tx()) {
 
-			final InputStream inputStream = ((File) structrFile).getInputStream();
+			final File file               = (File) structrFile;
+			final java.io.File fileOnDisk = file.getFileOnDisk();
+
+			if (file.isTemplate()) {
+
+				// templates must be rendered, so they cannot be read from disk directly
+				final InputStream inputStream = file.getInputStream();
+
+				IOUtils.skipFully(inputStream, l);
+
+				tx.success();
+
+				return inputStream;
+			}
 
 			tx.success();
 
-			return inputStream;
+			// read the file on disk directly, starting at the requested offset
+			final FileChannel channel = FileChannel.open(fileOnDisk.toPath(), StandardOpenOption.READ);
+
+			channel.position(l);
+
+			return Channels.newInputStream(channel);
 
 		} catch (FrameworkException fex) {
 			logger.error(null, fex);
@@ -33,6 +33,8 @@ import org.structr.core.Result;
 import org.structr.core.app.App;
 import org.structr.core.app.StructrApp;
 import org.structr.core.graph.Tx;
+import org.structr.files.FileSystemLookup;
+import org.structr.web.entity.AbstractFile;
 import org.structr.web.entity.File;
 import org.structr.web.entity.Folder;
 import org.structr.web.entity.dom.Page;
@@ -89,7 +91,21 @@ public class StructrFtpFolder extends AbstractStructrFtpFile implements FtpFile
 
 	@Override
 	public long getSize() {
-		return listFiles().size();
+
+		try (Tx tx = StructrApp.getInstance(securityContext).tx()) {
+
+			final String id = structrFile != null ? structrFile.getUuid() : null;
+
+			tx.success();
+
+			// count the children instead of listing them
+			return FileSystemLookup.getInstance().countChildren(securityContext, id);
+
+		} catch (FrameworkException fex) {
+			logger.error("Error in getSize()", fex);
+		}
+
+		return 0L;
 	}
 
 	@Override
@@ -104,79 +120,29 @@ public class StructrFtpFolder extends AbstractStructrFtpFile implements FtpFile
 			String requestedPath = getAbsolutePath();
 			logger.debug("Children of {} requested", requestedPath);
 
-			if ("/".equals(requestedPath)) {
-				try {
-					Result<Folder> folders = app.nodeQuery(Folder.class).getResult();
-					logger.debug("{} folders found", folders.size());
-
-					for (Folder f : folders.getResults()) {
-
-						if (f.getHasParent()) {
-							continue;
-						}
-
-						FtpFile ftpFile = new StructrFtpFolder(securityContext, f);
-						logger.debug("Folder found: {}", ftpFile.getAbsolutePath());
-
-						ftpFiles.add(ftpFile);
-
-					}
-
-					Result<File> files = app.nodeQuery(File.class).getResult();
-					logger.debug("{} files found", files.size());
-
-					for (File f : files.getResults()) {
-
-						if (f.getHasParent()) {
-							continue;
-						}
-
-						logger.debug("Structr file found: {}", f);
-
-						FtpFile ftpFile = new StructrFtpFile(securityContext, f);
-						logger.debug("File found: {}", ftpFile.getAbsolutePath());
+			final boolean isRoot  = "/".equals(requestedPath);
+			final String parentId = isRoot || structrFile == null ? null : structrFile.getUuid();
 
-						ftpFiles.add(ftpFile);
+			// children are read in pages, sorted by name
+			for (final FtpFile ftpFile : FileSystemLookup.getInstance().getChildren(securityContext, parentId, this::wrap)) {
 
-					}
-
-					Result<Page> pages = app.nodeQuery(Page.class).getResult();
-					logger.debug("{} pages found", pages.size());
-
-					for (Page p : pages.getResults()) {
-
-						logger.debug("Structr page found: {}", p);
-
-						ftpFiles.add(new FtpFilePageWrapper(p));
-
-					}
-
-					return ftpFiles;
-
-				} catch (FrameworkException ex) {
-					logger.error("", ex);
-				}
+				logger.debug("Child found: {}", ftpFile.getName());
 
+				ftpFiles.add(ftpFile);
 			}
 
-			Iterable<Folder> folders = ((Folder) structrFile).getFolders();
-
-			for (Folder f : folders) {
+			if (isRoot) {
 
-				FtpFile ftpFile = new StructrFtpFolder(securityContext, f);
-				logger.debug("Subfolder found: {}", ftpFile.getAbsolutePath());
+				Result<Page> pages = app.nodeQuery(Page.class).getResult();
+				logger.debug("{} pages found", pages.size());
 
-				ftpFiles.add(ftpFile);
-			}
-
-			Iterable<File> files = ((Folder) structrFile).getFiles();
+				for (Page p : pages.getResults()) {
 
-			for (File f : files) {
+					logger.debug("Structr page found: {}", p);
 
-				FtpFile ftpFile = new StructrFtpFile(securityContext, f);
-				logger.debug("File found: {}", ftpFile.getAbsolutePath());
+					ftpFiles.add(new FtpFilePageWrapper(p));
 
-				ftpFiles.add(ftpFile);
+				}
 			}
 
 			tx.success();
@@ -214,4 +180,14 @@ public class StructrFtpFolder extends AbstractStructrFtpFile implements FtpFile
 		throw new UnsupportedOperationException("Not supported yet.");
 	}
 
+	// ----- private methods -----
+	private FtpFile wrap(final AbstractFile child) {
+
+		if (child instanceof Folder) {
+
+			return new StructrFtpFolder(securityContext, (Folder)child);
+		}
+
+		return new StructrFtpFile(securityContext, (File)child);
+	}
 }
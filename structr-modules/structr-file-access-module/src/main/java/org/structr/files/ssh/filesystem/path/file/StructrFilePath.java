@@ -34,8 +34,6 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.slf4j.Logger;
@@ -46,6 +44,7 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.entity.AbstractNode;
 import org.structr.core.graph.NodeAttribute;
 import org.structr.core.graph.Tx;
+import org.structr.files.FileSystemLookup;
 import org.structr.files.ssh.filesystem.StructrFileAttributes;
 import org.structr.files.ssh.filesystem.StructrFileChannel;
 import org.structr.files.ssh.filesystem.StructrFilesystem;
@@ -83,21 +82,12 @@ public class StructrFilePath extends StructrPath {
 
 					if (!closed) {
 
-						final App app                 = StructrApp.getInstance(fs.getSecurityContext());
-						final List<StructrPath> files = new LinkedList<>();
+						final App app = StructrApp.getInstance(fs.getSecurityContext());
+						String id     = null;
 
 						try (final Tx tx = app.tx()) {
 
-
-							for (final Folder folder : folder.getFolders()) {
-
-								files.add(new StructrFilePath(fs, StructrFilePath.this, folder.getName()));
-							}
-
-							for (final File file : folder.getFiles()) {
-
-								files.add(new StructrFilePath(fs, StructrFilePath.this, file.getName()));
-							}
+							id = folder.getUuid();
 
 							tx.success();
 
@@ -105,8 +95,8 @@ public class StructrFilePath extends StructrPath {
 							logger.warn("", fex);
 						}
 
-						return files.iterator();
-
+						// children are read lazily in pages
+						return FileSystemLookup.getInstance().getChildren(fs.getSecurityContext(), id, child -> new StructrFilePath(fs, StructrFilePath.this, child.getName())).iterator();
 					}
 
 					return Collections.emptyIterator();
@@ -358,7 +348,7 @@ public class StructrFilePath extends StructrPath {
 			try (final Tx tx = app.tx()) {
 
 				// remove /files from path since it is a virtual directory
-				cachedActualFile = app.nodeQuery(AbstractFile.class).and(StructrApp.key(AbstractFile.class, "path"), filePath).getFirst();
+				cachedActualFile = FileSystemLookup.getInstance().getFileByPath(fs.getSecurityContext(), filePath);
 
 				tx.success();
 
@@ -32,31 +32,18 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.structr.common.error.FrameworkException;
-import org.structr.core.app.App;
-import org.structr.core.app.StructrApp;
-import org.structr.core.graph.Tx;
-import org.structr.core.property.PropertyKey;
+import org.structr.files.FileSystemLookup;
 import org.structr.files.ssh.filesystem.StructrFilesystem;
 import org.structr.files.ssh.filesystem.StructrPath;
 import org.structr.files.ssh.filesystem.StructrToplevelAttributes;
-import org.structr.web.entity.AbstractFile;
-import org.structr.web.entity.File;
-import org.structr.web.entity.Folder;
 
 /**
  *
  */
 public class StructrFilesPath extends StructrPath {
 
-	private static final Logger logger = LoggerFactory.getLogger(StructrFilesPath.class.getName());
-
 	public StructrFilesPath(final StructrFilesystem fs, final StructrPath parent) {
 		super(fs, parent, StructrPath.FILES_DIRECTORY);
 	}
@@ -78,30 +65,8 @@ public class StructrFilesPath extends StructrPath {
 
 				if (!closed) {
 
-					final App app                           = StructrApp.getInstance(fs.getSecurityContext());
-					final PropertyKey<Boolean> hasParentKey = StructrApp.key(AbstractFile.class, "hasParent");
-					final List<StructrPath> files           = new LinkedList<>();
-
-					try (final Tx tx = app.tx()) {
-
-						for (final Folder folder : app.nodeQuery(Folder.class).and(hasParentKey, false).getAsList()) {
-
-							files.add(new StructrFilePath(fs, StructrFilesPath.this, folder.getName()));
-						}
-
-						for (final File file : app.nodeQuery(File.class).and(hasParentKey, false).getAsList()) {
-
-							files.add(new StructrFilePath(fs, StructrFilesPath.this, file.getName()));
-						}
-
-						tx.success();
-
-					} catch (FrameworkException fex) {
-						logger.warn("", fex);
-					}
-
-					return files.iterator();
-
+					// top-level files and folders are read lazily in pages
+					return FileSystemLookup.getInstance().getChildren(fs.getSecurityContext(), null, child -> new StructrFilePath(fs, StructrFilesPath.this, child.getName())).iterator();
 				}
 
 				return Collections.emptyIterator();
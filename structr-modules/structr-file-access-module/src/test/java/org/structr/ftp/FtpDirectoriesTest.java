@@ -416,4 +416,60 @@ public class FtpDirectoriesTest extends FtpTest {
 		}
 	}
 
+	@Test
+	public void test09ListLargeDirectory() {
+
+		final String name1 = "FTPdir1";
+		final int count    = 250;
+
+		FTPClient ftp = setupFTPClient("ftpuser1");
+
+		try (final Tx tx = app.tx()) {
+
+			createFTPDirectory(null, name1);
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			logger.warn("", ex);
+			fail("Unexpected exception: " + ex.getMessage());
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			// more children than fit on a single page of the listing
+			for (int i=0; i<count; i++) {
+				createFTPDirectory("/" + name1, "sub" + String.format("%03d", i));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			logger.warn("", ex);
+			fail("Unexpected exception: " + ex.getMessage());
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			assertTrue(ftp.changeWorkingDirectory(name1));
+
+			final FTPFile[] dirs = ftp.listDirectories();
+
+			assertNotNull(dirs);
+			assertEquals(count, dirs.length);
+
+			// the listing is sorted by name
+			for (int i=0; i<count; i++) {
+				assertEquals("sub" + String.format("%03d", i), dirs[i].getName());
+			}
+
+			ftp.disconnect();
+
+			tx.success();
+
+		} catch (IOException | FrameworkException ex) {
+			logger.warn("", ex);
+			fail("Unexpected exception: " + ex.getMessage());
+		}
+	}
 }
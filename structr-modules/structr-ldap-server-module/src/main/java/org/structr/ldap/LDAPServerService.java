@@ -53,6 +53,13 @@ import org.slf4j.LoggerFactory;
 import org.structr.api.service.Command;
 import org.structr.api.service.SingletonService;
 import org.structr.api.service.StructrServices;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.Tx;
+import org.structr.core.property.PropertyKey;
+import org.structr.ldap.entity.LDAPValue;
 
 public class LDAPServerService implements SingletonService {
 
@@ -125,6 +132,8 @@ public class LDAPServerService implements SingletonService {
 	@Override
 	public void initialized() {
 
+		updateNormalizedValues();
+
 		try {
 
 			// TEST
@@ -172,6 +181,10 @@ public class LDAPServerService implements SingletonService {
 		return false;
 	}
 
+	public DirectoryService getDirectoryService() {
+		return ds;
+	}
+
 	// ----- interface Feature -----
 	@Override
 	public String getModuleName() {
@@ -179,6 +192,35 @@ public class LDAPServerService implements SingletonService {
 	}
 
 	// ----- private methods -----
+	private void updateNormalizedValues() {
+
+		final App app                 = StructrApp.getInstance(SecurityContext.getSuperUserInstance());
+		final Class type              = StructrApp.getConfiguration().getNodeEntityClass("LDAPValue");
+		final PropertyKey<String> key = StructrApp.key(LDAPValue.class, "normalizedValue");
+		int count                     = 0;
+
+		// values created before the search index was introduced
+		try (final Tx tx = app.tx()) {
+
+			for (final Object obj : app.nodeQuery(type).blank(key).getAsList()) {
+
+				final LDAPValue value = (LDAPValue)obj;
+
+				value.setStringValue(value.getStringValue());
+				count++;
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			logger.warn("Unable to update normalized LDAP values: {}", fex.getMessage());
+		}
+
+		if (count > 0) {
+			logger.info("Updated normalized value of {} LDAP values", count);
+		}
+	}
+
 	private void initSchema(final SchemaManager schemaManager, final CoreSession adminSession, final StructrPartition partition) throws Exception {
 
 		final URL url            = SchemaEntityFactory.class.getProtectionDomain().getCodeSource().getLocation();
@@ -18,13 +18,19 @@
  */
 package org.structr.ldap;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.commons.lang.StringUtils;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.entry.Attribute;
 import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
@@ -45,16 +51,20 @@ import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.api.ldap.model.name.Rdn;
 import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.ldap.model.schema.MatchingRule;
 import org.apache.directory.api.ldap.model.schema.SchemaManager;
 import org.apache.directory.api.ldap.model.schema.registries.ObjectClassRegistry;
 import org.apache.directory.server.core.api.entry.ClonedServerEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.util.FixedSizeCache;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
 import org.structr.core.app.App;
 import org.structr.core.app.StructrApp;
 import org.structr.core.graph.NodeAttribute;
+import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.Tx;
 import org.structr.ldap.entity.LDAPAttribute;
 import org.structr.ldap.entity.LDAPNode;
@@ -63,18 +73,23 @@ import org.structr.ldap.entity.LDAPValue;
 
 public class StructrLDAPWrapper {
 
-	private static final Logger logger = LoggerFactory.getLogger(StructrLDAPWrapper.class.getName());
-	private SecurityContext securityContext = null;
-	private SchemaManager schemaManager     = null;
-	private String partitionId              = null;
-	private Class<? extends LDAPNode> type  = null;
+	private static final Logger logger                  = LoggerFactory.getLogger(StructrLDAPWrapper.class.getName());
+	private static final Set<String> indexedEqualityRules  = new HashSet<>(Arrays.asList("caseignorematch", "caseexactmatch", "caseignoreia5match", "caseexactia5match"));
+	private static final Set<String> indexedSubstringRules = new HashSet<>(Arrays.asList("caseignoresubstringsmatch", "caseexactsubstringsmatch", "caseignoreia5substringsmatch"));
 
-	public StructrLDAPWrapper(final SecurityContext securityContext, final SchemaManager schemaManager, final String partitionId, final Class<? extends LDAPNode> type) {
+	private FixedSizeCache<String, String> dnCache = null;
+	private SecurityContext securityContext        = null;
+	private SchemaManager schemaManager            = null;
+	private String partitionId                     = null;
+	private Class<? extends LDAPNode> type         = null;
+
+	public StructrLDAPWrapper(final SecurityContext securityContext, final SchemaManager schemaManager, final String partitionId, final Class<? extends LDAPNode> type, final FixedSizeCache<String, String> dnCache) {
 
 		this.securityContext = securityContext;
 		this.schemaManager   = schemaManager;
 		this.partitionId     = partitionId;
 		this.type            = type;
+		this.dnCache         = dnCache;
 	}
 
 	public void add(final Entry entry) throws LdapException {
@@ -187,6 +202,9 @@ public class StructrLDAPWrapper {
 			if (entry != null) {
 
 				entry.delete();
+
+				// the delete cascades to the whole subtree
+				dnCache.clear();
 			}
 
 			tx.success();
@@ -205,7 +223,16 @@ public class StructrLDAPWrapper {
 
 			if (entry != null) {
 
-				result = filter(entry, filter, scope, 0);
+				final Map<String, LDAPNode> candidates = getCandidates(entry, filter, scope);
+				if (candidates != null) {
+
+					result = filter(candidates.values(), filter);
+
+				} else {
+
+					// filter can not be answered from the index
+					result = filter(entry, filter, scope, 0);
+				}
 			}
 
 			tx.success();
@@ -277,27 +304,260 @@ public class StructrLDAPWrapper {
 
 	private LDAPNode find(final Dn dn) throws FrameworkException, LdapException, LdapInvalidDnException {
 
-		final List<Rdn> rdns = new LinkedList<>(dn.getRdns());
+		if (dn.isEmpty()) {
+			return getRoot();
+		}
 
-		Collections.reverse(rdns);
+		final String key = dn.getNormName();
+		final String id  = dnCache.get(key);
 
-		LDAPNode current = getRoot();
+		if (id != null) {
 
-		for (final Rdn rdn : rdns) {
+			final NodeInterface cached = app().getNodeById(id);
+			if (cached instanceof LDAPNode) {
+
+				return (LDAPNode)cached;
+			}
+
+			dnCache.remove(key);
+		}
+
+		final LDAPNode parent = find(dn.getParent());
+		if (parent != null) {
+
+			final Rdn rdn = dn.getRdn();
 
 			if (!rdn.isSchemaAware()) {
 				rdn.apply(schemaManager);
 			}
 
-			current = current.getChild(rdn.getNormName());
+			final LDAPNode child = parent.getChild(rdn.getNormName());
+			if (child != null) {
+
+				dnCache.put(key, child.getUuid());
+			}
+
+			return child;
+		}
+
+		return null;
+	}
+
+	private List<Entry> filter(final Iterable<LDAPNode> candidates, final ExprNode filter) throws FrameworkException, LdapException {
+
+		final List<Entry> list = new LinkedList<>();
+
+		// the index lookup may return more nodes than necessary, so the
+		// candidates are checked against the original filter
+		for (final LDAPNode node : candidates) {
+
+			if (matches(node, filter)) {
+				list.add(getEntry(node));
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Translates the given filter into graph queries on LDAPAttribute and
+	 * LDAPValue and returns a superset of the matching nodes in the given
+	 * scope, or null if the filter can not be evaluated using the index.
+	 */
+	private Map<String, LDAPNode> getCandidates(final LDAPNode base, final ExprNode filter, final SearchScope scope) throws FrameworkException {
+
+		if (filter instanceof SimpleNode) {
+
+			final SimpleNode simpleNode = (SimpleNode)filter;
+			final AttributeType type    = simpleNode.getAttributeType();
+
+			// only equality is supported, see evaluateSimpleNode
+			if (!AssertionType.EQUALITY.equals(simpleNode.getAssertionType())) {
+				return new LinkedHashMap<>();
+			}
+
+			if (type != null && simpleNode.getValue() != null && isIndexed(type.getEquality(), indexedEqualityRules)) {
+
+				final Map<String, Object> params = new HashMap<>();
+
+				params.put("value", LDAPValue.normalize(simpleNode.getValue().getString()));
+
+				return query(base, scope, type.getOid(), "v.normalizedValue = {value}", true, params);
+			}
+
+		} else if (filter instanceof SubstringNode) {
+
+			final SubstringNode substringNode = (SubstringNode)filter;
+			final AttributeType type          = substringNode.getAttributeType();
+
+			if (type != null && isIndexed(type.getSubstring(), indexedSubstringRules)) {
+
+				final Map<String, Object> params = new HashMap<>();
+				final List<String> conditions    = new LinkedList<>();
+				final List<String> any           = substringNode.getAny();
+
+				addSubstringCondition(conditions, params, "STARTS WITH", substringNode.getInitial());
+				addSubstringCondition(conditions, params, "ENDS WITH",   substringNode.getFinal());
+
+				if (any != null) {
+
+					for (final String part : any) {
+						addSubstringCondition(conditions, params, "CONTAINS", part);
+					}
+				}
+
+				// only prefix conditions can be answered from the index
+				final String initial = LDAPValue.normalize(substringNode.getInitial());
+
+				return query(base, scope, type.getOid(), conditions.isEmpty() ? "true" : StringUtils.join(conditions, " AND "), StringUtils.isNotEmpty(initial), params);
+			}
+
+		} else if (filter instanceof PresenceNode) {
+
+			final AttributeType type = ((PresenceNode)filter).getAttributeType();
+			if (type != null) {
+
+				return query(base, scope, type.getOid(), null, false, new HashMap<>());
+			}
+
+		} else if (filter instanceof OrNode) {
+
+			final Map<String, LDAPNode> result = new LinkedHashMap<>();
+
+			for (final ExprNode child : ((OrNode)filter).getChildren()) {
+
+				final Map<String, LDAPNode> candidates = getCandidates(base, child, scope);
+				if (candidates == null) {
+
+					// one unindexed branch requires a full scan
+					return null;
+				}
+
+				result.putAll(candidates);
+			}
+
+			return result;
+
+		} else if (filter instanceof AndNode) {
+
+			Map<String, LDAPNode> result = null;
+
+			for (final ExprNode child : ((AndNode)filter).getChildren()) {
+
+				// unindexed branches are checked in matches() later
+				final Map<String, LDAPNode> candidates = getCandidates(base, child, scope);
+				if (candidates != null) {
+
+					if (result == null) {
+
+						result = candidates;
+
+					} else {
+
+						result.keySet().retainAll(candidates.keySet());
+					}
+				}
+			}
+
+			return result;
+
+		} else {
+
+			// unsupported filter types never match, see matches()
+			return new LinkedHashMap<>();
+		}
+
+		return null;
+	}
+
+	private Map<String, LDAPNode> query(final LDAPNode base, final SearchScope scope, final String oid, final String condition, final boolean useIndex, final Map<String, Object> params) throws FrameworkException {
+
+		final Map<String, LDAPNode> result = new LinkedHashMap<>();
+		final StringBuilder buf            = new StringBuilder();
+
+		if (condition != null) {
+
+			// start with the values from the index on normalizedValue, the
+			// path to the base node is checked for the matching values only
+			buf.append("MATCH (v").append(label("LDAPValue")).append(")");
+
+			if (useIndex) {
+				buf.append(" USING INDEX v:LDAPValue(normalizedValue)");
+			}
+
+			buf.append(" WHERE ").append(condition);
+			buf.append(" MATCH (n").append(label("LDAPNode")).append(")-[:LDAP_ATTR]->(a").append(label("LDAPAttribute")).append(")-[:LDAP_VALUE]->(v)");
+			buf.append(" WHERE a.oid = {oid}");
+
+			// walk up from the matching nodes, an unlabeled base node
+			// keeps the planner from expanding the tree below the base
+			buf.append(" WITH DISTINCT n MATCH (n)<-[:LDAP_CHILD").append(getPathLength(scope)).append("]-(b)");
+			buf.append(" WHERE b.id = {base}");
+
+		} else {
+
+			// the search scope is expressed as a path from the base node
+			buf.append("MATCH (b").append(label("LDAPNode")).append(")-[:LDAP_CHILD").append(getPathLength(scope)).append("]->(n").append(label("LDAPNode")).append(")");
+			buf.append("-[:LDAP_ATTR]->(a").append(label("LDAPAttribute")).append(")");
+			buf.append(" WHERE b.id = {base} AND a.oid = {oid}");
+		}
+
+		buf.append(" RETURN DISTINCT n");
 
-			// break early to avoid NPE
-			if (current == null) {
-				return null;
+		params.put("base", base.getUuid());
+		params.put("oid",  oid);
+
+		for (final GraphObject obj : app().cypher(buf.toString(), params)) {
+
+			if (obj instanceof LDAPNode) {
+
+				result.put(obj.getUuid(), (LDAPNode)obj);
 			}
 		}
 
-		return current;
+		return result;
+	}
+
+	private void addSubstringCondition(final List<String> conditions, final Map<String, Object> params, final String operator, final String part) {
+
+		final String value = LDAPValue.normalize(part);
+		if (StringUtils.isNotEmpty(value)) {
+
+			final String name = "p" + params.size();
+
+			conditions.add("v.normalizedValue " + operator + " {" + name + "}");
+			params.put(name, value);
+		}
+	}
+
+	private boolean isIndexed(final MatchingRule rule, final Set<String> indexedRules) {
+		return rule != null && rule.getName() != null && indexedRules.contains(rule.getName().toLowerCase());
+	}
+
+	private String getPathLength(final SearchScope scope) {
+
+		switch (scope) {
+
+			case OBJECT:
+				return "*0..0";
+
+			case ONELEVEL:
+				return "*1..1";
+
+			default:
+				return "*0..";
+		}
+	}
+
+	private String label(final String type) {
+
+		final String tenantIdentifier = app().getDatabaseService().getTenantIdentifier();
+		if (tenantIdentifier != null) {
+
+			return ":" + tenantIdentifier + ":" + type;
+		}
+
+		return ":" + type;
 	}
 
 	private List<Entry> filter(final LDAPNode node, final ExprNode filter, final SearchScope scope, final int depth) throws FrameworkException, LdapException {
@@ -49,6 +49,7 @@ import org.apache.directory.server.core.api.partition.Subordinates;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.config.Settings;
+import org.structr.api.util.FixedSizeCache;
 import org.structr.common.SecurityContext;
 import org.structr.core.app.StructrApp;
 import org.structr.ldap.entity.LDAPNode;
@@ -58,13 +59,15 @@ import org.structr.ldap.entity.LDAPNode;
  */
 class StructrPartition implements Partition {
 
-	private static final Logger logger = LoggerFactory.getLogger(StructrPartition.class.getName());
+	private static final Logger logger     = LoggerFactory.getLogger(StructrPartition.class.getName());
+	private static final int DN_CACHE_SIZE = 10000;
 
-	private Class<? extends LDAPNode> rootType = null;
-	private SchemaManager schemaManager        = null;
-	private boolean initialized                = false;
-	private String id                          = null;
-	private Dn suffixDn                        = null;
+	private final FixedSizeCache<String, String> dnCache = new FixedSizeCache<>(DN_CACHE_SIZE);
+	private Class<? extends LDAPNode> rootType           = null;
+	private SchemaManager schemaManager                  = null;
+	private boolean initialized                          = false;
+	private String id                                    = null;
+	private Dn suffixDn                                  = null;
 
 	public StructrPartition(final SchemaManager schemaManager, final String partitionId, final Dn suffixDn) {
 
@@ -240,7 +243,7 @@ class StructrPartition implements Partition {
 
 		final SecurityContext securityContext = SecurityContext.getSuperUserInstance();
 
-		return new StructrLDAPWrapper(securityContext, schemaManager, id, getPartitionRootType());
+		return new StructrLDAPWrapper(securityContext, schemaManager, id, getPartitionRootType(), dnCache);
 	}
 
 	private Class<? extends LDAPNode> getPartitionRootType() {
@@ -42,7 +42,7 @@ public interface LDAPAttribute extends NodeInterface {
 
 		type.setImplements(URI.create("https://structr.org/v1.1/definitions/LDAPAttribute"));
 
-		type.addStringProperty("oid", PropertyView.Public);
+		type.addStringProperty("oid", PropertyView.Public).setIndexed(true);
 
 		type.addPropertyGetter("values", Iterable.class);
 
@@ -78,6 +78,7 @@ public interface LDAPAttribute extends NodeInterface {
 		return StructrApp.getInstance(thisAttribute.getSecurityContext()).create(type,
 			new NodeAttribute<>(StructrApp.key(LDAPValue.class, "parent"),                      thisAttribute),
 			new NodeAttribute<>(StructrApp.key(LDAPValue.class, "value"),                       value),
+			new NodeAttribute<>(StructrApp.key(LDAPValue.class, "normalizedValue"),             LDAPValue.normalize(value)),
 			new NodeAttribute<>(StructrApp.key(LDAPValue.class, "visibleToPublicUsers"),        true),
 			new NodeAttribute<>(StructrApp.key(LDAPValue.class, "visibleToAuthenticatedUsers"), true)
 		);
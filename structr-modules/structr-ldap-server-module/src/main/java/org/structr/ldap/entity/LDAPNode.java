@@ -100,11 +100,18 @@ public interface LDAPNode extends NodeInterface {
 
 	static LDAPNode getChild(final LDAPNode thisNode, final String normalizedName) throws FrameworkException {
 
-		// find child
-		for (final LDAPNode child : thisNode.getChildren()) {
+		final Class type = StructrApp.getConfiguration().getNodeEntityClass("LDAPNode");
+		final App app    = StructrApp.getInstance(thisNode.getSecurityContext());
+		final String id  = thisNode.getUuid();
+
+		// use the rdn index instead of iterating over all children, the rdn
+		// is not unique in the whole tree so we need to check the parent
+		for (final Object candidate : app.nodeQuery(type).and(StructrApp.key(LDAPNode.class, "rdn"), normalizedName).getAsList()) {
+
+			final LDAPNode child  = (LDAPNode)candidate;
+			final LDAPNode parent = child.getParent();
 
-			final String childRdn = child.getRdn();
-			if (normalizedName.equals(childRdn)) {
+			if (parent != null && id.equals(parent.getUuid())) {
 
 				return child;
 			}
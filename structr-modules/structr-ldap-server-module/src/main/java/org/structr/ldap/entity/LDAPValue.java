@@ -19,8 +19,10 @@
 package org.structr.ldap.entity;
 
 import java.net.URI;
+import java.util.Locale;
 import org.structr.common.PropertyView;
 import org.structr.common.error.FrameworkException;
+import org.structr.core.app.StructrApp;
 import org.structr.core.graph.NodeInterface;
 import org.structr.schema.SchemaService;
 import org.structr.schema.json.JsonObjectType;
@@ -35,13 +37,38 @@ public interface LDAPValue extends NodeInterface {
 
 		type.setImplements(URI.create("https://structr.org/v1.1/definitions/LDAPValue"));
 
-		type.addStringProperty("value", PropertyView.Public).setIndexed(true);
+		type.addStringProperty("value",           PropertyView.Public).setIndexed(true);
+		type.addStringProperty("normalizedValue", PropertyView.Public).setIndexed(true);
 
 		type.overrideMethod("getStringValue", false, "return getProperty(valueProperty);");
-		type.overrideMethod("setStringValue", false, "setProperty(valueProperty, arg0);");
+		type.overrideMethod("setStringValue", false, LDAPValue.class.getName() + ".setStringValue(this, arg0);");
 
 	}}
 
 	public String getStringValue();
 	public void setStringValue(final String value) throws FrameworkException;
+
+	static void setStringValue(final LDAPValue thisValue, final String value) throws FrameworkException {
+
+		thisValue.setProperty(StructrApp.key(LDAPValue.class, "value"),           value);
+		thisValue.setProperty(StructrApp.key(LDAPValue.class, "normalizedValue"), LDAPValue.normalize(value));
+	}
+
+	/**
+	 * Returns the given value in lower case with leading and trailing
+	 * whitespace removed and inner whitespace collapsed, which is the
+	 * form that is stored in the indexed normalizedValue property and
+	 * used for search lookups.
+	 *
+	 * @param value
+	 * @return the normalized value
+	 */
+	static String normalize(final String value) {
+
+		if (value == null) {
+			return null;
+		}
+
+		return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	}
 }
@@ -18,16 +18,99 @@
  */
 package org.structr.ldap;
 
+import org.apache.directory.api.ldap.model.cursor.Cursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.filter.FilterParser;
+import org.apache.directory.api.ldap.model.message.AliasDerefMode;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.server.core.api.CoreSession;
+import org.apache.directory.server.core.api.DirectoryService;
+import static org.junit.Assert.assertEquals;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.core.Services;
 
 /**
  */
 public class SimpleTest extends StructrLDAPServerModuleTest {
 
+	private static final Logger logger = LoggerFactory.getLogger(SimpleTest.class.getName());
+
 	@Test
 	public void testLDAP() {
 
 
 	}
 
+	@Test
+	public void testIndexedSearch() throws Exception {
+
+		final DirectoryService service    = Services.getInstance().getService(LDAPServerService.class).getDirectoryService();
+		final SchemaManager schemaManager = service.getSchemaManager();
+		final CoreSession session         = service.getAdminSession();
+		final Dn people                   = new Dn(schemaManager, "ou=people,dc=org");
+		final int count                   = 1000;
+
+		final Entry ou = service.newEntry(people);
+		ou.add("objectClass", "top", "organizationalUnit");
+		ou.add("ou", "people");
+		session.add(ou);
+
+		for (int i=0; i<count; i++) {
+
+			final Entry user = service.newEntry(new Dn(schemaManager, "uid=user" + i + ",ou=people,dc=org"));
+
+			user.add("objectClass", "top", "person", "extensibleObject");
+			user.add("uid", "user" + i);
+			user.add("cn", "User " + i);
+			user.add("sn", i % 2 == 0 ? "Even" : "Odd");
+
+			session.add(user);
+		}
+
+		final long t0 = System.currentTimeMillis();
+
+		for (int i=0; i<count; i+=10) {
+			assertEquals("Invalid search result", 1, search(session, schemaManager, people, SearchScope.SUBTREE, "(uid=user" + i + ")"));
+		}
+
+		final long t1 = System.currentTimeMillis();
+
+		logger.info("{} equality searches on {} entries took {} ms", count / 10, count, t1 - t0);
+
+		// case-insensitive matching rule
+		assertEquals("Invalid search result", 1, search(session, schemaManager, people, SearchScope.SUBTREE, "(UID=User7)"));
+
+		// combined filters, objectClass is not answered from the index
+		assertEquals("Invalid search result", 2, search(session, schemaManager, people, SearchScope.SUBTREE, "(|(uid=user1)(uid=user2))"));
+		assertEquals("Invalid search result", 1, search(session, schemaManager, people, SearchScope.SUBTREE, "(&(objectClass=person)(uid=user3))"));
+		assertEquals("Invalid search result", 0, search(session, schemaManager, people, SearchScope.SUBTREE, "(&(sn=Odd)(uid=user4))"));
+
+		// substrings: "User 1", "User 10" to "User 19" and "User 100" to "User 199"
+		assertEquals("Invalid search result", 111, search(session, schemaManager, people, SearchScope.SUBTREE, "(cn=user 1*)"));
+
+		// scopes
+		assertEquals("Invalid search result", count / 2, search(session, schemaManager, people, SearchScope.ONELEVEL, "(sn=even)"));
+		assertEquals("Invalid search result", 1,         search(session, schemaManager, people, SearchScope.OBJECT,   "(ou=people)"));
+		assertEquals("Invalid search result", 0,         search(session, schemaManager, people, SearchScope.ONELEVEL, "(ou=people)"));
+		assertEquals("Invalid search result", count + 1, search(session, schemaManager, people, SearchScope.SUBTREE,  "(objectClass=*)"));
+	}
+
+	// ----- private methods -----
+	private int search(final CoreSession session, final SchemaManager schemaManager, final Dn base, final SearchScope scope, final String filter) throws Exception {
+
+		try (final Cursor<Entry> cursor = session.search(base, scope, FilterParser.parse(schemaManager, filter), AliasDerefMode.NEVER_DEREF_ALIASES)) {
+
+			int count = 0;
+
+			while (cursor.next()) {
+				count++;
+			}
+
+			return count;
+		}
+	}
 }
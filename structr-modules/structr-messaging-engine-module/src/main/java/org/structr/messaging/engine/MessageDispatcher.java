@@ -0,0 +1,382 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.messaging.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+import org.structr.common.SecurityContext;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.graph.Tx;
+import org.structr.messaging.engine.entities.MessageClient;
+import org.structr.messaging.engine.entities.MessageSubscriber;
+
+/**
+ * Asynchronous, topic-routed message dispatcher.
+ *
+ * Incoming messages are matched against an in-memory routing index per
+ * client (see {@link TopicTrie}) that is rebuilt lazily whenever a client
+ * or subscriber changes. Matched messages are appended to a queue per
+ * subscriber and delivered by a bounded worker pool, which processes up to
+ * application.messaging.dispatch.batchsize messages of one subscriber per
+ * run, each in its own transaction and with the security context of its
+ * sender. The total number of pending messages is bounded by
+ * application.messaging.dispatch.queuesize; senders block for at most
+ * application.messaging.dispatch.timeout seconds when the limit is reached,
+ * after which the message is dropped.
+ *
+ * Metrics are collected for at most 1000 topics, messages on additional
+ * topics are counted under "(other)".
+ */
+public class MessageDispatcher {
+
+	private static final Logger logger              = LoggerFactory.getLogger(MessageDispatcher.class.getName());
+	private static final String OVERFLOW_TOPIC      = "(other)";
+	private static final int MAX_TOPICS             = 1000;
+	private static MessageDispatcher instance       = null;
+
+	private final Map<String, TopicTrie> routingIndex          = new ConcurrentHashMap<>();
+	private final Map<String, SubscriberQueue> queues          = new ConcurrentHashMap<>();
+	private final Map<String, TopicMetrics> metrics            = new ConcurrentHashMap<>();
+	private final AtomicLong generation                        = new AtomicLong();
+	private final AtomicInteger threadCount                    = new AtomicInteger();
+	private ExecutorService executor                           = null;
+	private Semaphore capacity                                 = null;
+	private int batchSize                                      = 100;
+
+	private MessageDispatcher() {
+
+		final int threads = Math.max(1, Settings.MessagingThreads.getValue());
+
+		this.batchSize = Math.max(1, Settings.MessagingBatchSize.getValue());
+		this.capacity  = new Semaphore(Math.max(1, Settings.MessagingQueueSize.getValue()));
+		this.executor  = Executors.newFixedThreadPool(threads, r -> {
+
+			final Thread thread = new Thread(r, "MessageDispatcher-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		});
+	}
+
+	public static synchronized MessageDispatcher getInstance() {
+
+		if (instance == null) {
+			instance = new MessageDispatcher();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Routes the given message to all subscribers of the given client whose
+	 * topic filter matches. If called inside a transaction, the message is
+	 * enqueued after the transaction was committed successfully.
+	 *
+	 * @param client
+	 * @param topic
+	 * @param message
+	 *
+	 * @return the number of subscribers the message was routed to
+	 */
+	public int dispatch(final MessageClient client, final String topic, final String message) {
+
+		final Set<String> subscribers         = getRoutingIndex(client).match(topic);
+		final TopicMetrics topicMetrics       = getMetrics(topic);
+		final SecurityContext securityContext = getDeliveryContext(client.getSecurityContext());
+
+		topicMetrics.received.increment();
+
+		if (!subscribers.isEmpty()) {
+
+			final Runnable enqueue = () -> {
+
+				for (final String subscriberId : subscribers) {
+					enqueue(subscriberId, new PendingMessage(securityContext, topic, message, topicMetrics));
+				}
+			};
+
+			if (!TransactionCommand.afterCommit(enqueue)) {
+				enqueue.run();
+			}
+		}
+
+		return subscribers.size();
+	}
+
+	/**
+	 * Discards all cached routing information. Called whenever a client or
+	 * subscriber is created, modified or deleted.
+	 */
+	public void invalidate() {
+
+		generation.incrementAndGet();
+		routingIndex.clear();
+	}
+
+	public int getPendingCount() {
+
+		int count = 0;
+
+		for (final SubscriberQueue queue : queues.values()) {
+			count += queue.size.get();
+		}
+
+		return count;
+	}
+
+	public Map<String, Map<String, Object>> getTopicMetrics() {
+
+		final Map<String, Map<String, Object>> result = new TreeMap<>();
+
+		for (final Map.Entry<String, TopicMetrics> entry : metrics.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().toMap());
+		}
+
+		return result;
+	}
+
+	// ----- private methods -----
+	private TopicTrie getRoutingIndex(final MessageClient client) {
+
+		final String clientId = client.getUuid();
+		TopicTrie trie        = routingIndex.get(clientId);
+
+		if (trie == null) {
+
+			final long currentGeneration = generation.get();
+
+			trie = new TopicTrie();
+
+			for (final MessageSubscriber subscriber : client.getSubscribers()) {
+				trie.add(subscriber.getTopic(), subscriber.getUuid());
+			}
+
+			// do not cache an index that was built concurrently to an invalidation
+			if (currentGeneration == generation.get()) {
+				routingIndex.put(clientId, trie);
+			}
+		}
+
+		return trie;
+	}
+
+	private TopicMetrics getMetrics(final String topic) {
+
+		final String key = topic != null ? topic : "";
+
+		// topics may be chosen freely by the sender, so the number of
+		// entries is limited
+		final TopicMetrics existing = metrics.get(key);
+		if (existing != null) {
+
+			return existing;
+		}
+
+		return metrics.computeIfAbsent(metrics.size() < MAX_TOPICS ? key : OVERFLOW_TOPIC, k -> new TopicMetrics());
+	}
+
+	/**
+	 * Returns a security context for the asynchronous delivery of messages
+	 * sent with the given context. The context of the sender itself may be
+	 * bound to a request that has already finished when the message is
+	 * delivered.
+	 */
+	private SecurityContext getDeliveryContext(final SecurityContext senderContext) {
+
+		if (senderContext == null || senderContext.isSuperUser()) {
+			return SecurityContext.getSuperUserInstance();
+		}
+
+		return SecurityContext.getInstance(senderContext.getUser(false), senderContext.getAccessMode());
+	}
+
+	private void enqueue(final String subscriberId, final PendingMessage message) {
+
+		try {
+
+			if (!capacity.tryAcquire(Settings.MessagingEnqueueTimeout.getValue(), TimeUnit.SECONDS)) {
+
+				logger.warn("Message queue full, dropping message for subscriber {} on topic {}", subscriberId, message.topic);
+				message.metrics.dropped.increment();
+				return;
+			}
+
+		} catch (InterruptedException iex) {
+
+			message.metrics.dropped.increment();
+			return;
+		}
+
+		final SubscriberQueue queue = queues.computeIfAbsent(subscriberId, k -> new SubscriberQueue(subscriberId));
+
+		queue.messages.add(message);
+		queue.size.incrementAndGet();
+
+		schedule(queue);
+	}
+
+	private void schedule(final SubscriberQueue queue) {
+
+		if (queue.scheduled.compareAndSet(false, true)) {
+			executor.submit(() -> drain(queue));
+		}
+	}
+
+	private void drain(final SubscriberQueue queue) {
+
+		final List<PendingMessage> batch = new ArrayList<>(batchSize);
+
+		PendingMessage next = null;
+		while (batch.size() < batchSize && (next = queue.messages.poll()) != null) {
+			batch.add(next);
+		}
+
+		try {
+
+			deliver(queue, batch);
+
+		} finally {
+
+			queue.size.addAndGet(-batch.size());
+			capacity.release(batch.size());
+
+			queue.scheduled.set(false);
+
+			// reschedule if more messages arrived in the meantime
+			if (!queue.messages.isEmpty()) {
+				schedule(queue);
+			}
+		}
+	}
+
+	private void deliver(final SubscriberQueue queue, final List<PendingMessage> batch) {
+
+		for (final PendingMessage message : batch) {
+
+			// each message is delivered in its own transaction so that a
+			// failing message does not affect the others in the batch
+			final App app = StructrApp.getInstance(message.securityContext);
+
+			try (final Tx tx = app.tx()) {
+
+				final MessageSubscriber subscriber = app.get(MessageSubscriber.class, queue.subscriberId);
+				if (subscriber != null) {
+
+					final Map<String, Object> params = new LinkedHashMap<>();
+
+					params.put("topic",   message.topic);
+					params.put("message", message.message);
+
+					subscriber.invokeMethod("onMessage", params, false);
+
+					tx.success();
+
+					message.metrics.delivered.increment();
+
+				} else {
+
+					// subscriber was deleted, routing information is stale
+					if (StructrApp.getInstance().get(MessageSubscriber.class, queue.subscriberId) == null) {
+						invalidate();
+					}
+
+					// or it is not visible for the sender
+					message.metrics.dropped.increment();
+				}
+
+			} catch (Throwable t) {
+
+				logger.warn("Could not invoke 'onMessage' method on MessageSubscriber {}: {}", queue.subscriberId, t.getMessage());
+				message.metrics.failed.increment();
+			}
+		}
+	}
+
+	// ----- nested classes -----
+	private static class PendingMessage {
+
+		private SecurityContext securityContext = null;
+		private TopicMetrics metrics            = null;
+		private String message                  = null;
+		private String topic                    = null;
+
+		public PendingMessage(final SecurityContext securityContext, final String topic, final String message, final TopicMetrics metrics) {
+
+			this.securityContext = securityContext;
+			this.metrics         = metrics;
+			this.message         = message;
+			this.topic           = topic;
+		}
+	}
+
+	private static class SubscriberQueue {
+
+		private final Queue<PendingMessage> messages = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean scheduled        = new AtomicBoolean(false);
+		private final AtomicInteger size             = new AtomicInteger();
+		private String subscriberId                  = null;
+
+		public SubscriberQueue(final String subscriberId) {
+			this.subscriberId = subscriberId;
+		}
+	}
+
+	private static class TopicMetrics {
+
+		private final LongAdder received  = new LongAdder();
+		private final LongAdder delivered = new LongAdder();
+		private final LongAdder failed    = new LongAdder();
+		private final LongAdder dropped   = new LongAdder();
+		private final long created        = System.currentTimeMillis();
+
+		public Map<String, Object> toMap() {
+
+			final Map<String, Object> map = new LinkedHashMap<>();
+			final double seconds          = Math.max(1.0, (System.currentTimeMillis() - created) / 1000.0);
+
+			map.put("received",        received.sum());
+			map.put("delivered",       delivered.sum());
+			map.put("failed",          failed.sum());
+			map.put("dropped",         dropped.sum());
+			map.put("deliveredPerSec", delivered.sum() / seconds);
+
+			return map;
+		}
+	}
+}
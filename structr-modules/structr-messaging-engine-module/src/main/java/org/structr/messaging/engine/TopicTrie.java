@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.messaging.engine;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Topic routing index that matches topic names against subscription filters
+ * using MQTT wildcard semantics.
+ *
+ * Topic levels are separated by '/'. The single-level wildcard '+' matches
+ * exactly one level, the multi-level wildcard '#' matches any number of
+ * remaining levels (including none) and may only appear as the last level.
+ * The legacy filter "*" matches every topic.
+ */
+public class TopicTrie {
+
+	private static final String SEPARATOR    = "/";
+	private static final String SINGLE_LEVEL = "+";
+	private static final String MULTI_LEVEL  = "#";
+	private static final String MATCH_ALL    = "*";
+
+	private final Node root = new Node();
+	private int size        = 0;
+
+	public void add(final String filter, final String value) {
+
+		if (filter == null || value == null) {
+			return;
+		}
+
+		if (MATCH_ALL.equals(filter)) {
+
+			root.multiLevel.add(value);
+
+		} else {
+
+			Node current = root;
+
+			for (final String level : filter.split(SEPARATOR, -1)) {
+
+				if (MULTI_LEVEL.equals(level)) {
+
+					current.multiLevel.add(value);
+					size++;
+					return;
+				}
+
+				current = current.children.computeIfAbsent(level, k -> new Node());
+			}
+
+			current.values.add(value);
+		}
+
+		size++;
+	}
+
+	public Set<String> match(final String topic) {
+
+		final Set<String> result = new LinkedHashSet<>();
+
+		if (topic != null) {
+			match(root, topic.split(SEPARATOR, -1), 0, result);
+		}
+
+		return result;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// ----- private methods -----
+	private void match(final Node node, final String[] levels, final int index, final Set<String> result) {
+
+		// a multi-level wildcard matches the parent level as well as all levels below
+		result.addAll(node.multiLevel);
+
+		if (index == levels.length) {
+
+			result.addAll(node.values);
+			return;
+		}
+
+		final Node exact = node.children.get(levels[index]);
+		if (exact != null) {
+
+			match(exact, levels, index + 1, result);
+		}
+
+		final Node single = node.children.get(SINGLE_LEVEL);
+		if (single != null) {
+
+			match(single, levels, index + 1, result);
+		}
+	}
+
+	// ----- nested classes -----
+	private static class Node {
+
+		private final Map<String, Node> children = new HashMap<>();
+		private final Set<String> multiLevel     = new LinkedHashSet<>();
+		private final Set<String> values         = new LinkedHashSet<>();
+	}
+}
@@ -25,15 +25,14 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.entity.Relation;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.Tx;
+import org.structr.messaging.engine.MessageDispatcher;
 import org.structr.rest.RestMethodResult;
 import org.structr.schema.SchemaService;
 import org.structr.schema.json.JsonObjectType;
 import org.structr.schema.json.JsonSchema;
 
 import java.net.URI;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public interface MessageClient extends NodeInterface {
 
@@ -54,6 +53,10 @@ public interface MessageClient extends NodeInterface {
 			type.addPropertyGetter("subscribers", List.class);
 			type.addPropertySetter("subscribers", List.class).addException("FrameworkException");
 
+			type.overrideMethod("afterCreation",     true, MessageDispatcher.class.getName() + ".getInstance().invalidate();");
+			type.overrideMethod("afterModification", true, MessageDispatcher.class.getName() + ".getInstance().invalidate();");
+			type.overrideMethod("afterDeletion",     true, MessageDispatcher.class.getName() + ".getInstance().invalidate();");
+
 			type.addMethod("sendMessage")
 				.setReturnType(RestMethodResult.class.getName())
 				.addParameter("topic", String.class.getName())
@@ -90,22 +93,8 @@ public interface MessageClient extends NodeInterface {
         final App app = StructrApp.getInstance();
         try (final Tx tx = app.tx()) {
 
-            List<MessageSubscriber> subscribers = thisClient.getSubscribers();
-            if (subscribers != null) {
-                subscribers.forEach(sub -> {
-					String subTopic = sub.getProperty(StructrApp.key(MessageSubscriber.class,"topic"));
-                    if ( subTopic != null && (subTopic.equals(topic) || subTopic.equals("*"))) {
-                        Map<String, Object> params = new HashMap<>();
-                        params.put("topic", topic);
-                        params.put("message", message);
-                        try {
-                            sub.invokeMethod("onMessage", params, false);
-                        } catch (FrameworkException e) {
-                            logger.warn("Could not invoke 'onMessage' method on MessageSubscriber: " + e.getMessage());
-                        }
-                    }
-                });
-            }
+            // delivery happens asynchronously after this transaction was committed
+            MessageDispatcher.getInstance().dispatch(thisClient, topic, message);
 
             tx.success();
         }
@@ -37,6 +37,7 @@ import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.Tx;
 import org.structr.core.property.*;
 import org.structr.core.script.Scripting;
+import org.structr.messaging.engine.MessageDispatcher;
 import org.structr.messaging.engine.relation.MessageClientHASMessageSubscriber;
 import org.structr.rest.RestMethodResult;
 import org.structr.schema.SchemaService;
@@ -68,6 +69,9 @@ public interface MessageSubscriber extends NodeInterface {
 			
 			type.overrideMethod("onCreation",     true, MessageSubscriber.class.getName() + ".onCreation(this, arg0, arg1);");
 			type.overrideMethod("onModification", true, MessageSubscriber.class.getName() + ".onModification(this, arg0, arg1, arg2);");
+			type.overrideMethod("afterCreation",     true, MessageDispatcher.class.getName() + ".getInstance().invalidate();");
+			type.overrideMethod("afterModification", true, MessageDispatcher.class.getName() + ".getInstance().invalidate();");
+			type.overrideMethod("afterDeletion",     true, MessageDispatcher.class.getName() + ".getInstance().invalidate();");
 
 			type.addMethod("onMessage")
 					.setReturnType(RestMethodResult.class.getName())
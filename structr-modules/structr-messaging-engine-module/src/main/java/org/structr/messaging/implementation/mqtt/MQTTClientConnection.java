@@ -136,8 +136,13 @@ public class MQTTClientConnection implements MqttCallback {
 	@Override
 	public void messageArrived(String topic, MqttMessage msg) throws Exception {
 
-		Thread workerThread = new Thread(new CallbackWorker(info, topic, msg.toString()));
-		workerThread.start();
+		// routing is cheap and delivery is asynchronous, so the callback is
+		// invoked directly; blocking here applies back-pressure to the broker
+		try {
+			info.messageCallback(topic, msg.toString());
+		} catch (FrameworkException e) {
+			logger.error("Error during MQTT message callback: " + e.getMessage());
+		}
 	}
 
 	@Override
@@ -165,28 +170,4 @@ public class MQTTClientConnection implements MqttCallback {
 	public void deliveryComplete(IMqttDeliveryToken token) {
 	}
 
-	private class CallbackWorker implements Runnable {
-		private final MQTTInfo info;
-		private final String topic;
-		private final String message;
-
-		public CallbackWorker(MQTTInfo info, String topic, String message){
-			this.info = info;
-			this.topic = topic;
-			this.message = message;
-		}
-
-		@Override
-		public void run() {
-
-			try {
-				info.messageCallback(topic, message);
-			} catch (FrameworkException e) {
-				logger.error("Error during MQTT message callback: " + e.getMessage());
-			}
-
-		}
-
-	}
-
 }
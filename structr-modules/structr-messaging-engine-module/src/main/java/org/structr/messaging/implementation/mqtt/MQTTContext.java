@@ -24,6 +24,7 @@ import org.apache.cxf.common.util.StringUtils;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.module.Preload;
 import org.structr.api.service.InitializationCallback;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.Services;
@@ -33,6 +34,7 @@ import org.structr.core.graph.Tx;
 import org.structr.core.property.PropertyMap;
 import org.structr.messaging.implementation.mqtt.entity.MQTTClient;
 
+@Preload
 public abstract class MQTTContext {
 
 	private static final Logger logger                                 = LoggerFactory.getLogger(MQTTContext.class.getName());
@@ -26,15 +26,20 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.graph.NodeInterface;
 import org.structr.core.graph.Tx;
 import org.structr.core.script.Scripting;
+import org.structr.messaging.engine.MessageDispatcher;
 import org.structr.messaging.engine.entities.MessageClient;
 import org.structr.messaging.engine.entities.MessageSubscriber;
 import org.structr.schema.action.ActionContext;
 import org.structr.schema.action.Actions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SimpleMessagingTest extends StructrMessagingEngineModuleTest {
@@ -42,10 +47,13 @@ public class SimpleMessagingTest extends StructrMessagingEngineModuleTest {
 	@Test
 	public void test01() {
 
+		MessageSubscriber sub = null;
+		MessageClient client1 = null;
+
 		try(final Tx tx = app.tx()) {
 
-			MessageClient client1 = app.create(MessageClient.class, "client1");
-			MessageSubscriber sub = app.create(MessageSubscriber.class, "sub");
+			client1 = app.create(MessageClient.class, "client1");
+			sub     = app.create(MessageSubscriber.class, "sub");
 
 			List<MessageSubscriber> subList = new ArrayList<>();
 			subList.add(sub);
@@ -54,15 +62,204 @@ public class SimpleMessagingTest extends StructrMessagingEngineModuleTest {
 			sub.setProperty(StructrApp.key(MessageSubscriber.class, "topic"), "test");
 			sub.setProperty(StructrApp.key(MessageSubscriber.class, "callback"), "set(this, 'name', retrieve('message'))");
 
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		try(final Tx tx = app.tx()) {
+
 			Scripting.replaceVariables(new ActionContext(securityContext, null), client1, "${{Structr.log('Sending message'); Structr.get('this').sendMessage('test','testmessage');}}");
 
-			assertEquals("testmessage", sub.getName());
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		// messages are delivered asynchronously after commit
+		assertEquals("testmessage", waitForName(sub, "testmessage"));
+	}
+
+	@Test
+	public void test02WildcardRouting() {
+
+		final String[] filters = { "sensors/+/temperature", "sensors/#", "sensors/kitchen/humidity", "*" };
+		final String[] names   = { "single", "multi", "exact", "all" };
+		final List<MessageSubscriber> subs = new ArrayList<>();
+		MessageClient client               = null;
+
+		try(final Tx tx = app.tx()) {
+
+			client = app.create(MessageClient.class, "client");
+
+			for (int i=0; i<filters.length; i++) {
+
+				final MessageSubscriber sub = app.create(MessageSubscriber.class, names[i]);
+
+				sub.setProperty(StructrApp.key(MessageSubscriber.class, "topic"), filters[i]);
+				sub.setProperty(StructrApp.key(MessageSubscriber.class, "callback"), "set(this, 'name', retrieve('topic'))");
+
+				subs.add(sub);
+			}
+
+			client.setProperty(StructrApp.key(MessageClient.class, "subscribers"), subs);
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		try(final Tx tx = app.tx()) {
+
+			final Map<String, Object> params = new HashMap<>();
+
+			params.put("topic",   "sensors/kitchen/temperature");
+			params.put("message", "21");
+
+			client.invokeMethod("sendMessage", params, false);
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		assertEquals("sensors/kitchen/temperature", waitForName(subs.get(0), "sensors/kitchen/temperature"));
+		assertEquals("sensors/kitchen/temperature", waitForName(subs.get(1), "sensors/kitchen/temperature"));
+		assertEquals("sensors/kitchen/temperature", waitForName(subs.get(3), "sensors/kitchen/temperature"));
+
+		// the exact filter for a different topic must not have received the message
+		assertEquals("exact", waitForName(subs.get(2), "exact"));
+
+		final Map<String, Object> metrics = MessageDispatcher.getInstance().getTopicMetrics().get("sensors/kitchen/temperature");
+
+		assertEquals(1L, metrics.get("received"));
+		assertEquals(3L, metrics.get("delivered"));
+	}
+
+	@Test
+	public void test03FailedMessageIsRolledBack() {
+
+		MessageSubscriber sub = null;
+		MessageClient client  = null;
+
+		try(final Tx tx = app.tx()) {
+
+			client = app.create(MessageClient.class, "client");
+			sub    = app.create(MessageSubscriber.class, "sub");
+
+			sub.setProperty(StructrApp.key(MessageSubscriber.class, "topic"), "rollback");
+			sub.setProperty(StructrApp.key(MessageSubscriber.class, "callback"), "{ $.this.name = $.retrieve('message'); if ($.retrieve('message') === 'bad') { throw 'bad message'; } }");
+
+			client.setProperty(StructrApp.key(MessageClient.class, "subscribers"), Arrays.asList(sub));
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		try(final Tx tx = app.tx()) {
+
+			// both messages are delivered in the same batch
+			for (final String message : new String[] { "good", "bad" }) {
+
+				final Map<String, Object> params = new HashMap<>();
+
+				params.put("topic",   "rollback");
+				params.put("message", message);
+
+				client.invokeMethod("sendMessage", params, false);
+			}
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		final long timeout        = System.currentTimeMillis() + 10000;
+		Map<String, Object> stats = null;
+
+		while (System.currentTimeMillis() < timeout) {
+
+			stats = MessageDispatcher.getInstance().getTopicMetrics().get("rollback");
+
+			if (stats != null && (Long)stats.get("delivered") + (Long)stats.get("failed") == 2L) {
+				break;
+			}
+
+			try { Thread.sleep(50); } catch (InterruptedException ignore) {}
+		}
+
+		assertEquals(1L, stats.get("delivered"));
+		assertEquals(1L, stats.get("failed"));
+
+		// the changes of the failed message must not be committed
+		assertEquals("good", waitForName(sub, "good"));
+	}
+
+	@Test
+	public void test04TopicMetricsAreLimited() {
+
+		MessageClient client = null;
+
+		try(final Tx tx = app.tx()) {
+
+			client = app.create(MessageClient.class, "client");
+
+			tx.success();
+
+		} catch (FrameworkException ex) {
+			fail("Exception during test: " + ex.getMessage());
+		}
+
+		try(final Tx tx = app.tx()) {
+
+			for (int i=0; i<1100; i++) {
+				MessageDispatcher.getInstance().dispatch(client, "topic/" + i, "message");
+			}
 
 			tx.success();
+
 		} catch (FrameworkException ex) {
 			fail("Exception during test: " + ex.getMessage());
 		}
 
+		final Map<String, Map<String, Object>> metrics = MessageDispatcher.getInstance().getTopicMetrics();
+
+		assertTrue("Number of topics in metrics is not limited", metrics.size() <= 1001);
+		assertTrue("Messages on additional topics are not counted", metrics.containsKey("(other)"));
 	}
 
+	// ----- private methods -----
+	private String waitForName(final MessageSubscriber sub, final String expected) {
+
+		final long timeout = System.currentTimeMillis() + 10000;
+		String name        = null;
+
+		while (System.currentTimeMillis() < timeout) {
+
+			try(final Tx tx = app.tx()) {
+
+				name = app.get(MessageSubscriber.class, sub.getUuid()).getName();
+
+				tx.success();
+
+			} catch (FrameworkException ex) {
+				fail("Exception during test: " + ex.getMessage());
+			}
+
+			if (expected.equals(name) && MessageDispatcher.getInstance().getPendingCount() == 0) {
+				break;
+			}
+
+			try { Thread.sleep(50); } catch (InterruptedException ignore) {}
+		}
+
+		return name;
+	}
 }
@@ -65,7 +65,9 @@ public class OWLClass extends RDFItem<OWLClass> {
 		return icon;
 	}
 
-	public void addProperty(final OWLProperty property) {
+	public synchronized void addProperty(final OWLProperty property) {
+
+		// called from multiple threads when the datatype properties are resolved
 		properties.add(property);
 	}
 
@@ -130,7 +132,7 @@ public class OWLClass extends RDFItem<OWLClass> {
 
 			} else {
 
-				OWLParserv2.logger.println("No class found for " + domainId);
+				OWLParserv2.importLog.println("No class found for " + domainId);
 			}
 		}
 
@@ -144,7 +146,7 @@ public class OWLClass extends RDFItem<OWLClass> {
 
 			} else {
 
-				OWLParserv2.logger.println("No class found for " + rangeId);
+				OWLParserv2.importLog.println("No class found for " + rangeId);
 			}
 		}
 	}
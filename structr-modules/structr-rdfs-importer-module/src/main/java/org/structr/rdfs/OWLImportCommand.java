@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.rdfs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.graph.MaintenanceCommand;
+import org.structr.core.graph.NodeServiceCommand;
+import org.structr.core.scheduler.JobQueueManager;
+import org.structr.rest.resource.MaintenanceParameterResource;
+
+/**
+ * Maintenance command that schedules an {@link OWLImportJob} for the OWL
+ * file given in the "file" attribute. The optional attributes are "blobs"
+ * (the directory that contains the binary data), "threads" and
+ * "commitInterval".
+ */
+public class OWLImportCommand extends NodeServiceCommand implements MaintenanceCommand {
+
+	static {
+
+		MaintenanceParameterResource.registerMaintenanceCommand("importOwl", OWLImportCommand.class);
+	}
+
+	@Override
+	public void execute(final Map<String, Object> attributes) throws FrameworkException {
+
+		final String fileName       = getParameterValueAsString(attributes, "file", null);
+		final String blobsDirectory = getParameterValueAsString(attributes, "blobs", "");
+
+		if (StringUtils.isBlank(fileName)) {
+			throw new FrameworkException(422, "Please provide 'file' attribute for the OWL file to import.");
+		}
+
+		final Map<String, Object> configuration = new LinkedHashMap<>();
+
+		configuration.put("threads",        attributes.get("threads"));
+		configuration.put("commitInterval", attributes.get("commitInterval"));
+
+		final OWLImportJob job = new OWLImportJob(fileName, blobsDirectory, securityContext.getUser(false), configuration, securityContext.getContextStore());
+
+		JobQueueManager.getInstance().addJob(job);
+	}
+
+	@Override
+	public boolean requiresEnclosingTransaction() {
+		return false;
+	}
+
+	@Override
+	public boolean requiresFlushingOfCaches() {
+		return false;
+	}
+
+	// ----- private methods -----
+	private String getParameterValueAsString(final Map<String, Object> attributes, final String key, final String defaultValue) {
+
+		final Object value = attributes.get(key);
+		if (value != null) {
+
+			return value.toString();
+		}
+
+		return defaultValue;
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.rdfs;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.common.ContextStore;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.scheduler.ScheduledJob;
+
+/**
+ * Runs the OWL/RDFS import in the job queue and reports the progress of
+ * the individual import phases as job status messages.
+ *
+ * Supported configuration entries are "threads" (the number of threads
+ * used to resolve the class hierarchy) and "commitInterval" (the number
+ * of instances that are created in a single transaction).
+ */
+public class OWLImportJob extends ScheduledJob {
+
+	private static final Logger logger = LoggerFactory.getLogger(OWLImportJob.class.getName());
+
+	private String fileName       = null;
+	private String blobsDirectory = null;
+	private String currentPhase   = null;
+	private int processedChunks   = 0;
+
+	public OWLImportJob(final String fileName, final String blobsDirectory, final Principal user, final Map<String, Object> configuration, final ContextStore ctxStore) {
+
+		super(fileName, user, configuration, ctxStore);
+
+		this.fileName       = fileName;
+		this.blobsDirectory = blobsDirectory;
+	}
+
+	@Override
+	public boolean runInitialChecks() throws FrameworkException {
+
+		if (!new java.io.File(fileName).exists()) {
+
+			throw new FrameworkException(400, "Cannot import OWL, file " + fileName + " does not exist.");
+		}
+
+		return true;
+	}
+
+	@Override
+	public Runnable getRunnable() {
+
+		return () -> {
+
+			try {
+
+				final int threads        = Math.max(1, parseInt(configuration.get("threads"), Runtime.getRuntime().availableProcessors()));
+				final int commitInterval = Math.max(1, parseInt(configuration.get("commitInterval"), 1000));
+
+				reportBegin();
+
+				if (new OWLParserv2(this, threads, commitInterval).importFile(fileName, blobsDirectory)) {
+
+					reportFinished();
+				}
+
+			} catch (Exception ex) {
+
+				reportException(ex);
+
+			} finally {
+
+				jobFinished();
+			}
+		};
+	}
+
+	@Override
+	public String getJobType() {
+		return "OWL";
+	}
+
+	@Override
+	public String getJobStatusType() {
+		return "FILE_IMPORT_STATUS";
+	}
+
+	@Override
+	public String getJobExceptionMessageType() {
+		return "FILE_IMPORT_EXCEPTION";
+	}
+
+	@Override
+	public Map<String, Object> getStatusData(final JobStatusMessageSubtype subtype) {
+
+		final Map<String, Object> data = new LinkedHashMap();
+
+		data.put("jobId",    jobId());
+		data.put("type",     getJobStatusType());
+		data.put("jobtype",  getJobType());
+		data.put("subtype",  subtype);
+		data.put("username", username);
+		data.put("filename", fileName);
+		data.put("filepath", fileName);
+
+		return data;
+	}
+
+	@Override
+	public Map<String, Object> getJobInfo() {
+
+		final LinkedHashMap<String, Object> jobInfo = new LinkedHashMap<>();
+
+		jobInfo.put("jobId",           jobId());
+		jobInfo.put("jobtype",         getJobType());
+		jobInfo.put("username",        getUsername());
+		jobInfo.put("status",          getCurrentStatus());
+		jobInfo.put("filepath",        fileName);
+		jobInfo.put("phase",           currentPhase);
+		jobInfo.put("processedChunks", processedChunks);
+
+		return jobInfo;
+	}
+
+	// ----- package-private methods -----
+	void phaseStarted(final String phase) {
+
+		logger.info("{}: {}", getJobType(), phase);
+
+		currentPhase = phase;
+
+		final Map<String, Object> data = getStatusData(JobStatusMessageSubtype.CHUNK);
+		data.put("phase", phase);
+		TransactionCommand.simpleBroadcastGenericMessage(data);
+	}
+
+	void chunkFinished(final long chunkStartTime, final int chunkSize, final int overallCount) {
+
+		chunkCommitted(chunkSize);
+
+		final long duration               = System.currentTimeMillis() - chunkStartTime;
+		final DecimalFormat decimalFormat = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+		final String formattedDuration    = decimalFormat.format((duration / 1000.0)) + "s";
+		final String objectsPerSecond     = decimalFormat.format(chunkSize / (duration / 1000.0));
+
+		processedChunks++;
+
+		logger.info("{}: {}, committing chunk {}. (Objects: {} - Time: {} - Objects/s: {} - Objects overall: {})", getJobType(), currentPhase, processedChunks, chunkSize, formattedDuration, objectsPerSecond, overallCount);
+
+		final Map<String, Object> data = getStatusData(JobStatusMessageSubtype.CHUNK);
+		data.put("phase",            currentPhase);
+		data.put("currentChunkNo",   processedChunks);
+		data.put("objectsCreated",   chunkSize);
+		data.put("duration",         formattedDuration);
+		data.put("objectsPerSecond", objectsPerSecond);
+		TransactionCommand.simpleBroadcastGenericMessage(data);
+	}
+
+	boolean pauseOrAbort() {
+
+		shouldPause();
+
+		return shouldAbort();
+	}
+
+	// ----- private methods -----
+	private void reportException(final Exception ex) {
+
+		final Map<String, Object> data = new LinkedHashMap<>();
+
+		data.put("type",       getJobExceptionMessageType());
+		data.put("importtype", getJobType());
+		data.put("filename",   fileName);
+		data.put("filepath",   fileName);
+		data.put("username",   username);
+
+		TransactionCommand.simpleBroadcastException(ex, data, true);
+	}
+}
@@ -84,12 +84,12 @@ public class OWLInstance extends RDFItem<OWLInstance> {
 
 			} else {
 
-				OWLParserv2.logger.println("NOT creating instance for " + getId() + ", no originId property key found.");
+				OWLParserv2.importLog.println("NOT creating instance for " + getId() + ", no originId property key found.");
 			}
 
 		} else {
 
-			OWLParserv2.logger.println("NOT creating instance for " + getId() + ", no node type found.");
+			OWLParserv2.importLog.println("NOT creating instance for " + getId() + ", no node type found.");
 		}
 	}
 
@@ -155,8 +155,8 @@ public class OWLInstance extends RDFItem<OWLInstance> {
 
 		if (instance != null && type != null) {
 
-			OWLParserv2.logger.println("#################################################################################################");
-			OWLParserv2.logger.println("Resolving properties of " + type.getStructrName(true) + ": " + getId());
+			OWLParserv2.importLog.println("#################################################################################################");
+			OWLParserv2.importLog.println("Resolving properties of " + type.getStructrName(true) + ": " + getId());
 
 			final App app                      = StructrApp.getInstance();
 			final ConfigurationProvider config = StructrApp.getConfiguration();
@@ -203,13 +203,13 @@ public class OWLInstance extends RDFItem<OWLInstance> {
 
 					final String[] value = array.toArray(new String[0]);
 
-					OWLParserv2.logger.println(cleanPropertyName + " = " + value);
+					OWLParserv2.importLog.println(cleanPropertyName + " = " + value);
 					setProperty(nodeType, instance, cleanPropertyName, value);
 
 				} else {
 
 					Object value = getValue(getFirstElement(getElement(), rawPropertyName));
-					OWLParserv2.logger.println(cleanPropertyName + " = " + value);
+					OWLParserv2.importLog.println(cleanPropertyName + " = " + value);
 					setProperty(nodeType, instance, cleanPropertyName, property.convertValue(value));
 				}
 			}
@@ -220,8 +220,8 @@ public class OWLInstance extends RDFItem<OWLInstance> {
 
 		if (instance != null && type != null) {
 
-			OWLParserv2.logger.println("#################################################################################################");
-			OWLParserv2.logger.println("Resolving relationships of " + type.getStructrName(true) + ": " + getId());
+			OWLParserv2.importLog.println("#################################################################################################");
+			OWLParserv2.importLog.println("Resolving relationships of " + type.getStructrName(true) + ": " + getId());
 
 			final ConfigurationProvider config = StructrApp.getConfiguration();
 			final NodeList propertyElements    = getElement().getChildNodes();
@@ -282,32 +282,32 @@ public class OWLInstance extends RDFItem<OWLInstance> {
 
 												} else {
 
-													System.out.println("!!!!!!!! No instance found to set on " + getId());
+													logger.warn("No instance found to set on {}", getId());
 												}
 
 											} else {
 
-												System.out.println("        No property keys found for " + sourcePropertyName + ", " + targetPropertyName);
+												logger.warn("No property keys found for {}, {}", sourcePropertyName, targetPropertyName);
 											}
 
 										} else {
 
-											System.out.println("        Ambiguous source or target types: " + sourceTypes + ", " + targetTypes);
+											logger.warn("Ambiguous source or target types: {}, {}", sourceTypes, targetTypes);
 										}
 
 									} else {
 
-										System.out.println("        Relationship type " + tagName + " not found for " + getId());
+										logger.warn("Relationship type {} not found for {}", tagName, getId());
 									}
 
 								} else {
 
-									System.out.println("No type found for " + tagName);
+									logger.warn("No type found for {}", tagName);
 								}
 
 							} else {
 
-								System.out.println("        No instance found for " + reference);
+								logger.warn("No instance found for {}", reference);
 							}
 						}
 					}
@@ -29,6 +29,7 @@ import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -37,8 +38,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stax.StAXSource;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.app.App;
@@ -86,7 +103,8 @@ public class OWLParserv2 {
 	public static final String XML_SCHEMA_TYPE_INTEGER   = "http://www.w3.org/2001/XMLSchema#integer";
 	public static final String XML_SCHEMA_TYPE_STRING    = "http://www.w3.org/2001/XMLSchema#string";
 
-	public static PrintWriter logger                     = null;
+	private static final Logger logger                   = LoggerFactory.getLogger(OWLParserv2.class.getName());
+	public static PrintWriter importLog                  = null;
 
 	static {
 
@@ -140,7 +158,7 @@ public class OWLParserv2 {
 		// commented this out so that the import-<date> file will not be created every time structr starts with this module
 //		try {
 //
-//			logger = new PrintWriter(new FileOutputStream("import-" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(System.currentTimeMillis()) + ".log", false));
+//			importLog = new PrintWriter(new FileOutputStream("import-" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(System.currentTimeMillis()) + ".log", false));
 //
 //		} catch (FileNotFoundException fnfex) {
 //			fnfex.printStackTrace();
@@ -160,6 +178,21 @@ public class OWLParserv2 {
 	private final boolean importFiles                          = false;
 	private final boolean createFileRelationships              = false;
 
+	private OWLImportJob job                                   = null;
+	private int threads                                        = 1;
+	private int commitInterval                                 = 100;
+
+	public OWLParserv2() {
+		this(null, Runtime.getRuntime().availableProcessors(), 100);
+	}
+
+	public OWLParserv2(final OWLImportJob job, final int threads, final int commitInterval) {
+
+		this.job            = job;
+		this.threads        = threads;
+		this.commitInterval = commitInterval;
+	}
+
 	public static void main(final String[] args) {
 
 		String fileName = null;
@@ -170,12 +203,12 @@ public class OWLParserv2 {
 			fileName = args[0];
 			blobsDir = args[1];
 
-			System.out.println("Using file " + fileName + ", data directory " + blobsDir);
+			logger.info("Using file {}, data directory {}", fileName, blobsDir);
 
 		} else {
 
-			System.out.println("Please supply an import file name.");
-			System.out.println("Usage: java -jar OWLParser.jar [fileName] [data dir]");
+			logger.error("Please supply an import file name.");
+			logger.error("Usage: java -jar OWLParser.jar [fileName] [data dir]");
 
 			System.exit(1);
 		}
@@ -189,18 +222,57 @@ public class OWLParserv2 {
 
 		boolean success = true;
 
-		try (final App app = StructrApp.getInstance()) {
+		try {
+
+			success = importFile(fileName, blobsDirectory);
+
+		} catch(Throwable t) {
+
+			logger.warn("Unable to import OWL file " + fileName, t);
+
+			success = false;
+		}
+
+
+		if (success) {
+
+			progress("Import successful");
+		}
+
+		importLog.flush();
+		importLog.close();
+	}
+
+	/**
+	 * Imports the given OWL file and returns false if the import was
+	 * aborted. The document is read element by element, the class
+	 * hierarchy is resolved in parallel, the schema is compiled once
+	 * and the instances are created in chunks of commitInterval objects.
+	 *
+	 * @param fileName the name of the OWL file
+	 * @param blobsDirectory the directory that contains the binary data
+	 *
+	 * @return whether the import ran to completion
+	 *
+	 * @throws Exception
+	 */
+	public boolean importFile(final String fileName, final String blobsDirectory) throws Exception {
+
+		if (importLog == null) {
+			importLog = new PrintWriter(NullOutputStream.NULL_OUTPUT_STREAM);
+		}
 
-			final Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new java.io.File(fileName));
+		try (final App app = StructrApp.getInstance()) {
 
-			System.out.println("Parsing XML document..");
-			logger.println("Parsing XML document..");
+			progress("Parsing XML document..");
 
 			// parse XML document
-			parseDocument(doc.getDocumentElement(), 0);
+			try (final InputStream is = new FileInputStream(fileName)) {
+
+				readDocument(is);
+			}
 
-			System.out.println("Filtering unwanted classes..");
-			logger.println("Filtering unwanted classes..");
+			progress("Filtering unwanted classes..");
 
 			// filter unwanted objects by their IDs
 			filter(owlClassesByURI.values());
@@ -209,31 +281,35 @@ public class OWLParserv2 {
 			if (importSchema) {
 
 				// initialize class hierarchies
-				System.out.println("Resolving " + owlClassesByURI.size() + " OWL superclasses..");
-				logger.println("Resolving " + owlClassesByURI.size() + " OWL superclasses..");
+				progress("Resolving " + owlClassesByURI.size() + " OWL superclasses..");
 
-				for (final OWLClass owlClass : owlClassesByURI.values()) {
-					owlClass.resolveSuperclasses(owlClassesByURI);
-				}
+				final ExecutorService executor = Executors.newFixedThreadPool(threads);
 
-				for (final OWLClass owlClass : owlClassesByURI.values()) {
-					owlClass.resolveRelatedTypes(owlClassesByURI);
-				}
+				try {
 
-				for (final OWLClass owlClass : owlClassesByURI.values()) {
-					owlClass.resolveRelationshipTypes(owlClassesByURI);
-				}
+					// linking a class to its superclass modifies the
+					// superclass, so this step does not run in parallel
+					for (final OWLClass owlClass : owlClassesByURI.values()) {
+						owlClass.resolveSuperclasses(owlClassesByURI);
+					}
 
-				// initialize classes with datatype properties
-				System.out.println("Resolving " + owlPropertiesByURI.size() + " datatype properties..");
-				logger.println("Resolving " + owlPropertiesByURI.size() + " datatype properties..");
+					// the following steps only modify the class they are called on
+					resolveInParallel(executor, owlClassesByURI.values(), owlClass -> owlClass.resolveRelatedTypes(owlClassesByURI));
+					resolveInParallel(executor, owlClassesByURI.values(), owlClass -> owlClass.resolveRelationshipTypes(owlClassesByURI));
 
-				for (final OWLProperty owlProperty : owlPropertiesByURI.values()) {
+					// initialize classes with datatype properties
+					progress("Resolving " + owlPropertiesByURI.size() + " datatype properties..");
 
-					owlProperty.resolveSuperclasses(owlPropertiesByURI);
-					owlProperty.resolveClassProperties(owlClassesByURI);
-				}
+					for (final OWLProperty owlProperty : owlPropertiesByURI.values()) {
+						owlProperty.resolveSuperclasses(owlPropertiesByURI);
+					}
+
+					resolveInParallel(executor, owlPropertiesByURI.values(), owlProperty -> owlProperty.resolveClassProperties(owlClassesByURI));
+
+				} finally {
 
+					executor.shutdownNow();
+				}
 
 				final JsonSchema schema = StructrSchema.newInstance(URI.create("http://localhost/test/#"));
 
@@ -263,240 +339,185 @@ public class OWLParserv2 {
 
 				baseType.addStringProperty("name").setIndexed(true);
 
-				System.out.println("Creating schema..");
-				logger.println("Creating schema..");
-
-
-				try (final Tx tx = StructrApp.getInstance().tx()) {
+				// the schema is built in memory and stored at the end, so it is compiled only once
+				progress("Creating schema..");
 
-					for (final OWLClass owlClass : owlClassesByURI.values()) {
+				for (final OWLClass owlClass : owlClassesByURI.values()) {
 
-						final String name = owlClass.getStructrName(true);
-						if (name != null && schema.getType(name) == null && owlClass.isPrimary()) {
+					final String name = owlClass.getStructrName(true);
+					if (name != null && schema.getType(name) == null && owlClass.isPrimary()) {
 
-							logger.println("Creating type " + name + "..");
-							schema.addType(name);
-						}
+						importLog.println("Creating type " + name + "..");
+						schema.addType(name);
 					}
-
-					StructrSchema.replaceDatabaseSchema(app, schema);
-
-					tx.success();
-
-				} catch (FrameworkException fex) {
-					System.out.println(fex.getErrorBuffer().getErrorTokens());
 				}
 
 				// resolve inheritance
-				System.out.println("Resolving class inheritance..");
-				logger.println("Resolving class inheritance..");
-
-				try (final Tx tx = StructrApp.getInstance().tx()) {
-
-					for (final OWLClass owlClass : owlClassesByURI.values()) {
+				progress("Resolving class inheritance..");
 
-						final String name         = owlClass.getStructrName(true);
-						final JsonType type       = schema.getType(name);
-						final OWLClass superclass = owlClass.getSuperclass();
-
-						// type can be null if it is inverseOf another type
-						if (type != null) {
+				for (final OWLClass owlClass : owlClassesByURI.values()) {
 
-							if (superclass != null) {
+					final String name         = owlClass.getStructrName(true);
+					final JsonType type       = schema.getType(name);
+					final OWLClass superclass = owlClass.getSuperclass();
 
-								final JsonType superType = schema.getType(superclass.getStructrName(true));
-								if (superType != null) {
+					// type can be null if it is inverseOf another type
+					if (type != null) {
 
-									type.setExtends(superType);
+						if (superclass != null) {
 
-								} else {
+							final JsonType superType = schema.getType(superclass.getStructrName(true));
+							if (superType != null) {
 
-									type.setExtends(baseType);
-								}
+								type.setExtends(superType);
 
 							} else {
 
 								type.setExtends(baseType);
 							}
 
-							for (final Name localizedName : owlClass.getNames()) {
+						} else {
 
-								app.create(Localization.class,
-									new NodeAttribute(StructrApp.key(Localization.class, "name"), name),
-									new NodeAttribute(StructrApp.key(Localization.class, "localizedName"), localizedName.name),
-									new NodeAttribute(StructrApp.key(Localization.class, "locale"), localizedName.lang)
-								);
-							}
+							type.setExtends(baseType);
 						}
 					}
-
-					StructrSchema.replaceDatabaseSchema(app, schema);
-
-					tx.success();
-
-				} catch (FrameworkException fex) {
-					System.out.println(fex.getErrorBuffer().getErrorTokens());
 				}
 
 				// resolve relationship types
-				System.out.println("Resolving relationship types..");
-				logger.println("Resolving relationship types..");
-
-				try (final Tx tx = StructrApp.getInstance().tx()) {
+				progress("Resolving relationship types..");
 
-					for (final OWLClass possibleOutgoingRelationshipType : owlClassesByURI.values()) {
+				for (final OWLClass possibleOutgoingRelationshipType : owlClassesByURI.values()) {
 
-						final OWLClass possibleIncomingRelationshipType = possibleOutgoingRelationshipType.getInverse();
-						if (possibleOutgoingRelationshipType.isPrimary() && possibleIncomingRelationshipType != null) {
+					final OWLClass possibleIncomingRelationshipType = possibleOutgoingRelationshipType.getInverse();
+					if (possibleOutgoingRelationshipType.isPrimary() && possibleIncomingRelationshipType != null) {
 
-							// this is a relationship
-							final List<OWLClass> sourceTypes = possibleOutgoingRelationshipType.getActualSourceTypes();
-							final List<OWLClass> targetTypes = possibleOutgoingRelationshipType.getActualTargetTypes();
+						// this is a relationship
+						final List<OWLClass> sourceTypes = possibleOutgoingRelationshipType.getActualSourceTypes();
+						final List<OWLClass> targetTypes = possibleOutgoingRelationshipType.getActualTargetTypes();
 
-							for (final OWLClass sourceType : sourceTypes) {
+						for (final OWLClass sourceType : sourceTypes) {
 
-								for (final OWLClass targetType : targetTypes) {
+							for (final OWLClass targetType : targetTypes) {
 
-									final String sourceName     = possibleOutgoingRelationshipType.getStructrName(false);
-									final String targetName     = possibleIncomingRelationshipType.getStructrName(false);
-									final String sourceTypeName = sourceType.getStructrName(true);
-									final String targetTypeName = targetType.getStructrName(true);
+								final String sourceName     = possibleOutgoingRelationshipType.getStructrName(false);
+								final String targetName     = possibleIncomingRelationshipType.getStructrName(false);
+								final String sourceTypeName = sourceType.getStructrName(true);
+								final String targetTypeName = targetType.getStructrName(true);
 
-									final JsonType sourceJsonType = schema.getType(sourceTypeName);
-									final JsonType targetJsonType = schema.getType(targetTypeName);
+								final JsonType sourceJsonType = schema.getType(sourceTypeName);
+								final JsonType targetJsonType = schema.getType(targetTypeName);
 
-									if (sourceJsonType != null && targetJsonType != null) {
+								if (sourceJsonType != null && targetJsonType != null) {
 
-										final String relationshipTypeName = possibleOutgoingRelationshipType.getStructrName(true);
-										final JsonObjectType relType      = schema.addType(relationshipTypeName);
-										final JsonObjectType srcType      = (JsonObjectType)sourceJsonType;
-										final JsonObjectType tgtType      = (JsonObjectType)targetJsonType;
+									final String relationshipTypeName = possibleOutgoingRelationshipType.getStructrName(true);
+									final JsonObjectType relType      = schema.addType(relationshipTypeName);
+									final JsonObjectType srcType      = (JsonObjectType)sourceJsonType;
+									final JsonObjectType tgtType      = (JsonObjectType)targetJsonType;
 
-										srcType.relate(relType, sourceName, Cardinality.OneToMany, sourceType.getStructrName(false), sourceName);
-										relType.relate(tgtType, targetName, Cardinality.ManyToOne, targetName, targetType.getStructrName(false));
+									srcType.relate(relType, sourceName, Cardinality.OneToMany, sourceType.getStructrName(false), sourceName);
+									relType.relate(tgtType, targetName, Cardinality.ManyToOne, targetName, targetType.getStructrName(false));
 
-										possibleOutgoingRelationshipType.setIsRelationship(true);
-									}
+									possibleOutgoingRelationshipType.setIsRelationship(true);
 								}
 							}
 						}
 					}
-
-					StructrSchema.replaceDatabaseSchema(app, schema);
-
-					tx.success();
-
-				} catch (FrameworkException fex) {
-
-					System.out.println(fex.getErrorBuffer().getErrorTokens());
 				}
 
-				System.out.println("Adding properties to types");
-				logger.println("Adding properties to types");
-
-				try (final Tx tx = StructrApp.getInstance().tx()) {
+				progress("Adding properties to types");
 
-					for (final OWLClass owlClass : owlClassesByURI.values()) {
+				for (final OWLClass owlClass : owlClassesByURI.values()) {
 
-						final String typeName = owlClass.getStructrName(true);
-						JsonType type         = schema.getType(typeName);
+					final String typeName = owlClass.getStructrName(true);
+					JsonType type         = schema.getType(typeName);
 
-						// type not found, try to set property on inverse type
-						if (type == null) {
+					// type not found, try to set property on inverse type
+					if (type == null) {
 
-							final OWLClass inverse = owlClass.getInverse();
-							if (inverse != null) {
+						final OWLClass inverse = owlClass.getInverse();
+						if (inverse != null) {
 
-								type = schema.getType(inverse.getStructrName(true));
-							}
+							type = schema.getType(inverse.getStructrName(true));
 						}
+					}
 
-						if (type != null) {
-
-							for (final OWLProperty prop : owlClass.getAllProperties()) {
-
-								addProperty(type, prop, prop.getStructrName(false));
-							}
+					if (type != null) {
 
-						} else {
+						for (final OWLProperty prop : owlClass.getAllProperties()) {
 
-							System.out.println("Class: no type found for " + owlClass.getId());
+							addProperty(type, prop, prop.getStructrName(false));
 						}
-					}
 
-					StructrSchema.replaceDatabaseSchema(app, schema);
+					} else {
 
-					tx.success();
+						logger.warn("Class: no type found for {}", owlClass.getId());
+					}
 				}
 
-				System.out.println("Adding metdata to node types");
-				logger.println("Adding metdata to node types");
+				progress("Storing and compiling schema..");
 
-				try (final Tx tx = StructrApp.getInstance().tx()) {
+				// the icons are stored in the same transaction, so that
+				// the schema is compiled only once when it is committed
+				try (final Tx tx = app.tx()) {
 
-					for (final OWLClass owlClass : owlClassesByURI.values()) {
-
-						final String name           = owlClass.getStructrName(true);
-						final SchemaNode schemaNode = app.nodeQuery(SchemaNode.class).andName(name).getFirst();
-						String icon                 = owlClass.getIcon();
+					StructrSchema.replaceDatabaseSchema(app, schema);
 
-						if (schemaNode != null) {
+					for (final OWLClass owlClass : owlClassesByURI.values()) {
 
-							// truncate icon name, use only the
-							// part after the second dash
-							if (icon != null && icon.contains("-")) {
+						final String icon = getIcon(owlClass);
+						if (icon != null) {
 
-								// start with
-								final int pos = icon.indexOf("-", 7);
-								if (pos > -1) {
+							final SchemaNode schemaNode = app.nodeQuery(SchemaNode.class).andName(owlClass.getStructrName(true)).getFirst();
+							if (schemaNode != null) {
 
-									icon = icon.substring(pos + 1);
-								}
+								schemaNode.setProperty(SchemaNode.icon, icon);
 							}
-
-							schemaNode.setProperty(SchemaNode.icon, icon);
 						}
 					}
 
 					tx.success();
-
-				} catch (FrameworkException fex) {
-					System.out.println(fex.getErrorBuffer().getErrorTokens());
 				}
 
-				// create instances
-				System.out.println("Resolving instances..");
-				logger.println("Resolving instances..");
+				progress("Adding localizations to node types..");
 
-				final Iterator<OWLInstance> instancesIterator = owlInstances.values().iterator();
-				final List<OWLInstance> newInstances          = new LinkedList<>();
-				int count                                      = 0;
+				final boolean metadataComplete = createInChunks(app, owlClassesByURI.values(), owlClass -> {
 
-				while (instancesIterator.hasNext()) {
+					final String name = owlClass.getStructrName(true);
 
-					try (final Tx tx = StructrApp.getInstance().tx()) {
+					if (schema.getType(name) != null) {
 
-						while (instancesIterator.hasNext()) {
+						for (final Name localizedName : owlClass.getNames()) {
 
-							final OWLInstance instance = instancesIterator.next();
-							final OWLClass owlType     = instance.getType();
+							app.create(Localization.class,
+								new NodeAttribute(StructrApp.key(Localization.class, "name"), name),
+								new NodeAttribute(StructrApp.key(Localization.class, "localizedName"), localizedName.name),
+								new NodeAttribute(StructrApp.key(Localization.class, "locale"), localizedName.lang)
+							);
+						}
+					}
+				});
 
-							if (owlType != null) {
+				if (!metadataComplete) {
+					return false;
+				}
 
-								instance.createDatabaseNode(app);
-								instance.resolveProperties();
-								instance.resolveExtensions(app, owlClassesByFragment, owlInstances, newInstances);
-							}
+				// create instances
+				progress("Resolving " + owlInstances.size() + " instances..");
 
-							if (++count == 100) {
+				final List<OWLInstance> newInstances = new LinkedList<>();
 
-								count = 0;
-								break;
-							}
-						}
+				final boolean instancesComplete = createInChunks(app, owlInstances.values(), instance -> {
 
-						tx.success();
+					if (instance.getType() != null) {
+
+						instance.createDatabaseNode(app);
+						instance.resolveProperties();
+						instance.resolveExtensions(app, owlClassesByFragment, owlInstances, newInstances);
 					}
+				});
+
+				if (!instancesComplete) {
+					return false;
 				}
 
 				// add newly created extension instances to global map
@@ -504,36 +525,18 @@ public class OWLParserv2 {
 					owlInstances.put(newInstance.getId(), newInstance);
 				}
 
+				progress("Resolving instance relationships..");
 
-				System.out.println("Resolving instance relationships..");
-				logger.println("Resolving instance relationships..");
-
-				final Iterator<OWLInstance> relationshipsIterator = owlInstances.values().iterator();
-				count = 0;
-
-				while (relationshipsIterator.hasNext()) {
-
-					try (final Tx tx = StructrApp.getInstance().tx()) {
+				final boolean relationshipsComplete = createInChunks(app, owlInstances.values(), instance -> {
 
-						while (relationshipsIterator.hasNext()) {
-
-							final OWLInstance instance = relationshipsIterator.next();
-							final OWLClass owlType     = instance.getType();
-
-							if (owlType != null) {
-
-								instance.resolveRelationships(schema, owlClassesByFragment, owlInstances, rdfDescriptions, owlPropertiesByName);
-							}
+					if (instance.getType() != null) {
 
-							if (++count == 100) {
-
-								count = 0;
-								break;
-							}
-						}
-
-						tx.success();
+						instance.resolveRelationships(schema, owlClassesByFragment, owlInstances, rdfDescriptions, owlPropertiesByName);
 					}
+				});
+
+				if (!relationshipsComplete) {
+					return false;
 				}
 			}
 
@@ -551,8 +554,7 @@ public class OWLParserv2 {
 
 				if (createFileRelationships) {
 
-					System.out.println("Resolving file relationships..");
-					logger.println("Resolving file relationships..");
+					progress("Resolving file relationships..");
 
 					// iterate over files to identify relationships and extend schema
 					final Iterator<Path> pathIteratorForSchemaExtension = files.iterator();
@@ -582,7 +584,7 @@ public class OWLParserv2 {
 
 									if (nodes.size() == 1) {
 
-										System.out.println("                ##########: " + nodes.size() + " results..");
+										logger.debug("{} results..", nodes.size());
 
 										// create schema relationship from schema type to file (once)
 										// import file
@@ -590,7 +592,7 @@ public class OWLParserv2 {
 										final SchemaNode schemaNode = app.nodeQuery(SchemaNode.class).andName(type.getSimpleName()).getFirst();
 										if (schemaNode != null) {
 
-											System.out.println("                ##########: found SchemaNode " + schemaNode.getUuid() + " (" + schemaNode.getName() + ")");
+											logger.debug("Found SchemaNode {} ({})", schemaNode.getUuid(), schemaNode.getName());
 
 											final SchemaNode fileSchemaNode = app.nodeQuery(SchemaNode.class).andName(File.class.getSimpleName()).getFirst();
 											if (fileSchemaNode != null) {
@@ -607,7 +609,7 @@ public class OWLParserv2 {
 
 												if (link == null) {
 
-													System.out.println("Creating link from " + schemaNode + " to " + fileSchemaNode + ", " + sourceJsonName + ", " + targetJsonName);
+													logger.info("Creating link from {} to {}, {}, {}", schemaNode, fileSchemaNode, sourceJsonName, targetJsonName);
 
 													app.create(SchemaRelationshipNode.class,
 														new NodeAttribute(SchemaRelationshipNode.sourceNode, schemaNode),
@@ -621,17 +623,17 @@ public class OWLParserv2 {
 
 												} else {
 
-													System.out.println("Link relationship already exists: " + link);
+													logger.info("Link relationship already exists: {}", link);
 												}
 
 											} else {
 
-												System.out.println("NO SchemaNode found for type File!");
+												logger.warn("No SchemaNode found for type File.");
 											}
 
 										} else {
 
-											System.out.println("NO SchemaNode found for type " + type.getSimpleName() + "!");
+											logger.warn("No SchemaNode found for type {}.", type.getSimpleName());
 										}
 
 										// no need to search further
@@ -647,8 +649,7 @@ public class OWLParserv2 {
 
 				if (importFiles) {
 
-					System.out.println("Importing files..");
-					logger.println("Importing files..");
+					progress("Importing files..");
 
 					final SecurityContext superUserSecurityContext           = SecurityContext.getSuperUserInstance();
 					final Iterator<Path> pathIteratorForRelationshipCreation = files.iterator();
@@ -709,7 +710,7 @@ public class OWLParserv2 {
 															}
 														}
 
-														logger.println("        Importing " + name + " => " + actualName);
+														importLog.println("        Importing " + name + " => " + actualName);
 
 														final File importedFile   = FileHelper.createFile(superUserSecurityContext, is, null, fileType, actualName);
 														final List<File> fileList = (List<File>)node.getProperty(fileRelationshipKey);
@@ -726,20 +727,20 @@ public class OWLParserv2 {
 															actualName = possibleName.substring(name.length() + 1);
 														}
 
-														logger.println("        Importing " + name + " => " + actualName);
+														importLog.println("        Importing " + name + " => " + actualName);
 
 														final File importedFile = FileHelper.createFile(superUserSecurityContext, is, null, fileType, actualName);
 														node.setProperty(fileRelationshipKey, importedFile);
 													}
 
 												} catch (Throwable t) {
-													t.printStackTrace();
+													logger.warn("Unable to import file " + name, t);
 												}
 
 											} else {
 
-												System.out.println("############################# INVALID KEY " + type.getSimpleName() + "." + targetJsonName + ", not found??!");
-												logger.println("############################# INVALID KEY " + type.getSimpleName() + "." + targetJsonName + ", not found??!");
+												logger.warn("Invalid key {}.{}, not found.", type.getSimpleName(), targetJsonName);
+												importLog.println("############################# INVALID KEY " + type.getSimpleName() + "." + targetJsonName + ", not found??!");
 											}
 
 											found = true;
@@ -752,8 +753,8 @@ public class OWLParserv2 {
 
 								if (!found) {
 
-									System.out.println("Found NO document for file " + name + ", importing without association");
-									logger.println("Found NO document for file " + name + ", importing without association");
+									logger.info("Found no document for file {}, importing without association", name);
+									importLog.println("Found NO document for file " + name + ", importing without association");
 
 									try (final InputStream is = new FileInputStream(file.toFile())) {
 
@@ -762,11 +763,11 @@ public class OWLParserv2 {
 										FileHelper.createFile(superUserSecurityContext, is, null, fileType, name);
 
 									} catch (Throwable t) {
-										t.printStackTrace();
+										logger.warn("Unable to import file " + name, t);
 									}
 								}
 
-								if (++count == 100) {
+								if (++count == commitInterval) {
 
 									count = 0;
 									break;
@@ -778,24 +779,136 @@ public class OWLParserv2 {
 					}
 				}
 			}
+		}
 
+		return true;
+	}
 
-		} catch(Throwable t) {
+	private void progress(final String message) {
 
-			t.printStackTrace();
+		if (job != null) {
 
-			success = false;
+			job.phaseStarted(message);
+
+		} else {
+
+			logger.info(message);
 		}
 
+		importLog.println(message);
+	}
+
+	private String getIcon(final OWLClass owlClass) {
 
-		if (success) {
+		final String icon = owlClass.getIcon();
+
+		// truncate icon name, use only the
+		// part after the second dash
+		if (icon != null && icon.contains("-")) {
+
+			final int pos = icon.indexOf("-", 7);
+			if (pos > -1) {
+
+				return icon.substring(pos + 1);
+			}
+		}
+
+		return icon;
+	}
+
+	private void readDocument(final InputStream input) throws XMLStreamException, TransformerException {
+
+		final XMLStreamReader reader  = XMLInputFactory.newInstance().createXMLStreamReader(input);
+		final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+		int depth                     = 0;
+
+		// the children of the root element are converted into DOM elements
+		// one at a time, so the document is never held in memory as a whole
+		while (reader.hasNext()) {
+
+			switch (reader.getEventType()) {
+
+				case XMLStreamConstants.START_ELEMENT:
+
+					if (depth == 1) {
+
+						final DOMResult result = new DOMResult();
+
+						// the transformation consumes the element including its end tag
+						transformer.transform(new StAXSource(reader), result);
+
+						parseDocument(((Document)result.getNode()).getDocumentElement(), depth);
+						continue;
+					}
+
+					depth++;
+					break;
 
-			System.out.println("Import successful");
-			logger.println("Import successful");
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					break;
+			}
+
+			reader.next();
 		}
 
-		logger.flush();
-		logger.close();
+		reader.close();
+	}
+
+	private <T> void resolveInParallel(final ExecutorService executor, final Collection<T> items, final Consumer<T> action) throws InterruptedException, ExecutionException {
+
+		final List<T> list            = new ArrayList<>(items);
+		final List<Future<?>> futures = new LinkedList<>();
+		final int sliceSize           = (list.size() / threads) + 1;
+
+		for (int i=0; i<list.size(); i+=sliceSize) {
+
+			final List<T> slice = list.subList(i, Math.min(i + sliceSize, list.size()));
+
+			futures.add(executor.submit(() -> slice.forEach(action)));
+		}
+
+		// wait for all slices, so the next step sees the complete result
+		for (final Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	private <T> boolean createInChunks(final App app, final Collection<T> items, final ChunkAction<T> action) throws FrameworkException {
+
+		final Iterator<T> iterator = items.iterator();
+		int overallCount           = 0;
+
+		while (iterator.hasNext()) {
+
+			final long chunkStartTime = System.currentTimeMillis();
+			int count                 = 0;
+
+			try (final Tx tx = app.tx()) {
+
+				while (iterator.hasNext() && count < commitInterval) {
+
+					action.apply(iterator.next());
+					count++;
+				}
+
+				tx.success();
+			}
+
+			overallCount += count;
+
+			// do this outside of the transaction!
+			if (job != null) {
+
+				job.chunkFinished(chunkStartTime, count, overallCount);
+
+				if (job.pauseOrAbort()) {
+					return false;
+				}
+			}
+		}
+
+		return true;
 	}
 
 	private void addProperty(final JsonType type, final OWLProperty property, final String name) throws URISyntaxException, FrameworkException {
@@ -803,8 +916,8 @@ public class OWLParserv2 {
 		final String id = property.getId().toString();
 		if (blacklistedProperties.contains(id)) {
 
-			System.out.println("DatatypeProperty " + property.getId().toString() + " is blacklisted, igoring!");
-			logger.println("DatatypeProperty " + property.getId().toString() + " is blacklisted, igoring!");
+			logger.info("DatatypeProperty {} is blacklisted, ignoring.", property.getId());
+			importLog.println("DatatypeProperty " + property.getId().toString() + " is blacklisted, igoring!");
 
 			return;
 		}
@@ -1004,6 +1117,11 @@ public class OWLParserv2 {
 	}
 
 	// ----- nested classes -----
+	private interface ChunkAction<T> {
+
+		void apply(final T item) throws FrameworkException;
+	}
+
 	private static class Visitor implements FileVisitor<Path> {
 
 		private Set<Path> files = null;
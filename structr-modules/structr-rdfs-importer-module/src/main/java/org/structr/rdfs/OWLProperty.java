@@ -98,7 +98,7 @@ public class OWLProperty<T extends RDFItem> extends RDFItem<T> {
 
 			} else {
 
-				OWLParserv2.logger.println("No class found for " + domainId);
+				OWLParserv2.importLog.println("No class found for " + domainId);
 			}
 		}
 	}
@@ -101,16 +101,16 @@ public class RDFDescription extends RDFItem<RDFDescription> {
 
 						} else {
 
-							System.out.println("Description: no property key found for " + keyName + " of " + type.getSimpleName());
+							logger.warn("Description: no property key found for {} of {}", keyName, type.getSimpleName());
 						}
 
 					} catch (Throwable t) {
-						t.printStackTrace();
+						logger.warn("Unable to set property " + keyName + " of " + getId(), t);
 					}
 
 				} else {
 
-					System.out.println("Property for " + tagName + " not found!");
+					logger.warn("Property for {} not found", tagName);
 				}
 			}
 		}
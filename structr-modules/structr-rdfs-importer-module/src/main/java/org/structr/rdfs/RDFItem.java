@@ -26,6 +26,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.structr.common.CaseHelper;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
@@ -42,17 +44,19 @@ import org.w3c.dom.NodeList;
 
 public abstract class RDFItem<T extends RDFItem> implements Comparable<RDFItem> {
 
-	protected final List<Name> names = new LinkedList<>();
-	private final Set<T> subclasses  = new TreeSet<>();
-	protected String createdAt       = null;
-	protected String modifiedAt      = null;
-	protected String rdfReferenceId  = null;
-	private Element element          = null;
-	private T superclass             = null;
-	private URI superclassId         = null;
-	private URI id                   = null;
-	private String internalName      = null;
-	private String type              = null;
+	protected static final Logger logger = LoggerFactory.getLogger(RDFItem.class.getName());
+
+	protected final List<Name> names     = new LinkedList<>();
+	private final Set<T> subclasses      = new TreeSet<>();
+	protected String createdAt           = null;
+	protected String modifiedAt          = null;
+	protected String rdfReferenceId      = null;
+	private Element element              = null;
+	private T superclass                 = null;
+	private URI superclassId             = null;
+	private URI id                       = null;
+	private String internalName          = null;
+	private String type                  = null;
 
 	protected abstract Set<String> getInheritanceIdentifiers();
 
@@ -280,14 +284,14 @@ public abstract class RDFItem<T extends RDFItem> implements Comparable<RDFItem>
 				}
 
 				if (convertedValue == null) {
-					OWLParserv2.logger.println("Invalid converted value " + convertedValue + ", source was " + value);
+					OWLParserv2.importLog.println("Invalid converted value " + convertedValue + ", source was " + value);
 				}
 
 				return instance.setProperty(key, convertedValue);
 
 			} else {
 
-				System.out.println("Key " + propertyName + " not found on " + nodeType.getSimpleName());
+				logger.warn("Key {} not found on {}", propertyName, nodeType.getSimpleName());
 			}
 		}
 
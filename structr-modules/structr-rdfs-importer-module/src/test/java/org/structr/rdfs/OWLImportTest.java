@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.rdfs;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+import org.structr.api.metrics.Metrics;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.Services;
+import org.structr.core.app.App;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.Localization;
+import org.structr.core.entity.SchemaNode;
+import org.structr.core.graph.FlushCachesCommand;
+import org.structr.core.graph.NodeInterface;
+import org.structr.core.graph.Tx;
+import org.structr.schema.ConfigurationProvider;
+
+public class OWLImportTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(OWLImportTest.class.getName());
+
+	private static SecurityContext securityContext = null;
+	private static String basePath                 = null;
+	private static App app                         = null;
+
+	@BeforeClass
+	public static void startSystem() {
+
+		basePath = "/tmp/structr-test-" + System.currentTimeMillis();
+
+		Settings.Services.setValue("NodeService LogService SchemaService");
+		Settings.ConnectionUrl.setValue(Settings.TestingConnectionUrl.getValue());
+
+		Settings.BasePath.setValue(basePath);
+		Settings.DatabasePath.setValue(basePath + "/db");
+		Settings.FilesPath.setValue(basePath + "/files");
+
+		Settings.SuperUserName.setValue("superadmin");
+		Settings.SuperUserPassword.setValue("sehrgeheim");
+
+		final Services services = Services.getInstance();
+
+		// wait for service layer to be initialized
+		while (!services.isInitialized()) {
+			try { Thread.sleep(100); } catch (InterruptedException iex) {}
+		}
+
+		securityContext = SecurityContext.getSuperUserInstance();
+		app             = StructrApp.getInstance(securityContext);
+	}
+
+	@AfterClass
+	public static void stopSystem() {
+
+		Services.getInstance().shutdown();
+
+		try {
+
+			FileUtils.deleteDirectory(new File(basePath));
+
+		} catch (Throwable t) {
+			logger.warn("", t);
+		}
+	}
+
+	@Before
+	public void cleanDatabase() {
+
+		// every test imports the ontology into an empty database
+		try (final Tx tx = app.tx()) {
+
+			app.cypher("MATCH (n) WHERE NOT n:SchemaReloadingNode DETACH DELETE n", Collections.emptyMap());
+
+			tx.success();
+
+		} catch (Throwable t) {
+
+			logger.error("Exception while trying to clean database: {}", t.getMessage());
+		}
+
+		FlushCachesCommand.flushAll();
+	}
+
+	@Test
+	public void testSequentialImport() {
+		importAndVerify(1);
+	}
+
+	@Test
+	public void testParallelImport() {
+
+		// more threads than classes and a commit interval smaller
+		// than the number of instances
+		importAndVerify(8);
+	}
+
+	@Test
+	public void testSchemaIsCompiledOnce() {
+
+		final boolean metricsEnabled = Settings.MetricsEnabled.getValue();
+
+		try {
+
+			Settings.MetricsEnabled.setValue(true);
+			Metrics.reset();
+
+			importFile(4);
+
+			final List<Map<String, Object>> timings = Metrics.getTimings().get(Metrics.CATEGORY_SCHEMA);
+
+			assertNotNull("Schema compilation was not recorded", timings);
+			assertEquals("Invalid number of schema timings", 1, timings.size());
+			assertEquals("Schema must be compiled exactly once per import", 1L, timings.get(0).get("count"));
+
+		} finally {
+
+			Settings.MetricsEnabled.setValue(metricsEnabled);
+		}
+
+		// the icon is stored in the same transaction as the schema
+		try (final Tx tx = app.tx()) {
+
+			final SchemaNode person = app.nodeQuery(SchemaNode.class).andName("Person").getFirst();
+
+			assertNotNull("Schema node was not created", person);
+			assertEquals("Invalid icon", "person", person.getProperty(SchemaNode.icon));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception");
+		}
+	}
+
+	@Test
+	public void testImportCommandRequiresFile() {
+
+		try {
+
+			app.command(OWLImportCommand.class).execute(Collections.emptyMap());
+
+			fail("OWL import without file should fail");
+
+		} catch (FrameworkException fex) {
+
+			assertEquals("Invalid status code", 422, fex.getStatus());
+		}
+	}
+
+	// ----- private methods -----
+	private void importAndVerify(final int threads) {
+
+		importFile(threads);
+
+		final ConfigurationProvider config = StructrApp.getConfiguration();
+		final Class personType             = config.getNodeEntityClass("Person");
+		final Class employeeType           = config.getNodeEntityClass("Employee");
+		final Class managerType            = config.getNodeEntityClass("Manager");
+		final Class companyType            = config.getNodeEntityClass("Company");
+
+		assertNotNull("Type Person was not created",   personType);
+		assertNotNull("Type Employee was not created", employeeType);
+		assertNotNull("Type Manager was not created",  managerType);
+		assertNotNull("Type Company was not created",  companyType);
+
+		// class hierarchy
+		assertTrue("Employee must extend Person",      personType.isAssignableFrom(employeeType));
+		assertTrue("Manager must extend Employee",     employeeType.isAssignableFrom(managerType));
+		assertTrue("Company must not extend Person",   !personType.isAssignableFrom(companyType));
+
+		try (final Tx tx = app.tx()) {
+
+			// instances, including the instances of subclasses
+			assertEquals("Invalid number of Person instances",   5, app.nodeQuery(personType).getAsList().size());
+			assertEquals("Invalid number of Employee instances", 3, app.nodeQuery(employeeType).getAsList().size());
+			assertEquals("Invalid number of Manager instances",  1, app.nodeQuery(managerType).getAsList().size());
+			assertEquals("Invalid number of Company instances",  1, app.nodeQuery(companyType).getAsList().size());
+
+			// datatype properties, including inherited properties
+			final NodeInterface manager = (NodeInterface)app.nodeQuery(managerType).getFirst();
+
+			assertEquals("Invalid inherited property value", "Eve", manager.getProperty(StructrApp.key(managerType, "firstName")));
+			assertEquals("Invalid property value",           3000,  manager.getProperty(StructrApp.key(managerType, "salary")));
+
+			final NodeInterface company = (NodeInterface)app.nodeQuery(companyType).getFirst();
+
+			assertEquals("Invalid property value", "Example Ltd.", company.getProperty(StructrApp.key(companyType, "legalName")));
+
+			// localizations of the class labels
+			assertEquals("Invalid number of localizations", 7, app.nodeQuery(Localization.class).getAsList().size());
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception");
+		}
+	}
+
+	private void importFile(final int threads) {
+
+		try (final InputStream is = OWLImportTest.class.getResourceAsStream("/test.owl")) {
+
+			final File file = new File(basePath, "test.owl");
+
+			file.getParentFile().mkdirs();
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			assertTrue("Import was aborted", new OWLParserv2(null, threads, 2).importFile(file.getAbsolutePath(), basePath + "/blobs"));
+
+		} catch (Exception ex) {
+
+			logger.warn("", ex);
+			fail("Unexpected exception");
+		}
+	}
+}
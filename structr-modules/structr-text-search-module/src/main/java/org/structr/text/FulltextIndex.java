@@ -0,0 +1,743 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.api.config.Settings;
+
+/**
+ * Segment-based inverted index with BM25 ranking.
+ *
+ * New and updated documents are collected in an in-memory live segment
+ * which is written to an immutable, memory-mapped segment file when it
+ * reaches the configured flush size, and periodically by a background
+ * thread so that indexed documents survive a crash. Documents that were
+ * removed since the last flush are written to a tombstone file with the
+ * same id as the segment, so that they stay removed when the index is
+ * loaded again. When the number of segment files
+ * exceeds the configured maximum, all segments are merged into a single
+ * new segment. The document table maps each UUID to the segment that holds
+ * its current version, so postings of outdated versions in older segments
+ * are ignored until the next merge removes them.
+ *
+ * Search strings consist of terms (optional, ranked by BM25), prefix terms
+ * ending with "*" that are expanded using the sorted term dictionaries, and
+ * quoted phrases. Since the index does not store term positions, all terms
+ * of a phrase are required to match, but not necessarily adjacent.
+ */
+public class FulltextIndex {
+
+	private static final Logger logger           = LoggerFactory.getLogger(FulltextIndex.class.getName());
+	private static final Pattern QUERY_PATTERN   = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+	private static final String TOMBSTONE_SUFFIX = ".del";
+	private static final long LIVE_SEGMENT       = -1L;
+	private static final double K1               = 1.2;
+	private static final double B                = 0.75;
+	private static FulltextIndex instance        = null;
+
+	private final TreeMap<String, Map<String, Integer>> livePostings = new TreeMap<>();
+	private final Map<String, Map<String, Integer>> liveDocuments    = new HashMap<>();
+	private final Map<String, Document> documents                    = new HashMap<>();
+	private final Set<String> tombstones                             = new LinkedHashSet<>();
+	private final List<FulltextIndexSegment> segments                = new ArrayList<>();
+	private final ReentrantReadWriteLock lock                        = new ReentrantReadWriteLock();
+	private Path directory                                           = null;
+	private int maxSegments                                          = 8;
+	private int flushSize                                            = 1000;
+	private long nextSegmentId                                       = 0L;
+	private long totalLength                                         = 0L;
+
+	public FulltextIndex(final Path directory, final int flushSize, final int maxSegments) throws IOException {
+
+		this.directory   = directory;
+		this.flushSize   = flushSize;
+		this.maxSegments = maxSegments;
+
+		load();
+	}
+
+	public static synchronized FulltextIndex getInstance() throws IOException {
+
+		if (instance == null) {
+
+			final Path path = Paths.get(Settings.getFullSettingPath(Settings.IndexingPath));
+
+			instance = new FulltextIndex(path, Settings.IndexingFlushSize.getValue(), Settings.IndexingMaxSegments.getValue());
+
+			final int interval                         = Math.max(1, Settings.IndexingFlushInterval.getValue());
+			final ScheduledExecutorService flushThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+				final Thread thread = new Thread(runnable, "FulltextIndexFlushTimer");
+				thread.setDaemon(true);
+
+				return thread;
+			});
+
+			flushThread.scheduleWithFixedDelay(() -> {
+
+				try {
+
+					instance.flush();
+
+				} catch (Throwable t) {
+					logger.warn("Unable to flush fulltext index: {}", t.getMessage());
+				}
+
+			}, interval, interval, TimeUnit.SECONDS);
+
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+
+				try {
+
+					instance.flush();
+
+				} catch (IOException ioex) {
+					logger.warn("Unable to flush fulltext index: {}", ioex.getMessage());
+				}
+
+			}, "FulltextIndexFlush"));
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Adds or replaces the document with the given UUID. The previous
+	 * version of the document (if any) is superseded immediately.
+	 *
+	 * @param uuid the UUID of the document
+	 * @param termFrequencies the terms of the document and their frequencies
+	 *
+	 * @throws IOException
+	 */
+	public void add(final String uuid, final Map<String, Integer> termFrequencies) throws IOException {
+
+		lock.writeLock().lock();
+		try {
+
+			remove(uuid);
+
+			final Map<String, Integer> terms = new HashMap<>(termFrequencies);
+			int length                       = 0;
+
+			for (final Entry<String, Integer> entry : terms.entrySet()) {
+
+				Map<String, Integer> postings = livePostings.get(entry.getKey());
+				if (postings == null) {
+
+					postings = new HashMap<>();
+					livePostings.put(entry.getKey(), postings);
+				}
+
+				postings.put(uuid, entry.getValue());
+
+				length += entry.getValue();
+			}
+
+			liveDocuments.put(uuid, terms);
+			documents.put(uuid, new Document(LIVE_SEGMENT, length));
+
+			totalLength += length;
+
+			if (liveDocuments.size() >= flushSize) {
+				flush();
+			}
+
+		} finally {
+
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the document with the given UUID from the index. Versions
+	 * of the document in segment files are recorded as tombstones which
+	 * are written with the next flush.
+	 *
+	 * @param uuid the UUID of the document
+	 */
+	public void remove(final String uuid) {
+
+		lock.writeLock().lock();
+		try {
+
+			final Map<String, Integer> terms = liveDocuments.remove(uuid);
+			if (terms != null) {
+
+				for (final String term : terms.keySet()) {
+
+					final Map<String, Integer> postings = livePostings.get(term);
+					if (postings != null) {
+
+						postings.remove(uuid);
+
+						if (postings.isEmpty()) {
+							livePostings.remove(term);
+						}
+					}
+				}
+			}
+
+			final Document document = documents.remove(uuid);
+			if (document != null) {
+
+				totalLength -= document.length;
+
+				if (document.segment != LIVE_SEGMENT) {
+					tombstones.add(uuid);
+				}
+			}
+
+		} finally {
+
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the pending tombstones and the live segment to new files and
+	 * merges the existing segments if there are too many of them.
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+
+		lock.writeLock().lock();
+		try {
+
+			if (liveDocuments.isEmpty() && tombstones.isEmpty()) {
+				return;
+			}
+
+			final long id = nextSegmentId++;
+
+			// tombstones are applied before the segment with the same id when the index is loaded
+			if (!tombstones.isEmpty()) {
+
+				Files.write(getTombstonePath(id), tombstones, StandardCharsets.UTF_8);
+				tombstones.clear();
+			}
+
+			if (liveDocuments.isEmpty()) {
+				return;
+			}
+
+			try (final FulltextIndexSegment.Writer writer = new FulltextIndexSegment.Writer(getSegmentPath(id))) {
+
+				for (final String uuid : liveDocuments.keySet()) {
+					writer.addDocument(uuid, documents.get(uuid).length);
+				}
+
+				for (final Entry<String, Map<String, Integer>> entry : livePostings.entrySet()) {
+
+					final Map<String, Integer> postings = entry.getValue();
+					final int[] ordinals                = new int[postings.size()];
+					final int[] frequencies             = new int[postings.size()];
+					int count                           = 0;
+
+					for (final Entry<String, Integer> posting : postings.entrySet()) {
+
+						ordinals[count]    = writer.getOrdinal(posting.getKey());
+						frequencies[count] = posting.getValue();
+						count++;
+					}
+
+					writer.addTerm(entry.getKey(), ordinals, frequencies, count);
+				}
+			}
+
+			segments.add(FulltextIndexSegment.open(id, getSegmentPath(id)));
+
+			for (final String uuid : liveDocuments.keySet()) {
+				documents.get(uuid).segment = id;
+			}
+
+			liveDocuments.clear();
+			livePostings.clear();
+
+			if (segments.size() > maxSegments) {
+				merge();
+			}
+
+		} finally {
+
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Searches the index and returns the UUIDs of the matching documents
+	 * together with their BM25 score, ordered by descending score.
+	 *
+	 * @param searchString the search string
+	 * @param maxResults the maximum number of results
+	 *
+	 * @return an ordered map of UUIDs and scores
+	 */
+	public Map<String, Double> search(final String searchString, final int maxResults) {
+
+		final Map<String, Double> result = new LinkedHashMap<>();
+
+		if (StringUtils.isBlank(searchString)) {
+			return result;
+		}
+
+		lock.readLock().lock();
+		try {
+
+			final Map<String, Double> scores    = new HashMap<>();
+			final Map<String, Integer> required = new HashMap<>();
+			final Matcher matcher               = QUERY_PATTERN.matcher(searchString.toLowerCase());
+			final double averageLength          = totalLength > 0 ? (double)totalLength / (double)documents.size() : 1.0;
+			int requiredClauses                 = 0;
+
+			while (matcher.find()) {
+
+				final String phrase = matcher.group(1);
+				if (phrase != null) {
+
+					// phrase: every term is required
+					for (final String term : StringUtils.split(phrase)) {
+
+						final Set<String> matches = score(Collections.singleton(term), averageLength, scores);
+
+						for (final String uuid : matches) {
+							required.merge(uuid, 1, Integer::sum);
+						}
+
+						requiredClauses++;
+					}
+
+				} else {
+
+					final String term = matcher.group(2);
+					if (term.endsWith("*")) {
+
+						final String prefix = term.substring(0, term.length() - 1);
+						if (!prefix.isEmpty()) {
+
+							score(expandPrefix(prefix), averageLength, scores);
+						}
+
+					} else {
+
+						score(Collections.singleton(term), averageLength, scores);
+					}
+				}
+			}
+
+			final List<Entry<String, Double>> ranked = new ArrayList<>();
+
+			for (final Entry<String, Double> entry : scores.entrySet()) {
+
+				if (requiredClauses == 0 || required.getOrDefault(entry.getKey(), 0) == requiredClauses) {
+					ranked.add(entry);
+				}
+			}
+
+			ranked.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+
+			for (final Entry<String, Double> entry : ranked) {
+
+				if (result.size() >= maxResults) {
+					break;
+				}
+
+				result.put(entry.getKey(), entry.getValue());
+			}
+
+		} finally {
+
+			lock.readLock().unlock();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Flushes the live segment and closes all segment files.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+
+		lock.writeLock().lock();
+		try {
+
+			flush();
+
+			for (final FulltextIndexSegment segment : segments) {
+				segment.close();
+			}
+
+			segments.clear();
+
+		} finally {
+
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int getDocumentCount() {
+
+		lock.readLock().lock();
+		try {
+
+			return documents.size();
+
+		} finally {
+
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getSegmentCount() {
+
+		lock.readLock().lock();
+		try {
+
+			return segments.size();
+
+		} finally {
+
+			lock.readLock().unlock();
+		}
+	}
+
+	// ----- private methods -----
+	private void load() throws IOException {
+
+		Files.createDirectories(directory);
+
+		final TreeMap<Long, Path> segmentFiles   = new TreeMap<>();
+		final TreeMap<Long, Path> tombstoneFiles = new TreeMap<>();
+
+		try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+
+			for (final Path path : stream) {
+
+				final String name = path.getFileName().toString();
+
+				try {
+
+					if (name.endsWith(FulltextIndexSegment.SUFFIX)) {
+
+						segmentFiles.put(Long.valueOf(name.substring(0, name.length() - FulltextIndexSegment.SUFFIX.length())), path);
+
+					} else if (name.endsWith(TOMBSTONE_SUFFIX)) {
+
+						tombstoneFiles.put(Long.valueOf(name.substring(0, name.length() - TOMBSTONE_SUFFIX.length())), path);
+
+					} else {
+
+						logger.warn("Ignoring unknown file {} in fulltext index directory", path);
+					}
+
+				} catch (NumberFormatException nex) {
+					logger.warn("Ignoring unknown file {} in fulltext index directory", path);
+				}
+			}
+		}
+
+		final Set<Long> ids = new TreeSet<>();
+
+		ids.addAll(segmentFiles.keySet());
+		ids.addAll(tombstoneFiles.keySet());
+
+		// files are loaded in ascending order so that newer versions of a document override older ones,
+		// and the tombstones of an id are applied before the segment with the same id
+		for (final Long id : ids) {
+
+			final Path tombstonePath = tombstoneFiles.get(id);
+			if (tombstonePath != null) {
+
+				for (final String uuid : Files.readAllLines(tombstonePath, StandardCharsets.UTF_8)) {
+
+					final Document removed = documents.remove(uuid);
+					if (removed != null) {
+
+						totalLength -= removed.length;
+					}
+				}
+			}
+
+			final Path segmentPath = segmentFiles.get(id);
+			if (segmentPath != null) {
+
+				final FulltextIndexSegment segment = FulltextIndexSegment.open(id, segmentPath);
+				final int count                    = segment.getDocumentCount();
+
+				for (int i=0; i<count; i++) {
+
+					final Document previous = documents.put(segment.getUuid(i), new Document(segment.getId(), segment.getLength(i)));
+					if (previous != null) {
+
+						totalLength -= previous.length;
+					}
+
+					totalLength += segment.getLength(i);
+				}
+
+				segments.add(segment);
+			}
+
+			nextSegmentId = id + 1;
+		}
+
+		logger.info("Fulltext index loaded, {} documents in {} segments", documents.size(), segments.size());
+	}
+
+	private void merge() throws IOException {
+
+		final long id = nextSegmentId++;
+
+		try (final FulltextIndexSegment.Writer writer = new FulltextIndexSegment.Writer(getSegmentPath(id))) {
+
+			// copy current documents only, outdated versions are dropped
+			for (final FulltextIndexSegment segment : segments) {
+
+				final int count = segment.getDocumentCount();
+
+				for (int i=0; i<count; i++) {
+
+					if (isCurrent(segment, i)) {
+						writer.addDocument(segment.getUuid(i), segment.getLength(i));
+					}
+				}
+			}
+
+			// k-way merge of the sorted term dictionaries
+			final PriorityQueue<TermCursor> queue = new PriorityQueue<>();
+
+			for (final FulltextIndexSegment segment : segments) {
+
+				if (segment.getTermCount() > 0) {
+					queue.add(new TermCursor(segment));
+				}
+			}
+
+			while (!queue.isEmpty()) {
+
+				final String term          = queue.peek().term();
+				final List<int[]> postings = new ArrayList<>();
+				int total                  = 0;
+
+				while (!queue.isEmpty() && term.equals(queue.peek().term())) {
+
+					final TermCursor cursor            = queue.poll();
+					final FulltextIndexSegment segment = cursor.segment;
+					final int[][] segmentPostings      = segment.getPostings(cursor.index);
+
+					for (int i=0; i<segmentPostings[0].length; i++) {
+
+						final int ordinal = segmentPostings[0][i];
+						if (isCurrent(segment, ordinal)) {
+
+							postings.add(new int[] { writer.getOrdinal(segment.getUuid(ordinal)), segmentPostings[1][i] });
+							total++;
+						}
+					}
+
+					if (++cursor.index < segment.getTermCount()) {
+						queue.add(cursor);
+					}
+				}
+
+				final int[] ordinals    = new int[total];
+				final int[] frequencies = new int[total];
+
+				for (int i=0; i<total; i++) {
+
+					ordinals[i]    = postings.get(i)[0];
+					frequencies[i] = postings.get(i)[1];
+				}
+
+				writer.addTerm(term, ordinals, frequencies, total);
+			}
+		}
+
+		final FulltextIndexSegment merged = FulltextIndexSegment.open(id, getSegmentPath(id));
+		final int count                   = merged.getDocumentCount();
+
+		for (int i=0; i<count; i++) {
+			documents.get(merged.getUuid(i)).segment = id;
+		}
+
+		for (final FulltextIndexSegment segment : segments) {
+
+			segment.close();
+			Files.deleteIfExists(segment.getPath());
+		}
+
+		segments.clear();
+		segments.add(merged);
+
+		// the merged segment only contains current documents, so older tombstones are obsolete
+		try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TOMBSTONE_SUFFIX)) {
+
+			for (final Path path : stream) {
+				Files.deleteIfExists(path);
+			}
+		}
+
+		logger.info("Merged fulltext index segments into segment {} with {} documents", id, count);
+	}
+
+	/**
+	 * Collects the postings of the given terms from the live segment and
+	 * all segment files, adds their BM25 score to the given score map and
+	 * returns the UUIDs of all matching documents.
+	 */
+	private Set<String> score(final Set<String> terms, final double averageLength, final Map<String, Double> scores) {
+
+		final Set<String> matches = new HashSet<>();
+		final double count        = documents.size();
+
+		for (final String term : terms) {
+
+			final Map<String, Integer> postings = new LinkedHashMap<>();
+
+			final Map<String, Integer> live = livePostings.get(term);
+			if (live != null) {
+
+				postings.putAll(live);
+			}
+
+			for (final FulltextIndexSegment segment : segments) {
+
+				final int index = segment.findTerm(term);
+				if (index >= 0) {
+
+					final int[][] segmentPostings = segment.getPostings(index);
+
+					for (int i=0; i<segmentPostings[0].length; i++) {
+
+						final int ordinal = segmentPostings[0][i];
+						if (isCurrent(segment, ordinal)) {
+
+							postings.put(segment.getUuid(ordinal), segmentPostings[1][i]);
+						}
+					}
+				}
+			}
+
+			final double frequency = postings.size();
+			final double idf       = Math.log(1.0 + (count - frequency + 0.5) / (frequency + 0.5));
+
+			for (final Entry<String, Integer> posting : postings.entrySet()) {
+
+				final String uuid = posting.getKey();
+				final double tf   = posting.getValue();
+				final double norm = K1 * (1.0 - B + B * documents.get(uuid).length / averageLength);
+
+				scores.merge(uuid, idf * (tf * (K1 + 1.0)) / (tf + norm), Double::sum);
+				matches.add(uuid);
+			}
+		}
+
+		return matches;
+	}
+
+	private Set<String> expandPrefix(final String prefix) {
+
+		final Set<String> terms = new LinkedHashSet<>();
+
+		terms.addAll(livePostings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).keySet());
+
+		for (final FulltextIndexSegment segment : segments) {
+			terms.addAll(segment.findTermsWithPrefix(prefix));
+		}
+
+		return terms;
+	}
+
+	private boolean isCurrent(final FulltextIndexSegment segment, final int ordinal) {
+
+		final Document document = documents.get(segment.getUuid(ordinal));
+
+		return document != null && document.segment == segment.getId();
+	}
+
+	private Path getSegmentPath(final long id) {
+		return directory.resolve(String.format("%012d", id) + FulltextIndexSegment.SUFFIX);
+	}
+
+	private Path getTombstonePath(final long id) {
+		return directory.resolve(String.format("%012d", id) + TOMBSTONE_SUFFIX);
+	}
+
+	// ----- nested classes -----
+	private static class Document {
+
+		private long segment = 0L;
+		private int length   = 0;
+
+		public Document(final long segment, final int length) {
+
+			this.segment = segment;
+			this.length  = length;
+		}
+	}
+
+	private static class TermCursor implements Comparable<TermCursor> {
+
+		private FulltextIndexSegment segment = null;
+		private int index                    = 0;
+
+		public TermCursor(final FulltextIndexSegment segment) {
+			this.segment = segment;
+		}
+
+		public String term() {
+			return segment.getTerm(index);
+		}
+
+		@Override
+		public int compareTo(final TermCursor other) {
+			return term().compareTo(other.term());
+		}
+	}
+}
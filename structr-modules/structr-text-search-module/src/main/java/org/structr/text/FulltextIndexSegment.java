@@ -0,0 +1,346 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.text;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, memory-mapped segment of the fulltext index.
+ *
+ * A segment file consists of the postings lists (pairs of document ordinal
+ * and term frequency), followed by the document table (UUID and document
+ * length), the sorted term dictionary (term, postings offset and postings
+ * count) and a fixed-size trailer that contains the offsets of the two
+ * tables. Postings are read directly from the mapped buffer using absolute
+ * reads, so a segment can be searched by several threads at once.
+ */
+public class FulltextIndexSegment implements Closeable {
+
+	public static final String SUFFIX = ".seg";
+
+	private static final int MAGIC        = 0x53545846;
+	private static final int TRAILER_SIZE = 28;
+
+	private MappedByteBuffer buffer = null;
+	private FileChannel channel     = null;
+	private String[] uuids          = null;
+	private int[] lengths           = null;
+	private String[] terms          = null;
+	private long[] offsets          = null;
+	private int[] counts            = null;
+	private Path path               = null;
+	private long id                 = 0L;
+
+	private FulltextIndexSegment(final long id, final Path path) {
+
+		this.id   = id;
+		this.path = path;
+	}
+
+	public static FulltextIndexSegment open(final long id, final Path path) throws IOException {
+
+		final FulltextIndexSegment segment = new FulltextIndexSegment(id, path);
+
+		segment.load();
+
+		return segment;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public int getDocumentCount() {
+		return uuids.length;
+	}
+
+	public String getUuid(final int ordinal) {
+		return uuids[ordinal];
+	}
+
+	public int getLength(final int ordinal) {
+		return lengths[ordinal];
+	}
+
+	public int getTermCount() {
+		return terms.length;
+	}
+
+	public String getTerm(final int index) {
+		return terms[index];
+	}
+
+	/**
+	 * Returns the dictionary index of the given term, or a negative value
+	 * if the term does not exist in this segment (see {@link Arrays#binarySearch}).
+	 *
+	 * @param term
+	 * @return the index or a negative insertion point
+	 */
+	public int findTerm(final String term) {
+		return Arrays.binarySearch(terms, term);
+	}
+
+	/**
+	 * Returns all terms that start with the given prefix, using a range
+	 * scan over the sorted dictionary.
+	 *
+	 * @param prefix
+	 * @return the matching terms
+	 */
+	public List<String> findTermsWithPrefix(final String prefix) {
+
+		final List<String> result = new ArrayList<>();
+		int index                 = findTerm(prefix);
+
+		if (index < 0) {
+			index = -index - 1;
+		}
+
+		while (index < terms.length && terms[index].startsWith(prefix)) {
+			result.add(terms[index++]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the postings list of the term at the given dictionary index
+	 * as two parallel arrays of document ordinals and term frequencies.
+	 *
+	 * @param index
+	 * @return an array containing the document ordinals and term frequencies
+	 */
+	public int[][] getPostings(final int index) {
+
+		final int count         = counts[index];
+		final int[] ordinals    = new int[count];
+		final int[] frequencies = new int[count];
+		int position            = (int)offsets[index];
+
+		for (int i=0; i<count; i++) {
+
+			ordinals[i]    = buffer.getInt(position);
+			frequencies[i] = buffer.getInt(position + 4);
+
+			position += 8;
+		}
+
+		return new int[][] { ordinals, frequencies };
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		buffer = null;
+
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	// ----- private methods -----
+	private void load() throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		final long size = channel.size();
+		if (size < TRAILER_SIZE) {
+			throw new IOException("Invalid fulltext index segment " + path + ", file too short.");
+		}
+
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+		final int trailer        = (int)size - TRAILER_SIZE;
+		final long documentTable = buffer.getLong(trailer);
+		final long dictionary    = buffer.getLong(trailer + 8);
+		final int documentCount  = buffer.getInt(trailer + 16);
+		final int termCount      = buffer.getInt(trailer + 20);
+
+		if (buffer.getInt(trailer + 24) != MAGIC) {
+			throw new IOException("Invalid fulltext index segment " + path + ", magic number mismatch.");
+		}
+
+		uuids   = new String[documentCount];
+		lengths = new int[documentCount];
+		terms   = new String[termCount];
+		offsets = new long[termCount];
+		counts  = new int[termCount];
+
+		final int[] position = new int[] { (int)documentTable };
+
+		for (int i=0; i<documentCount; i++) {
+
+			uuids[i]   = readString(position);
+			lengths[i] = buffer.getInt(position[0]);
+
+			position[0] += 4;
+		}
+
+		position[0] = (int)dictionary;
+
+		for (int i=0; i<termCount; i++) {
+
+			terms[i]   = readString(position);
+			offsets[i] = buffer.getLong(position[0]);
+			counts[i]  = buffer.getInt(position[0] + 8);
+
+			position[0] += 12;
+		}
+	}
+
+	private String readString(final int[] position) {
+
+		final int length   = buffer.getShort(position[0]) & 0xffff;
+		final byte[] bytes = new byte[length];
+
+		for (int i=0; i<length; i++) {
+			bytes[i] = buffer.get(position[0] + 2 + i);
+		}
+
+		position[0] += 2 + length;
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// ----- nested classes -----
+	/**
+	 * Writes a new segment file. Documents must be added before the terms
+	 * that reference them, and terms must be added in ascending order. The
+	 * segment is written to a temporary file and moved into place when the
+	 * writer is closed, so that readers never see a partially written segment.
+	 */
+	public static class Writer implements Closeable {
+
+		private final Map<String, Integer> ordinals = new LinkedHashMap<>();
+		private final List<Integer> lengths         = new ArrayList<>();
+		private final List<String> terms            = new ArrayList<>();
+		private final List<Long> offsets            = new ArrayList<>();
+		private final List<Integer> counts          = new ArrayList<>();
+		private DataOutputStream out                = null;
+		private Path target                         = null;
+		private Path tmp                            = null;
+		private long position                       = 0L;
+
+		public Writer(final Path target) throws IOException {
+
+			this.target = target;
+			this.tmp    = target.resolveSibling(target.getFileName().toString() + ".tmp");
+			this.out    = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)));
+		}
+
+		public int addDocument(final String uuid, final int length) {
+
+			final int ordinal = ordinals.size();
+
+			ordinals.put(uuid, ordinal);
+			lengths.add(length);
+
+			return ordinal;
+		}
+
+		public Integer getOrdinal(final String uuid) {
+			return ordinals.get(uuid);
+		}
+
+		public void addTerm(final String term, final int[] documentOrdinals, final int[] frequencies, final int count) throws IOException {
+
+			if (count == 0) {
+				return;
+			}
+
+			terms.add(term);
+			offsets.add(position);
+			counts.add(count);
+
+			for (int i=0; i<count; i++) {
+
+				out.writeInt(documentOrdinals[i]);
+				out.writeInt(frequencies[i]);
+			}
+
+			position += count * 8L;
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			final long documentTable = position;
+			int index                = 0;
+
+			for (final String uuid : ordinals.keySet()) {
+
+				writeString(uuid);
+				out.writeInt(lengths.get(index++));
+
+				position += 4;
+			}
+
+			final long dictionary = position;
+
+			for (int i=0; i<terms.size(); i++) {
+
+				writeString(terms.get(i));
+				out.writeLong(offsets.get(i));
+				out.writeInt(counts.get(i));
+
+				position += 12;
+			}
+
+			out.writeLong(documentTable);
+			out.writeLong(dictionary);
+			out.writeInt(ordinals.size());
+			out.writeInt(terms.size());
+			out.writeInt(MAGIC);
+			out.close();
+
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		// ----- private methods -----
+		private void writeString(final String value) throws IOException {
+
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+			out.writeShort(bytes.length);
+			out.write(bytes);
+
+			position += 2 + bytes.length;
+		}
+	}
+}
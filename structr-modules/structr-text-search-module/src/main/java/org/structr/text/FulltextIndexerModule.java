@@ -18,9 +18,14 @@
  */
 package org.structr.text;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.structr.api.service.LicenseManager;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.fulltext.FulltextIndexer;
@@ -37,6 +42,8 @@ import org.structr.schema.action.Actions;
  */
 public class FulltextIndexerModule implements FulltextIndexer, StructrModule {
 
+	private static final Logger logger = LoggerFactory.getLogger(FulltextIndexerModule.class.getName());
+
 	@Override
 	public void onLoad(final LicenseManager licenseManager) {
 	}
@@ -46,6 +53,19 @@ public class FulltextIndexerModule implements FulltextIndexer, StructrModule {
 		StructrApp.getInstance(node.getSecurityContext()).processTasks(new FulltextIndexingTask(node.getUuid()));
 	}
 
+	@Override
+	public void removeFromFulltextIndex(final String uuid) {
+
+		try {
+
+			FulltextIndex.getInstance().remove(uuid);
+
+		} catch (IOException ioex) {
+
+			logger.warn("Unable to open fulltext index: {}", ioex.getMessage());
+		}
+	}
+
 	@Override
 	public GraphObjectMap getContextObject(final String searchTerm, final String text, final int contextLength) {
 
@@ -190,6 +210,21 @@ public class FulltextIndexerModule implements FulltextIndexer, StructrModule {
 
 	}
 
+	@Override
+	public Map<String, Double> search(final String searchString, final int maxResults) {
+
+		try {
+
+			return FulltextIndex.getInstance().search(searchString, maxResults);
+
+		} catch (IOException ioex) {
+
+			logger.warn("Unable to open fulltext index: {}", ioex.getMessage());
+		}
+
+		return new LinkedHashMap<>();
+	}
+
 	// ----- interface StructrModule -----
 	@Override
 	public String getName() {
@@ -237,6 +237,16 @@ public class FulltextIndexingAgent extends Agent<String> {
 
 								logger.warn("Unable to store fulltext indexing result for {}: {}", fileName, t.getMessage());
 							}
+
+							try {
+
+								// update inverted index with the complete term frequencies
+								FulltextIndex.getInstance().add(indexable.getUuid(), indexedWords);
+
+							} catch (Throwable t) {
+
+								logger.warn("Unable to update fulltext index for {}: {}", fileName, t.getMessage());
+							}
 						}
 					}
 				}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.text;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class FulltextIndexTest {
+
+	@Test
+	public void testRankingPrefixAndPhraseQueries() {
+
+		Path directory = null;
+
+		try {
+
+			directory                 = Files.createTempDirectory("fulltext");
+			final FulltextIndex index = new FulltextIndex(directory, 2, 2);
+
+			index.add("doc1", words("structr", 5, "graph", 1, "database", 1));
+			index.add("doc2", words("structr", 1, "graph", 3, "neo4j", 2));
+			index.add("doc3", words("database", 4, "index", 2));
+
+			// ranking: doc1 contains "structr" more often
+			Assert.assertEquals("Invalid ranking", list("doc1", "doc2"), new ArrayList<>(index.search("structr", 10).keySet()));
+
+			// prefix query
+			Assert.assertEquals("Invalid prefix query result", 2, index.search("data*", 10).size());
+
+			// phrase query: all terms are required
+			Assert.assertEquals("Invalid phrase query result", list("doc1"), new ArrayList<>(index.search("\"graph database\"", 10).keySet()));
+
+			// update a document, old postings must be ignored
+			index.add("doc1", words("other", 1));
+			Assert.assertEquals("Invalid result after update", list("doc2"), new ArrayList<>(index.search("structr", 10).keySet()));
+
+			index.add("doc4", words("structr", 2));
+			index.add("doc5", words("structr", 2, "graph", 2));
+			index.flush();
+
+			Assert.assertTrue("Segments were not merged", index.getSegmentCount() <= 2);
+
+			// reopen index from disk
+			final FulltextIndex reopened = new FulltextIndex(directory, 2, 2);
+
+			Assert.assertEquals("Invalid document count after reopening", 5, reopened.getDocumentCount());
+			Assert.assertEquals("Invalid result after reopening", 3, reopened.search("structr", 10).size());
+			Assert.assertEquals("Invalid result after reopening", list("doc1"), new ArrayList<>(reopened.search("other", 10).keySet()));
+
+			index.close();
+			reopened.close();
+
+		} catch (IOException ioex) {
+
+			fail("Unexpected exception.");
+
+		} finally {
+
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	public void testRemovedDocumentsStayRemoved() {
+
+		Path directory = null;
+
+		try {
+
+			directory                 = Files.createTempDirectory("fulltext");
+			final FulltextIndex index = new FulltextIndex(directory, 100, 10);
+
+			index.add("doc1", words("structr", 1));
+			index.add("doc2", words("structr", 2));
+			index.add("doc3", words("structr", 3));
+			index.flush();
+
+			// remove a flushed document, and re-add another one after removing it
+			index.remove("doc1");
+			index.remove("doc2");
+			index.add("doc2", words("structr", 4));
+
+			Assert.assertEquals("Invalid result after removal", list("doc2", "doc3"), new ArrayList<>(index.search("structr", 10).keySet()));
+
+			// flush the tombstones without any new documents
+			index.flush();
+			index.remove("doc3");
+			index.close();
+
+			final FulltextIndex reopened = new FulltextIndex(directory, 100, 10);
+
+			Assert.assertEquals("Invalid document count after reopening", 1, reopened.getDocumentCount());
+			Assert.assertEquals("Removed document was loaded again", list("doc2"), new ArrayList<>(reopened.search("structr", 10).keySet()));
+
+			reopened.close();
+
+			// merging drops the removed documents and the tombstones
+			final FulltextIndex merged = new FulltextIndex(directory, 1, 1);
+
+			merged.add("doc4", words("structr", 1));
+			merged.flush();
+			merged.close();
+
+			final FulltextIndex reopenedAfterMerge = new FulltextIndex(directory, 100, 10);
+
+			Assert.assertEquals("Invalid segment count after merge", 1, reopenedAfterMerge.getSegmentCount());
+			Assert.assertEquals("Invalid result after merge", list("doc2", "doc4"), new ArrayList<>(reopenedAfterMerge.search("structr", 10).keySet()));
+
+			reopenedAfterMerge.close();
+
+		} catch (IOException ioex) {
+
+			fail("Unexpected exception.");
+
+		} finally {
+
+			deleteDirectory(directory);
+		}
+	}
+
+	// ----- private methods -----
+	private void deleteDirectory(final Path directory) {
+
+		if (directory != null) {
+
+			try {
+
+				FileUtils.deleteDirectory(directory.toFile());
+
+			} catch (IOException ignore) {}
+		}
+	}
+
+	private Map<String, Integer> words(final Object... data) {
+
+		final Map<String, Integer> map = new HashMap<>();
+
+		for (int i=0; i<data.length; i+=2) {
+			map.put((String)data[i], (Integer)data[i+1]);
+		}
+
+		return map;
+	}
+
+	private ArrayList<String> list(final String... values) {
+
+		final ArrayList<String> list = new ArrayList<>();
+
+		for (final String value : values) {
+			list.add(value);
+		}
+
+		return list;
+	}
+}
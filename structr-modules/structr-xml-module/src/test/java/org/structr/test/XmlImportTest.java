@@ -204,4 +204,109 @@ public class XmlImportTest extends StructrUiTest {
 		}
 
 	}
+
+	@Test
+	public void testResumedXmlFileImport() {
+
+		String newFileId = null;
+
+		// test setup
+		try (final Tx tx = app.tx()) {
+
+			final StringBuilder xmlData = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<items>\n");
+
+			for (int i=0; i<10; i++) {
+				xmlData.append("\t<item id=\"").append(i).append("\" name=\"name: ").append(i).append("\" />\n");
+			}
+
+			xmlData.append("</items>\n");
+
+			final byte[] fileData = xmlData.toString().getBytes("utf-8");
+			final File file       = FileHelper.createFile(securityContext, fileData, "application/xml", File.class, "test.xml");
+
+			// extract UUID for later use
+			newFileId = file.getUuid();
+
+			// create new type
+			final JsonSchema schema = StructrSchema.createEmptySchema();
+			final JsonType newType  = schema.addType("Item");
+
+			newType.addStringProperty("name");
+			newType.addIntegerProperty("originId").isIndexed();
+
+			StructrSchema.extendDatabaseSchema(app, schema);
+
+			// create test user
+			app.create(User.class,
+				new NodeAttribute<>(StructrApp.key(User.class, "name"),     "admin"),
+				new NodeAttribute<>(StructrApp.key(User.class, "password"), "admin"),
+				new NodeAttribute<>(StructrApp.key(User.class, "isAdmin"),  true)
+			);
+
+			tx.success();
+
+		} catch (Throwable t) {
+			t.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		final Gson gson                          = new GsonBuilder().setPrettyPrinting().create();
+		final Map<String, Object> params         = new LinkedHashMap<>();
+		final Map<String, Object> itemConfig     = new LinkedHashMap<>();
+		final Map<String, Object> itemProperties = new LinkedHashMap<>();
+
+		params.put("/items/item", itemConfig);
+
+		// import parameters, the first four records were committed by a previous run
+		params.put("commitInterval", 3);
+		params.put("startRecord",    4);
+
+		itemConfig.put("action",     "createNode");
+		itemConfig.put("isRoot",     true);
+		itemConfig.put("type",       "Item");
+		itemConfig.put("properties", itemProperties);
+
+		// property mapping
+		itemProperties.put("id",   "originId");
+		itemProperties.put("name", "name");
+
+		RestAssured.given()
+			.contentType("application/json; charset=UTF-8")
+			.header("X-User",     "admin")
+			.header("X-Password", "admin")
+			.filter(RequestLoggingFilter.logRequestTo(System.out))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(401))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(400))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(403))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(404))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(422))
+			.filter(ResponseLoggingFilter.logResponseIfStatusCodeIs(500))
+			.body(gson.toJson(params))
+			.expect().statusCode(200).when().post("/File/" + newFileId + "/doXMLImport");
+
+		// wait for result (import is async.)
+		try { Thread.sleep(1000); } catch (Throwable t) {}
+
+		// check that only the records after the checkpoint were imported
+		try (final Tx tx = app.tx()) {
+
+			final ConfigurationProvider conf = StructrApp.getConfiguration();
+			final Class type                 = conf.getNodeEntityClass("Item");
+			final List<NodeInterface> items  = app.nodeQuery(type).sort(conf.getPropertyKeyForJSONName(type, "originId")).getAsList();
+
+			assertEquals("Invalid XML import result, expected 6 items to be created after the checkpoint. ", 6, items.size());
+
+			for (int i=0; i<items.size(); i++) {
+
+				assertEquals("Invalid XML mapping result", 4 + i,            items.get(i).getProperty(conf.getPropertyKeyForJSONName(type, "originId")));
+				assertEquals("Invalid XML mapping result", "name: " + (4 + i), items.get(i).getProperty(conf.getPropertyKeyForJSONName(type, "name")));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+		}
+	}
 }
@@ -47,6 +47,7 @@ import org.jivesoftware.smackx.muc.MultiUserChat;
 import org.jivesoftware.smackx.muc.MultiUserChatManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.module.Preload;
 import org.structr.api.service.InitializationCallback;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.Services;
@@ -64,6 +65,7 @@ import org.structr.xmpp.handler.TypeHandler;
  *
  *
  */
+@Preload
 public class XMPPContext {
 
 	private static final Logger logger                                 = LoggerFactory.getLogger(XMPPContext.class.getName());
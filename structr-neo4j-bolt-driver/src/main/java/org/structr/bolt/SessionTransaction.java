@@ -45,6 +45,7 @@ import org.structr.api.NetworkException;
 import org.structr.api.NotFoundException;
 import org.structr.api.QueryResult;
 import org.structr.api.RetryException;
+import org.structr.api.metrics.Metrics;
 import org.structr.api.util.QueryUtils;
 import org.structr.bolt.mapper.RecordLongMapper;
 import org.structr.bolt.mapper.RecordNodeMapper;
@@ -158,10 +159,9 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public boolean getBoolean(final String statement) {
 
-		final long t0 = System.currentTimeMillis();
-
 		try {
 
+			// the query is logged by the delegate
 			return getBoolean(statement, Collections.EMPTY_MAP);
 
 		} catch (TransientException tex) {
@@ -171,14 +171,12 @@ public class SessionTransaction implements org.structr.api.Transaction {
 			throw new NotFoundException(nex);
 		} catch (ServiceUnavailableException ex) {
 			throw new NetworkException(ex.getMessage(), ex);
-		} finally {
-			logQuery(statement, t0);
 		}
 	}
 
 	public boolean getBoolean(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -198,10 +196,9 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public long getLong(final String statement) {
 
-		final long t0 = System.currentTimeMillis();
-
 		try {
 
+			// the query is logged by the delegate
 			return getLong(statement, Collections.EMPTY_MAP);
 
 		} catch (TransientException tex) {
@@ -211,14 +208,12 @@ public class SessionTransaction implements org.structr.api.Transaction {
 			throw new NotFoundException(nex);
 		} catch (ServiceUnavailableException ex) {
 			throw new NetworkException(ex.getMessage(), ex);
-		} finally {
-			logQuery(statement, t0);
 		}
 	}
 
 	public long getLong(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -238,7 +233,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public Object getObject(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -264,7 +259,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public Entity getEntity(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -284,7 +279,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public Node getNode(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -304,7 +299,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public Relationship getRelationship(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -324,7 +319,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public QueryResult<Node> getNodes(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -344,7 +339,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public QueryResult<Relationship> getRelationships(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -364,7 +359,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public QueryResult<Long> getIds(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -384,7 +379,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public QueryResult<String> getStrings(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -419,7 +414,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public NativeResult run(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -443,7 +438,7 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public void set(final String statement, final Map<String, Object> map) {
 
-		final long t0 = System.currentTimeMillis();
+		final long t0 = System.nanoTime();
 
 		try {
 
@@ -471,11 +466,13 @@ public class SessionTransaction implements org.structr.api.Transaction {
 
 	public void logQuery(final String statement, final Map<String, Object> map, final long t0) {
 
+		Metrics.recordQuery(statement, t0);
+
 		if (db.logQueries()) {
 
 			if (!isPing || db.logPingQueries()) {
 
-				final long time  = System.currentTimeMillis() - t0;
+				final long time  = (System.nanoTime() - t0) / 1000000L;
 				final String log = time + "ms";
 
 				if (map != null && map.size() > 0) {
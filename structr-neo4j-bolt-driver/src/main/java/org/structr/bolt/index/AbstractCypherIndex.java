@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import org.structr.api.QueryResult;
 import org.structr.api.graph.PropertyContainer;
 import org.structr.api.index.Index;
+import org.structr.api.search.AccessQuery;
 import org.structr.api.search.ArrayQuery;
 import org.structr.api.search.EmptyQuery;
 import org.structr.api.search.ExactQuery;
@@ -56,6 +57,7 @@ import org.structr.bolt.index.converter.IntTypeConverter;
 import org.structr.bolt.index.converter.LongTypeConverter;
 import org.structr.bolt.index.converter.ShortTypeConverter;
 import org.structr.bolt.index.converter.StringTypeConverter;
+import org.structr.bolt.index.factory.AccessQueryFactory;
 import org.structr.bolt.index.factory.ArrayQueryFactory;
 import org.structr.bolt.index.factory.EmptyQueryFactory;
 import org.structr.bolt.index.factory.GroupQueryFactory;
@@ -96,6 +98,7 @@ public abstract class AbstractCypherIndex<T extends PropertyContainer> implement
 		FACTORIES.put(TypeQuery.class,         new TypeQueryFactory());
 		FACTORIES.put(UuidQuery.class,         new UuidQueryFactory());
 		FACTORIES.put(RelationshipQuery.class, new RelationshipQueryFactory());
+		FACTORIES.put(AccessQuery.class,       new AccessQueryFactory());
 
 		CONVERTERS.put(Boolean.class, new BooleanTypeConverter());
 		CONVERTERS.put(String.class,  new StringTypeConverter());
@@ -50,6 +50,12 @@ public class AdvancedCypherQuery implements PageableQuery {
 		this.queryContext = queryContext;
 		this.pageSize = 100000;
 		this.index    = index;
+
+		if (queryContext.isSeek() && queryContext.getSeekId() != null) {
+
+			parameters.put("seekValue", queryContext.getSeekValue());
+			parameters.put("seekId",    queryContext.getSeekId());
+		}
 	}
 
 	@Override
@@ -98,10 +104,7 @@ public class AdvancedCypherQuery implements PageableQuery {
 
 				buf.append(index.getQueryPrefix(null, sourceTypeLabel, targetTypeLabel));
 
-				if (buffer.length() > 0) {
-					buf.append(" WHERE ");
-					buf.append(buffer);
-				}
+				appendWhereClause(buf);
 
 				buf.append(index.getQuerySuffix());
 				break;
@@ -110,10 +113,7 @@ public class AdvancedCypherQuery implements PageableQuery {
 
 				buf.append(index.getQueryPrefix(typeLabels.get(0), sourceTypeLabel, targetTypeLabel));
 
-				if (buffer.length() > 0) {
-					buf.append(" WHERE ");
-					buf.append(buffer);
-				}
+				appendWhereClause(buf);
 
 				buf.append(index.getQuerySuffix());
 				break;
@@ -125,10 +125,7 @@ public class AdvancedCypherQuery implements PageableQuery {
 
 					buf.append(index.getQueryPrefix(it.next(), sourceTypeLabel, targetTypeLabel));
 
-					if (buffer.length() > 0) {
-						buf.append(" WHERE ");
-						buf.append(buffer);
-					}
+					appendWhereClause(buf);
 
 					buf.append(index.getQuerySuffix());
 
@@ -169,6 +166,20 @@ public class AdvancedCypherQuery implements PageableQuery {
 			if (sortDescending) {
 				buf.append(" DESC");
 			}
+
+			// the id makes the order unique so that seek paging can continue after the last result
+			if (queryContext.isSeek()) {
+
+				buf.append(", n.`id`");
+
+				if (sortDescending) {
+					buf.append(" DESC");
+				}
+			}
+
+		} else if (queryContext.isSeek()) {
+
+			buf.append(" ORDER BY n.`id`");
 		}
 
 		if (queryContext.isSliced()) {
@@ -355,6 +366,70 @@ public class AdvancedCypherQuery implements PageableQuery {
 		this.targetTypeLabel = targetTypeLabel;
 	}
 
+	private void appendWhereClause(final StringBuilder buf) {
+
+		final String seekPredicate = getSeekPredicate();
+
+		if (buffer.length() > 0 && seekPredicate != null) {
+
+			buf.append(" WHERE (");
+			buf.append(buffer);
+			buf.append(") AND ");
+			buf.append(seekPredicate);
+
+		} else if (buffer.length() > 0) {
+
+			buf.append(" WHERE ");
+			buf.append(buffer);
+
+		} else if (seekPredicate != null) {
+
+			buf.append(" WHERE ");
+			buf.append(seekPredicate);
+		}
+	}
+
+	/**
+	 * Returns a predicate that selects the results after the last result
+	 * of the previous page, in the same order as the ORDER BY clause, or
+	 * null if no seek position is set.
+	 */
+	private String getSeekPredicate() {
+
+		if (!queryContext.isSeek() || queryContext.getSeekId() == null) {
+			return null;
+		}
+
+		final String operator = sortDescending ? " < " : " > ";
+
+		if (sortKey == null) {
+			return "n.`id`" + operator + "{seekId}";
+		}
+
+		if (SortType.Default.equals(sortType)) {
+
+			final String key = "n.`" + sortKey + "`";
+
+			// null values are sorted last in ascending and first in descending order
+			if (queryContext.getSeekValue() == null) {
+
+				if (sortDescending) {
+					return "((" + key + " IS NULL AND n.`id` < {seekId}) OR " + key + " IS NOT NULL)";
+				}
+
+				return "(" + key + " IS NULL AND n.`id` > {seekId})";
+			}
+
+			return "(" + key + operator + "{seekValue} OR (" + key + " = {seekValue} AND n.`id`" + operator + "{seekId})" + (sortDescending ? "" : " OR " + key + " IS NULL") + ")";
+		}
+
+		// numeric sort types use the same COALESCE expression as the ORDER BY clause
+		final String key   = "COALESCE(n.`" + sortKey + "`, -1)";
+		final String value = queryContext.getSeekValue() != null ? "{seekValue}" : "-1";
+
+		return "(" + key + operator + value + " OR (" + key + " = " + value + " AND n.`id`" + operator + "{seekId}))";
+	}
+
 	private int deepHashCode(final Map<String, Object> map) {
 
 		final StringBuilder buf = new StringBuilder();
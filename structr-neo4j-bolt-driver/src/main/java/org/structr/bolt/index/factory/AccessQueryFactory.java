@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.bolt.index.factory;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.structr.api.search.AccessQuery;
+import org.structr.api.search.QueryPredicate;
+import org.structr.bolt.index.AdvancedCypherQuery;
+
+/**
+ * Restricts the query to nodes that are visible to public or authenticated
+ * users, nodes that are principals of the accessing user, and nodes whose
+ * access index contains one of the principals of the accessing user.
+ * Hidden and deleted nodes are excluded unless the query includes them,
+ * so that the result matches SecurityContext.isReadable exactly.
+ */
+public class AccessQueryFactory extends AbstractQueryFactory {
+
+	@Override
+	public boolean createQuery(final QueryFactory parent, final QueryPredicate predicate, final AdvancedCypherQuery query, final boolean isFirst) {
+
+		checkOccur(query, predicate.getOccurrence(), isFirst);
+
+		final AccessQuery accessQuery   = (AccessQuery)predicate;
+		final List<String> principalIds = new ArrayList<>(accessQuery.getPrincipalIds());
+
+		query.beginGroup();
+		query.addSimpleParameter("visibleToPublicUsers", "=", true);
+		query.or();
+		query.addSimpleParameter("visibleToAuthenticatedUsers", "=", true);
+		query.or();
+		query.addSimpleParameter("id", "IN", principalIds);
+		query.or();
+		query.addListParameter(predicate.getName(), "IN", principalIds);
+		query.endGroup();
+
+		if (!accessQuery.includeDeletedAndHidden()) {
+
+			query.and();
+			notTrue(query, "hidden");
+			query.and();
+			notTrue(query, "deleted");
+		}
+
+		return true;
+	}
+
+	// ----- private methods -----
+	private void notTrue(final AdvancedCypherQuery query, final String name) {
+
+		// flags that were never set are stored as null
+		query.beginGroup();
+		query.addSimpleParameter(name, "is", null);
+		query.or();
+		query.addSimpleParameter(name, "=", false);
+		query.endGroup();
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.net.peer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.net.protocol.Envelope;
+
+/**
+ * The inbound queue for a single message type. Messages of the same type
+ * are handled in order by at most one worker at a time, while different
+ * message types are handled in parallel by the worker pool of the peer.
+ */
+public class MessageQueue implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MessageQueue.class.getName());
+
+	private static final int BATCH_SIZE = 100;
+
+	private final Queue<Envelope> queue     = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean scheduled   = new AtomicBoolean(false);
+	private final AtomicInteger size        = new AtomicInteger(0);
+	private final AtomicLong processed      = new AtomicLong(0L);
+	private final AtomicLong totalLatency   = new AtomicLong(0L);
+	private final AtomicLong maxLatency     = new AtomicLong(0L);
+	private Executor executor               = null;
+	private String name                     = null;
+	private Peer peer                       = null;
+
+	public MessageQueue(final Peer peer, final Executor executor, final String name) {
+
+		this.executor = executor;
+		this.name     = name;
+		this.peer     = peer;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + size() + " queued, " + getProcessedCount() + " processed, " + getAverageLatency() + " ms average latency, " + getMaxLatency() + " ms max. latency";
+	}
+
+	@Override
+	public void run() {
+
+		Envelope envelope = null;
+		int count         = 0;
+
+		while (count++ < BATCH_SIZE && (envelope = queue.poll()) != null) {
+
+			size.decrementAndGet();
+
+			try {
+
+				peer.handle(envelope);
+
+			} catch (Throwable t) {
+				logger.warn("", t);
+			}
+
+			record(System.nanoTime() - envelope.getTimestamp());
+		}
+
+		scheduled.set(false);
+
+		// give other message types a chance before continuing
+		if (!queue.isEmpty()) {
+			schedule();
+		}
+	}
+
+	public void add(final Envelope envelope) {
+
+		queue.add(envelope);
+		size.incrementAndGet();
+
+		schedule();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	public long getProcessedCount() {
+		return processed.get();
+	}
+
+	/**
+	 * Returns the average time in milliseconds between the reception of
+	 * a message and the end of its processing.
+	 *
+	 * @return the average latency in milliseconds
+	 */
+	public double getAverageLatency() {
+
+		final long count = processed.get();
+		if (count > 0) {
+
+			return (totalLatency.get() / count) / 1000000.0;
+		}
+
+		return 0.0;
+	}
+
+	public long getMaxLatency() {
+		return TimeUnit.NANOSECONDS.toMillis(maxLatency.get());
+	}
+
+	// ----- private methods -----
+	private void schedule() {
+
+		if (scheduled.compareAndSet(false, true)) {
+
+			try {
+
+				executor.execute(this);
+
+			} catch (RejectedExecutionException rex) {
+
+				// executor was shut down
+				scheduled.set(false);
+			}
+		}
+	}
+
+	private void record(final long latency) {
+
+		processed.incrementAndGet();
+		totalLatency.addAndGet(latency);
+
+		long max = maxLatency.get();
+		while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+			max = maxLatency.get();
+		}
+	}
+}
@@ -20,29 +20,37 @@ package org.structr.net.peer;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.nio.charset.Charset;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.security.KeyPair;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.net.PeerListener;
@@ -53,11 +61,13 @@ import org.structr.net.data.time.PseudoTemporalEnvironment;
 import org.structr.net.data.time.PseudoTime;
 import org.structr.net.data.time.ToplevelTemporalEnvironment;
 import org.structr.net.protocol.AbstractMessage;
+import org.structr.net.protocol.Batch;
 import org.structr.net.protocol.Callback;
 import org.structr.net.protocol.Delete;
 import org.structr.net.protocol.Discovery;
 import org.structr.net.protocol.Envelope;
 import org.structr.net.protocol.Inventory;
+import org.structr.net.protocol.MerkleHashes;
 import org.structr.net.protocol.Update;
 import org.structr.net.repository.DefaultRepositoryObject;
 import org.structr.net.repository.InternalChangeListener;
@@ -66,8 +76,11 @@ import org.structr.net.repository.RepositoryObject;
 
 /**
  * The main class of this peer-to-peer implementation. This class will
- * start three individual threads. Two that handle inbound and outbound
- * traffic and another one that acts on the protocol messages it receives.
+ * start two individual threads, one that handles inbound and outbound
+ * traffic on a non-blocking datagram channel and another one that sends
+ * discovery packets and removes inactive peers. Inbound packets are
+ * decrypted and handled by a bounded pool of worker threads, with one
+ * queue per message type.
  */
 public final class Peer implements Runnable, Clock, InternalChangeListener {
 
@@ -75,14 +88,21 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 
 	private static final Logger logger = LoggerFactory.getLogger(Peer.class.getName());
 
-	private final Queue<Envelope> outputQueue         = new ConcurrentLinkedQueue<>();
-	private final Queue<Envelope> inputQueue          = new ConcurrentLinkedQueue<>();
-	private final ExecutorService executorService     = Executors.newCachedThreadPool();
-	private final Map<String, PeerInfo> peers         = new ConcurrentHashMap<>();
-	private final Map<String, Callback> callbacks     = new ConcurrentHashMap<>();
-	private final Charset utf8                        = Charset.forName("utf-8");
-	private final List<PeerListener> listeners        = new LinkedList<>();
-	private Map<String, Object> data                  = new HashMap<>();
+	private static final int WORKER_COUNT        = Math.max(2, Runtime.getRuntime().availableProcessors());
+	private static final int MAX_PENDING_TASKS   = 10000;
+	private static final int RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+	private final ConcurrentMap<Integer, MessageQueue> messageQueues = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Long> seenMessages           = new ConcurrentHashMap<>();
+	private final Queue<Envelope> outputQueue                        = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger outputQueueSize                      = new AtomicInteger(0);
+	private final ExecutorService executorService                    = Executors.newFixedThreadPool(2);
+	private final ThreadPoolExecutor workers                         = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(MAX_PENDING_TASKS), new ThreadPoolExecutor.CallerRunsPolicy());
+	private final Map<String, PeerInfo> peers                        = new ConcurrentHashMap<>();
+	private final Map<String, Callback> callbacks                    = new ConcurrentHashMap<>();
+	private final Map<String, Long> syncTimes                        = new ConcurrentHashMap<>();
+	private final List<PeerListener> listeners                       = new CopyOnWriteArrayList<>();
+	private final Map<String, Object> data                           = new ConcurrentHashMap<>();
 	private KeyPair keyPair                           = null;
 	private PrivateKey privateKey                     = null;
 	private PublicKey publicKey                       = null;
@@ -91,12 +111,13 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 	private boolean initialized                       = false;
 	private String initialPeer                        = null;
 	private String bindAddress                        = null;
-	private DatagramSocket serverSocket               = null;
-	private long timeOffset                           = 0L;
+	private DatagramChannel channel                   = null;
+	private Selector selector                         = null;
+	private volatile long timeOffset                  = 0L;
 	private int localPort                             = START_PORT;
 	private int sent                                  = 0;
 	private int received                              = 0;
-	private boolean running                           = true;
+	private volatile boolean running                  = true;
 	private boolean verbose                           = false;
 	private int discoveryInterval                     = 1000;
 	private int discoveryIntervalStep                 = 1000;
@@ -132,43 +153,13 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 		long lastCleanup   = 0L;
 		long lastDiscovery = 0L;
 
-		// main loop of a peer is to listen for messages and react on it
+		// main loop of a peer is to send discovery packets and to remove
+		// inactive peers, messages are handled by the worker pool
 		while (running) {
 
 			try {
 				currentTime = System.currentTimeMillis();
 
-				// work on input queue, but interrupt for other tasks
-				while (!inputQueue.isEmpty() && currentTime < lastDiscovery + discoveryInterval && currentTime < lastCleanup + discoveryIntervalStep) {
-
-					currentTime = System.currentTimeMillis();
-
-					final Envelope envelope = inputQueue.poll();
-					if (envelope != null) {
-
-						final AbstractMessage message = envelope.getMessage();
-
-						// notify listeners
-						onMessage(message);
-
-						// re-broadcast to other peers
-						final String ackKey = message.getId() + "-ack";
-
-						// re-broadcast message if UUID was not seen before
-						// (this causes the "wave" effect so that all peers
-						// see the message, even if not connected directly)
-						if (getData(ackKey) == null) {
-
-							// process message
-							message.onMessage(this, envelope.getPeer());
-
-							// send message to other peers
-							broadcast(message);
-							setData(ackKey, true);
-						}
-					}
-				}
-
 				// send discovery request
 				if (currentTime > lastDiscovery + discoveryInterval) {
 
@@ -201,9 +192,24 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 							it.remove();
 						}
 					}
+
+					// forget message IDs that can not be re-broadcast any more
+					for (final Iterator<Long> it = seenMessages.values().iterator(); it.hasNext();) {
+
+						if (currentTime > it.next() + (finalDiscoveryInterval * 10)) {
+							it.remove();
+						}
+					}
 				}
 
-				Thread.sleep(10L);
+				// wait until the next task is due
+				final long next = Math.min(lastDiscovery + discoveryInterval, lastCleanup + discoveryIntervalStep);
+
+				Thread.sleep(Math.max(10L, next - System.currentTimeMillis() + 1));
+
+			} catch (InterruptedException iex) {
+
+				running = false;
 
 			} catch (Throwable t) {
 				logger.warn("", t);
@@ -211,6 +217,7 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 		}
 
 		// shut down
+		workers.shutdownNow();
 		executorService.shutdownNow();
 	}
 
@@ -222,8 +229,7 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 
 		try {
 
-			executorService.submit(new InputHandler());
-			executorService.submit(new OutputHandler());
+			executorService.submit(new NetworkHandler());
 			executorService.submit(this);
 
 		} catch (RejectedExecutionException rex) {
@@ -241,11 +247,22 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 
 			try {
 
-				serverSocket = new DatagramSocket(localPort, InetAddress.getByName(bindAddress));
+				channel = DatagramChannel.open();
+				channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+				channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+				channel.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), localPort));
+				channel.configureBlocking(false);
+
+				selector = Selector.open();
+				channel.register(selector, SelectionKey.OP_READ);
+
 				success = true;
 
 			} catch (IOException ioex) {
+
+				close();
 				localPort++;
+
 			} catch (Throwable t) {
 				logger.warn("", t);
 			}
@@ -268,7 +285,7 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 
 		running = false;
 
-		serverSocket.close();
+		close();
 	}
 
 	public String getUuid() {
@@ -296,7 +313,13 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 	}
 
 	public void send(final PeerInfo recipient, final AbstractMessage message) {
+
 		outputQueue.add(new Envelope(recipient, message));
+		outputQueueSize.incrementAndGet();
+
+		if (selector != null) {
+			selector.wakeup();
+		}
 	}
 
 	public void onPeerDiscovery(final PeerInfo newPeer, final byte[] hash) {
@@ -307,26 +330,37 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 			final byte[] contentHash = getContentHash();
 			final boolean hasChanged = !Arrays.equals(hash, contentHash);
 
-			if (isNew || hasChanged) {
+			if (isNew || (hasChanged && isSyncDue(newPeer))) {
 
 				if (isNew) {
-					System.out.println("Peer is new, sending inventory..");
+					System.out.println("Peer is new, comparing hash trees..");
 				}
 
 				if (hasChanged) {
-					System.out.println("Peer has different content hash, sending inventory..");
+					System.out.println("Peer has different content hash, comparing hash trees..");
 
 					System.out.println(printHash(hash) + " / " + printHash(contentHash));
 				}
 
-				// send inventory
-				for (final RepositoryObject obj : repository.getObjects()) {
+				syncTimes.put(newPeer.getUuid(), System.currentTimeMillis());
 
-					log("Inventory(", obj.getUuid(), ", ", obj.getUserId(), ")");
+				// start comparison at the root of the hash tree, only the
+				// inventory of the differing leaves will be exchanged
+				send(newPeer, new MerkleHashes(getUuid(), newPeer.getUuid(), 0, 0, repository.getMerkleTree().getChildHashes(0, 0), false));
+			}
+		}
+	}
 
-					send(newPeer, new Inventory(repository.getUuid(), obj.getUuid(), obj.getDeviceId(), obj.getLastModificationTime()));
-				}
+	public void sendInventory(final PeerInfo recipient, final int leaf) {
+
+		final List<String> ids = repository.getMerkleTree().getLeafEntries(leaf);
+		if (!ids.isEmpty()) {
+
+			for (final RepositoryObject obj : repository.getObjects(ids)) {
+
+				log("Inventory(", obj.getUuid(), ", ", obj.getUserId(), ")");
 
+				send(recipient, new Inventory(repository.getUuid(), obj.getUuid(), obj.getDeviceId(), obj.getLastModificationTime()));
 			}
 		}
 	}
@@ -354,7 +388,7 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 	public synchronized void printInfo() {
 
 		System.out.println("#########################################");
-		System.out.println("Peer " + serverSocket.getLocalAddress() + ":" + localPort);
+		System.out.println("Peer " + channel.socket().getLocalAddress() + ":" + localPort);
 		System.out.println("UUID: " + getUuid());
 		System.out.println("Time offset: " + timeOffset);
 		System.out.println(received + " messages received, " + sent + " messages sent");
@@ -370,7 +404,11 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 			((DefaultRepositoryObject)obj).printHistory();
 		}
 
-		System.out.println(outputQueue);
+		System.out.println(getOutputQueueSize() + " messages in output queue, " + getPendingTaskCount() + " pending tasks");
+
+		for (final MessageQueue queue : getMessageQueues()) {
+			System.out.println("    " + queue);
+		}
 
 		System.out.flush();
 	}
@@ -397,13 +435,47 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 	}
 
 	public void setData(final String key, final Object value) {
-		data.put(key, value);
+
+		if (value != null) {
+
+			data.put(key, value);
+
+		} else {
+
+			data.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the inbound message queues of this peer, one per message
+	 * type, with their queue depth and latency counters.
+	 *
+	 * @return the inbound message queues
+	 */
+	public Collection<MessageQueue> getMessageQueues() {
+		return messageQueues.values();
+	}
+
+	public int getOutputQueueSize() {
+		return outputQueueSize.get();
+	}
+
+	public int getPendingTaskCount() {
+		return workers.getQueue().size();
+	}
+
+	public int getSentCount() {
+		return sent;
+	}
+
+	public int getReceivedCount() {
+		return received;
 	}
 
 	public void broadcast(final AbstractMessage message) {
 
 		// make broadcasts to self
-		inputQueue.add(new Envelope(new PeerInfo(getPublicKey(), repository.getUuid(), bindAddress, localPort), message));
+		dispatch(new Envelope(new PeerInfo(getPublicKey(), repository.getUuid(), bindAddress, localPort), message));
 
 		// send message to all peers
 		for (final PeerInfo info : getPeers()) {
@@ -488,47 +560,7 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 	}
 
 	public byte[] getContentHash() {
-
-		MessageDigest digest = null;
-
-		try {
-			digest = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException nex) {
-			logger.warn("", nex);
-		}
-
-		if (digest != null) {
-
-			final long t0 = System.currentTimeMillis();
-
-			final List<RepositoryObject> objects = new LinkedList<>(repository.getObjects());
-			Collections.sort(objects, new UuidComparator());
-
-			for (final RepositoryObject node : objects) {
-
-				final String uuid = node.getUuid();
-				final String type = node.getType();
-				final String last = node.getLastModificationTime().toString();
-
-				digest.update(uuid.getBytes(utf8));
-				digest.update(type.getBytes(utf8));
-				digest.update(last.getBytes(utf8));
-			}
-
-			final long t1 = System.currentTimeMillis();
-			if ((t1-t0) > 100) {
-
-				System.out.println("Creation of content hash took " + (System.currentTimeMillis() - t0) + " ms!");
-			}
-
-			return digest.digest();
-
-		} else {
-
-			System.out.println("Cannot create hash value, algorithms not available.");
-		}
-
-		return new byte[0];
+		return repository.getMerkleTree().getRootHash();
 	}
 
 	public PrivateKey getPrivateKey() {
@@ -567,7 +599,64 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 		}
 	}
 
+	// ----- package-private methods -----
+	void handle(final Envelope envelope) {
+
+		final AbstractMessage message = envelope.getMessage();
+
+		// notify listeners
+		onMessage(message);
+
+		// re-broadcast message if UUID was not seen before
+		// (this causes the "wave" effect so that all peers
+		// see the message, even if not connected directly)
+		if (seenMessages.putIfAbsent(message.getId(), System.currentTimeMillis()) == null) {
+
+			// process message
+			message.onMessage(this, envelope.getPeer());
+
+			// send message to other peers
+			broadcast(message);
+		}
+	}
+
 	// ----- private methods -----
+	private void dispatch(final Envelope envelope) {
+
+		final Integer command = envelope.getMessage().getCommand();
+		MessageQueue queue    = messageQueues.get(command);
+
+		if (queue == null) {
+
+			queue = new MessageQueue(this, workers, envelope.getMessage().getClass().getSimpleName());
+
+			final MessageQueue existing = messageQueues.putIfAbsent(command, queue);
+			if (existing != null) {
+
+				queue = existing;
+			}
+		}
+
+		queue.add(envelope);
+	}
+
+	private void close() {
+
+		try {
+
+			if (selector != null) {
+				selector.close();
+			}
+
+			if (channel != null) {
+				channel.close();
+			}
+
+		} catch (IOException ioex) {
+			logger.warn("", ioex);
+		}
+	}
+
 	private synchronized boolean addPeer(final PeerInfo peer) {
 
 		final String uuid = peer.getUuid();
@@ -586,6 +675,14 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 		return false;
 	}
 
+	private boolean isSyncDue(final PeerInfo peer) {
+
+		final Long lastSync = syncTimes.get(peer.getUuid());
+
+		// give a running comparison some time to finish
+		return lastSync == null || System.currentTimeMillis() > lastSync + finalDiscoveryInterval;
+	}
+
 	private synchronized void updatePeer(final String uuid, final long latency) {
 
 		final PeerInfo peer = peers.get(uuid);
@@ -642,9 +739,12 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 	}
 
 	// ----- nested classes -----
-	private class InputHandler implements Runnable {
+	private class NetworkHandler implements Runnable {
 
-		private final byte[] buffer = new byte[2048];
+		private final ByteBuffer buffer                = ByteBuffer.allocate(2048);
+		private final Map<String, Batch> batches       = new LinkedHashMap<>();
+		private final Map<String, PeerInfo> recipients = new HashMap<>();
+		private final Queue<DatagramPacket> pending    = new LinkedList<>();
 
 		@Override
 		public void run() {
@@ -653,82 +753,200 @@ public final class Peer implements Runnable, Clock, InternalChangeListener {
 
 				try {
 
-					final DatagramPacket packet = new DatagramPacket(buffer, 2048);
+					final SelectionKey key = channel.keyFor(selector);
 
-					serverSocket.receive(packet);
+					// only wait for the channel to become writable when there is something to write
+					key.interestOps(pending.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
 
-					final Envelope envelope = AbstractMessage.receive(Peer.this, packet);
-					if (envelope != null) {
+					selector.select(1000L);
+					selector.selectedKeys().clear();
 
-						final AbstractMessage msg  = envelope.getMessage();
-						final long senderTimestamp = msg.getSenderTimestamp();
-						final long current         = System.currentTimeMillis();
-						final long delta           = senderTimestamp - current;
+					receive();
 
-						// adjust time offset to be in sync with other peers,
-						// the group's value will be the maximum of all peers
-						if (delta > timeOffset) {
-							timeOffset = delta;
-						}
+					// pack outgoing messages into datagrams and send them
+					// until the channel can not accept any more data
+					prepare();
+					write();
+
+				} catch (Throwable t) {
+
+					if (running) {
+						logger.warn("", t);
+					}
+				}
+			}
+		}
 
-						// update last seen time
-						updatePeer(envelope.getPeer().getUuid(), (current + timeOffset) - senderTimestamp);
+		private void receive() throws IOException {
 
-						inputQueue.add(envelope);
+			buffer.clear();
 
-						received++;
+			SocketAddress address = null;
 
+			while ((address = channel.receive(buffer)) != null) {
+
+				buffer.flip();
+
+				final byte[] data = new byte[buffer.remaining()];
+				buffer.get(data);
+				buffer.clear();
+
+				received++;
+
+				// decryption is expensive, let the worker pool handle it
+				workers.execute(new PacketHandler(new DatagramPacket(data, data.length, address)));
+			}
+		}
+
+		private void prepare() throws Exception {
+
+			Envelope envelope = null;
+
+			while ((envelope = outputQueue.poll()) != null) {
+
+				outputQueueSize.decrementAndGet();
+
+				final AbstractMessage message = envelope.getMessage();
+				final PeerInfo recipient      = envelope.getPeer();
+				final String key              = recipient.getAddress() + ":" + recipient.getPort();
+
+				message.setSenderTimestamp(System.currentTimeMillis() + timeOffset);
+				message.onSend(Peer.this);
+
+				// pack small messages to the same recipient into a single datagram
+				final int size = AbstractMessage.getSerializedSize(message);
+				if (size <= Batch.MAX_PAYLOAD_SIZE) {
+
+					Batch batch = batches.get(key);
+					if (batch != null && !batch.fits(size)) {
+
+						flush(key);
+						batch = null;
 					}
 
-				} catch (Throwable t) {
-					logger.warn("", t);
+					if (batch == null) {
+
+						batch = new Batch();
+						batches.put(key, batch);
+						recipients.put(key, recipient);
+					}
+
+					batch.add(message, size);
+
+				} else {
+
+					enqueue(recipient, message);
 				}
 			}
+
+			// send remaining batches when the queue is drained
+			for (final String key : new LinkedList<>(batches.keySet())) {
+				flush(key);
+			}
 		}
-	}
 
-	private class OutputHandler implements Runnable {
+		private void flush(final String key) throws Exception {
 
-		@Override
-		public void run() {
+			final PeerInfo recipient = recipients.remove(key);
+			final Batch batch        = batches.remove(key);
 
-			while (running) {
+			if (batch != null) {
 
-				try {
+				final List<AbstractMessage> messages = batch.getMessages();
+				if (messages.size() == 1) {
 
-					while (!outputQueue.isEmpty()) {
+					// no need to wrap a single message
+					enqueue(recipient, messages.get(0));
 
-						final Envelope envelope = outputQueue.poll();
-						if (envelope != null) {
+				} else {
 
-							final AbstractMessage message = envelope.getMessage();
-							final PeerInfo recipient      = envelope.getPeer();
+					batch.setSenderTimestamp(System.currentTimeMillis() + timeOffset);
+					enqueue(recipient, batch);
+				}
+			}
+		}
 
-							message.setSenderTimestamp(System.currentTimeMillis() + timeOffset);
-							message.onSend(Peer.this);
+		private void enqueue(final PeerInfo recipient, final AbstractMessage message) throws Exception {
 
-							serverSocket.send(AbstractMessage.forSending(Peer.this.getUuid(), recipient, message));
+			final DatagramPacket packet = AbstractMessage.forSending(Peer.this.getUuid(), recipient, message);
+			if (packet != null) {
 
-							sent++;
-						}
+				pending.add(packet);
+			}
+		}
+
+		private void write() {
+
+			DatagramPacket packet = null;
+
+			while ((packet = pending.peek()) != null) {
+
+				try {
+
+					if (channel.send(ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()), packet.getSocketAddress()) == 0) {
+
+						// send buffer is full, wait until the channel is writable again
+						return;
 					}
 
-					Thread.sleep(10L);
+					sent++;
 
-				} catch (IOException ignore1) {
-				} catch (InterruptedException ignore2) {
-				} catch (Throwable t) {
-					logger.warn("", t);
+				} catch (IOException ioex) {
+
+					// unreachable recipient etc., drop packet
+					logger.debug("", ioex);
 				}
+
+				pending.poll();
 			}
 		}
 	}
 
-	private class UuidComparator implements Comparator<RepositoryObject> {
+	private class PacketHandler implements Runnable {
+
+		private DatagramPacket packet = null;
+
+		public PacketHandler(final DatagramPacket packet) {
+			this.packet = packet;
+		}
 
 		@Override
-		public int compare(final RepositoryObject o1, final RepositoryObject o2) {
-			return o1.getUuid().compareTo(o2.getUuid());
+		public void run() {
+
+			try {
+
+				final Envelope envelope = AbstractMessage.receive(Peer.this, packet);
+				if (envelope != null) {
+
+					final AbstractMessage msg  = envelope.getMessage();
+					final long senderTimestamp = msg.getSenderTimestamp();
+					final long current         = System.currentTimeMillis();
+					final long delta           = senderTimestamp - current;
+
+					// adjust time offset to be in sync with other peers,
+					// the group's value will be the maximum of all peers
+					if (delta > timeOffset) {
+						timeOffset = delta;
+					}
+
+					// update last seen time
+					updatePeer(envelope.getPeer().getUuid(), (current + timeOffset) - senderTimestamp);
+
+					if (msg instanceof Batch) {
+
+						for (final AbstractMessage inner : ((Batch)msg).getMessages()) {
+							dispatch(new Envelope(envelope.getPeer(), inner));
+						}
+
+					} else {
+
+						dispatch(envelope);
+					}
+				}
+
+			} catch (Throwable t) {
+				logger.warn("", t);
+			}
 		}
 	}
 }
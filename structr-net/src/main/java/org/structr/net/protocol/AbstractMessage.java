@@ -77,6 +77,8 @@ public abstract class AbstractMessage {
 		CommandMap.put(15, GetHistory.class);
 		CommandMap.put(16, History.class);
 		CommandMap.put(17, Inventory.class);
+		CommandMap.put(18, MerkleHashes.class);
+		CommandMap.put(19, Batch.class);
 
 
 		TypeMap.put(String.class,       1);
@@ -142,7 +144,9 @@ public abstract class AbstractMessage {
 			final Cipher cipher = AbstractMessage.getCipher();
 			cipher.init(Cipher.DECRYPT_MODE, peer.getPrivateKey());
 
-			final byte[] data = decryptBlocks(packet.getData(), cipher, 256, 245);
+			// only decrypt the blocks that were actually received, not the whole buffer
+			final byte[] received = Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength());
+			final byte[] data     = decryptBlocks(received, cipher, 256, 245);
 
 			if (data.length == 0) {
 
@@ -230,7 +234,65 @@ public abstract class AbstractMessage {
 		return null;
 	}
 
+	/**
+	 * Returns the number of uncompressed bytes the given message occupies
+	 * when it is serialized into a batch.
+	 *
+	 * @param message the message
+	 * @return the serialized size of the message
+	 *
+	 * @throws IOException
+	 */
+	public static int getSerializedSize(final AbstractMessage message) throws IOException {
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream dos         = new DataOutputStream(buffer);
+
+		serializeMessage(dos, message);
+
+		dos.flush();
+
+		return buffer.size();
+	}
+
 	// ----- protected methods -----
+	protected static void serializeMessage(final DataOutputStream dos, final AbstractMessage message) throws IOException {
+
+		dos.writeInt(message.getCommand());
+		serializeUUID(dos, message.getId());
+		dos.writeLong(message.getSenderTimestamp());
+
+		message.serialize(dos);
+	}
+
+	protected static AbstractMessage deserializeMessage(final DataInputStream dis) throws IOException {
+
+		final int command      = dis.readInt();
+		final String messageId = deserializeUUID(dis);
+		final long timestamp   = dis.readLong();
+
+		final Class<? extends AbstractMessage> type = CommandMap.get(command);
+		if (type != null) {
+
+			try {
+
+				final AbstractMessage msg = type.newInstance();
+
+				msg.setSenderTimestamp(timestamp);
+				msg.setId(messageId);
+
+				msg.deserialize(dis);
+
+				return msg;
+
+			} catch (InstantiationException | IllegalAccessException ex) {
+				throw new IOException(ex);
+			}
+		}
+
+		throw new IOException("Unknown command " + command);
+	}
+
 	protected void serializeObject(final DataOutputStream dos, final Object value) throws IOException {
 
 		if (value != null) {
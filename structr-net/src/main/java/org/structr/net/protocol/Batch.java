@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.net.protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import org.structr.net.peer.Peer;
+import org.structr.net.peer.PeerInfo;
+
+/**
+ * A container for several small messages to the same recipient, so that
+ * they can be sent in a single datagram. The maximum payload size is
+ * chosen so that the compressed and encrypted packet (at most five RSA
+ * blocks) fits into a single ethernet frame.
+ */
+public class Batch extends AbstractMessage {
+
+	public static final int MAX_PAYLOAD_SIZE = 1100;
+
+	private final List<AbstractMessage> messages = new LinkedList<>();
+	private int size                             = 0;
+
+	public Batch() {
+		super(19);
+	}
+
+	@Override
+	public void onMessage(final Peer peer, final PeerInfo sender) {
+		// batches are unpacked by the receiving peer
+	}
+
+	@Override
+	public void serialize(final DataOutputStream dos) throws IOException {
+
+		dos.writeInt(messages.size());
+
+		for (final AbstractMessage message : messages) {
+			serializeMessage(dos, message);
+		}
+	}
+
+	@Override
+	public void deserialize(final DataInputStream dis) throws IOException {
+
+		final int count = dis.readInt();
+
+		for (int i=0; i<count; i++) {
+			messages.add(deserializeMessage(dis));
+		}
+	}
+
+	public boolean fits(final int messageSize) {
+		return size + messageSize <= MAX_PAYLOAD_SIZE;
+	}
+
+	public void add(final AbstractMessage message, final int messageSize) {
+
+		messages.add(message);
+		size += messageSize;
+	}
+
+	public List<AbstractMessage> getMessages() {
+		return messages;
+	}
+}
@@ -25,8 +25,9 @@ import org.structr.net.peer.PeerInfo;
  */
 public class Envelope {
 
-	private AbstractMessage msg = null;
-	private PeerInfo peer       = null;
+	private final long timestamp = System.nanoTime();
+	private AbstractMessage msg  = null;
+	private PeerInfo peer        = null;
 
 	public Envelope() {
 		this(null, null);
@@ -54,4 +55,14 @@ public class Envelope {
 	public AbstractMessage getMessage() {
 		return msg;
 	}
+
+	/**
+	 * Returns the value of System.nanoTime() at the time this envelope
+	 * was created, to measure the time a message spent in the queues.
+	 *
+	 * @return the creation time of this envelope in nanoseconds
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.net.protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.structr.net.peer.Peer;
+import org.structr.net.peer.PeerInfo;
+import org.structr.net.repository.MerkleTree;
+
+/**
+ * Carries the child hashes of a single node of the sender's hash tree.
+ * The recipient compares them with its own tree and descends into the
+ * subtrees that differ, until the differing leaves are found and their
+ * inventory can be exchanged.
+ */
+public class MerkleHashes extends Message {
+
+	private byte[][] hashes  = null;
+	private String recipient = null;
+	private boolean isReply  = false;
+	private int level        = 0;
+	private int index        = 0;
+
+	public MerkleHashes() {
+		this(null, null, 0, 0, null, false);
+	}
+
+	public MerkleHashes(final String sender, final String recipient, final int level, final int index, final byte[][] hashes, final boolean isReply) {
+		super(18, sender);
+
+		this.recipient = recipient;
+		this.hashes    = hashes;
+		this.isReply   = isReply;
+		this.level     = level;
+		this.index     = index;
+	}
+
+	@Override
+	public void onMessage(final Peer peer, final PeerInfo sender) {
+
+		if (peer.getUuid().equals(recipient)) {
+
+			final MerkleTree tree    = peer.getRepository().getMerkleTree();
+			final byte[][] own       = tree.getChildHashes(level, index);
+			final int childLevel     = level + 1;
+			boolean leavesDiffer     = false;
+
+			for (int i=0; i<MerkleTree.FANOUT; i++) {
+
+				if (!Arrays.equals(own[i], hashes[i])) {
+
+					final int child = index * MerkleTree.FANOUT + i;
+
+					if (childLevel < MerkleTree.DEPTH) {
+
+						// descend into differing subtree, the other side continues the comparison
+						if (!isReply) {
+
+							peer.send(sender, new MerkleHashes(peer.getUuid(), getSender(), childLevel, child, tree.getChildHashes(childLevel, child), false));
+						}
+
+					} else {
+
+						peer.sendInventory(sender, child);
+						leavesDiffer = true;
+					}
+				}
+			}
+
+			// let the other side send its inventory for the differing leaves as well
+			if (leavesDiffer && !isReply) {
+
+				peer.send(sender, new MerkleHashes(peer.getUuid(), getSender(), level, index, own, true));
+			}
+		}
+	}
+
+	@Override
+	public void serialize(final DataOutputStream dos) throws IOException {
+
+		super.serialize(dos);
+
+		serializeUUID(dos, recipient);
+
+		dos.writeInt(level);
+		dos.writeInt(index);
+		dos.writeBoolean(isReply);
+
+		for (final byte[] hash : hashes) {
+			dos.write(hash, 0, MerkleTree.HASH_SIZE);
+		}
+	}
+
+	@Override
+	public void deserialize(final DataInputStream dis) throws IOException {
+
+		super.deserialize(dis);
+
+		this.recipient = deserializeUUID(dis);
+		this.level     = dis.readInt();
+		this.index     = dis.readInt();
+		this.isReply   = dis.readBoolean();
+		this.hashes    = new byte[MerkleTree.FANOUT][MerkleTree.HASH_SIZE];
+
+		for (final byte[] hash : hashes) {
+			dis.readFully(hash);
+		}
+	}
+}
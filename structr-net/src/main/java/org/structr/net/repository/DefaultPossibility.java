@@ -18,7 +18,9 @@
  */
 package org.structr.net.repository;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import org.structr.net.data.time.Clock;
@@ -38,7 +40,7 @@ public class DefaultPossibility {
 
 	private Set<DefaultRepositoryObject> objects = new HashSet<>();
 	private String uuid                          = null;
-	private State state                          = State.Waiting;
+	private volatile State state                 = State.Waiting;
 	private Clock clock                          = null;
 	private long timeout                         = 0L;
 
@@ -100,16 +102,23 @@ public class DefaultPossibility {
 
 		} else if (State.Waiting.equals(state)) {
 
-			this.state = State.Completed;
+			final List<DefaultRepositoryObject> committed = new ArrayList<>();
 
-			// commit notification
-			for (final DefaultRepositoryObject obj : objects) {
+			synchronized (this) {
+
+				this.state = State.Completed;
+				committed.addAll(objects);
+			}
+
+			// commit notification outside of the lock, objects
+			// lock themselves and call back into this possibility
+			for (final DefaultRepositoryObject obj : committed) {
 				obj.onCommit(uuid);
 			}
 		}
 	}
 
-	public void addObject(final DefaultRepositoryObject obj) {
+	public synchronized void addObject(final DefaultRepositoryObject obj) {
 		objects.add(obj);
 	}
 
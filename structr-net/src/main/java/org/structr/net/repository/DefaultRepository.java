@@ -18,30 +18,44 @@
  */
 package org.structr.net.repository;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.structr.net.data.time.PseudoTime;
 import org.structr.net.peer.Peer;
 
 /**
- *
+ * Default implementation of a repository. Messages are handled by a pool
+ * of worker threads, so modifications of the object map are guarded by
+ * a fixed set of locks that are selected by the UUID of the object.
  */
 public class DefaultRepository implements Repository {
 
-	private final List<InternalChangeListener> internalChangeListeners = new LinkedList<>();
-	private final List<ExternalChangeListener> externalChangeListeners = new LinkedList<>();
-	private final Map<String, DefaultPossibility> possibilities        = new LinkedHashMap<>();
-	private final Map<String, RepositoryObject> objects                = new LinkedHashMap<>();
-	private Peer peer                                                  = null;
-	private String uuid                                                = null;
+	private static final int LOCK_STRIPES = 64;
+
+	private final List<InternalChangeListener> internalChangeListeners    = new CopyOnWriteArrayList<>();
+	private final List<ExternalChangeListener> externalChangeListeners    = new CopyOnWriteArrayList<>();
+	private final ConcurrentMap<String, DefaultPossibility> possibilities = new ConcurrentHashMap<>();
+	private final Map<String, RepositoryObject> objects                   = new ConcurrentHashMap<>();
+	private final Object[] locks                                          = new Object[LOCK_STRIPES];
+	private final MerkleTree merkleTree                                   = new MerkleTree();
+	private Peer peer                                                     = null;
+	private String uuid                                                   = null;
 
 	public DefaultRepository(final String uuid) {
+
 		this.uuid = uuid;
+
+		for (int i=0; i<LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
 	}
 
 	public void setPeer(final Peer peer) {
@@ -77,14 +91,12 @@ public class DefaultRepository implements Repository {
 
 	public RepositoryObject add(final String id, final String type, final String deviceId, final String userId, final PseudoTime creationTime) {
 
-		synchronized (objects) {
+		final RepositoryObject obj = new DefaultRepositoryObject(this, id, type, deviceId, userId, creationTime);
 
-			final RepositoryObject obj = new DefaultRepositoryObject(this, id, type, deviceId, userId, creationTime);
+		objects.put(id, obj);
+		merkleTree.put(obj);
 
-			objects.put(id, obj);
-
-			return obj;
-		}
+		return obj;
 	}
 
 	@Override
@@ -93,9 +105,13 @@ public class DefaultRepository implements Repository {
 		RepositoryObject obj = getObject(id);
 		if (obj == null) {
 
-			obj = new DefaultRepositoryObject(this, id, type, deviceId, userId, created);
+			synchronized (getLock(id)) {
 
-			synchronized (objects) {
+				if (objects.containsKey(id)) {
+					return objects.get(id);
+				}
+
+				obj = new DefaultRepositoryObject(this, id, type, deviceId, userId, created);
 
 				final String transactionId = UUID.randomUUID().toString().replaceAll("\\-", "");
 				for (final Entry<String, Object> entry : data.entrySet()) {
@@ -105,6 +121,7 @@ public class DefaultRepository implements Repository {
 
 				complete(transactionId);
 				objects.put(id, obj);
+				merkleTree.put(obj);
 			}
 
 			for (final InternalChangeListener listener : internalChangeListeners) {
@@ -134,12 +151,13 @@ public class DefaultRepository implements Repository {
 	@Override
 	public void delete(final String id, final PseudoTime timestamp) {
 
-		synchronized (objects) {
+		synchronized (getLock(id)) {
 
 			final RepositoryObject obj = objects.get(id);
 			if (obj != null) {
 
 				objects.remove(id);
+				merkleTree.remove(id);
 				notifyDeletion(obj);
 			}
 
@@ -152,7 +170,7 @@ public class DefaultRepository implements Repository {
 	@Override
 	public RepositoryObject objectCreated(final String id, final String type, final String deviceId, final String userId, final PseudoTime created, final PseudoTime lastModified, final Map<String, Object> data) {
 
-		synchronized (objects) {
+		synchronized (getLock(id)) {
 
 			RepositoryObject obj = getObject(id);
 
@@ -170,6 +188,7 @@ public class DefaultRepository implements Repository {
 				}
 
 				objects.put(id, obj);
+				merkleTree.put(obj);
 
 				complete(transactionId);
 
@@ -183,12 +202,13 @@ public class DefaultRepository implements Repository {
 	@Override
 	public void objectDeleted(final String id, final PseudoTime timestamp) {
 
-		synchronized (objects) {
+		synchronized (getLock(id)) {
 
 			final RepositoryObject obj = objects.get(id);
 			if (obj != null) {
 
 				objects.remove(id);
+				merkleTree.remove(id);
 				notifyDeletion(obj);
 			}
 		}
@@ -199,9 +219,7 @@ public class DefaultRepository implements Repository {
 
 		notifyRepositoryQuery();
 
-		synchronized (objects) {
-			return objects.containsKey(id);
-		}
+		return objects.containsKey(id);
 	}
 
 	@Override
@@ -209,9 +227,7 @@ public class DefaultRepository implements Repository {
 
 		notifyRepositoryQuery();
 
-		synchronized (objects) {
-			return objects.get(id);
-		}
+		return objects.get(id);
 	}
 
 	@Override
@@ -219,15 +235,33 @@ public class DefaultRepository implements Repository {
 
 		notifyRepositoryQuery();
 
+		return new ArrayList<>(objects.values());
+	}
+
+	@Override
+	public Collection<RepositoryObject> getObjects(final Collection<String> ids) {
+
+		notifyRepositoryQuery();
+
 		final List<RepositoryObject> list = new LinkedList<>();
-		synchronized (objects) {
 
-			list.addAll(objects.values());
+		for (final String id : ids) {
+
+			final RepositoryObject obj = objects.get(id);
+			if (obj != null) {
+
+				list.add(obj);
+			}
 		}
 
 		return list;
 	}
 
+	@Override
+	public MerkleTree getMerkleTree() {
+		return merkleTree;
+	}
+
 	@Override
 	public int objectCount() {
 		return objects.size();
@@ -238,9 +272,7 @@ public class DefaultRepository implements Repository {
 
 		final DefaultPossibility p = new DefaultPossibility(peer, timeout);
 
-		synchronized (possibilities) {
-			possibilities.put(p.getUuid(), p);
-		}
+		possibilities.put(p.getUuid(), p);
 
 		return p.getUuid();
 	}
@@ -260,25 +292,41 @@ public class DefaultRepository implements Repository {
 
 	public DefaultPossibility getPossibility(final String transactionId) {
 
-		synchronized (possibilities) {
+		if (transactionId == null) {
+			return null;
+		}
 
-			DefaultPossibility p = possibilities.get(transactionId);
-			if (p == null) {
+		DefaultPossibility p = possibilities.get(transactionId);
+		if (p == null) {
 
-				p = new DefaultPossibility(peer, transactionId);
-				possibilities.put(transactionId, p);
+			p = new DefaultPossibility(peer, transactionId);
 
-			}
+			final DefaultPossibility existing = possibilities.putIfAbsent(transactionId, p);
+			if (existing != null) {
 
-			return p;
+				return existing;
+			}
 		}
+
+		return p;
 	}
 
 	public void clear() {
+
 		objects.clear();
+		merkleTree.clear();
+	}
+
+	// ----- package-private methods -----
+	void objectModified(final RepositoryObject obj) {
+		merkleTree.update(obj);
 	}
 
 	// ----- private methods -----
+	private Object getLock(final String id) {
+		return locks[(id.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+	}
+
 	private void notifyCreation(final RepositoryObject object, final Map<String, Object> data) {
 
 		for (final ExternalChangeListener listener : externalChangeListeners) {
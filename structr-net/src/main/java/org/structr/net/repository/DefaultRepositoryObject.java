@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.structr.net.data.time.PseudoTime;
 
 /**
@@ -34,7 +35,7 @@ import org.structr.net.data.time.PseudoTime;
 public class DefaultRepositoryObject implements RepositoryObject {
 
 	private final SortedMap<PseudoTime, PossibleValue> history = new ConcurrentSkipListMap<>();
-	private final List<ObjectListener> listeners               = new LinkedList<>();
+	private final List<ObjectListener> listeners               = new CopyOnWriteArrayList<>();
 	private DefaultRepository parent                           = null;
 	private PseudoTime creationTime                            = null;
 	private PseudoTime deletionTime                            = null;
@@ -117,7 +118,7 @@ public class DefaultRepositoryObject implements RepositoryObject {
 	}
 
 	@Override
-	public void setProperty(final PseudoTime instant, final String transactionId, final String key, final Object value) {
+	public synchronized void setProperty(final PseudoTime instant, final String transactionId, final String key, final Object value) {
 
 		final Object existingValue = getProperty(instant, transactionId, key);
 		if (existingValue != null && existingValue.equals(value)) {
@@ -150,6 +151,7 @@ public class DefaultRepositoryObject implements RepositoryObject {
 			}
 
 			history.put(instant, new PossibleValue(transactionId, key, value));
+			parent.objectModified(this);
 		}
 	}
 
@@ -185,6 +187,7 @@ public class DefaultRepositoryObject implements RepositoryObject {
 					} else if (val.isAborted()) {
 
 						history.remove(time);
+						parent.objectModified(this);
 					}
 				}
 			}
@@ -227,6 +230,7 @@ public class DefaultRepositoryObject implements RepositoryObject {
 
 					// remove aborted history entries
 					history.remove(time);
+					parent.objectModified(this);
 				}
 			}
 		}
@@ -237,22 +241,25 @@ public class DefaultRepositoryObject implements RepositoryObject {
 	@Override
 	public void onCommit(final String transactionId) {
 
-		final List<PossibleValue> values = new LinkedList<>();
+		final List<Map<String, Object>> values = new LinkedList<>();
 
-		for (final PossibleValue val : history.values()) {
+		synchronized (this) {
 
-			if (transactionId != null && transactionId.equals(val.getTransactionId())) {
+			for (final PossibleValue val : history.values()) {
 
-				values.add(val);
+				if (transactionId != null && transactionId.equals(val.getTransactionId())) {
+
+					values.add(new HashMap<>(val.getData()));
+				}
 			}
 		}
 
 		// notify listeners
 		for (final ObjectListener listener : listeners) {
 
-			for (final PossibleValue value : values) {
+			for (final Map<String, Object> value : values) {
 
-				for (final Entry<String, Object> entry : value.getData().entrySet()) {
+				for (final Entry<String, Object> entry : value.entrySet()) {
 
 					listener.onPropertyChange(this, entry.getKey(), entry.getValue());
 				}
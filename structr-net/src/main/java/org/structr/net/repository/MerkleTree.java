@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.net.repository;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed-depth hash tree over the objects of a repository. Each object
+ * is assigned to a leaf using the first hex digits of its UUID, and the
+ * hash of a node is the XOR of the hashes of all the objects below it,
+ * so a modification can be applied in constant time without rehashing
+ * the whole repository.
+ *
+ * Two peers can compare their trees top-down and only need to exchange
+ * the objects in the leaves whose hashes differ.
+ */
+public class MerkleTree {
+
+	private static final Logger logger = LoggerFactory.getLogger(MerkleTree.class.getName());
+
+	public static final int FANOUT     = 16;
+	public static final int DEPTH      = 3;
+	public static final int HASH_SIZE  = 16;
+
+	private final Map<String, byte[]> entries = new HashMap<>();
+	private final Charset utf8                = Charset.forName("utf-8");
+	private final Set<String>[] leaves        = new Set[leafCount()];
+	private final byte[][][] levels           = new byte[DEPTH + 1][][];
+
+	public MerkleTree() {
+
+		for (int level=0; level<=DEPTH; level++) {
+			levels[level] = new byte[nodeCount(level)][HASH_SIZE];
+		}
+	}
+
+	/**
+	 * Adds the given object to this tree, or updates its hash if the
+	 * object is already present.
+	 *
+	 * @param obj the object
+	 */
+	public void put(final RepositoryObject obj) {
+
+		// hash outside of the lock, the object may be locked by another thread
+		final String uuid = obj.getUuid();
+
+		put(uuid, hash(uuid, obj.getType(), obj.getLastModificationTime().toString()), true);
+	}
+
+	/**
+	 * Updates the hash of the given object if it is already present in
+	 * this tree.
+	 *
+	 * @param obj the object
+	 */
+	public void update(final RepositoryObject obj) {
+
+		final String uuid = obj.getUuid();
+
+		put(uuid, hash(uuid, obj.getType(), obj.getLastModificationTime().toString()), false);
+	}
+
+	public synchronized void remove(final String uuid) {
+
+		final byte[] old = entries.remove(uuid);
+		if (old != null) {
+
+			final int leaf = getLeafIndex(uuid);
+
+			apply(leaf, old);
+			leaves[leaf].remove(uuid);
+		}
+	}
+
+	public synchronized void clear() {
+
+		entries.clear();
+
+		for (int i=0; i<leaves.length; i++) {
+			leaves[i] = null;
+		}
+
+		for (final byte[][] level : levels) {
+			for (final byte[] node : level) {
+				clear(node);
+			}
+		}
+	}
+
+	public synchronized byte[] getRootHash() {
+		return levels[0][0].clone();
+	}
+
+	/**
+	 * Returns the hashes of the children of the node at the given level
+	 * and index. Level 0 is the root, level DEPTH - 1 contains the parents
+	 * of the leaves.
+	 *
+	 * @param level the level of the parent node
+	 * @param index the index of the parent node within its level
+	 *
+	 * @return the FANOUT child hashes of the given node
+	 */
+	public synchronized byte[][] getChildHashes(final int level, final int index) {
+
+		final byte[][] children = levels[level + 1];
+		final byte[][] result   = new byte[FANOUT][];
+		final int offset        = index * FANOUT;
+
+		for (int i=0; i<FANOUT; i++) {
+			result[i] = children[offset + i].clone();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the UUIDs of all objects in the given leaf.
+	 *
+	 * @param leaf the index of the leaf
+	 *
+	 * @return the UUIDs of the objects in the given leaf
+	 */
+	public synchronized List<String> getLeafEntries(final int leaf) {
+
+		final List<String> result = new LinkedList<>();
+		final Set<String> members = leaves[leaf];
+
+		if (members != null) {
+			result.addAll(members);
+		}
+
+		return result;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public static int nodeCount(final int level) {
+
+		int count = 1;
+
+		for (int i=0; i<level; i++) {
+			count *= FANOUT;
+		}
+
+		return count;
+	}
+
+	public static int leafCount() {
+		return nodeCount(DEPTH);
+	}
+
+	public static int getLeafIndex(final String uuid) {
+
+		if (uuid != null && uuid.length() >= DEPTH) {
+
+			try {
+
+				return Integer.parseInt(uuid.substring(0, DEPTH), 16);
+
+			} catch (NumberFormatException ignore) {}
+		}
+
+		return (uuid != null ? uuid.hashCode() : 0) & (leafCount() - 1);
+	}
+
+	// ----- private methods -----
+	private synchronized void put(final String uuid, final byte[] hash, final boolean add) {
+
+		if (!add && !entries.containsKey(uuid)) {
+			return;
+		}
+
+		final byte[] old = entries.put(uuid, hash);
+		final int leaf   = getLeafIndex(uuid);
+
+		if (old != null) {
+
+			apply(leaf, old);
+
+		} else {
+
+			Set<String> members = leaves[leaf];
+			if (members == null) {
+
+				members = new HashSet<>();
+				leaves[leaf] = members;
+			}
+
+			members.add(uuid);
+		}
+
+		apply(leaf, hash);
+	}
+
+	private void apply(final int leaf, final byte[] hash) {
+
+		int index = leaf;
+
+		for (int level=DEPTH; level>=0; level--) {
+
+			xor(levels[level][index], hash);
+			index /= FANOUT;
+		}
+	}
+
+	private byte[] hash(final String uuid, final String type, final String lastModified) {
+
+		try {
+
+			final MessageDigest digest = MessageDigest.getInstance("MD5");
+
+			digest.update(uuid.getBytes(utf8));
+
+			if (type != null) {
+				digest.update(type.getBytes(utf8));
+			}
+
+			digest.update(lastModified.getBytes(utf8));
+
+			return digest.digest();
+
+		} catch (NoSuchAlgorithmException nex) {
+			logger.warn("", nex);
+		}
+
+		return new byte[HASH_SIZE];
+	}
+
+	private void xor(final byte[] target, final byte[] source) {
+
+		for (int i=0; i<HASH_SIZE; i++) {
+			target[i] ^= source[i];
+		}
+	}
+
+	private void clear(final byte[] target) {
+
+		for (int i=0; i<HASH_SIZE; i++) {
+			target[i] = 0;
+		}
+	}
+}
@@ -76,6 +76,22 @@ public interface Repository {
 	 */
 	Collection<RepositoryObject> getObjects();
 
+	/**
+	 * Returns the objects with the given UUIDs that exist in this
+	 * repository.
+	 *
+	 * @param ids the UUIDs of the objects
+	 * @return a collection of the existing objects with the given IDs
+	 */
+	Collection<RepositoryObject> getObjects(final Collection<String> ids);
+
+	/**
+	 * Returns the hash tree of this repository that is used to find
+	 * the objects that differ between two peers.
+	 *
+	 * @return the hash tree of this repository
+	 */
+	MerkleTree getMerkleTree();
 
 	int objectCount();
 }
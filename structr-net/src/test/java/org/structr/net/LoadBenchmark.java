@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.net;
+
+import java.security.KeyPair;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.structr.net.common.KeyHelper;
+import org.structr.net.peer.MessageQueue;
+import org.structr.net.peer.Peer;
+import org.structr.net.peer.PeerInfo;
+import org.structr.net.protocol.AbstractMessage;
+import org.structr.net.protocol.Ack;
+import org.structr.net.repository.DefaultRepository;
+
+/**
+ * Starts two peers on the loopback interface and sends a large number
+ * of small messages from the first to the second one, to measure the
+ * throughput and the latency of the message handling.
+ *
+ * Usage: LoadBenchmark [messages]
+ */
+public class LoadBenchmark {
+
+	public static void main(final String[] args) throws Exception {
+
+		final int messageCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		final KeyPair keyPair  = KeyHelper.getOrCreateKeyPair("RSA", 2048);
+		final Peer sender      = createPeer(keyPair);
+		final Peer receiver    = createPeer(keyPair);
+		final Counter counter  = new Counter();
+
+		receiver.addListener(counter);
+
+		System.out.println("Waiting for peers to discover each other..");
+
+		while (!sender.knowsPeer(receiver.getUuid()) || !receiver.knowsPeer(sender.getUuid())) {
+			Thread.sleep(100L);
+		}
+
+		System.out.println("Sending " + messageCount + " messages..");
+
+		final long t0 = System.currentTimeMillis();
+
+		for (int i=0; i<messageCount; i++) {
+
+			sender.broadcast(new Ack(sender.getUuid(), receiver.getUuid(), createId()));
+
+			// keep the output queue bounded and don't overrun the
+			// receiver, otherwise we only measure the packet loss
+			while (sender.getOutputQueueSize() > 10000 || receiver.getPendingTaskCount() > 1000) {
+				Thread.sleep(1L);
+			}
+		}
+
+		final long t1 = System.currentTimeMillis();
+
+		System.out.println("Enqueued " + messageCount + " messages in " + (t1 - t0) + " ms, waiting for delivery..");
+
+		int last     = -1;
+		long changed = System.currentTimeMillis();
+
+		// wait until all messages are delivered or nothing happens for five seconds
+		while (counter.get() < messageCount && System.currentTimeMillis() < changed + 5000L) {
+
+			final int current = counter.get();
+			if (current != last || receiver.getPendingTaskCount() > 0) {
+
+				changed = System.currentTimeMillis();
+				last    = current;
+			}
+
+			Thread.sleep(100L);
+		}
+
+		final long t2       = System.currentTimeMillis();
+		final int delivered = counter.get();
+
+		System.out.println(delivered + " of " + messageCount + " messages delivered in " + (t2 - t0) + " ms, " + ((delivered * 1000L) / Math.max(1L, t2 - t0)) + " messages/s");
+		System.out.println(sender.getSentCount() + " datagrams sent, " + receiver.getReceivedCount() + " datagrams received");
+
+		for (final MessageQueue queue : receiver.getMessageQueues()) {
+			System.out.println("    " + queue);
+		}
+
+		sender.stop();
+		receiver.stop();
+
+		System.exit(0);
+	}
+
+	// ----- private static methods -----
+	private static Peer createPeer(final KeyPair keyPair) {
+
+		final DefaultRepository repo = new DefaultRepository(createId());
+		final Peer peer              = new Peer(keyPair, repo, "127.0.0.1", "127.0.0.1");
+
+		repo.setPeer(peer);
+
+		peer.initializeServer();
+		peer.start();
+
+		return peer;
+	}
+
+	private static String createId() {
+		return UUID.randomUUID().toString().replaceAll("\\-", "");
+	}
+
+	// ----- nested classes -----
+	private static class Counter implements PeerListener {
+
+		private final Set<String> seen    = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		@Override
+		public void onMessage(final AbstractMessage message) {
+
+			// messages are seen more than once because of the re-broadcast
+			if (message instanceof Ack && seen.add(message.getId())) {
+				count.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void onAddPeer(final PeerInfo peer) {
+		}
+
+		@Override
+		public void onRemovePeer(final PeerInfo peer) {
+		}
+
+		public int get() {
+			return count.get();
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.net;
+
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import org.structr.net.common.KeyHelper;
+import org.structr.net.data.time.PseudoTime;
+import org.structr.net.peer.Peer;
+import org.structr.net.repository.DefaultRepository;
+import org.structr.net.repository.RepositoryObject;
+
+/**
+ * Starts a number of peers on the loopback interface, fills the first
+ * one with objects that the others don't know about and measures the
+ * time it takes until all repositories have converged. A second round
+ * adds a small number of objects to the last peer to measure how fast
+ * a small difference is found in a large repository.
+ *
+ * Usage: SyncBenchmark [peers] [objects] [changes]
+ */
+public class SyncBenchmark {
+
+	public static void main(final String[] args) throws Exception {
+
+		final int peerCount     = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		final int objectCount   = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		final int changeCount   = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		final KeyPair keyPair   = KeyHelper.getOrCreateKeyPair("RSA", 2048);
+		final List<Peer> peers  = new LinkedList<>();
+
+		for (int i=0; i<peerCount; i++) {
+
+			final DefaultRepository repo = new DefaultRepository(createId());
+			final Peer peer              = new Peer(keyPair, repo, "127.0.0.1", "127.0.0.1");
+
+			repo.setPeer(peer);
+
+			peer.initializeServer();
+			peer.start();
+
+			peers.add(peer);
+		}
+
+		System.out.println("Started " + peerCount + " peers on loopback.");
+
+		fill(peers.get(0), objectCount);
+		measure("Initial synchronisation of " + objectCount + " objects", peers, objectCount);
+
+		fill(peers.get(peers.size() - 1), changeCount);
+		measure("Synchronisation of " + changeCount + " new objects", peers, objectCount + changeCount);
+
+		for (final Peer peer : peers) {
+			peer.stop();
+		}
+
+		System.exit(0);
+	}
+
+	// ----- private static methods -----
+	private static void fill(final Peer peer, final int count) {
+
+		final DefaultRepository repo = (DefaultRepository)peer.getRepository();
+
+		for (int i=0; i<count; i++) {
+
+			final String transactionId = createId();
+			final PseudoTime time      = PseudoTime.now(peer);
+			final RepositoryObject obj = repo.add(createId(), "Item", peer.getUuid(), peer.getUuid(), time);
+
+			// local modification without notification, so the objects
+			// must be found by the anti-entropy protocol
+			obj.setProperty(time, transactionId, "name", "item" + i);
+			repo.complete(transactionId);
+		}
+	}
+
+	private static void measure(final String name, final List<Peer> peers, final int expectedCount) throws InterruptedException {
+
+		final long t0      = System.currentTimeMillis();
+		final long timeout = t0 + 600000L;
+
+		while (!hasConverged(peers, expectedCount)) {
+
+			if (System.currentTimeMillis() > timeout) {
+
+				System.out.println(name + " did not converge within 600 seconds.");
+				return;
+			}
+
+			Thread.sleep(100L);
+		}
+
+		System.out.println(name + " took " + (System.currentTimeMillis() - t0) + " ms.");
+	}
+
+	private static boolean hasConverged(final List<Peer> peers, final int expectedCount) {
+
+		final byte[] rootHash = peers.get(0).getContentHash();
+
+		for (final Peer peer : peers) {
+
+			if (peer.getRepository().objectCount() != expectedCount || !Arrays.equals(rootHash, peer.getContentHash())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static String createId() {
+		return UUID.randomUUID().toString().replaceAll("\\-", "");
+	}
+}
@@ -41,6 +41,8 @@ public class DefaultResourceProvider implements ResourceProvider {
 
 		resourceMap.put(Pattern.compile("maintenance"),		MaintenanceResource.class);		// maintenance
 
+		resourceMap.put(Pattern.compile("metrics"),		MetricsResource.class);			// timings of the hot paths
+
 		resourceMap.put(Pattern.compile("in"),			RelationshipResource.class);		// incoming relationship
 		resourceMap.put(Pattern.compile("out"),			RelationshipResource.class);		// outgoing relationship
 		resourceMap.put(Pattern.compile("start"),		RelationshipNodeResource.class);	// start node
@@ -69,6 +69,11 @@ public class ResultGSONAdapter implements JsonSerializer<Result>, JsonDeserializ
 		String sortKey = src.getSortKey();
 		String sortOrder = src.getSortOrder();
 		GraphObject metaData = src.getMetaData();
+		String nextCursor = src.getNextCursor();
+
+		if(nextCursor != null) {
+			result.add("next_cursor", new JsonPrimitive(nextCursor));
+		}
 
 		if(page != null) {
 			result.add("page", new JsonPrimitive(page));
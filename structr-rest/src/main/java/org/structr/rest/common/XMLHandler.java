@@ -63,6 +63,10 @@ public class XMLHandler implements Iterator<Map<String, Object>> {
 	private XMLInputFactory factory                 = null;
 	private XMLEventReader reader                   = null;
 	private Element current                         = null;
+	private String recordPath                       = null;
+	private long recordOffset                       = 0L;
+	private int recordCount                         = 0;
+	private int skipRecords                         = 0;
 
 	public XMLHandler(final Map<String, Object> configuration, final Reader input) throws XMLStreamException {
 
@@ -80,6 +84,62 @@ public class XMLHandler implements Iterator<Map<String, Object>> {
 		this.reader  = factory.createXMLEventReader(input);
 	}
 
+	/**
+	 * Skips the given number of records without converting them, so that
+	 * an import can be resumed after the last committed record.
+	 *
+	 * @param count the number of records to skip
+	 */
+	public void skipRecords(final int count) {
+		this.skipRecords = count;
+	}
+
+	/**
+	 * Returns the number of records that were read from the input,
+	 * including the skipped records.
+	 *
+	 * @return the number of records
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Returns the character offset of the end of the last record in
+	 * the input.
+	 *
+	 * @return the offset
+	 */
+	public long getRecordOffset() {
+		return recordOffset;
+	}
+
+	/**
+	 * Returns the element path of the last record.
+	 *
+	 * @return the element path
+	 */
+	public String getRecordPath() {
+		return recordPath;
+	}
+
+	/**
+	 * Returns the number of elements that are currently held in the
+	 * element tree.
+	 *
+	 * @return the number of elements
+	 */
+	int getElementCount() {
+
+		Element root = current;
+
+		while (root != null && root.parent != null) {
+			root = root.parent;
+		}
+
+		return root != null ? root.count() : 0;
+	}
+
 	public void startDocument() {
 	}
 
@@ -137,17 +197,32 @@ public class XMLHandler implements Iterator<Map<String, Object>> {
 
 		if (current != null) {
 
+			final Element parent = current.parent;
+
 			if (configuration.containsKey(current.getPath())) {
 
 				if (current.isRoot) {
 
-					// object is complete, can be created
-					handleObject(current);
+					recordCount++;
+					recordPath   = current.getPath();
+					recordOffset = element.getLocation().getCharacterOffset();
+
+					if (recordCount > skipRecords) {
+
+						// object is complete, can be created
+						handleObject(current);
+					}
 				}
 			}
 
+			// elements outside of a record are not needed any more when they are
+			// complete, remove them so that the tree does not grow with the input
+			if (parent != null && !parent.isInsideRecord()) {
+				parent.children.remove(current);
+			}
+
 			// one level up
-			current = current.parent;
+			current = parent;
 		}
 	}
 
@@ -327,13 +402,20 @@ public class XMLHandler implements Iterator<Map<String, Object>> {
 		private Element parent           = null;
 		private String tagName           = null;
 		private String text              = null;
+		private String path              = null;
 
 		public Element(final Element parent, final String tagName) {
 			this.parent  = parent;
 			this.tagName = tagName;
 
 			if (parent != null) {
+
 				parent.children.add(this);
+				this.path = parent.path + "/" + tagName;
+
+			} else {
+
+				this.path = "/" + tagName;
 			}
 		}
 
@@ -346,12 +428,22 @@ public class XMLHandler implements Iterator<Map<String, Object>> {
 		}
 
 		public String getPath() {
+			return path;
+		}
 
-			if (parent != null) {
-				return parent.getPath() + "/" + tagName;
+		public boolean isInsideRecord() {
+			return isRoot || (parent != null && parent.isInsideRecord());
+		}
+
+		public int count() {
+
+			int count = 1;
+
+			for (final Element child : children) {
+				count += child.count();
 			}
 
-			return "/" + tagName;
+			return count;
 		}
 	}
 
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.rest.resource;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import org.structr.api.metrics.Metrics;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObjectMap;
+import org.structr.core.Result;
+import org.structr.core.property.BooleanProperty;
+import org.structr.core.property.GenericProperty;
+import org.structr.core.property.PropertyKey;
+import org.structr.rest.RestMethodResult;
+import org.structr.rest.exception.IllegalMethodException;
+import org.structr.rest.exception.IllegalPathException;
+import org.structr.rest.exception.NotAllowedException;
+
+/**
+ * Returns the timings collected in the metrics registry, grouped by
+ * category and sorted by total time, and the slowest entries of the
+ * slow query log. The page size limits the number of slow queries.
+ * DELETE resets all timings.
+ */
+public class MetricsResource extends Resource {
+
+	@Override
+	public boolean checkAndConfigure(String part, SecurityContext securityContext, HttpServletRequest request) throws FrameworkException {
+
+		this.securityContext = securityContext;
+
+		return "metrics".equals(part);
+	}
+
+	@Override
+	public Result doGet(PropertyKey sortKey, boolean sortDescending, int pageSize, int page) throws FrameworkException {
+
+		assertSuperUser();
+
+		final List<GraphObjectMap> resultList = new LinkedList<>();
+		final GraphObjectMap info             = new GraphObjectMap();
+
+		info.setProperty(new BooleanProperty("enabled"), Metrics.isEnabled());
+
+		for (final Map.Entry<String, List<Map<String, Object>>> category : Metrics.getTimings().entrySet()) {
+
+			info.setProperty(new GenericProperty(category.getKey()), category.getValue());
+		}
+
+		info.setProperty(new GenericProperty("slowQueries"), Metrics.getSlowQueries(pageSize));
+
+		resultList.add(info);
+
+		return new Result(resultList, resultList.size(), false, false);
+	}
+
+	@Override
+	public RestMethodResult doPost(Map<String, Object> propertySet) throws FrameworkException {
+		throw new IllegalMethodException("POST not allowed on " + getResourceSignature());
+	}
+
+	@Override
+	public RestMethodResult doDelete() throws FrameworkException {
+
+		assertSuperUser();
+
+		Metrics.reset();
+
+		return new RestMethodResult(200);
+	}
+
+	@Override
+	public Resource tryCombineWith(Resource next) throws FrameworkException {
+		throw new IllegalPathException(getResourceSignature() + " has no subresources");
+	}
+
+	@Override
+	public String getUriPart() {
+		return getResourceSignature();
+	}
+
+	@Override
+	public Class getEntityClass() {
+		return null;
+	}
+
+	@Override
+	public String getResourceSignature() {
+		return "metrics";
+	}
+
+	@Override
+	public boolean isCollectionResource() throws FrameworkException {
+		return false;
+	}
+
+	// ----- private methods -----
+	private void assertSuperUser() throws FrameworkException {
+
+		if (!securityContext.isSuperUser()) {
+
+			throw new NotAllowedException("Use of the metrics endpoint is restricted to admin users");
+		}
+	}
+}
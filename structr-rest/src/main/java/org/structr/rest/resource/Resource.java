@@ -32,6 +32,7 @@ import org.structr.common.CaseHelper;
 import org.structr.common.GraphObjectComparator;
 import org.structr.common.Permission;
 import org.structr.common.SecurityContext;
+import org.structr.common.SortHelper;
 import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
 import org.structr.core.Result;
@@ -210,7 +211,7 @@ public abstract class Resource {
 
 		if (!list.isEmpty()) {
 
-			String finalSortOrder = sortDescending ? "desc" : "asc";
+			boolean finalSortDescending = sortDescending;
 
 			if (sortKey == null) {
 
@@ -222,12 +223,12 @@ public abstract class Resource {
 				if (defaultSort != null) {
 
 					sortKey = defaultSort;
-					finalSortOrder = obj.getDefaultSortOrder();
+					finalSortDescending = GraphObjectComparator.DESCENDING.equalsIgnoreCase(obj.getDefaultSortOrder());
 				}
 			}
 
 			if (sortKey != null) {
-				Collections.sort(list, new GraphObjectComparator(sortKey, finalSortOrder));
+				SortHelper.sort(list, sortKey, finalSortDescending, SortHelper.getCollator(securityContext));
 			}
 		}
 	}
@@ -297,6 +298,18 @@ public abstract class Resource {
 		}
 	}
 
+	protected void extractFulltextSearch(final HttpServletRequest request, final Query query) {
+
+		if (isFulltextSearch(request)) {
+
+			query.fulltext(request.getParameter(SearchCommand.FULLTEXT_SEARCH_KEYWORD));
+		}
+	}
+
+	protected boolean isFulltextSearch(final HttpServletRequest request) {
+		return request != null && StringUtils.isNotBlank(request.getParameter(SearchCommand.FULLTEXT_SEARCH_KEYWORD));
+	}
+
 	protected void extractSearchableAttributes(final SecurityContext securityContext, final Class type, final HttpServletRequest request, final Query query) throws FrameworkException {
 
 		if (type != null && request != null && !request.getParameterMap().isEmpty()) {
@@ -18,10 +18,10 @@
  */
 package org.structr.rest.resource;
 
-import java.util.Collections;
 import javax.servlet.http.HttpServletRequest;
 import org.structr.common.GraphObjectComparator;
 import org.structr.common.SecurityContext;
+import org.structr.common.SortHelper;
 import org.structr.common.error.FrameworkException;
 import org.structr.common.error.InvalidSortKey;
 import org.structr.core.GraphObject;
@@ -62,7 +62,7 @@ public class SortResource extends WrappingResource {
 			Result result = wrappedResource.doGet(sortKey, sortDescending, pageSize, page);
 
 			try {
-				Collections.sort(result.getResults(), new GraphObjectComparator(sortKey, sortOrder));
+				SortHelper.sort(result.getResults(), sortKey, GraphObjectComparator.DESCENDING.equalsIgnoreCase(sortOrder), SortHelper.getCollator(securityContext));
 
 			} catch(Throwable t) {
 
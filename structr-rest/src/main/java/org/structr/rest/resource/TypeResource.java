@@ -52,6 +52,7 @@ import org.structr.core.property.PropertyMap;
 import org.structr.rest.RestMethodResult;
 import org.structr.rest.exception.IllegalPathException;
 import org.structr.rest.exception.NotFoundException;
+import org.structr.rest.servlet.JsonRestServlet;
 import org.structr.schema.SchemaHelper;
 
 //~--- classes ----------------------------------------------------------------
@@ -132,8 +133,8 @@ public class TypeResource extends SortableResource {
 
 			collectSearchAttributes(query);
 
-			// default sort key & order
-			if (actualSortKey == null) {
+			// default sort key & order, fulltext search results are ranked by relevance
+			if (actualSortKey == null && !isFulltextSearch(request)) {
 
 				try {
 
@@ -179,6 +180,7 @@ public class TypeResource extends SortableResource {
 					.order(actualSortOrder)
 					.pageSize(pageSize)
 					.page(page)
+					.cursor(request != null ? request.getParameter(JsonRestServlet.REQUEST_PARAMETER_CURSOR) : null)
 					.getResult();
 			}
 
@@ -349,6 +351,9 @@ public class TypeResource extends SortableResource {
 
 		// second step: distance search?
 		extractDistanceSearch(request, query);
+
+		// third step: fulltext search?
+		extractFulltextSearch(request, query);
 	}
 
 	// ----- private methods -----
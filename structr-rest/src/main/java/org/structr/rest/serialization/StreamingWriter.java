@@ -147,12 +147,17 @@ public abstract class StreamingWriter {
 		String sortKey                      = result.getSortKey();
 		String sortOrder                    = result.getSortOrder();
 		GraphObject metaData                = result.getMetaData();
+		String nextCursor                   = result.getNextCursor();
 
 		writer.beginDocument(baseUrl, propertyView.get(securityContext));
 
 		// open result set
 		writer.beginObject();
 
+		if (nextCursor != null) {
+			writer.name("next_cursor").value(nextCursor);
+		}
+
 		if (outputNestingDepth != null) {
 			writer.name("output_nesting_depth").value(outputNestingDepth);
 		}
@@ -41,6 +41,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.RetryException;
 import org.structr.api.config.Settings;
+import org.structr.api.metrics.Metrics;
 import org.structr.common.PagingHelper;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
@@ -80,6 +81,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 
 	public static final int DEFAULT_VALUE_PAGE_SIZE                     = 20;
 	public static final String DEFAULT_VALUE_SORT_ORDER                 = "asc";
+	public static final String REQUEST_PARAMETER_CURSOR                 = "cursor";
 	public static final String REQUEST_PARAMETER_LOOSE_SEARCH           = "loose";
 	public static final String REQUEST_PARAMETER_PAGE_NUMBER            = "page";
 	public static final String REQUEST_PARAMETER_PAGE_SIZE              = "pageSize";
@@ -87,10 +89,12 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 	public static final String REQUEST_PARAMETER_SORT_ORDER             = "order";
 	public static final String REQUEST_PARAMTER_OUTPUT_DEPTH            = "outputNestingDepth";
 	public static final Set<String> commonRequestParameters             = new LinkedHashSet<>();
+	private static final String REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE    = "org.structr.rest.resourceSignature";
 	private static final Logger logger                                  = LoggerFactory.getLogger(JsonRestServlet.class.getName());
 
 	static {
 
+		commonRequestParameters.add(REQUEST_PARAMETER_CURSOR);
 		commonRequestParameters.add(REQUEST_PARAMETER_LOOSE_SEARCH);
 		commonRequestParameters.add(REQUEST_PARAMETER_PAGE_NUMBER);
 		commonRequestParameters.add(REQUEST_PARAMETER_PAGE_SIZE);
@@ -110,6 +114,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 		commonRequestParameters.add(SearchCommand.CITY_SEARCH_KEYWORD);
 		commonRequestParameters.add(SearchCommand.STATE_SEARCH_KEYWORD);
 		commonRequestParameters.add(SearchCommand.COUNTRY_SEARCH_KEYWORD);
+		commonRequestParameters.add(SearchCommand.FULLTEXT_SEARCH_KEYWORD);
 	}
 
 	// final fields
@@ -149,13 +154,30 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 		this.gson         = new ThreadLocalGson(propertyView, config.getOutputNestingDepth());
 	}
 
+	@Override
+	protected void service(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+
+		final long t0 = System.nanoTime();
+
+		try {
+
+			super.service(request, response);
+
+		} finally {
+
+			// the resource signature is set when the resource chain is resolved
+			final Object signature = request.getAttribute(REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE);
+
+			Metrics.record(Metrics.CATEGORY_REST, request.getMethod() + " " + (signature != null ? signature : "(unresolved)"), t0);
+		}
+	}
+
 	// ----- interface Feature -----
 	@Override
 	public String getModuleName() {
 		return "core";
 	}
 
-
 	// <editor-fold defaultstate="collapsed" desc="DELETE">
 	@Override
 	protected void doDelete(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
@@ -187,6 +209,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 			try (final Tx tx = app.tx()) {
 
 				resource = ResourceHelper.optimizeNestedResourceChain(securityContext, request, resourceMap, propertyView);
+				request.setAttribute(REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE, resource.getResourceSignature());
 				authenticator.checkResourceAccess(securityContext, request, resource.getResourceSignature(), propertyView.get(securityContext));
 
 				tx.success();
@@ -310,6 +333,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 			try (final Tx tx = app.tx()) {
 
 				resource = ResourceHelper.applyViewTransformation(request, securityContext, ResourceHelper.optimizeNestedResourceChain(securityContext, request, resourceMap, propertyView), propertyView);
+				request.setAttribute(REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE, resource.getResourceSignature());
 				authenticator.checkResourceAccess(securityContext, request, resource.getResourceSignature(), propertyView.get(securityContext));
 				tx.success();
 			}
@@ -422,6 +446,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 				try (final Tx tx = app.tx()) {
 
 					resource = ResourceHelper.applyViewTransformation(request, securityContext, ResourceHelper.optimizeNestedResourceChain(securityContext, request, resourceMap, propertyView), propertyView);
+					request.setAttribute(REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE, resource.getResourceSignature());
 					authenticator.checkResourceAccess(securityContext, request, resource.getResourceSignature(), propertyView.get(securityContext));
 					tx.success();
 				}
@@ -610,6 +635,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 
 					// evaluate constraint chain
 					resource = ResourceHelper.applyViewTransformation(request, securityContext, ResourceHelper.optimizeNestedResourceChain(securityContext, request, resourceMap, propertyView), propertyView);
+					request.setAttribute(REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE, resource.getResourceSignature());
 					authenticator.checkResourceAccess(securityContext, request, resource.getResourceSignature(), propertyView.get(securityContext));
 					tx.success();
 				}
@@ -790,6 +816,7 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 			try (final Tx tx = app.tx()) {
 
 				resource = ResourceHelper.applyViewTransformation(request, securityContext, ResourceHelper.optimizeNestedResourceChain(securityContext, request, resourceMap, propertyView), propertyView);
+				request.setAttribute(REQUEST_ATTRIBUTE_RESOURCE_SIGNATURE, resource.getResourceSignature());
 				authenticator.checkResourceAccess(securityContext, request, resource.getResourceSignature(), propertyView.get(securityContext));
 				tx.success();
 			}
@@ -849,7 +876,15 @@ public class JsonRestServlet extends HttpServlet implements HttpServiceServlet {
 
 				}
 
-				PagingHelper.addPagingParameter(result, pageSize, page);
+				if (request.getParameter(REQUEST_PARAMETER_CURSOR) != null) {
+
+					// cursor paging has no page number and no page count
+					result.setPageSize(pageSize);
+
+				} else {
+
+					PagingHelper.addPagingParameter(result, pageSize, page);
+				}
 
 				// timing..
 				double queryTimeEnd = System.nanoTime();
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.rest.common;
+
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the streaming behaviour of the XML import handler.
+ */
+public class XMLHandlerTest {
+
+	@Test
+	public void testElementTreeIsPruned() throws XMLStreamException {
+
+		final XMLHandler handler = new XMLHandler(getConfiguration(), new StringReader(getXml(100)));
+		int count                = 0;
+
+		while (handler.hasNext()) {
+
+			handler.next();
+			count++;
+
+			// finished records are removed, only the enclosing <items> element is left
+			assertEquals("Element tree grows with the input", 1, handler.getElementCount());
+		}
+
+		assertEquals("Invalid number of records", 100, count);
+		assertEquals("Invalid record count", 100, handler.getRecordCount());
+	}
+
+	@Test
+	public void testSkipRecords() throws XMLStreamException {
+
+		final XMLHandler handler = new XMLHandler(getConfiguration(), new StringReader(getXml(5)));
+
+		handler.skipRecords(2);
+
+		for (int i=2; i<5; i++) {
+
+			assertTrue("Missing record " + i, handler.hasNext());
+			assertEquals("Invalid record after skipping", Integer.toString(i), handler.next().get("originId"));
+		}
+
+		assertFalse("Too many records after skipping", handler.hasNext());
+		assertEquals("Skipped records must be counted", 5, handler.getRecordCount());
+	}
+
+	@Test
+	public void testCheckpoint() throws XMLStreamException {
+
+		final String xml         = getXml(3);
+		final XMLHandler handler = new XMLHandler(getConfiguration(), new StringReader(xml));
+		long lastOffset          = 0L;
+		int records              = 0;
+
+		while (handler.hasNext()) {
+
+			handler.next();
+			records++;
+
+			assertEquals("Invalid record count in checkpoint", records, handler.getRecordCount());
+			assertEquals("Invalid record path in checkpoint", "/items/item", handler.getRecordPath());
+			assertTrue("Record offset must grow with the records", handler.getRecordOffset() > lastOffset);
+
+			lastOffset = handler.getRecordOffset();
+		}
+
+		// resuming with the checkpoint record count must continue with the next record
+		final XMLHandler resumed = new XMLHandler(getConfiguration(), new StringReader(xml));
+
+		resumed.skipRecords(2);
+
+		assertTrue("Missing record after checkpoint", resumed.hasNext());
+		assertEquals("Invalid record after checkpoint", "2", resumed.next().get("originId"));
+		assertFalse("Too many records after checkpoint", resumed.hasNext());
+	}
+
+	// ----- private methods -----
+	private Map<String, Object> getConfiguration() {
+
+		final Map<String, Object> configuration  = new LinkedHashMap<>();
+		final Map<String, Object> itemConfig     = new LinkedHashMap<>();
+		final Map<String, Object> itemProperties = new LinkedHashMap<>();
+		final Map<String, Object> nameConfig     = new LinkedHashMap<>();
+
+		configuration.put("/items/item",      itemConfig);
+		configuration.put("/items/item/name", nameConfig);
+
+		itemConfig.put("action",     "createNode");
+		itemConfig.put("isRoot",     true);
+		itemConfig.put("type",       "Item");
+		itemConfig.put("properties", itemProperties);
+
+		itemProperties.put("id", "originId");
+
+		nameConfig.put("action",       "setProperty");
+		nameConfig.put("propertyName", "name");
+
+		return configuration;
+	}
+
+	private String getXml(final int count) {
+
+		final StringBuilder buf = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<items>\n");
+
+		for (int i=0; i<count; i++) {
+
+			buf.append("\t<item id=\"").append(i).append("\">\n");
+			buf.append("\t\t<name>name ").append(i).append("</name>\n");
+			buf.append("\t</item>\n");
+		}
+
+		buf.append("</items>\n");
+
+		return buf.toString();
+	}
+}
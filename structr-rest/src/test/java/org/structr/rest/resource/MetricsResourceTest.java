@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.rest.resource;
+
+import com.jayway.restassured.RestAssured;
+import com.jayway.restassured.filter.log.ResponseLoggingFilter;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.graph.Tx;
+import org.structr.rest.common.StructrRestTest;
+import org.structr.rest.entity.TestOne;
+
+/**
+ *
+ */
+public class MetricsResourceTest extends StructrRestTest {
+
+	@Test
+	public void testMetricsResource() {
+
+		try (final Tx tx = app.tx()) {
+
+			app.create(TestOne.class, "test");
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+			fail("Unexpected exception");
+		}
+
+		RestAssured.given().contentType("application/json; charset=UTF-8").expect().statusCode(200).when().get("/test_one");
+
+		RestAssured
+
+			.given()
+				.contentType("application/json; charset=UTF-8")
+				.filter(ResponseLoggingFilter.logResponseIfStatusCodeIsGreaterThan(299))
+			.expect()
+				.statusCode(200)
+				.body("result.enabled",          equalTo(true))
+				.body("result.rest.name",        hasItem("GET TestOne"))
+				.body("result.transaction.name", hasItems("callbacks", "validation", "commit"))
+			.when()
+				.get("/metrics");
+
+		// reset, only the DELETE request itself is recorded afterwards
+		RestAssured.given().contentType("application/json; charset=UTF-8").expect().statusCode(200).when().delete("/metrics");
+
+		RestAssured
+
+			.given()
+				.contentType("application/json; charset=UTF-8")
+				.filter(ResponseLoggingFilter.logResponseIfStatusCodeIsGreaterThan(299))
+			.expect()
+				.statusCode(200)
+				.body("result.rest.name",  contains("DELETE metrics"))
+				.body("result.rest.count", contains(1))
+			.when()
+				.get("/metrics");
+	}
+}
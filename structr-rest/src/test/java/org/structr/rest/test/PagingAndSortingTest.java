@@ -20,10 +20,16 @@ package org.structr.rest.test;
 
 import com.jayway.restassured.RestAssured;
 import com.jayway.restassured.filter.log.ResponseLoggingFilter;
+import com.jayway.restassured.path.json.JsonPath;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -372,6 +378,86 @@ public class PagingAndSortingTest extends StructrRestTest {
 
 	}
 
+	@Test
+	public void test04CursorPaging() {
+
+		final int[] values = new int[] { 5, 2, 0, 5, 3, 2, 1, 4 };
+
+		try (final Tx tx = app.tx()) {
+
+			// duplicate sort values need the id to keep the order unique
+			for (int i=0; i<values.length; i++) {
+				app.create(TestOne.class, new Name("TestOne-" + i), new NodeAttribute<>(TestOne.anInt, values[i]));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fex.printStackTrace();
+		}
+
+		final List<String> names  = new LinkedList<>();
+		final List<Integer> ints  = new LinkedList<>();
+		String cursor             = "";
+		int pages                 = 0;
+
+		// follow the cursor until the last page
+		while (cursor != null) {
+
+			final JsonPath json = RestAssured
+
+				.given()
+					.contentType("application/json; charset=UTF-8")
+				.expect()
+					.statusCode(200)
+					.body("page_size", equalTo(3))
+				.when()
+					.get("/test_one?sort=anInt&pageSize=3&cursor=" + cursor)
+					.jsonPath();
+
+			names.addAll(json.getList("result.name"));
+			ints.addAll(json.getList("result.anInt"));
+
+			cursor = json.getString("next_cursor");
+			pages++;
+		}
+
+		assertEquals(3, pages);
+		assertEquals(values.length, names.size());
+		assertEquals(values.length, new HashSet<>(names).size());
+		assertEquals(Arrays.asList(0, 1, 2, 2, 3, 4, 5, 5), ints);
+
+		// a cursor must not be used with a different sort order
+		final String firstCursor = RestAssured
+
+			.given()
+				.contentType("application/json; charset=UTF-8")
+			.expect()
+				.statusCode(200)
+			.when()
+				.get("/test_one?sort=anInt&pageSize=3&cursor=")
+				.jsonPath()
+				.getString("next_cursor");
+
+		RestAssured
+
+			.given()
+				.contentType("application/json; charset=UTF-8")
+			.expect()
+				.statusCode(400)
+			.when()
+				.get("/test_one?sort=name&pageSize=3&cursor=" + firstCursor);
+
+		RestAssured
+
+			.given()
+				.contentType("application/json; charset=UTF-8")
+			.expect()
+				.statusCode(400)
+			.when()
+				.get("/test_one?sort=anInt&pageSize=3&cursor=invalid!");
+	}
+
 	@Test
 	public void testRelationshipResourcePagingOnCollectionResource() {
 
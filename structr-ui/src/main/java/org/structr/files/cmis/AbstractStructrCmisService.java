@@ -18,6 +18,8 @@
  */
 package org.structr.files.cmis;
 
+import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 import org.apache.chemistry.opencmis.commons.data.Properties;
 import org.apache.chemistry.opencmis.commons.data.PropertyData;
@@ -25,7 +27,10 @@ import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
 import org.slf4j.Logger;
 import org.structr.cmis.CMISInfo;
 import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
 import org.structr.core.GraphObject;
+import org.structr.core.Result;
+import org.structr.core.app.Query;
 import org.structr.core.app.StructrApp;
 
 /**
@@ -141,4 +146,40 @@ public abstract class AbstractStructrCmisService {
 
 		return StructrApp.getConfiguration().getNodeEntityClass(objectTypeId);
 	}
+
+	/**
+	 * Executes the given query and returns the maxItems results after
+	 * skipCount, together with the total number of results. The paging
+	 * is done in the database if skipCount is a multiple of maxItems,
+	 * otherwise all results up to the end of the requested range are
+	 * loaded.
+	 *
+	 * @param query
+	 * @param maxItems
+	 * @param skipCount
+	 *
+	 * @return the requested page of the result
+	 * @throws FrameworkException
+	 */
+	public <T extends GraphObject> Result<T> getPage(final Query<T> query, final BigInteger maxItems, final BigInteger skipCount) throws FrameworkException {
+
+		final int skip = skipCount != null ? Math.max(0, skipCount.intValue()) : 0;
+		final int max  = maxItems  != null ? Math.max(0, maxItems.intValue())  : Integer.MAX_VALUE;
+
+		if (max == Integer.MAX_VALUE && skip == 0) {
+			return query.getResult();
+		}
+
+		if (max > 0 && skip % max == 0) {
+
+			return query.pageSize(max).page((skip / max) + 1).getResult();
+		}
+
+		final long end        = Math.min((long)skip + (long)max, (long)Integer.MAX_VALUE);
+		final Result<T> range = query.pageSize((int)Math.max(1L, end)).page(1).getResult();
+		final List<T> results = range.getResults();
+		final int size        = results.size();
+
+		return new Result<>(results.subList(Math.min(skip, size), Math.min((int)end, size)), range.getRawResultCount(), true, false);
+	}
 }
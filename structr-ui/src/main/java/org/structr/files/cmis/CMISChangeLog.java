@@ -0,0 +1,297 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.files.cmis;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.enums.ChangeType;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConstraintException;
+import org.structr.api.config.Settings;
+import org.structr.common.SecurityContext;
+import org.structr.core.GraphObject;
+import org.structr.core.StructrTransactionListener;
+import org.structr.core.TransactionSource;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.ModificationEvent;
+import org.structr.core.property.PropertyMap;
+import org.structr.web.entity.AbstractFile;
+import org.structr.web.entity.Folder;
+
+/**
+ * In-memory log of the changes to files and folders, used to answer
+ * CMIS getContentChanges requests.
+ *
+ * The log is filled from the modification events of each transaction and
+ * keeps the last <code>cmis.changelog.size</code> changes since the start
+ * of the server. Change log tokens contain the start time of the log, so
+ * tokens from a previous server run or tokens that point to changes that
+ * were already removed from the log are rejected, and the client has to
+ * fall back to a full synchronization.
+ *
+ * Deleted objects can no longer be checked for visibility, so deletions
+ * keep the visibility flags of the object at the time it was deleted.
+ */
+public class CMISChangeLog implements StructrTransactionListener {
+
+	private static CMISChangeLog instance = null;
+
+	private final long epoch              = System.currentTimeMillis();
+	private Entry[] entries               = null;
+	private long nextSequence             = 1L;
+
+	private CMISChangeLog(final int size) {
+		this.entries = new Entry[Math.max(1, size)];
+	}
+
+	public static synchronized CMISChangeLog getInstance() {
+
+		if (instance == null) {
+			instance = new CMISChangeLog(Settings.CmisChangeLogSize.getValue());
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Returns the token of the latest change in the log.
+	 *
+	 * @return the latest change log token
+	 */
+	public synchronized String getLatestToken() {
+		return getToken(nextSequence - 1);
+	}
+
+	/**
+	 * Returns all changes after the change with the given token, or all
+	 * changes in the log if the token is null.
+	 *
+	 * @param changeLogToken
+	 * @return the changes after the given token
+	 *
+	 * @throws CmisConstraintException if the token is invalid or the changes are no longer available
+	 */
+	public synchronized List<Entry> getChangesSince(final String changeLogToken) {
+
+		final List<Entry> changes = new LinkedList<>();
+		final long oldest         = Math.max(1L, nextSequence - entries.length);
+		long start                = oldest;
+
+		if (changeLogToken != null && !changeLogToken.isEmpty()) {
+
+			final long sequence = parseToken(changeLogToken);
+			if (sequence < oldest - 1 || sequence >= nextSequence) {
+
+				throw new CmisConstraintException("Change log token " + changeLogToken + " is no longer valid.");
+			}
+
+			start = sequence + 1;
+		}
+
+		for (long i=start; i<nextSequence; i++) {
+			changes.add(entries[(int)(i % entries.length)]);
+		}
+
+		return changes;
+	}
+
+	// ----- interface StructrTransactionListener -----
+	@Override
+	public void beforeCommit(final SecurityContext securityContext, final Collection<ModificationEvent> modificationEvents, final TransactionSource source) {
+	}
+
+	@Override
+	public void afterCommit(final SecurityContext securityContext, final Collection<ModificationEvent> modificationEvents, final TransactionSource source) {
+
+		final long now = System.currentTimeMillis();
+
+		for (final ModificationEvent event : modificationEvents) {
+
+			if (event.isNode()) {
+
+				final ChangeType changeType = getChangeType(event);
+				if (changeType != null) {
+
+					final String type = getType(event);
+					if (type != null) {
+
+						final Class entityType = StructrApp.getConfiguration().getNodeEntityClass(type);
+						if (entityType != null && AbstractFile.class.isAssignableFrom(entityType)) {
+
+							final BaseTypeId baseTypeId = Folder.class.isAssignableFrom(entityType) ? BaseTypeId.CMIS_FOLDER : BaseTypeId.CMIS_DOCUMENT;
+
+							final Entry entry = new Entry(event.getUuid(), type, baseTypeId, changeType, now);
+
+							if (event.isDeleted()) {
+
+								final PropertyMap removedProperties = event.getRemovedProperties();
+
+								entry.visibleToPublicUsers        = Boolean.TRUE.equals(removedProperties.get(GraphObject.visibleToPublicUsers));
+								entry.visibleToAuthenticatedUsers = Boolean.TRUE.equals(removedProperties.get(GraphObject.visibleToAuthenticatedUsers));
+							}
+
+							add(entry);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// ----- private methods -----
+	private synchronized void add(final Entry entry) {
+
+		final long sequence = nextSequence++;
+
+		entry.token = getToken(sequence);
+
+		entries[(int)(sequence % entries.length)] = entry;
+	}
+
+	private ChangeType getChangeType(final ModificationEvent event) {
+
+		if (event.isDeleted()) {
+
+			// objects that were created and deleted in the same transaction were never visible
+			return event.isCreated() ? null : ChangeType.DELETED;
+		}
+
+		if (event.isCreated()) {
+			return ChangeType.CREATED;
+		}
+
+		if (event.isModified()) {
+			return ChangeType.UPDATED;
+		}
+
+		return null;
+	}
+
+	private String getType(final ModificationEvent event) {
+
+		if (event.isDeleted()) {
+
+			final Object type = event.getRemovedProperties().get(GraphObject.type);
+			if (type != null) {
+
+				return type.toString();
+			}
+
+			return null;
+		}
+
+		final GraphObject obj = event.getGraphObject();
+		if (obj != null) {
+
+			return obj.getType();
+		}
+
+		return null;
+	}
+
+	private String getToken(final long sequence) {
+		return epoch + "-" + sequence;
+	}
+
+	private long parseToken(final String token) {
+
+		final int pos = token.indexOf("-");
+		if (pos > 0) {
+
+			try {
+
+				final long tokenEpoch = Long.valueOf(token.substring(0, pos));
+				final long sequence   = Long.valueOf(token.substring(pos + 1));
+
+				if (tokenEpoch == epoch) {
+					return sequence;
+				}
+
+			} catch (NumberFormatException nex) {}
+		}
+
+		throw new CmisConstraintException("Change log token " + token + " is no longer valid.");
+	}
+
+	// ----- nested classes -----
+	public static class Entry {
+
+		private BaseTypeId baseTypeId               = null;
+		private ChangeType changeType               = null;
+		private String objectId                     = null;
+		private String token                        = null;
+		private String type                         = null;
+		private long time                           = 0L;
+		private boolean visibleToPublicUsers        = false;
+		private boolean visibleToAuthenticatedUsers = false;
+
+		public Entry(final String objectId, final String type, final BaseTypeId baseTypeId, final ChangeType changeType, final long time) {
+
+			this.baseTypeId = baseTypeId;
+			this.changeType = changeType;
+			this.objectId   = objectId;
+			this.type       = type;
+			this.time       = time;
+		}
+
+		public BaseTypeId getBaseTypeId() {
+			return baseTypeId;
+		}
+
+		public ChangeType getChangeType() {
+			return changeType;
+		}
+
+		public String getObjectId() {
+			return objectId;
+		}
+
+		public String getToken() {
+			return token;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Returns whether the deleted object was visible to public users.
+		 *
+		 * @return the visibleToPublicUsers flag of a deleted object
+		 */
+		public boolean isVisibleToPublicUsers() {
+			return visibleToPublicUsers;
+		}
+
+		/**
+		 * Returns whether the deleted object was visible to authenticated
+		 * users.
+		 *
+		 * @return the visibleToAuthenticatedUsers flag of a deleted object
+		 */
+		public boolean isVisibleToAuthenticatedUsers() {
+			return visibleToAuthenticatedUsers;
+		}
+	}
+}
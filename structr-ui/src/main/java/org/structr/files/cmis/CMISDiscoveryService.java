@@ -19,15 +19,34 @@
 package org.structr.files.cmis;
 
 import java.math.BigInteger;
+import java.util.GregorianCalendar;
+import java.util.List;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.ExtensionsData;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
 import org.apache.chemistry.opencmis.commons.data.ObjectList;
+import org.apache.chemistry.opencmis.commons.enums.ChangeType;
 import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ChangeEventInfoDataImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ObjectDataImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertiesImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PropertyIdImpl;
 import org.apache.chemistry.opencmis.commons.spi.DiscoveryService;
 import org.apache.chemistry.opencmis.commons.spi.Holder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.cmis.wrapper.CMISObjectWrapper;
 import org.structr.common.SecurityContext;
+import org.structr.common.SortHelper;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.Result;
+import org.structr.core.app.App;
+import org.structr.core.app.Query;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.Tx;
+import org.structr.files.cmis.query.CMISQuery;
 import org.structr.files.cmis.wrapper.CMISObjectListWrapper;
+import org.structr.web.entity.AbstractFile;
 
 /**
  *
@@ -43,11 +62,132 @@ public class CMISDiscoveryService extends AbstractStructrCmisService implements
 
 	@Override
 	public ObjectList query(String repositoryId, String statement, Boolean searchAllVersions, Boolean includeAllowableActions, IncludeRelationships includeRelationships, String renditionFilter, BigInteger maxItems, BigInteger skipCount, ExtensionsData extension) {
-		return new CMISObjectListWrapper(maxItems, skipCount);
+
+		final CMISObjectListWrapper wrapper = new CMISObjectListWrapper(maxItems, skipCount);
+		final CMISQuery cmisQuery           = CMISQuery.parse(statement);
+		final App app                       = StructrApp.getInstance(securityContext);
+
+		try (final Tx tx = app.tx()) {
+
+			final Query<AbstractFile> query     = cmisQuery.createQuery(app);
+			final List<SortHelper.Order> orders = cmisQuery.getSortOrders();
+
+			if (cmisQuery.isEmpty()) {
+
+				wrapper.setTotalCount(0);
+
+			} else {
+
+				final Result<AbstractFile> result = orders.size() > 1 ? getSortedPage(query, orders, maxItems, skipCount) : getPage(query, maxItems, skipCount);
+
+				for (final AbstractFile file : result.getResults()) {
+
+					wrapper.add(CMISObjectWrapper.wrap(file, cmisQuery.getPropertyFilter(), includeAllowableActions));
+				}
+
+				wrapper.setTotalCount(result.getRawResultCount());
+			}
+
+			tx.success();
+
+		} catch (final FrameworkException fex) {
+			logger.warn("", fex);
+		}
+
+		return wrapper;
 	}
 
 	@Override
 	public ObjectList getContentChanges(String repositoryId, Holder<String> changeLogToken, Boolean includeProperties, String filter, Boolean includePolicyIds, Boolean includeAcl, BigInteger maxItems, ExtensionsData extension) {
-		return new CMISObjectListWrapper(maxItems, BigInteger.ZERO);
+
+		final CMISObjectListWrapper wrapper = new CMISObjectListWrapper(maxItems, BigInteger.ZERO);
+		final CMISChangeLog changeLog       = CMISChangeLog.getInstance();
+		final String token                  = changeLogToken != null ? changeLogToken.getValue() : null;
+		final int max                       = maxItems != null ? Math.max(0, maxItems.intValue()) : Integer.MAX_VALUE;
+		final App app                       = StructrApp.getInstance(securityContext);
+		String lastToken                    = token != null ? token : changeLog.getLatestToken();
+		int count                           = 0;
+
+		try (final Tx tx = app.tx()) {
+
+			for (final CMISChangeLog.Entry entry : changeLog.getChangesSince(token)) {
+
+				// only report changes of objects that are visible to the current user
+				if (isVisible(app, entry)) {
+
+					// add one more element than requested so that the wrapper knows that there are more items
+					wrapper.add(wrapChange(entry));
+
+					if (++count > max) {
+						break;
+					}
+
+					lastToken = entry.getToken();
+				}
+			}
+
+			tx.success();
+
+		} catch (final FrameworkException fex) {
+			logger.warn("", fex);
+		}
+
+		if (changeLogToken != null) {
+			changeLogToken.setValue(lastToken);
+		}
+
+		return wrapper;
+	}
+
+	// ----- private methods -----
+	private boolean isVisible(final App app, final CMISChangeLog.Entry entry) throws FrameworkException {
+
+		if (ChangeType.DELETED.equals(entry.getChangeType())) {
+
+			// the readers of a deleted object are unknown, so deletions are only reported
+			// to admin users and to the users the object was visible to by its flags
+			if (securityContext.isSuperUser()) {
+				return true;
+			}
+
+			return securityContext.getUser(false) != null ? entry.isVisibleToAuthenticatedUsers() : entry.isVisibleToPublicUsers();
+		}
+
+		return app.get(AbstractFile.class, entry.getObjectId()) != null;
+	}
+
+	private Result<AbstractFile> getSortedPage(final Query<AbstractFile> query, final List<SortHelper.Order> orders, final BigInteger maxItems, final BigInteger skipCount) throws FrameworkException {
+
+		final int skip                = skipCount != null ? Math.max(0, skipCount.intValue()) : 0;
+		final int max                 = maxItems  != null ? Math.max(0, maxItems.intValue())  : Integer.MAX_VALUE;
+		final List<AbstractFile> list = query.getAsList();
+		final int size                = list.size();
+		final int end                 = (int)Math.min((long)skip + (long)max, (long)size);
+
+		SortHelper.sort(list, orders, SortHelper.getCollator(securityContext), end);
+
+		return new Result<>(list.subList(Math.min(skip, end), end), size, true, false);
+	}
+
+	private ObjectData wrapChange(final CMISChangeLog.Entry entry) {
+
+		final ObjectDataImpl data                = new ObjectDataImpl();
+		final PropertiesImpl properties          = new PropertiesImpl();
+		final ChangeEventInfoDataImpl changeInfo = new ChangeEventInfoDataImpl();
+		final GregorianCalendar changeTime       = new GregorianCalendar();
+
+		changeTime.setTimeInMillis(entry.getTime());
+
+		changeInfo.setChangeType(entry.getChangeType());
+		changeInfo.setChangeTime(changeTime);
+
+		properties.addProperty(new PropertyIdImpl(PropertyIds.OBJECT_ID, entry.getObjectId()));
+		properties.addProperty(new PropertyIdImpl(PropertyIds.OBJECT_TYPE_ID, entry.getType()));
+		properties.addProperty(new PropertyIdImpl(PropertyIds.BASE_TYPE_ID, entry.getBaseTypeId().value()));
+
+		data.setProperties(properties);
+		data.setChangeEventInfo(changeInfo);
+
+		return data;
 	}
 }
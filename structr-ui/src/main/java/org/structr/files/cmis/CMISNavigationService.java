@@ -42,6 +42,7 @@ import org.structr.cmis.wrapper.CMISObjectWrapper;
 import org.structr.common.GraphObjectComparator;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
+import org.structr.core.Result;
 import org.structr.core.app.App;
 import org.structr.core.app.Query;
 import org.structr.core.app.StructrApp;
@@ -74,7 +75,10 @@ public class CMISNavigationService extends AbstractStructrCmisService implements
 
 		try (final Tx tx = app.tx()) {
 
-			wrapper.wrap(getChildrenQuery(app, folderId).getAsList());
+			final Result<AbstractFile> result = getPage(getChildrenQuery(app, folderId), maxItems, skipCount);
+
+			wrapper.wrap(result.getResults());
+			wrapper.setTotalCount(result.getRawResultCount());
 
 			tx.success();
 
@@ -35,6 +35,7 @@ import org.structr.core.app.StructrApp;
 import org.structr.core.auth.exception.AuthenticationException;
 import org.structr.core.entity.Principal;
 import org.structr.core.entity.SuperUser;
+import org.structr.core.graph.TransactionCommand;
 import org.structr.core.graph.Tx;
 import org.structr.rest.auth.AuthHelper;
 
@@ -50,10 +51,14 @@ public class StructrCMISServicesFactory implements CmisServiceFactory {
 	public void init(final Map<String, String> config) {
 
 		logger.info("Initialization map: {}", config);
+
+		TransactionCommand.registerTransactionListener(CMISChangeLog.getInstance());
 	}
 
 	@Override
 	public void destroy() {
+
+		TransactionCommand.removeTransactionListener(CMISChangeLog.getInstance());
 	}
 
 	@Override
@@ -51,7 +51,7 @@ public class StructrRepositoryCapabilities extends CMISExtensionsData implements
 
 	@Override
 	public CapabilityChanges getChangesCapability() {
-		return CapabilityChanges.NONE;
+		return CapabilityChanges.OBJECTIDSONLY;
 	}
 
 	@Override
@@ -18,6 +18,7 @@
  */
 package org.structr.files.cmis.config;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -39,6 +40,7 @@ import org.structr.cmis.CMISInfo;
 import org.structr.cmis.common.CMISExtensionsData;
 import org.structr.common.Permission;
 import org.structr.core.entity.Principal;
+import org.structr.files.cmis.CMISChangeLog;
 import org.structr.files.cmis.repository.StructrAccessControlPermissionMapping;
 import org.structr.files.cmis.repository.StructrDeletePermissionMapping;
 import org.structr.files.cmis.repository.StructrPermissionDefinition;
@@ -100,7 +102,7 @@ public class StructrRepositoryInfo extends CMISExtensionsData implements Reposit
 
 	@Override
 	public String getLatestChangeLogToken() {
-		return null;
+		return CMISChangeLog.getInstance().getLatestToken();
 	}
 
 	@Override
@@ -120,12 +122,14 @@ public class StructrRepositoryInfo extends CMISExtensionsData implements Reposit
 
 	@Override
 	public Boolean getChangesIncomplete() {
-		return false;
+
+		// the change log only contains the latest changes since the start of the server
+		return true;
 	}
 
 	@Override
 	public List<BaseTypeId> getChangesOnType() {
-		return Collections.emptyList();
+		return Arrays.asList(BaseTypeId.CMIS_DOCUMENT, BaseTypeId.CMIS_FOLDER);
 	}
 
 	@Override
@@ -0,0 +1,915 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.files.cmis.query;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisInvalidArgumentException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.structr.cmis.CMISInfo;
+import org.structr.common.SortHelper;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.app.App;
+import org.structr.core.app.Query;
+import org.structr.core.app.StructrApp;
+import org.structr.core.entity.AbstractNode;
+import org.structr.core.entity.Principal;
+import org.structr.core.property.PropertyKey;
+import org.structr.web.entity.AbstractFile;
+import org.structr.web.entity.File;
+import org.structr.web.entity.Folder;
+import org.structr.web.entity.Image;
+
+/**
+ * A CMIS query statement, translated into a Structr {@link Query}.
+ *
+ * Supports the subset of CMIS-SQL that can be mapped onto the search
+ * attributes of a query without post-filtering, so that paging can be
+ * done in the database:
+ *
+ * <pre>
+ * SELECT * | property [, property]* FROM typeId [[AS] alias]
+ * [WHERE predicate [AND predicate]*]
+ * [ORDER BY property [ASC|DESC] [, property [ASC|DESC]]*]
+ * </pre>
+ *
+ * with the predicates <code>=, &lt;, &lt;=, &gt;, &gt;=</code>,
+ * <code>LIKE '%text%'</code>, <code>IS [NOT] NULL</code> and
+ * <code>IN_FOLDER('folderId')</code>. OR, NOT, IN, CONTAINS and joins
+ * are rejected with a CmisInvalidArgumentException.
+ */
+public class CMISQuery {
+
+	public enum Operator { Equals, Less, LessOrEqual, Greater, GreaterOrEqual, Like, IsNull, IsNotNull, InFolder }
+
+	private final List<Condition> conditions  = new LinkedList<>();
+	private final List<Order> orders          = new LinkedList<>();
+	private final List<String> properties     = new LinkedList<>();
+	private List<SortHelper.Order> sortOrders = new LinkedList<>();
+	private String typeId                     = null;
+	private boolean empty                     = false;
+
+	private CMISQuery() {}
+
+	/**
+	 * Parses the given CMIS-SQL statement.
+	 *
+	 * @param statement
+	 * @return the parsed query
+	 *
+	 * @throws CmisInvalidArgumentException if the statement is invalid or not supported
+	 */
+	public static CMISQuery parse(final String statement) {
+
+		if (statement == null) {
+			throw new CmisInvalidArgumentException("Query statement must not be null.");
+		}
+
+		final CMISQuery query = new CMISQuery();
+
+		new Parser(statement).parse(query);
+
+		return query;
+	}
+
+	public String getTypeId() {
+		return typeId;
+	}
+
+	public List<Condition> getConditions() {
+		return conditions;
+	}
+
+	public List<Order> getOrders() {
+		return orders;
+	}
+
+	/**
+	 * Returns the property filter for the selected properties, or null
+	 * if all properties are selected.
+	 *
+	 * @return the property filter
+	 */
+	public String getPropertyFilter() {
+
+		if (properties.isEmpty()) {
+			return null;
+		}
+
+		return String.join(",", properties);
+	}
+
+	/**
+	 * Returns the resolved sort orders. Only the first sort order is
+	 * applied to the query created in {@link #createQuery(App)}, all
+	 * others need to be applied in memory.
+	 *
+	 * @return the sort orders
+	 */
+	public List<SortHelper.Order> getSortOrders() {
+		return sortOrders;
+	}
+
+	/**
+	 * Returns whether one of the conditions can never be satisfied, e.g.
+	 * a strict comparison beyond the range of the property type, so that
+	 * the query created in {@link #createQuery(App)} must not be executed.
+	 *
+	 * @return whether the query has no results
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Creates a Structr query for this CMIS query.
+	 *
+	 * @param app
+	 * @return the query
+	 *
+	 * @throws FrameworkException
+	 */
+	public Query<AbstractFile> createQuery(final App app) throws FrameworkException {
+
+		final Class<AbstractFile> type         = getType();
+		final Query<AbstractFile> query        = app.nodeQuery(type);
+		final PropertyKey<Boolean> isThumbnail = StructrApp.key(Image.class, "isThumbnail");
+
+		if (!Folder.class.isAssignableFrom(type)) {
+			query.and(isThumbnail, false);
+		}
+
+		empty = false;
+
+		for (final Condition condition : conditions) {
+
+			if (!condition.apply(app, type, query)) {
+				empty = true;
+			}
+		}
+
+		sortOrders = new LinkedList<>();
+
+		for (final Order order : orders) {
+			sortOrders.add(new SortHelper.Order(getKey(type, order.getProperty()), order.isDescending()));
+		}
+
+		if (sortOrders.isEmpty()) {
+
+			query.sort(AbstractNode.name);
+
+		} else {
+
+			final SortHelper.Order first = sortOrders.get(0);
+
+			query.sort(first.getSortKey()).order(first.isSortDescending());
+		}
+
+		return query;
+	}
+
+	// ----- private methods -----
+	private Class<AbstractFile> getType() {
+
+		switch (typeId) {
+
+			case "cmis:document":
+				return (Class)File.class;
+
+			case "cmis:folder":
+				return (Class)Folder.class;
+		}
+
+		final Class type = StructrApp.getConfiguration().getNodeEntityClass(typeId);
+		if (type != null && AbstractFile.class.isAssignableFrom(type)) {
+
+			return type;
+		}
+
+		throw new CmisInvalidArgumentException("Type " + typeId + " cannot be queried.");
+	}
+
+	private static PropertyKey getKey(final Class type, final String property) {
+
+		switch (property) {
+
+			case PropertyIds.NAME:
+				return AbstractNode.name;
+
+			case PropertyIds.OBJECT_ID:
+				return GraphObject.id;
+
+			case PropertyIds.OBJECT_TYPE_ID:
+				return GraphObject.type;
+
+			case PropertyIds.CREATED_BY:
+				return GraphObject.createdBy;
+
+			case PropertyIds.CREATION_DATE:
+				return GraphObject.createdDate;
+
+			case PropertyIds.LAST_MODIFICATION_DATE:
+				return GraphObject.lastModifiedDate;
+
+			case PropertyIds.CONTENT_STREAM_LENGTH:
+				return StructrApp.key(File.class, "size");
+
+			case PropertyIds.CONTENT_STREAM_MIME_TYPE:
+				return StructrApp.key(File.class, "contentType");
+
+			case PropertyIds.PARENT_ID:
+				return StructrApp.key(AbstractFile.class, "parent");
+		}
+
+		final PropertyKey key = StructrApp.getConfiguration().getPropertyKeyForJSONName(type, property, false);
+		if (key != null) {
+
+			return key;
+		}
+
+		throw new CmisInvalidArgumentException("Unknown property " + property + ".");
+	}
+
+	// ----- nested classes -----
+	/**
+	 * A single predicate of the WHERE clause.
+	 */
+	public static class Condition {
+
+		private Operator operator = null;
+		private String property   = null;
+		private Object value      = null;
+
+		public Condition(final String property, final Operator operator, final Object value) {
+
+			this.property = property;
+			this.operator = operator;
+			this.value    = value;
+		}
+
+		public String getProperty() {
+			return property;
+		}
+
+		public Operator getOperator() {
+			return operator;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+
+		private boolean apply(final App app, final Class type, final Query query) throws FrameworkException {
+
+			if (Operator.InFolder.equals(operator) || PropertyIds.PARENT_ID.equals(property)) {
+
+				if (!Operator.InFolder.equals(operator) && !Operator.Equals.equals(operator)) {
+					throw new CmisInvalidArgumentException("Only = is supported for " + PropertyIds.PARENT_ID + ".");
+				}
+
+				applyFolder(app, query);
+				return true;
+			}
+
+			final PropertyKey key = getKey(type, property);
+
+			switch (operator) {
+
+				case IsNull:
+					query.blank(key);
+					break;
+
+				case IsNotNull:
+					query.notBlank(key);
+					break;
+
+				case Like:
+					applyLike(key, query);
+					break;
+
+				case Equals:
+					query.and(key, convert(app, key, value));
+					break;
+
+				default:
+					return applyRange(app, key, query);
+			}
+
+			return true;
+		}
+
+		private void applyFolder(final App app, final Query query) throws FrameworkException {
+
+			final String folderId = value != null ? value.toString() : null;
+
+			if (CMISInfo.ROOT_FOLDER_ID.equals(folderId)) {
+
+				query.and(StructrApp.key(AbstractFile.class, "hasParent"), false);
+
+			} else {
+
+				final Folder folder = app.get(Folder.class, folderId);
+				if (folder != null) {
+
+					query.and(StructrApp.key(AbstractFile.class, "parent"), folder);
+
+				} else {
+
+					throw new CmisObjectNotFoundException("Folder with ID " + folderId + " does not exist");
+				}
+			}
+		}
+
+		private void applyLike(final PropertyKey key, final Query query) {
+
+			final String pattern       = value.toString();
+			final StringBuilder text   = new StringBuilder();
+			final int length           = pattern.length();
+			boolean leadingWildcard    = false;
+			boolean trailingWildcard   = false;
+
+			for (int i=0; i<length; i++) {
+
+				final char c = pattern.charAt(i);
+
+				if (c == '\\' && i+1 < length) {
+
+					text.append(pattern.charAt(++i));
+
+				} else if (c == '%' && i == 0) {
+
+					leadingWildcard = true;
+
+				} else if (c == '%' && i == length-1) {
+
+					trailingWildcard = true;
+
+				} else if (c == '%' || c == '_') {
+
+					throw new CmisInvalidArgumentException("Only LIKE patterns of the form '%text%' are supported.");
+
+				} else {
+
+					text.append(c);
+				}
+			}
+
+			if (leadingWildcard && trailingWildcard) {
+
+				query.and(key, text.toString(), false);
+
+			} else if (!leadingWildcard && !trailingWildcard) {
+
+				query.and(key, text.toString());
+
+			} else {
+
+				throw new CmisInvalidArgumentException("Only LIKE patterns of the form '%text%' are supported.");
+			}
+		}
+
+		private boolean applyRange(final App app, final PropertyKey key, final Query query) throws FrameworkException {
+
+			final Object converted = convert(app, key, value);
+			final boolean lower    = Operator.Greater.equals(operator) || Operator.GreaterOrEqual.equals(operator);
+			final boolean strict   = Operator.Greater.equals(operator) || Operator.Less.equals(operator);
+			Object bound           = converted;
+			Object min             = null;
+			Object max             = null;
+
+			// ranges are inclusive, so strict bounds are moved by the smallest possible step,
+			// a strict bound at the end of the value range would overflow and can never match
+			if (converted instanceof Integer) {
+
+				final int number = (Integer)converted;
+
+				if (strict && number == (lower ? Integer.MAX_VALUE : Integer.MIN_VALUE)) {
+					return false;
+				}
+
+				min   = Integer.MIN_VALUE;
+				max   = Integer.MAX_VALUE;
+				bound = strict ? number + (lower ? 1 : -1) : converted;
+
+			} else if (converted instanceof Long) {
+
+				final long number = (Long)converted;
+
+				if (strict && number == (lower ? Long.MAX_VALUE : Long.MIN_VALUE)) {
+					return false;
+				}
+
+				min   = Long.MIN_VALUE;
+				max   = Long.MAX_VALUE;
+				bound = strict ? number + (lower ? 1L : -1L) : converted;
+
+			} else if (converted instanceof Double) {
+
+				final double number = (Double)converted;
+
+				if (strict && (lower ? number >= Double.MAX_VALUE : number <= -Double.MAX_VALUE)) {
+					return false;
+				}
+
+				min   = -Double.MAX_VALUE;
+				max   = Double.MAX_VALUE;
+				bound = strict ? (lower ? Math.nextUp(number) : Math.nextDown(number)) : converted;
+
+			} else if (converted instanceof Date) {
+
+				final long time = ((Date)converted).getTime();
+
+				if (strict && time == (lower ? Long.MAX_VALUE : Long.MIN_VALUE)) {
+					return false;
+				}
+
+				min   = new Date(Long.MIN_VALUE);
+				max   = new Date(Long.MAX_VALUE);
+				bound = strict ? new Date(time + (lower ? 1L : -1L)) : converted;
+
+			} else {
+
+				throw new CmisInvalidArgumentException("Comparison operators are only supported for numeric and date properties.");
+			}
+
+			if (lower) {
+
+				query.andRange(key, bound, max);
+
+			} else {
+
+				query.andRange(key, min, bound);
+			}
+
+			return true;
+		}
+
+		private Object convert(final App app, final PropertyKey key, final Object value) throws FrameworkException {
+
+			final Class valueType = key.valueType();
+
+			if (GraphObject.createdBy.equals(key) && value instanceof String) {
+
+				// CMIS exposes the name of the creator, Structr stores the ID
+				final Principal principal = app.nodeQuery(Principal.class).andName((String)value).getFirst();
+				if (principal != null) {
+
+					return principal.getUuid();
+				}
+			}
+
+			if (value == null || valueType == null || valueType.isInstance(value)) {
+				return value;
+			}
+
+			if (value instanceof Number) {
+
+				final Number number = (Number)value;
+
+				if (Integer.class.equals(valueType)) {
+					return number.intValue();
+				}
+
+				if (Long.class.equals(valueType)) {
+					return number.longValue();
+				}
+
+				if (Double.class.equals(valueType)) {
+					return number.doubleValue();
+				}
+			}
+
+			if (String.class.equals(valueType)) {
+				return value.toString();
+			}
+
+			throw new CmisInvalidArgumentException("Invalid value " + value + " for property " + property + ".");
+		}
+	}
+
+	/**
+	 * A single element of the ORDER BY clause.
+	 */
+	public static class Order {
+
+		private boolean descending = false;
+		private String property    = null;
+
+		public Order(final String property, final boolean descending) {
+
+			this.descending = descending;
+			this.property   = property;
+		}
+
+		public String getProperty() {
+			return property;
+		}
+
+		public boolean isDescending() {
+			return descending;
+		}
+	}
+
+	/**
+	 * Recursive-descent parser for the supported CMIS-SQL subset.
+	 */
+	private static class Parser {
+
+		private final List<String> tokens = new LinkedList<>();
+		private String alias              = null;
+		private String statement          = null;
+
+		public Parser(final String statement) {
+
+			this.statement = statement;
+
+			tokenize(statement);
+		}
+
+		public void parse(final CMISQuery query) {
+
+			final List<String> selected = new LinkedList<>();
+
+			expectKeyword("SELECT");
+
+			if ("*".equals(peek())) {
+
+				next();
+
+			} else {
+
+				do {
+					selected.add(identifier());
+
+				} while (acceptSymbol(","));
+			}
+
+			expectKeyword("FROM");
+
+			query.typeId = identifier();
+
+			if (acceptKeyword("JOIN") || isKeyword(peek(), "INNER") || isKeyword(peek(), "LEFT")) {
+				throw new CmisInvalidArgumentException("Joins are not supported.");
+			}
+
+			acceptKeyword("AS");
+
+			if (peek() != null && !isKeyword(peek(), "WHERE") && !isKeyword(peek(), "ORDER")) {
+				alias = identifier();
+			}
+
+			for (final String property : selected) {
+				query.properties.add(stripAlias(property));
+			}
+
+			if (acceptKeyword("WHERE")) {
+
+				do {
+					query.conditions.add(predicate());
+
+				} while (acceptKeyword("AND"));
+
+				if (isKeyword(peek(), "OR")) {
+					throw new CmisInvalidArgumentException("OR is not supported, only AND.");
+				}
+			}
+
+			if (acceptKeyword("ORDER")) {
+
+				expectKeyword("BY");
+
+				do {
+					final String property = stripAlias(identifier());
+					boolean descending    = false;
+
+					if (acceptKeyword("DESC")) {
+
+						descending = true;
+
+					} else {
+
+						acceptKeyword("ASC");
+					}
+
+					query.orders.add(new Order(property, descending));
+
+				} while (acceptSymbol(","));
+			}
+
+			if (peek() != null) {
+				throw new CmisInvalidArgumentException("Unexpected token " + peek() + " in query " + statement);
+			}
+		}
+
+		// ----- private methods -----
+		private Condition predicate() {
+
+			final String token = peek();
+
+			if (isKeyword(token, "NOT") || isKeyword(token, "CONTAINS") || isKeyword(token, "ANY") || isKeyword(token, "IN_TREE") || "(".equals(token)) {
+				throw new CmisInvalidArgumentException(token + " is not supported in WHERE clauses.");
+			}
+
+			if (acceptKeyword("IN_FOLDER")) {
+
+				expectSymbol("(");
+
+				// optional qualifier
+				if (peek() != null && !peek().startsWith("'")) {
+
+					identifier();
+					expectSymbol(",");
+				}
+
+				final Object folderId = literal();
+
+				expectSymbol(")");
+
+				return new Condition(null, Operator.InFolder, folderId);
+			}
+
+			final String property = stripAlias(identifier());
+
+			if (acceptKeyword("IS")) {
+
+				final boolean not = acceptKeyword("NOT");
+
+				expectKeyword("NULL");
+
+				return new Condition(property, not ? Operator.IsNotNull : Operator.IsNull, null);
+			}
+
+			if (acceptKeyword("LIKE")) {
+				return new Condition(property, Operator.Like, literal());
+			}
+
+			final String operator = next();
+
+			if (operator == null) {
+				throw new CmisInvalidArgumentException("Unexpected end of query " + statement);
+			}
+
+			switch (operator) {
+
+				case "=":
+					return new Condition(property, Operator.Equals, literal());
+
+				case "<":
+					return new Condition(property, Operator.Less, literal());
+
+				case "<=":
+					return new Condition(property, Operator.LessOrEqual, literal());
+
+				case ">":
+					return new Condition(property, Operator.Greater, literal());
+
+				case ">=":
+					return new Condition(property, Operator.GreaterOrEqual, literal());
+			}
+
+			throw new CmisInvalidArgumentException("Operator " + operator + " is not supported.");
+		}
+
+		private Object literal() {
+
+			final String token = next();
+
+			if (token == null) {
+				throw new CmisInvalidArgumentException("Unexpected end of query " + statement);
+			}
+
+			if (token.startsWith("'")) {
+				return token.substring(1);
+			}
+
+			if (isKeyword(token, "TRUE")) {
+				return true;
+			}
+
+			if (isKeyword(token, "FALSE")) {
+				return false;
+			}
+
+			if (isKeyword(token, "TIMESTAMP")) {
+
+				final String value = next();
+				if (value != null && value.startsWith("'")) {
+
+					try {
+						return Date.from(OffsetDateTime.parse(value.substring(1)).toInstant());
+
+					} catch (DateTimeParseException dex) {
+						throw new CmisInvalidArgumentException("Invalid timestamp " + value.substring(1));
+					}
+				}
+
+				throw new CmisInvalidArgumentException("Invalid timestamp in query " + statement);
+			}
+
+			try {
+
+				if (token.contains(".") || token.contains("e") || token.contains("E")) {
+					return Double.valueOf(token);
+				}
+
+				return Long.valueOf(token);
+
+			} catch (NumberFormatException nex) {
+
+				throw new CmisInvalidArgumentException("Invalid literal " + token + " in query " + statement);
+			}
+		}
+
+		private String identifier() {
+
+			final String token = next();
+
+			if (token == null || token.startsWith("'") || !isIdentifierStart(token.charAt(0))) {
+				throw new CmisInvalidArgumentException("Expected identifier instead of " + token + " in query " + statement);
+			}
+
+			return token;
+		}
+
+		private String stripAlias(final String identifier) {
+
+			if (alias != null && identifier.startsWith(alias + ".")) {
+				return identifier.substring(alias.length() + 1);
+			}
+
+			return identifier;
+		}
+
+		private String peek() {
+			return tokens.isEmpty() ? null : tokens.get(0);
+		}
+
+		private String next() {
+			return tokens.isEmpty() ? null : tokens.remove(0);
+		}
+
+		private boolean isKeyword(final String token, final String keyword) {
+			return token != null && keyword.equalsIgnoreCase(token);
+		}
+
+		private boolean acceptKeyword(final String keyword) {
+
+			if (isKeyword(peek(), keyword)) {
+
+				next();
+				return true;
+			}
+
+			return false;
+		}
+
+		private boolean acceptSymbol(final String symbol) {
+
+			if (symbol.equals(peek())) {
+
+				next();
+				return true;
+			}
+
+			return false;
+		}
+
+		private void expectKeyword(final String keyword) {
+
+			if (!acceptKeyword(keyword)) {
+				throw new CmisInvalidArgumentException("Expected " + keyword + " instead of " + peek() + " in query " + statement);
+			}
+		}
+
+		private void expectSymbol(final String symbol) {
+
+			if (!acceptSymbol(symbol)) {
+				throw new CmisInvalidArgumentException("Expected " + symbol + " instead of " + peek() + " in query " + statement);
+			}
+		}
+
+		private boolean isIdentifierStart(final char c) {
+			return Character.isLetter(c) || c == '_';
+		}
+
+		private boolean isIdentifierPart(final char c) {
+			return Character.isLetterOrDigit(c) || c == '_' || c == ':' || c == '.';
+		}
+
+		/**
+		 * Splits the statement into identifiers, numbers, symbols and
+		 * string literals. String literals keep their leading quote so
+		 * that they can be distinguished from identifiers.
+		 */
+		private void tokenize(final String statement) {
+
+			final int length = statement.length();
+			int i            = 0;
+
+			while (i < length) {
+
+				final char c = statement.charAt(i);
+
+				if (Character.isWhitespace(c)) {
+
+					i++;
+
+				} else if (c == '\'') {
+
+					final StringBuilder buf = new StringBuilder("'");
+					boolean closed          = false;
+
+					i++;
+
+					while (i < length) {
+
+						final char s = statement.charAt(i++);
+
+						if (s == '\\' && i < length) {
+
+							final char escaped = statement.charAt(i++);
+
+							// keep escaped wildcards for LIKE
+							if (escaped == '%' || escaped == '_') {
+								buf.append('\\');
+							}
+
+							buf.append(escaped);
+
+						} else if (s == '\'' && i < length && statement.charAt(i) == '\'') {
+
+							buf.append('\'');
+							i++;
+
+						} else if (s == '\'') {
+
+							closed = true;
+							break;
+
+						} else {
+
+							buf.append(s);
+						}
+					}
+
+					if (!closed) {
+						throw new CmisInvalidArgumentException("Unterminated string literal in query " + statement);
+					}
+
+					tokens.add(buf.toString());
+
+				} else if (isIdentifierStart(c)) {
+
+					final int start = i;
+
+					while (i < length && isIdentifierPart(statement.charAt(i))) {
+						i++;
+					}
+
+					tokens.add(statement.substring(start, i));
+
+				} else if (Character.isDigit(c) || ((c == '-' || c == '+') && i+1 < length && Character.isDigit(statement.charAt(i+1)))) {
+
+					final int start = i++;
+
+					while (i < length && (Character.isLetterOrDigit(statement.charAt(i)) || statement.charAt(i) == '.' || ((statement.charAt(i) == '-' || statement.charAt(i) == '+') && Character.toLowerCase(statement.charAt(i-1)) == 'e'))) {
+						i++;
+					}
+
+					tokens.add(statement.substring(start, i));
+
+				} else if ((c == '<' || c == '>') && i+1 < length && (statement.charAt(i+1) == '=' || statement.charAt(i+1) == '>')) {
+
+					tokens.add(statement.substring(i, i+2));
+					i += 2;
+
+				} else {
+
+					tokens.add(String.valueOf(c));
+					i++;
+				}
+			}
+		}
+	}
+}
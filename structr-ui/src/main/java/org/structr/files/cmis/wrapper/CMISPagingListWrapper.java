@@ -30,9 +30,10 @@ import org.structr.cmis.common.CMISExtensionsData;
  */
 public class CMISPagingListWrapper<T> extends CMISExtensionsData {
 
-	private List<T> list  = null;
-	private int maxItems  = Integer.MAX_VALUE;
-	private int skipCount = 0;
+	private List<T> list   = null;
+	private int maxItems   = Integer.MAX_VALUE;
+	private int skipCount  = 0;
+	private int totalCount = -1;
 
 	public CMISPagingListWrapper() {
 		this(new LinkedList<T>(), null, null);
@@ -71,11 +72,31 @@ public class CMISPagingListWrapper<T> extends CMISExtensionsData {
 		list.addAll(data);
 	}
 
+	/**
+	 * Sets the total number of items and marks the list as already
+	 * paged, so that it only contains the items of the requested page.
+	 *
+	 * @param totalCount
+	 */
+	public void setTotalCount(final int totalCount) {
+		this.totalCount = totalCount;
+	}
+
 	public Boolean hasMoreItems() {
+
+		if (totalCount >= 0) {
+			return totalCount > skipCount + list.size();
+		}
+
 		return list.size() > skipCount + maxItems;
 	}
 
 	public BigInteger getNumItems() {
+
+		if (totalCount >= 0) {
+			return BigInteger.valueOf(totalCount);
+		}
+
 		return BigInteger.valueOf(list.size());
 	}
 
@@ -85,6 +106,10 @@ public class CMISPagingListWrapper<T> extends CMISExtensionsData {
 
 	public List<T> getPagedList() {
 
+		if (totalCount >= 0) {
+			return list;
+		}
+
 		final int size = list.size();
 		int to         = Math.min(maxItems, size);
 		int from       = 0;
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of direct byte buffers of equal size. At most maxPooled
+ * direct buffers are allocated, heap buffers are handed out when all of
+ * them are in use. Heap buffers are not pooled.
+ */
+public class ByteBufferPool {
+
+	private final AtomicLong allocations      = new AtomicLong(0L);
+	private final AtomicInteger direct        = new AtomicInteger(0);
+	private BlockingQueue<ByteBuffer> buffers = null;
+	private int bufferSize                    = 0;
+	private int maxDirect                     = 0;
+
+	public ByteBufferPool(final int bufferSize, final int maxPooled) {
+
+		this.maxDirect  = Math.max(1, maxPooled);
+		this.buffers    = new ArrayBlockingQueue<>(maxDirect);
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Returns a cleared buffer from the pool, or a newly allocated buffer
+	 * if the pool is empty. New buffers are direct buffers until the
+	 * maximum number of direct buffers is reached, heap buffers after that.
+	 *
+	 * @return a buffer
+	 */
+	public ByteBuffer acquire() {
+
+		final ByteBuffer buffer = buffers.poll();
+		if (buffer != null) {
+
+			return buffer;
+		}
+
+		allocations.incrementAndGet();
+
+		if (direct.incrementAndGet() <= maxDirect) {
+
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+
+		direct.decrementAndGet();
+
+		return ByteBuffer.allocate(bufferSize);
+	}
+
+	/**
+	 * Returns the given buffer to the pool.
+	 *
+	 * @param buffer the buffer
+	 */
+	public void release(final ByteBuffer buffer) {
+
+		if (buffer != null && buffer.isDirect() && buffer.capacity() == bufferSize) {
+
+			buffer.clear();
+			buffers.offer(buffer);
+		}
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public int getPooledCount() {
+		return buffers.size();
+	}
+
+	public long getAllocationCount() {
+		return allocations.get();
+	}
+}
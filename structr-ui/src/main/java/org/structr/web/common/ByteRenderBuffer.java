@@ -0,0 +1,273 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import org.structr.api.config.Settings;
+
+/**
+ * Render buffer that encodes its content to UTF-8 as it is appended and
+ * streams it to an output stream. The bytes are collected in a single
+ * direct buffer taken from a shared pool, which is written to the output
+ * stream whenever it is full, so the size of the rendered page does not
+ * affect the memory used per request.
+ *
+ * Errors that occur while writing are kept until {@link #flush()} is
+ * called, output appended after such an error is discarded.
+ *
+ * Instances of this class are not thread-safe, and {@link #release()}
+ * must be called when the buffer is no longer needed.
+ */
+public class ByteRenderBuffer extends AsyncBuffer {
+
+	private static final int SCRATCH_SIZE = 8192;
+	private static ByteBufferPool pool    = null;
+
+	private final byte[] scratch          = new byte[SCRATCH_SIZE];
+	private WritableByteChannel channel   = null;
+	private ByteBufferPool bufferPool     = null;
+	private IOException writeError        = null;
+	private ByteBuffer current            = null;
+	private boolean finished              = false;
+	private char pendingSurrogate         = 0;
+	private int scratchLength             = 0;
+	private long written                  = 0L;
+
+	public ByteRenderBuffer(final OutputStream out) {
+		this(getPool(), out);
+	}
+
+	public ByteRenderBuffer(final ByteBufferPool bufferPool, final OutputStream out) {
+
+		this.channel    = Channels.newChannel(out);
+		this.bufferPool = bufferPool;
+	}
+
+	@Override
+	public AsyncBuffer append(final String s) {
+
+		if (s != null) {
+
+			if (finished) {
+				throw new IllegalStateException("Buffer has already been written.");
+			}
+
+			final int length = s.length();
+
+			for (int i=0; i<length; i++) {
+
+				// make room for the longest possible sequence
+				if (scratchLength > SCRATCH_SIZE - 4) {
+					flushScratch();
+				}
+
+				final char c = s.charAt(i);
+
+				if (pendingSurrogate != 0) {
+
+					final char high  = pendingSurrogate;
+					pendingSurrogate = 0;
+
+					if (Character.isLowSurrogate(c)) {
+
+						encodeCodePoint(Character.toCodePoint(high, c));
+						continue;
+					}
+
+					// unpaired high surrogate
+					scratch[scratchLength++] = '?';
+
+					if (scratchLength > SCRATCH_SIZE - 4) {
+						flushScratch();
+					}
+				}
+
+				if (c < 0x80) {
+
+					scratch[scratchLength++] = (byte)c;
+
+				} else if (c < 0x800) {
+
+					scratch[scratchLength++] = (byte)(0xc0 | (c >> 6));
+					scratch[scratchLength++] = (byte)(0x80 | (c & 0x3f));
+
+				} else if (Character.isHighSurrogate(c)) {
+
+					// the low surrogate may be contained in the next string
+					pendingSurrogate = c;
+
+				} else if (Character.isLowSurrogate(c)) {
+
+					// unpaired low surrogate
+					scratch[scratchLength++] = '?';
+
+				} else {
+
+					scratch[scratchLength++] = (byte)(0xe0 | (c >> 12));
+					scratch[scratchLength++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+					scratch[scratchLength++] = (byte)(0x80 | (c & 0x3f));
+				}
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Returns the number of bytes appended to this buffer so far.
+	 *
+	 * @return the number of bytes
+	 */
+	public long size() {
+		return written + scratchLength + (current != null ? current.position() : 0);
+	}
+
+	/**
+	 * Writes the remaining content of this buffer to the output stream and
+	 * returns the buffer to the pool.
+	 *
+	 * @throws IOException if writing to the output stream failed
+	 */
+	public void flush() throws IOException {
+
+		try {
+
+			finish();
+
+			if (current != null) {
+				writeCurrent();
+			}
+
+			if (writeError != null) {
+				throw writeError;
+			}
+
+		} finally {
+
+			release();
+		}
+	}
+
+	/**
+	 * Returns the buffer to the pool. Content that has not been written
+	 * yet is lost.
+	 */
+	public void release() {
+
+		if (current != null) {
+
+			bufferPool.release(current);
+			current = null;
+		}
+
+		scratchLength = 0;
+		finished      = true;
+	}
+
+	// ----- private methods -----
+	private void finish() {
+
+		if (!finished) {
+
+			if (pendingSurrogate != 0) {
+
+				// unpaired high surrogate at the end of the content
+				if (scratchLength == SCRATCH_SIZE) {
+					flushScratch();
+				}
+
+				scratch[scratchLength++] = '?';
+				pendingSurrogate         = 0;
+			}
+
+			flushScratch();
+
+			finished = true;
+		}
+	}
+
+	private void encodeCodePoint(final int codePoint) {
+
+		scratch[scratchLength++] = (byte)(0xf0 | (codePoint >> 18));
+		scratch[scratchLength++] = (byte)(0x80 | ((codePoint >> 12) & 0x3f));
+		scratch[scratchLength++] = (byte)(0x80 | ((codePoint >> 6) & 0x3f));
+		scratch[scratchLength++] = (byte)(0x80 | (codePoint & 0x3f));
+	}
+
+	private void flushScratch() {
+
+		int offset = 0;
+
+		if (current == null) {
+			current = bufferPool.acquire();
+		}
+
+		while (offset < scratchLength) {
+
+			if (!current.hasRemaining()) {
+				writeCurrent();
+			}
+
+			final int count = Math.min(current.remaining(), scratchLength - offset);
+
+			current.put(scratch, offset, count);
+			offset += count;
+		}
+
+		scratchLength = 0;
+	}
+
+	private void writeCurrent() {
+
+		current.flip();
+
+		written += current.remaining();
+
+		if (writeError == null) {
+
+			try {
+
+				while (current.hasRemaining()) {
+					channel.write(current);
+				}
+
+			} catch (IOException ioex) {
+
+				// the client may have closed the connection, the
+				// error is reported when the buffer is flushed
+				writeError = ioex;
+			}
+		}
+
+		current.clear();
+	}
+
+	private static synchronized ByteBufferPool getPool() {
+
+		if (pool == null) {
+			pool = new ByteBufferPool(Math.max(1024, Settings.RenderBufferSize.getValue()), Settings.RenderBufferPoolSize.getValue());
+		}
+
+		return pool;
+	}
+}
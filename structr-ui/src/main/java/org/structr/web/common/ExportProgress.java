@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.structr.common.SecurityContext;
+import org.structr.core.entity.Principal;
+import org.structr.core.graph.TransactionCommand;
+
+/**
+ * Reports the progress of a long-running export, both in the log and
+ * as a broadcast message with the given type and the subtypes BEGIN,
+ * CHUNK and END, like the CSV import does.
+ */
+public class ExportProgress {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExportProgress.class.getName());
+
+	private String username  = null;
+	private String name      = null;
+	private String type      = null;
+	private int interval     = 0;
+	private long startTime   = 0L;
+	private int count        = 0;
+
+	public ExportProgress(final SecurityContext securityContext, final String type, final String name, final int interval) {
+
+		final Principal user = securityContext != null ? securityContext.getUser(false) : null;
+
+		this.username = user != null ? user.getName() : null;
+		this.interval = interval;
+		this.type     = type;
+		this.name     = name;
+	}
+
+	/**
+	 * Wraps the given source so that the progress is reported while the
+	 * source is being consumed. The BEGIN message is sent when iteration
+	 * starts, the END message must be sent by calling finish().
+	 *
+	 * @param <T>
+	 * @param source
+	 * @return an iterable that reports the progress
+	 */
+	public <T> Iterable<T> track(final Iterable<T> source) {
+
+		return () -> {
+
+			begin();
+
+			final Iterator<T> iterator = source.iterator();
+
+			return new Iterator<T>() {
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public T next() {
+
+					final T next = iterator.next();
+
+					if (++count % interval == 0) {
+						chunk();
+					}
+
+					return next;
+				}
+			};
+		};
+	}
+
+	public void finish() {
+
+		final long duration = System.currentTimeMillis() - startTime;
+
+		logger.info("{}: Finished exporting {} rows to {} in {} ms", type, count, name, duration);
+
+		final Map<String, Object> data = createMessage("END");
+
+		data.put("duration", duration);
+
+		TransactionCommand.simpleBroadcastGenericMessage(data);
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	// ----- private methods -----
+	private void begin() {
+
+		startTime = System.currentTimeMillis();
+		count     = 0;
+
+		TransactionCommand.simpleBroadcastGenericMessage(createMessage("BEGIN"));
+	}
+
+	private void chunk() {
+
+		logger.info("{}: Exported {} rows to {}", type, count, name);
+
+		TransactionCommand.simpleBroadcastGenericMessage(createMessage("CHUNK"));
+	}
+
+	private Map<String, Object> createMessage(final String subtype) {
+
+		final Map<String, Object> data = new LinkedHashMap<>();
+
+		data.put("type",     type);
+		data.put("subtype",  subtype);
+		data.put("name",     name);
+		data.put("rows",     count);
+		data.put("username", username);
+
+		return data;
+	}
+}
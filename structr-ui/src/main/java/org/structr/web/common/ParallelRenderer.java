@@ -0,0 +1,281 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.structr.api.config.Settings;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.app.StructrApp;
+import org.structr.core.graph.Tx;
+import org.structr.web.entity.dom.DOMNode;
+
+/**
+ * Renders sibling subtrees that are marked as independent concurrently.
+ * Each subtree is rendered into its own buffer segment, using an isolated
+ * copy of the render context, the security context and its context store,
+ * and its own transaction, and the segments are appended to the output in
+ * document order. The errors, memoized queries, stored values and render
+ * flags of each copy are merged into the parent context when its segment
+ * is joined.
+ *
+ * One instance is created per request, it limits the number of subtrees
+ * of that request that are rendered at the same time. All instances
+ * share a bounded executor.
+ */
+public class ParallelRenderer {
+
+	private static ThreadPoolExecutor executor = null;
+
+	private final Map<Future<String>, RenderContext> contexts = new ConcurrentHashMap<>();
+	private Semaphore permits                                 = null;
+
+	public ParallelRenderer(final int maxConcurrency) {
+		this.permits = new Semaphore(Math.max(1, maxConcurrency));
+	}
+
+	/**
+	 * Returns a new renderer for a single request, or null if parallel
+	 * rendering is disabled.
+	 *
+	 * @return a new renderer or null
+	 */
+	public static ParallelRenderer getInstance() {
+
+		if (Settings.ParallelRendering.getValue()) {
+			return new ParallelRenderer(Settings.RenderingRequestLimit.getValue());
+		}
+
+		return null;
+	}
+
+	/**
+	 * Starts rendering the independent nodes of the given list. The
+	 * returned list contains one element for each node, which is null
+	 * if the node must be rendered by the caller.
+	 *
+	 * @param nodes the sibling nodes
+	 * @param renderContext the render context of the parent
+	 * @param depth the depth of the sibling nodes
+	 *
+	 * @return a list of segments, one for each node
+	 */
+	public List<Future<String>> submit(final List<DOMNode> nodes, final RenderContext renderContext, final int depth) {
+
+		final List<Future<String>> segments = new ArrayList<>(nodes.size());
+
+		for (final DOMNode node : nodes) {
+
+			Future<String> segment = null;
+
+			if (node.renderIndependently() && permits.tryAcquire()) {
+
+				try {
+
+					final RenderContext taskContext = new RenderContext(renderContext);
+
+					// the task runs in another thread, so it must not share the error buffer and query memo
+					taskContext.isolate();
+
+					segment = getExecutor().submit(new RenderTask(node, taskContext, depth));
+
+					contexts.put(segment, taskContext);
+
+				} catch (RejectedExecutionException rex) {
+
+					// executor is saturated, render in the calling thread
+					permits.release();
+				}
+			}
+
+			segments.add(segment);
+		}
+
+		return segments;
+	}
+
+	/**
+	 * Appends the output of the given segment to the buffer of the render
+	 * context, waiting for the segment to be rendered if necessary. If
+	 * rendering of the segment has not started yet, the node is rendered
+	 * in the calling thread instead.
+	 *
+	 * @param segment the segment
+	 * @param node the node that is rendered by the segment
+	 * @param renderContext the render context of the parent
+	 * @param depth the depth of the node
+	 *
+	 * @throws FrameworkException
+	 */
+	public void join(final Future<String> segment, final DOMNode node, final RenderContext renderContext, final int depth) throws FrameworkException {
+
+		if (segment.cancel(false)) {
+
+			contexts.remove(segment);
+			permits.release();
+			node.render(renderContext, depth);
+
+			return;
+		}
+
+		try {
+
+			final String output = segment.get();
+
+			renderContext.merge(contexts.remove(segment));
+			renderContext.getBuffer().append(output);
+
+		} catch (InterruptedException iex) {
+
+			Thread.currentThread().interrupt();
+			throw new FrameworkException(500, "Interrupted while rendering node " + node.getUuid());
+
+		} catch (ExecutionException ex) {
+
+			final Throwable cause = ex.getCause();
+
+			renderContext.merge(contexts.remove(segment));
+
+			if (cause instanceof FrameworkException) {
+
+				throw (FrameworkException)cause;
+			}
+
+			throw new FrameworkException(500, "Error while rendering node " + node.getUuid() + ": " + cause.getMessage());
+		}
+	}
+
+	/**
+	 * Cancels the given segments if they have not been started yet, and
+	 * waits for the others to finish, so that no render task outlives
+	 * the rendering of its parent. Must be called in a finally block
+	 * after the segments were joined, or when rendering of a sibling
+	 * failed.
+	 *
+	 * @param segments the segments returned by {@link #submit}
+	 */
+	public void cancel(final List<Future<String>> segments) {
+
+		for (final Future<String> segment : segments) {
+
+			if (segment != null && !segment.isDone()) {
+
+				if (segment.cancel(false)) {
+
+					permits.release();
+
+				} else {
+
+					try {
+
+						segment.get();
+
+					} catch (InterruptedException iex) {
+
+						Thread.currentThread().interrupt();
+
+					} catch (ExecutionException ignore) {
+
+						// the error of the sibling that failed first is reported
+					}
+				}
+			}
+
+			if (segment != null) {
+				contexts.remove(segment);
+			}
+		}
+	}
+
+	// ----- private methods -----
+	private static synchronized ThreadPoolExecutor getExecutor() {
+
+		if (executor == null) {
+
+			final int threads = Math.max(1, Settings.RenderingThreads.getValue());
+
+			executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(threads * 16), new RenderThreadFactory());
+			executor.allowCoreThreadTimeOut(true);
+		}
+
+		return executor;
+	}
+
+	// ----- nested classes -----
+	private class RenderTask implements Callable<String> {
+
+		private final StringRenderBuffer buffer = new StringRenderBuffer();
+		private RenderContext renderContext     = null;
+		private DOMNode node                    = null;
+		private int depth                       = 0;
+
+		public RenderTask(final DOMNode node, final RenderContext renderContext, final int depth) {
+
+			this.renderContext = renderContext;
+			this.depth         = depth;
+			this.node          = node;
+
+			renderContext.setBuffer(buffer);
+		}
+
+		@Override
+		public String call() throws Exception {
+
+			try (final Tx tx = StructrApp.getInstance(renderContext.getSecurityContext()).tx()) {
+
+				node.render(renderContext, depth);
+
+				tx.success();
+
+			} finally {
+
+				permits.release();
+			}
+
+			return buffer.getBuffer().toString();
+		}
+	}
+
+	private static class RenderThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(final Runnable r) {
+
+			final Thread thread = new Thread(r, "RenderThread-" + count.incrementAndGet());
+
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
+}
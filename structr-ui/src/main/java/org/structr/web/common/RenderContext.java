@@ -65,6 +65,7 @@ public class RenderContext extends ActionContext {
 	private Result result                              = null;
 	private boolean anyChildNodeCreatesNewLine         = false;
 	private boolean indentHtml                         = true;
+	private ParallelRenderer parallelRenderer          = null;
 
 	public enum EditMode {
 
@@ -104,6 +105,7 @@ public class RenderContext extends ActionContext {
 		this.anyChildNodeCreatesNewLine = other.anyChildNodeCreatesNewLine;
 		this.locale = other.locale;
 		this.indentHtml = other.indentHtml;
+		this.parallelRenderer = other.parallelRenderer;
 
 	}
 
@@ -298,6 +300,14 @@ public class RenderContext extends ActionContext {
 		return buffer;
 	}
 
+	public void setParallelRenderer(final ParallelRenderer parallelRenderer) {
+		this.parallelRenderer = parallelRenderer;
+	}
+
+	public ParallelRenderer getParallelRenderer() {
+		return parallelRenderer;
+	}
+
 	public void setInBody(final boolean inBody) {
 		this.inBody = inBody;
 	}
@@ -357,6 +367,21 @@ public class RenderContext extends ActionContext {
 		return anyChildNodeCreatesNewLine;
 	}
 
+	@Override
+	public void merge(final ActionContext other) {
+
+		super.merge(other);
+
+		if (other instanceof RenderContext) {
+
+			final RenderContext renderContext = (RenderContext)other;
+
+			// flags that are set while rendering a subtree
+			this.anyChildNodeCreatesNewLine |= renderContext.anyChildNodeCreatesNewLine;
+			this.inBody                     |= renderContext.inBody;
+		}
+	}
+
 	@Override
 	public boolean returnRawValue() {
 		final EditMode editMode = getEditMode(securityContext.getUser(false));
@@ -52,6 +52,7 @@ public class UiResourceProvider implements ResourceProvider {
 		resourceMap.put(Pattern.compile("me"), MeResource.class);                       // me
 		resourceMap.put(Pattern.compile("reset-password"), ResetPasswordResource.class);// reset passwor
 		resourceMap.put(Pattern.compile("maintenance"), MaintenanceResource.class);     // maintenance
+		resourceMap.put(Pattern.compile("metrics"), MetricsResource.class);             // metrics
 		resourceMap.put(Pattern.compile("in"), RelationshipResource.class);             // incoming relationship
 		resourceMap.put(Pattern.compile("out"), RelationshipResource.class);            // outgoing relationship
 		resourceMap.put(Pattern.compile("start"), RelationshipNodeResource.class);      // start node
@@ -18,6 +18,7 @@
  */
 package org.structr.web.datasource;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -48,6 +49,7 @@ import org.structr.rest.exception.NotFoundException;
 import org.structr.rest.resource.Resource;
 import org.structr.rest.servlet.JsonRestServlet;
 import org.structr.rest.servlet.ResourceHelper;
+import org.structr.schema.action.QueryMemo;
 import org.structr.web.common.GraphDataSource;
 import org.structr.web.common.RenderContext;
 import org.structr.web.common.UiResourceProvider;
@@ -82,6 +84,19 @@ public class RestDataSource implements GraphDataSource<Iterable<GraphObject>> {
 
 		final Map<Pattern, Class<? extends Resource>> resourceMap = new LinkedHashMap<>();
 		final SecurityContext securityContext                     = renderContext.getSecurityContext();
+		final QueryMemo memo                                      = renderContext.getQueryMemo();
+		final String memoKey                                      = QueryMemo.key(securityContext, "rest", restQuery);
+		final Object memoResult                                   = memo.get(memoKey);
+
+		if (memoResult instanceof Result) {
+
+			final Result result         = (Result)memoResult;
+			final List<GraphObject> res = result.getResults();
+
+			renderContext.setResult(result);
+
+			return res != null ? new ArrayList<>(res) : Collections.EMPTY_LIST;
+		}
 
 		ResourceProvider resourceProvider = renderContext.getResourceProvider();
 		if (resourceProvider == null) {
@@ -233,6 +248,7 @@ public class RestDataSource implements GraphDataSource<Iterable<GraphObject>> {
 		List<GraphObject> res = result.getResults();
 
 		renderContext.setResult(result);
+		memo.put(memoKey, result);
 
 		return res != null ? res : Collections.EMPTY_LIST;
 
@@ -61,6 +61,7 @@ import org.structr.core.graph.ModificationEvent;
 import org.structr.core.graph.ModificationQueue;
 import org.structr.core.graph.Tx;
 import org.structr.core.property.PropertyKey;
+import org.structr.core.property.PropertyMap;
 import org.structr.core.scheduler.JobQueueManager;
 import org.structr.core.script.Scripting;
 import org.structr.files.cmis.config.StructrFileActions;
@@ -131,6 +132,7 @@ public interface File extends AbstractFile, Indexable, Linkable, JavaScriptSourc
 		type.overrideMethod("onModification",              true,  File.class.getName() + ".onModification(this, arg0, arg1, arg2);");
 		type.overrideMethod("onNodeDeletion",              true,  File.class.getName() + ".onNodeDeletion(this);");
 		type.overrideMethod("afterCreation",               true,  File.class.getName() + ".afterCreation(this, arg0);");
+		type.overrideMethod("afterDeletion",               true,  File.class.getName() + ".afterDeletion(this, arg0, arg1);");
 
 		type.overrideMethod("isTemplate",                  false, "return getProperty(isTemplateProperty);");
 		type.overrideMethod("setVersion",                  false, "setProperty(versionProperty, arg0);").addException(FrameworkException.class.getName());
@@ -310,6 +312,16 @@ public interface File extends AbstractFile, Indexable, Linkable, JavaScriptSourc
 		}
 	}
 
+	static void afterDeletion(final File thisFile, final SecurityContext securityContext, final PropertyMap properties) {
+
+		// called after the deletion was committed
+		final String uuid = properties.get(GraphObject.id);
+		if (uuid != null) {
+
+			StructrApp.getInstance(securityContext).getFulltextIndexer().removeFromFulltextIndex(uuid);
+		}
+	}
+
 	static void afterCreation(final File thisFile, final SecurityContext securityContext) {
 
 		try {
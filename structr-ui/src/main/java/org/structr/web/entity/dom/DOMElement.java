@@ -21,8 +21,10 @@ package org.structr.web.entity.dom;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Future;
 import org.apache.commons.lang3.StringUtils;
 import org.structr.api.Predicate;
 import org.structr.api.util.Iterables;
@@ -45,6 +47,7 @@ import org.structr.schema.json.JsonObjectType;
 import org.structr.schema.json.JsonSchema;
 import org.structr.web.common.AsyncBuffer;
 import org.structr.web.common.HtmlProperty;
+import org.structr.web.common.ParallelRenderer;
 import org.structr.web.common.RenderContext;
 import org.structr.web.common.RenderContext.EditMode;
 import static org.structr.web.entity.dom.DOMNode.escapeForHtmlAttributes;
@@ -416,16 +419,43 @@ public interface DOMElement extends DOMNode, Element, NamedNodeMap, NonIndexed {
 						Scripting.evaluate(renderContext, thisElement, "${" + _sharedComponentConfiguration + "}", "shared component configuration");
 					}
 
+					final List<DOMNode> subNodes = new ArrayList<>(rels.size());
 					for (final RelationshipInterface rel : rels) {
 
-						final DOMNode subNode = (DOMNode) rel.getTargetNode();
+						subNodes.add((DOMNode) rel.getTargetNode());
+					}
+
+					// start rendering of independent subtrees, if enabled
+					final ParallelRenderer parallelRenderer = renderContext.getParallelRenderer();
+					final List<Future<String>> segments     = (parallelRenderer != null && EditMode.NONE.equals(editMode)) ? parallelRenderer.submit(subNodes, renderContext, depth + 1) : null;
+					final Iterator<Future<String>> iterator = segments != null ? segments.iterator() : null;
+
+					try {
+
+						for (final DOMNode subNode : subNodes) {
+
+							final Future<String> segment = iterator != null ? iterator.next() : null;
 
-						if (subNode instanceof DOMElement) {
-							anyChildNodeCreatesNewLine = (anyChildNodeCreatesNewLine || !(subNode.avoidWhitespace()));
+							if (subNode instanceof DOMElement) {
+								anyChildNodeCreatesNewLine = (anyChildNodeCreatesNewLine || !(subNode.avoidWhitespace()));
+							}
+
+							if (segment != null) {
+
+								parallelRenderer.join(segment, subNode, renderContext, depth + 1);
+
+							} else {
+
+								subNode.render(renderContext, depth + 1);
+							}
 						}
 
-						subNode.render(renderContext, depth + 1);
+					} finally {
 
+						// cancel or wait for the remaining segments if a sibling failed
+						if (segments != null) {
+							parallelRenderer.cancel(segments);
+						}
 					}
 
 				}
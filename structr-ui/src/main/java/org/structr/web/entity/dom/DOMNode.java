@@ -120,6 +120,7 @@ public interface DOMNode extends NodeInterface, Node, Renderable, DOMAdoptable,
 		type.addBooleanProperty("hideOnIndex").setCategory(QUERY_CATEGORY);
 		type.addBooleanProperty("hideOnDetail").setCategory(QUERY_CATEGORY);
 		type.addBooleanProperty("dontCache").setDefaultValue("false");
+		type.addBooleanProperty("renderIndependently").setCategory(PAGE_CATEGORY).setHint("Allows this element to be rendered concurrently with its siblings if parallel rendering is enabled. The element must not depend on output or state of its preceding siblings.");
 		type.addBooleanProperty("isDOMNode").setReadOnly(true).addTransformer(ConstantBooleanTrue.class.getName()).setCategory(PAGE_CATEGORY);
 
 		type.addIntegerProperty("domSortPosition").setCategory(PAGE_CATEGORY);
@@ -174,6 +175,7 @@ public interface DOMNode extends NodeInterface, Node, Renderable, DOMAdoptable,
 		type.overrideMethod("renderDetails",               false, "return getProperty(renderDetailsProperty);");
 		type.overrideMethod("hideOnIndex",                 false, "return getProperty(hideOnIndexProperty);");
 		type.overrideMethod("hideOnDetail",                false, "return getProperty(hideOnDetailProperty);");
+		type.overrideMethod("renderIndependently",         false, "return getProperty(renderIndependentlyProperty);");
 		type.overrideMethod("isSynced",                    false, "return getSyncedNodes().size() > 0 || getSharedComponent() != null;");
 
 		// ----- interface org.w3c.dom.Node -----
@@ -319,6 +321,7 @@ public interface DOMNode extends NodeInterface, Node, Renderable, DOMAdoptable,
 	boolean hideOnIndex();
 	boolean hideOnDetail();
 	boolean renderDetails();
+	boolean renderIndependently();
 	boolean displayForLocale(final RenderContext renderContext);
 	boolean displayForConditions(final RenderContext renderContext);
 
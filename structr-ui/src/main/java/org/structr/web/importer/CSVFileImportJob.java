@@ -22,17 +22,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.structr.api.RetryException;
 import org.structr.common.AccessMode;
 import org.structr.common.ContextStore;
 import org.structr.common.ResultTransformer;
 import org.structr.common.SecurityContext;
 import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
 import org.structr.core.JsonInput;
 import org.structr.core.app.App;
 import org.structr.core.app.StructrApp;
@@ -46,7 +56,11 @@ import org.structr.web.entity.File;
 
 public class CSVFileImportJob extends FileImportJob {
 
-	private static final Logger logger = LoggerFactory.getLogger(CSVFileImportJob.class.getName());
+	private static final Logger logger   = LoggerFactory.getLogger(CSVFileImportJob.class.getName());
+	private static final int MAX_RETRIES = 5;
+
+	private volatile int committedRows = 0;
+	private volatile int resumeRow     = 0;
 
 	public CSVFileImportJob(File file, Principal user, Map<String, Object> configuration, final ContextStore ctxStore) throws FrameworkException {
 		super(file, user, configuration, ctxStore);
@@ -89,6 +103,8 @@ public class CSVFileImportJob extends FileImportJob {
 			final String quoteChar                   = getOrDefault(configuration.get("quoteChar"), "\"");
 			final String range                       = getOrDefault(configuration.get("range"), "");
 			final Integer commitInterval             = parseInt(configuration.get("commitInterval"), 1000);
+			final Integer threads                    = Math.max(1, parseInt(configuration.get("threads"), 1));
+			final Integer startRow                   = Math.max(0, parseInt(configuration.get("startRow"), 0));
 
 			logger.info("Importing CSV from {} ({}) to {} using {}", filePath, fileUuid, targetType, configuration);
 
@@ -96,15 +112,12 @@ public class CSVFileImportJob extends FileImportJob {
 			final SimpleDateFormat df      = new SimpleDateFormat("yyyyMMddHHMM");
 			final String importTypeName    = "ImportFromCsv" + df.format(System.currentTimeMillis());
 
-			final SecurityContext threadContext = SecurityContext.getInstance(user, AccessMode.Backend);
-			threadContext.setContextStore(ctxStore);
+			final SecurityContext threadContext = createSecurityContext();
 			final App app                       = StructrApp.getInstance(threadContext);
+			final ExecutorService executor      = Executors.newFixedThreadPool(threads);
 
-			// disable transaction notifications
-			threadContext.disableModificationOfAccessTime();
-			threadContext.ignoreResultCount(true);
-			threadContext.setDoTransactionNotifications(false);
-			threadContext.disableEnsureCardinality();
+			committedRows = startRow;
+			resumeRow     = startRow;
 
 			try (final InputStream is = getFileInputStream(threadContext)) {
 
@@ -116,58 +129,103 @@ public class CSVFileImportJob extends FileImportJob {
 
 				reportBegin();
 
-				final ResultTransformer mapper     = builder.createMapping(app, targetType, importTypeName, importMappings, transforms);
-				final Class targetEntityType       = StructrApp.getConfiguration().getNodeEntityClass(targetType);
-				final Character fieldSeparator     = delimiter.charAt(0);
-				final Character quoteCharacter     = StringUtils.isNotEmpty(quoteChar) ? quoteChar.charAt(0) : null;
-				final Iterable<JsonInput> iterable = CsvHelper.cleanAndParseCSV(threadContext, new InputStreamReader(is, "utf-8"), targetEntityType, fieldSeparator, quoteCharacter, range, reverse(importMappings));
-				final Iterator<JsonInput> iterator = iterable.iterator();
-				int chunks                         = 0;
-				int overallCount                   = 0;
-
-				while (iterator.hasNext()) {
-
-					int count = 0;
+				final ResultTransformer mapper                = builder.createMapping(app, targetType, importTypeName, importMappings, transforms);
+				final String mapperId                         = ((GraphObject)mapper).getUuid();
+				final Class targetEntityType                  = StructrApp.getConfiguration().getNodeEntityClass(targetType);
+				final Character fieldSeparator                = delimiter.charAt(0);
+				final Character quoteCharacter                = StringUtils.isNotEmpty(quoteChar) ? quoteChar.charAt(0) : null;
+				final Iterable<JsonInput> iterable            = CsvHelper.cleanAndParseCSV(threadContext, new InputStreamReader(is, "utf-8"), targetEntityType, fieldSeparator, quoteCharacter, range, reverse(importMappings));
+				final Iterator<JsonInput> iterator            = iterable.iterator();
+				final LinkedList<Future<ChunkResult>> pending = new LinkedList<>();
+				final ImportProgress progress                 = new ImportProgress();
+				boolean aborted                               = false;
+				int skipped                                   = 0;
+
+				// skip rows that were committed by a previous run of this import
+				while (skipped < startRow && iterator.hasNext()) {
+
+					iterator.next();
+					skipped++;
+				}
 
-					try (final Tx tx = app.tx()) {
+				if (startRow > 0) {
+					logger.info("Resuming CSV import of {} after row {}", filePath, startRow);
+				}
 
-						final long chunkStartTime = System.currentTimeMillis();
+				while (iterator.hasNext() && progress.failure == null) {
 
-						while (iterator.hasNext() && count++ < commitInterval) {
+					// this thread only parses the input, chunks are written by the worker threads
+					final List<JsonInput> chunk = new ArrayList<>(commitInterval);
+					int rows                    = 0;
 
-							final JsonInput input = iterator.next();
+					while (iterator.hasNext() && rows < commitInterval) {
 
-							mapper.transformInput(threadContext, targetEntityType, input);
+						final JsonInput input = iterator.next();
+						rows++;
 
-							app.create(targetEntityType, PropertyMap.inputTypeToJavaType(threadContext, targetEntityType, input));
+						if (input != null) {
 
-							overallCount++;
+							chunk.add(input);
 						}
+					}
 
-						tx.success();
+					final int chunkRows = rows;
 
-						chunks++;
+					pending.add(executor.submit(() -> writeChunk(mapperId, targetEntityType, chunk, chunkRows)));
 
-						chunkFinished(chunkStartTime, chunks, commitInterval, overallCount);
+					// wait for the oldest chunk if the pipeline is full, so that the
+					// checkpoint always covers a contiguous range of committed rows
+					while (pending.size() > threads) {
 
+						awaitChunk(pending.removeFirst(), progress);
 					}
 
 					// do this outside of the transaction!
 					shouldPause();
 					if (shouldAbort()) {
-						return;
+
+						aborted = true;
+						break;
 					}
+				}
 
+				if (aborted || progress.failure != null) {
+
+					// chunks that have not been started are dropped, running chunks are awaited below
+					for (final Future<ChunkResult> future : pending) {
+						future.cancel(false);
+					}
 				}
 
-				importFinished(startTime, overallCount);
+				// wait for every submitted chunk so that the reported rows include all commits
+				while (!pending.isEmpty()) {
+
+					awaitChunk(pending.removeFirst(), progress);
+				}
+
+				if (progress.failure != null) {
+
+					logger.warn("CSV import of {} failed with {} committed rows, restart with startRow={} to resume.", filePath, committedRows, resumeRow);
+
+					reportException(progress.failure instanceof Exception ? (Exception)progress.failure : new FrameworkException(500, progress.failure.getMessage()));
+
+				} else if (aborted) {
+
+					logger.info("CSV import of {} aborted with {} committed rows, restart with startRow={} to resume.", filePath, committedRows, resumeRow);
+
+				} else {
+
+					importFinished(startTime, progress.overallCount);
+				}
 
-			} catch (IOException | FrameworkException fex) {
+			} catch (IOException | FrameworkException | InterruptedException ex) {
 
-				reportException(fex);
+				reportException(ex);
 
 			} finally {
 
+				executor.shutdownNow();
+
 				try {
 					builder.removeMapping(app, targetType, importTypeName);
 				} catch (FrameworkException ex) {
@@ -180,6 +238,103 @@ public class CSVFileImportJob extends FileImportJob {
 
 	}
 
+	@Override
+	protected void addCheckpointData(final Map<String, Object> data) {
+
+		data.put("committedRows", committedRows);
+		data.put("resumeRow",     resumeRow);
+	}
+
+	// ----- private methods -----
+	private void awaitChunk(final Future<ChunkResult> future, final ImportProgress progress) throws InterruptedException {
+
+		try {
+
+			final ChunkResult result = future.get();
+
+			committedRows         += result.rows;
+			progress.overallCount += result.count;
+
+			// rows after a failed or dropped chunk must be imported again when resuming
+			if (progress.contiguous) {
+				resumeRow += result.rows;
+			}
+
+			chunkFinished(result.startTime, ++progress.chunks, result.count, progress.overallCount);
+
+		} catch (CancellationException cex) {
+
+			progress.contiguous = false;
+
+		} catch (ExecutionException eex) {
+
+			progress.contiguous = false;
+
+			if (progress.failure == null) {
+				progress.failure = eex.getCause() != null ? eex.getCause() : eex;
+			}
+		}
+	}
+
+	private ChunkResult writeChunk(final String mapperId, final Class targetEntityType, final List<JsonInput> chunk, final int rows) throws FrameworkException {
+
+		// each worker needs its own security context and transaction
+		final SecurityContext workerContext = createSecurityContext();
+		final App app                       = StructrApp.getInstance(workerContext);
+		final long startTime                = System.currentTimeMillis();
+		boolean retry                       = true;
+		int retries                         = 0;
+
+		while (retry) {
+
+			retry = false;
+
+			try (final Tx tx = app.tx()) {
+
+				// the mapping node must not be shared between the worker threads,
+				// so each transaction loads its own instance
+				final ResultTransformer mapper = (ResultTransformer)app.getNodeById(mapperId);
+				if (mapper == null) {
+
+					throw new FrameworkException(500, "Unable to import CSV chunk: import mapping " + mapperId + " not found");
+				}
+
+				for (final JsonInput input : chunk) {
+
+					mapper.transformInput(workerContext, targetEntityType, input);
+
+					app.create(targetEntityType, PropertyMap.inputTypeToJavaType(workerContext, targetEntityType, input));
+				}
+
+				tx.success();
+
+			} catch (RetryException ddex) {
+
+				retry = ++retries < MAX_RETRIES;
+				if (!retry) {
+					throw new FrameworkException(500, "Unable to import CSV chunk: " + ddex.getMessage());
+				}
+			}
+		}
+
+		return new ChunkResult(startTime, rows, chunk.size());
+	}
+
+	private SecurityContext createSecurityContext() {
+
+		final SecurityContext ctx = SecurityContext.getInstance(user, AccessMode.Backend);
+
+		ctx.setContextStore(ctxStore);
+
+		// disable transaction notifications
+		ctx.disableModificationOfAccessTime();
+		ctx.ignoreResultCount(true);
+		ctx.setDoTransactionNotifications(false);
+		ctx.disableEnsureCardinality();
+
+		return ctx;
+	}
+
 	@Override
 	public String getJobType() {
 		return "CSV";
@@ -194,4 +349,27 @@ public class CSVFileImportJob extends FileImportJob {
 	public String getJobExceptionMessageType() {
 		return "FILE_IMPORT_EXCEPTION";
 	}
+
+	// ----- nested classes -----
+	private static class ChunkResult {
+
+		private long startTime = 0L;
+		private int rows       = 0;
+		private int count      = 0;
+
+		public ChunkResult(final long startTime, final int rows, final int count) {
+
+			this.startTime = startTime;
+			this.rows      = rows;
+			this.count     = count;
+		}
+	}
+
+	private static class ImportProgress {
+
+		private Throwable failure  = null;
+		private boolean contiguous = true;
+		private int overallCount   = 0;
+		private int chunks         = 0;
+	}
 }
@@ -109,6 +109,8 @@ abstract class FileImportJob extends ScheduledJob {
 		jobInfo.put("filesize",        getFileSize());
 		jobInfo.put("processedChunks", getProcessedChunks());
 
+		addCheckpointData(jobInfo);
+
 		return jobInfo;
 	}
 
@@ -116,6 +118,8 @@ abstract class FileImportJob extends ScheduledJob {
 
 		processedChunks                   = currentChunkNo;
 
+		chunkCommitted(chunkSize);
+
 		final long duration               = System.currentTimeMillis() - chunkStartTime;
 		final DecimalFormat decimalFormat = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
 		final String formattedDuration    = decimalFormat.format((duration / 1000.0)) + "s";
@@ -157,9 +161,21 @@ abstract class FileImportJob extends ScheduledJob {
 		data.put("filename",   fileName);
 		data.put("filepath",   filePath);
 		data.put("username",   username);
+
+		addCheckpointData(data);
+
 		TransactionCommand.simpleBroadcastException(ex, data, true);
 	}
 
+	/**
+	 * Adds the information needed to resume this import to the job info
+	 * and to the exception message. Does nothing by default.
+	 *
+	 * @param data the map to add the checkpoint to
+	 */
+	protected void addCheckpointData(final Map<String, Object> data) {
+	}
+
 	protected InputStream getFileInputStream(final SecurityContext ctx) {
 
 		final App app = StructrApp.getInstance(ctx);
@@ -22,7 +22,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.Iterator;
 import java.util.Map;
 import javax.xml.stream.XMLStreamException;
 import org.slf4j.Logger;
@@ -47,7 +46,10 @@ public class XMLFileImportJob extends FileImportJob {
 
 	private static final Logger logger = LoggerFactory.getLogger(XMLFileImportJob.class.getName());
 
-	private String contentType;
+	private volatile int committedRecords   = 0;
+	private volatile long checkpointOffset  = 0L;
+	private volatile String checkpointPath  = null;
+	private String contentType              = null;
 
 	public XMLFileImportJob(final File file, final Principal user, final Map<String, Object> configuration, final ContextStore ctxStore) throws FrameworkException {
 		super(file, user, configuration, ctxStore);
@@ -82,6 +84,9 @@ public class XMLFileImportJob extends FileImportJob {
 
 		return () -> {
 
+			final Integer commitInterval = Math.max(1, parseInt(configuration.get("commitInterval"), 100));
+			final Integer startRecord    = Math.max(0, parseInt(configuration.get("startRecord"), 0));
+
 			logger.info("Importing XML from {} ({})..", filePath, fileUuid);
 
 			final SecurityContext threadContext = SecurityContext.getInstance(user, AccessMode.Backend);
@@ -89,6 +94,8 @@ public class XMLFileImportJob extends FileImportJob {
 			final App app                       = StructrApp.getInstance(threadContext);
 			int overallCount                    = 0;
 
+			committedRecords = startRecord;
+
 			// disable transaction notifications
 			threadContext.disableModificationOfAccessTime();
 			threadContext.ignoreResultCount(true);
@@ -98,57 +105,76 @@ public class XMLFileImportJob extends FileImportJob {
 			// experimental: instruct deserialization strategies to set properties on related nodes
 			threadContext.setAttribute("setNestedProperties", true);
 			threadContext.setAttribute("batchType", configuration.get("batchType"));
+			threadContext.setAttribute("batchSize", commitInterval);
 
 			try (final InputStream is = getFileInputStream(threadContext)) {
 
+				if (is == null) {
+					return;
+				}
+
 				try (final Reader reader = new InputStreamReader(is)) {
 
 					reportBegin();
 
-					final Iterator<Map<String, Object>> iterator = new XMLHandler(configuration, reader);
-					final int batchSize                          = 100;
-					int chunks                                   = 0;
+					final XMLHandler handler = new XMLHandler(configuration, reader);
+					int chunks               = 0;
+
+					// records that were committed by a previous run of this import are parsed but not converted
+					handler.skipRecords(startRecord);
+
+					if (startRecord > 0) {
+						logger.info("Resuming XML import of {} after record {}", filePath, startRecord);
+					}
 
 					final long startTime = System.currentTimeMillis();
 
-					while (iterator.hasNext()) {
+					while (handler.hasNext()) {
 
 						final long chunkStartTime = System.currentTimeMillis();
 
 						int count = 0;
 
-						// test: open transaction
-						Tx tx = app.tx();
+						// the batchType handling in PropertyMap commits nested objects in batches
+						// and replaces the transaction, so it must be available in the context
+						threadContext.setAttribute("currentTransaction", app.tx());
 
-						// make transaction available in context
-						threadContext.setAttribute("currentTransaction", tx);
+						try {
 
-						while (iterator.hasNext() && ++count <= batchSize) {
+							while (count < commitInterval && handler.hasNext()) {
 
-							app.create(AbstractNode.class, PropertyMap.inputTypeToJavaType(threadContext, iterator.next()));
-							overallCount++;
-						}
+								app.create(AbstractNode.class, PropertyMap.inputTypeToJavaType(threadContext, handler.next()));
+								count++;
+							}
+
+							// tx might have changed, reload from context
+							((Tx)threadContext.getAttribute("currentTransaction")).success();
 
-						// tx might have changed, reload from context
-						tx = (Tx)threadContext.getAttribute("currentTransaction");
-						tx.success();
-						tx.close();
+						} finally {
 
-						chunks++;
+							((Tx)threadContext.getAttribute("currentTransaction")).close();
+						}
+
+						overallCount     += count;
+						committedRecords  = handler.getRecordCount();
+						checkpointOffset  = handler.getRecordOffset();
+						checkpointPath    = handler.getRecordPath();
 
-						chunkFinished(chunkStartTime, chunks, batchSize, overallCount);
+						chunkFinished(chunkStartTime, ++chunks, count, overallCount);
 
 						// do this outside of the transaction!
 						shouldPause();
 						if (shouldAbort()) {
 							return;
 						}
-
 					}
 
 					importFinished(startTime, overallCount);
 
 				} catch (XMLStreamException | FrameworkException ex) {
+
+					logger.warn("XML import of {} failed after {} committed records (offset {}, path {}), restart with startRecord={} to resume.", filePath, committedRecords, checkpointOffset, checkpointPath, committedRecords);
+
 					reportException(ex);
 				}
 
@@ -163,6 +189,14 @@ public class XMLFileImportJob extends FileImportJob {
 		};
 	}
 
+	@Override
+	protected void addCheckpointData(final Map<String, Object> data) {
+
+		data.put("committedRecords", committedRecords);
+		data.put("checkpointOffset", checkpointOffset);
+		data.put("checkpointPath",   checkpointPath);
+	}
+
 	@Override
 	public String getJobType() {
 		return "XML";
@@ -20,13 +20,10 @@ package org.structr.web.maintenance;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -39,12 +36,17 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -99,6 +101,7 @@ import org.structr.web.entity.dom.Page;
 import org.structr.web.entity.dom.ShadowDocument;
 import org.structr.web.entity.dom.Template;
 import org.structr.web.maintenance.deploy.ComponentImportVisitor;
+import org.structr.web.maintenance.deploy.DeploymentManifest;
 import org.structr.web.maintenance.deploy.FileImportVisitor;
 import org.structr.web.maintenance.deploy.PageImportVisitor;
 import org.structr.web.maintenance.deploy.SchemaImportVisitor;
@@ -115,6 +118,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 	private static final Map<String, String> deferredPageLinks = new LinkedHashMap<>();
 	private static final Set<String> missingPrincipals         = new HashSet<>();
 
+	private DeploymentManifest manifest                    = null;
 	private Integer stepCounter                            = 0;
 	private final static String DEPLOYMENT_IMPORT_STATUS   = "DEPLOYMENT_IMPORT_STATUS";
 	private final static String DEPLOYMENT_EXPORT_STATUS   = "DEPLOYMENT_EXPORT_STATUS";
@@ -201,6 +205,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 		customHeaders.put("start", new Date(startTime).toString());
 
 		final String path                        = (String) attributes.get("source");
+		final boolean incremental                = "true".equals(String.valueOf(attributes.get("incremental")));
 
 		final SecurityContext ctx = SecurityContext.getSuperUserInstance();
 		final App app                            = StructrApp.getInstance(ctx);
@@ -417,10 +422,45 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 		final Path components = source.resolve("components");
 		final Path pages      = source.resolve("pages");
 
+		// in incremental mode, only pages whose source differs from the current
+		// graph are re-imported, provided that templates and shared components
+		// are unchanged (pages reference them, so they can not be replaced
+		// without re-importing all pages)
+		Set<String> unchangedPages      = Collections.emptySet();
+		boolean fullImport              = true;
+		final Set<String> keptTemplates = new LinkedHashSet<>();
+
+		if (incremental && Files.exists(templates) && Files.exists(components) && Files.exists(pages)) {
+
+			try {
+
+				publishDeploymentProgressMessage(DEPLOYMENT_IMPORT_STATUS, "Comparing pages, templates and components");
+
+				if (isUnchanged(templates, templatesConf, components, componentsConf)) {
+
+					unchangedPages = findUnchangedPages(pages, pagesConf);
+					fullImport     = false;
+
+					info("Templates and shared components unchanged, {} unchanged pages will be skipped", unchangedPages.size());
+
+				} else {
+
+					info("Templates or shared components changed, importing all pages");
+				}
+
+			} catch (IOException ioex) {
+				logger.warn("Unable to compare deployment data with existing pages, importing all pages: {}", ioex.getMessage());
+			}
+		}
+
 		// remove all DOMNodes from the database (clean webapp for import, but only
 		// if the actual import directories exist, don't delete web components if
 		// an empty directory was specified accidentially).
-		if (Files.exists(templates) && Files.exists(components) && Files.exists(pages)) {
+		if (!fullImport) {
+
+			keptTemplates.addAll(deleteObsoletePages(pages, pagesConf));
+
+		} else if (Files.exists(templates) && Files.exists(components) && Files.exists(pages)) {
 
 			try (final Tx tx = app.tx()) {
 
@@ -449,7 +489,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 		}
 
 		// import templates, must be done before pages so the templates exist
-		if (Files.exists(templates)) {
+		if (fullImport && Files.exists(templates)) {
 
 			try {
 
@@ -464,7 +504,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 		}
 
 		// import components, must be done before pages so the shared components exist
-		if (Files.exists(components)) {
+		if (fullImport && Files.exists(components)) {
 
 			try {
 
@@ -486,13 +526,22 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 				info("Importing pages");
 				publishDeploymentProgressMessage(DEPLOYMENT_IMPORT_STATUS, "Importing pages");
 
-				Files.walkFileTree(pages, new PageImportVisitor(pages, pagesConf));
+				final PageImportVisitor piv = new PageImportVisitor(pages, pagesConf, unchangedPages, !fullImport);
+				Files.walkFileTree(pages, piv);
+				piv.importPages();
+
+				keptTemplates.addAll(piv.getKeptTemplates());
 
 			} catch (IOException ioex) {
 				logger.warn("Exception while importing pages", ioex);
 			}
 		}
 
+		// templates of deleted or re-imported pages that were not re-attached
+		if (!keptTemplates.isEmpty()) {
+			deleteOrphanedTemplates(keptTemplates);
+		}
+
 		try (final Tx tx = app.tx()) {
 
 			deferredPageLinks.forEach((String linkableUUID, String pagePath) -> {
@@ -629,6 +678,9 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 
 			Files.createDirectories(target);
 
+			// content hashes of the previous export allow us to skip unchanged artifacts
+			manifest = DeploymentManifest.load(target);
+
 			final Path components     = Files.createDirectories(target.resolve("components"));
 			final Path files          = Files.createDirectories(target.resolve("files"));
 			final Path pages          = Files.createDirectories(target.resolve("pages"));
@@ -686,6 +738,9 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 
 			}
 
+			manifest.prune();
+			manifest.save();
+
 			// config import order is "users, grants, pages, components, templates"
 			// data import order is "schema, files, templates, components, pages"
 
@@ -745,13 +800,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			logger.warn("", ioex);
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(configTarget.toFile()))) {
-
-			getGson().toJson(config, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(configTarget, getGson().toJson(config));
 	}
 
 	private void exportFilesAndFolders(final Path target, final Folder folder, final Map<String, Object> config) throws IOException {
@@ -851,36 +900,12 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 						final Map<String, Object> properties = new TreeMap<>();
 						final String name                    = page.getName();
 						final Path pageFile                  = target.resolve(name + ".html");
-						boolean doExport                     = true;
-
-						if (Files.exists(pageFile)) {
-
-							try {
-
-								final String existingContent = new String(Files.readAllBytes(pageFile), "utf-8");
-								doExport = !existingContent.equals(content);
-
-							} catch (IOException ignore) {
-								logger.warn("", ignore);
-							}
-						}
 
 						pagesConfig.put(name, properties);
 						exportConfiguration(page, properties);
 						exportOwnershipAndSecurity(page, properties);
 
-						if (doExport) {
-
-							try (final OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(pageFile.toFile()))) {
-
-								writer.write(content);
-								writer.flush();
-								writer.close();
-
-							} catch (IOException ioex) {
-								logger.warn("", ioex);
-							}
-						}
+						manifest.writeIfChanged(pageFile, content);
 					}
 				}
 			}
@@ -888,13 +913,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(configTarget.toFile()))) {
-
-			getGson().toJson(pagesConfig, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(configTarget, getGson().toJson(pagesConfig));
 	}
 
 	private void exportComponents(final Path target, final Path configTarget) throws FrameworkException {
@@ -913,7 +932,6 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 
 					final boolean hasParent = node.getParent() != null;
 					final boolean inTrash   = node.inTrash();
-					boolean doExport        = true;
 
 					// skip nodes in trash and non-toplevel nodes
 					if (inTrash || hasParent) {
@@ -939,31 +957,10 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 						final Map<String, Object> properties = new TreeMap<>();
 						final Path targetFile = target.resolve(name + ".html");
 
-						if (Files.exists(targetFile)) {
-
-							try {
-
-								final String existingContent = new String(Files.readAllBytes(targetFile), "utf-8");
-								doExport = !existingContent.equals(content);
-
-							} catch (IOException ignore) {}
-						}
-
 						configuration.put(name, properties);
 						exportConfiguration(node, properties);
 
-						if (doExport) {
-
-							try (final OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(targetFile.toFile()))) {
-
-								writer.write(content);
-								writer.flush();
-								writer.close();
-
-							} catch (IOException ioex) {
-								logger.warn("", ioex);
-							}
-						}
+						manifest.writeIfChanged(targetFile, content);
 					}
 				}
 			}
@@ -971,13 +968,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(configTarget.toFile()))) {
-
-			getGson().toJson(configuration, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(configTarget, getGson().toJson(configuration));
 	}
 
 	private void exportTemplates(final Path target, final Path configTarget) throws FrameworkException {
@@ -1005,19 +996,12 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(configTarget.toFile()))) {
-
-			getGson().toJson(configuration, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(configTarget, getGson().toJson(configuration));
 	}
 
 	private void exportTemplateSource(final Path target, final DOMNode template, final Map<String, Object> configuration) throws FrameworkException {
 
 		final Map<String, Object> properties = new TreeMap<>();
-		boolean doExport                     = true;
 
 		final String content = template.getProperty(StructrApp.key(Template.class, "content"));
 		if (content != null) {
@@ -1036,31 +1020,10 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 
 			final Path targetFile = target.resolve(name + ".html");
 
-			if (Files.exists(targetFile)) {
-
-				try {
-
-					final String existingContent = new String(Files.readAllBytes(targetFile), "utf-8");
-					doExport = !existingContent.equals(content);
-
-				} catch (IOException ignore) {}
-			}
-
 			configuration.put(name, properties);
 			exportConfiguration(template, properties);
 
-			if (doExport) {
-
-				try (final OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(targetFile.toFile()))) {
-
-					writer.write(content);
-					writer.flush();
-					writer.close();
-
-				} catch (IOException ioex) {
-					logger.warn("", ioex);
-				}
-			}
+			manifest.writeIfChanged(targetFile, content);
 		}
 	}
 
@@ -1085,13 +1048,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(target.toFile()))) {
-
-			getGson().toJson(grants, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(target, getGson().toJson(grants));
 	}
 
 	private void exportSchema(final Path target) throws FrameworkException {
@@ -1102,15 +1059,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 
 			final JsonSchema schema = StructrSchema.createFromDatabase(StructrApp.getInstance());
 
-			try (final Writer writer = new FileWriter(target.toFile())) {
-
-				writer.append(schema.toString());
-				writer.append("\n");
-				writer.flush();
-
-			} catch (IOException ioex) {
-				logger.warn("", ioex);
-			}
+			manifest.writeIfChanged(target, schema.toString() + "\n");
 
 		} catch (Throwable t) {
 			t.printStackTrace();
@@ -1290,13 +1239,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(target.toFile()))) {
-
-			getGson().toJson(mailTemplates, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(target, getGson().toJson(mailTemplates));
 	}
 
 	private void exportWidgets(final Path target) throws FrameworkException {
@@ -1327,13 +1270,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(target.toFile()))) {
-
-			getGson().toJson(widgets, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(target, getGson().toJson(widgets));
 	}
 
 	private void exportLocalizations(final Path target) throws FrameworkException {
@@ -1366,13 +1303,7 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 			tx.success();
 		}
 
-		try (final Writer fos = new OutputStreamWriter(new FileOutputStream(target.toFile()))) {
-
-			getGson().toJson(localizations, fos);
-
-		} catch (IOException ioex) {
-			logger.warn("", ioex);
-		}
+		manifest.writeIfChanged(target, getGson().toJson(localizations));
 	}
 
 	private void putIf(final Map<String, Object> target, final String key, final Object value) {
@@ -1382,6 +1313,250 @@ public class DeployCommand extends NodeServiceCommand implements MaintenanceComm
 		}
 	}
 
+	private boolean isUnchanged(final Path templates, final Map<String, Object> templatesConf, final Path components, final Map<String, Object> componentsConf) throws FrameworkException, IOException {
+
+		final Map<String, String> templateSources  = readSources(templates);
+		final Map<String, String> componentSources = readSources(components);
+		final App app                              = StructrApp.getInstance();
+		int templateCount                          = 0;
+		int componentCount                         = 0;
+
+		try (final Tx tx = app.tx()) {
+
+			for (final Template template : app.nodeQuery(Template.class).getAsList()) {
+
+				final boolean isShared = template.getProperty(StructrApp.key(DOMNode.class, "sharedComponent")) != null;
+				final String content   = template.getProperty(StructrApp.key(Template.class, "content"));
+
+				if (template.inTrash() || isShared || content == null) {
+					continue;
+				}
+
+				final String name = getExportName(template);
+
+				if (!content.equals(templateSources.get(name)) || !isSameConfiguration(template, templatesConf.get(name))) {
+					return false;
+				}
+
+				templateCount++;
+			}
+
+			final ShadowDocument shadowDocument = app.nodeQuery(ShadowDocument.class).getFirst();
+			if (shadowDocument != null) {
+
+				for (final DOMNode node : shadowDocument.getElements()) {
+
+					if (node.inTrash() || node.getParent() != null) {
+						continue;
+					}
+
+					final String content = node.getContent(RenderContext.EditMode.DEPLOYMENT);
+					if (content != null) {
+
+						final String name = getExportName(node);
+
+						if (!content.equals(componentSources.get(name)) || !isSameConfiguration(node, componentsConf.get(name))) {
+							return false;
+						}
+
+						componentCount++;
+					}
+				}
+			}
+
+			tx.success();
+		}
+
+		return templateCount == templateSources.size() && componentCount == componentSources.size();
+	}
+
+	private Set<String> findUnchangedPages(final Path pages, final Map<String, Object> pagesConf) throws FrameworkException, IOException {
+
+		final Set<String> unchangedPages    = Collections.synchronizedSet(new HashSet<>());
+		final Map<String, String> sources   = readSources(pages);
+		final List<Future<?>> results       = new LinkedList<>();
+		final List<String> pageIds          = new LinkedList<>();
+		final App app                       = StructrApp.getInstance();
+
+		try (final Tx tx = app.tx()) {
+
+			for (final Page page : app.nodeQuery(Page.class).getAsList()) {
+
+				if (!(page instanceof ShadowDocument)) {
+					pageIds.add(page.getUuid());
+				}
+			}
+
+			tx.success();
+		}
+
+		// pages are rendered in parallel, each in its own transaction
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+		try {
+
+			for (final String pageId : pageIds) {
+
+				results.add(executor.submit(() -> {
+
+					try (final Tx tx = app.tx()) {
+
+						final Page page     = app.get(Page.class, pageId);
+						final String name   = page.getName();
+						final String source = sources.get(name);
+
+						if (source != null && source.equals(page.getContent(RenderContext.EditMode.DEPLOYMENT))) {
+
+							final Map<String, Object> properties = new TreeMap<>();
+
+							exportConfiguration(page, properties);
+							exportOwnershipAndSecurity(page, properties);
+
+							if (isSameConfiguration(properties, pagesConf.get(name))) {
+								unchangedPages.add(name);
+							}
+						}
+
+						tx.success();
+
+					} catch (FrameworkException fex) {
+						logger.warn("Unable to compare page {} with deployment data: {}", pageId, fex.getMessage());
+					}
+				}));
+			}
+
+			for (final Future<?> result : results) {
+				result.get();
+			}
+
+		} catch (InterruptedException | ExecutionException ex) {
+
+			logger.warn("Unable to compare pages with deployment data: {}", ex.getMessage());
+			unchangedPages.clear();
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+
+		return unchangedPages;
+	}
+
+	private Set<String> deleteObsoletePages(final Path pages, final Map<String, Object> pagesConf) throws FrameworkException {
+
+		final Set<String> keptTemplates = new LinkedHashSet<>();
+		final App app                   = StructrApp.getInstance();
+
+		try (final Tx tx = app.tx()) {
+
+			for (final Page page : app.nodeQuery(Page.class).getAsList()) {
+
+				final String name = page.getName();
+
+				if (page instanceof ShadowDocument || (pagesConf.containsKey(name) && Files.exists(pages.resolve(name + ".html")))) {
+					continue;
+				}
+
+				info("Removing page {}", name);
+
+				// templates are kept because they may be used by other pages
+				for (final DOMNode child : page.getElements()) {
+
+					if (child instanceof Template) {
+
+						keptTemplates.add(child.getUuid());
+
+					} else {
+
+						app.delete(child);
+					}
+				}
+
+				app.delete(page);
+			}
+
+			tx.success();
+		}
+
+		return keptTemplates;
+	}
+
+	/**
+	 * Removes the templates that were kept when deleting or re-importing
+	 * pages, but were not attached to a page again.
+	 */
+	private void deleteOrphanedTemplates(final Set<String> uuids) throws FrameworkException {
+
+		final App app = StructrApp.getInstance();
+
+		try (final Tx tx = app.tx()) {
+
+			for (final String uuid : uuids) {
+
+				final Template template = app.get(Template.class, uuid);
+				if (template != null && template.inTrash()) {
+
+					info("Removing orphaned template {}", uuid);
+
+					// nested templates are orphaned as well
+					for (final DOMNode child : DOMNode.getAllChildNodes(template)) {
+						app.delete(child);
+					}
+
+					app.delete(template);
+				}
+			}
+
+			tx.success();
+		}
+	}
+
+	private Map<String, String> readSources(final Path directory) throws IOException {
+
+		final Map<String, String> sources = new HashMap<>();
+
+		try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.html")) {
+
+			for (final Path file : stream) {
+
+				final String fileName = file.getFileName().toString();
+
+				sources.put(StringUtils.substringBeforeLast(fileName, ".html"), new String(Files.readAllBytes(file), Charset.forName("utf-8")));
+			}
+		}
+
+		return sources;
+	}
+
+	private boolean isSameConfiguration(final DOMNode node, final Object imported) throws FrameworkException {
+
+		final Map<String, Object> properties = new TreeMap<>();
+
+		exportConfiguration(node, properties);
+
+		return isSameConfiguration(properties, imported);
+	}
+
+	private boolean isSameConfiguration(final Map<String, Object> exported, final Object imported) {
+
+		final Gson gson = getGson();
+
+		// round-trip the exported configuration so that value types match the parsed ones
+		return imported != null && gson.toJson(gson.fromJson(gson.toJson(exported), Map.class)).equals(gson.toJson(imported));
+	}
+
+	private String getExportName(final DOMNode node) {
+
+		// name with uuid or just uuid
+		final String name = node.getProperty(AbstractNode.name);
+		if (name != null) {
+
+			return name + "-" + node.getUuid();
+		}
+
+		return node.getUuid();
+	}
+
 	private List<Map<String, Object>> readConfigList(final Path conf) {
 
 		try (final Reader reader = Files.newBufferedReader(conf, Charset.forName("utf-8"))) {
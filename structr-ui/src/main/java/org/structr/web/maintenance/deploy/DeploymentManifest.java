@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.maintenance.deploy;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content hashes of all artifacts written by a deployment export, keyed by
+ * their path relative to the export directory. The manifest is stored in
+ * the export directory together with the size and modification time of
+ * each file after it was written. Subsequent exports skip artifacts whose
+ * new content has the stored hash without reading the file, as long as the
+ * file on disk still has the stored size and modification time. Files that
+ * were modified outside of Structr are compared by content.
+ */
+public class DeploymentManifest {
+
+	private static final Logger logger   = LoggerFactory.getLogger(DeploymentManifest.class.getName());
+	public static final String FILE_NAME = "deployment-manifest.json";
+
+	private final Map<String, Artifact> artifacts = new TreeMap<>();
+	private Path basePath                         = null;
+	private long saved                            = 0L;
+
+	private DeploymentManifest(final Path basePath) {
+		this.basePath = basePath;
+	}
+
+	public static DeploymentManifest load(final Path basePath) {
+
+		final DeploymentManifest manifest = new DeploymentManifest(basePath);
+		final Path manifestFile           = basePath.resolve(FILE_NAME);
+
+		if (Files.exists(manifestFile)) {
+
+			try (final Reader reader = Files.newBufferedReader(manifestFile, Charset.forName("utf-8"))) {
+
+				final Data data = new Gson().fromJson(reader, Data.class);
+				if (data != null && data.artifacts != null) {
+
+					manifest.artifacts.putAll(data.artifacts);
+					manifest.saved = data.saved;
+				}
+
+			} catch (Throwable t) {
+				logger.warn("Unable to read deployment manifest {}, all artifacts will be compared by content: {}", manifestFile, t.getMessage());
+			}
+		}
+
+		return manifest;
+	}
+
+	public void save() {
+
+		final Data data = new Data();
+
+		data.saved     = System.currentTimeMillis();
+		data.artifacts = artifacts;
+
+		try (final Writer writer = Files.newBufferedWriter(basePath.resolve(FILE_NAME), Charset.forName("utf-8"))) {
+
+			new GsonBuilder().setPrettyPrinting().create().toJson(data, writer);
+
+		} catch (IOException ioex) {
+			logger.warn("Unable to write deployment manifest: {}", ioex.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the given content to the given file unless the file on disk
+	 * already has exactly the same content.
+	 *
+	 * @param file
+	 * @param content
+	 *
+	 * @return true if the file was written, false if it was unchanged
+	 */
+	public boolean writeIfChanged(final Path file, final String content) {
+
+		final byte[] data       = content.getBytes(Charset.forName("utf-8"));
+		final String key        = basePath.relativize(file).toString().replace('\\', '/');
+		final String hash       = DigestUtils.sha256Hex(data);
+		final Artifact previous = artifacts.get(key);
+
+		try {
+
+			if (Files.exists(file) && Files.size(file) == data.length) {
+
+				if (isUnmodified(previous, file)) {
+
+					// the file is as it was written by the last export, so the stored hash describes its content
+					if (hash.equals(previous.hash)) {
+						return false;
+					}
+
+				} else if (hash.equals(DigestUtils.sha256Hex(Files.readAllBytes(file)))) {
+
+					// files can be modified outside of Structr, those are compared by content
+					artifacts.put(key, new Artifact(hash, file));
+					return false;
+				}
+			}
+
+			Files.write(file, data);
+			artifacts.put(key, new Artifact(hash, file));
+
+			return true;
+
+		} catch (IOException ioex) {
+			logger.warn("Unable to write {}: {}", file, ioex.getMessage());
+		}
+
+		return false;
+	}
+
+	/**
+	 * Removes entries for artifacts that do not exist any more.
+	 */
+	public void prune() {
+		artifacts.keySet().removeIf(key -> !Files.exists(basePath.resolve(key)));
+	}
+
+	public static String hash(final String content) {
+		return DigestUtils.sha256Hex(content != null ? content : "");
+	}
+
+	// ----- private methods -----
+	private boolean isUnmodified(final Artifact artifact, final Path file) throws IOException {
+
+		if (artifact == null) {
+			return false;
+		}
+
+		final long modified = Files.getLastModifiedTime(file).toMillis();
+
+		// a file that was modified in the same second in which the manifest was saved
+		// can not be distinguished from the exported file by its timestamp
+		if (modified / 1000L >= saved / 1000L) {
+			return false;
+		}
+
+		return artifact.size == Files.size(file) && artifact.modified == modified;
+	}
+
+	// ----- nested classes -----
+	private static class Data {
+
+		private Map<String, Artifact> artifacts = null;
+		private long saved                      = 0L;
+	}
+
+	private static class Artifact {
+
+		private String hash   = null;
+		private long size     = 0L;
+		private long modified = 0L;
+
+		public Artifact(final String hash, final Path file) throws IOException {
+
+			this.hash     = hash;
+			this.size     = Files.size(file);
+			this.modified = Files.getLastModifiedTime(file).toMillis();
+		}
+	}
+}
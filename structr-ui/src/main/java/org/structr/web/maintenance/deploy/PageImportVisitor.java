@@ -25,7 +25,17 @@ import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,11 +45,11 @@ import org.structr.core.GraphObject;
 import org.structr.core.app.App;
 import org.structr.core.app.StructrApp;
 import org.structr.core.graph.Tx;
-import org.structr.core.property.PropertyKey;
 import org.structr.core.property.PropertyMap;
 import org.structr.web.common.FileHelper;
 import org.structr.web.entity.dom.DOMNode;
 import org.structr.web.entity.dom.Page;
+import org.structr.web.entity.dom.Template;
 import org.structr.web.importer.Importer;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -52,16 +62,36 @@ public class PageImportVisitor implements FileVisitor<Path> {
 	private static final Logger logger        = LoggerFactory.getLogger(PageImportVisitor.class.getName());
 	private static final String DoctypeString = "<!DOCTYPE";
 
+	private final List<Path> pageFiles             = new LinkedList<>();
+	private final Set<String> keptTemplates        = new LinkedHashSet<>();
 	private Map<String, Object> pagesConfiguration = null;
 	private SecurityContext securityContext        = null;
+	private Set<String> unchangedPages             = null;
+	private boolean keepTemplates                  = false;
 	private Path basePath                          = null;
 	private App app                                = null;
 
 	public PageImportVisitor(final Path basePath, final Map<String, Object> pagesConfiguration) {
+		this(basePath, pagesConfiguration, Collections.emptySet(), false);
+	}
+
+	/**
+	 * Creates a visitor that skips the given unchanged pages. If keepTemplates
+	 * is set, template nodes of re-imported pages are kept so they can be
+	 * re-attached by UUID, which is needed when templates are not re-imported.
+	 *
+	 * @param basePath
+	 * @param pagesConfiguration
+	 * @param unchangedPages
+	 * @param keepTemplates
+	 */
+	public PageImportVisitor(final Path basePath, final Map<String, Object> pagesConfiguration, final Set<String> unchangedPages, final boolean keepTemplates) {
 
 		this.pagesConfiguration = pagesConfiguration;
 		this.securityContext    = SecurityContext.getSuperUserInstance();
 		this.securityContext.setDoTransactionNotifications(false);
+		this.unchangedPages     = unchangedPages;
+		this.keepTemplates      = keepTemplates;
 		this.basePath           = basePath;
 		this.app                = StructrApp.getInstance(this.securityContext);
 	}
@@ -85,13 +115,8 @@ public class PageImportVisitor implements FileVisitor<Path> {
 				final String fileName = file.getFileName().toString();
 				if (fileName.endsWith(".html")) {
 
-					try {
-
-						createPage(file, fileName);
-
-					} catch (FrameworkException fex) {
-						logger.warn("Exception while importing page {}: {}", new Object[] { fileName, fex.toString() });
-					}
+					// pages are imported in importPages()
+					pageFiles.add(file);
 				}
 			}
 
@@ -115,6 +140,74 @@ public class PageImportVisitor implements FileVisitor<Path> {
 		return FileVisitResult.CONTINUE;
 	}
 
+	/**
+	 * Imports all pages collected while walking the file tree. The page
+	 * sources are parsed in parallel, the nodes are created sequentially
+	 * because pages share templates and components. Only a few pages are
+	 * parsed ahead, so that memory usage does not grow with the number of
+	 * pages.
+	 */
+	public void importPages() {
+
+		final int threads                            = Math.max(1, Runtime.getRuntime().availableProcessors());
+		final ExecutorService executor               = Executors.newFixedThreadPool(threads);
+		final LinkedList<Future<ParsedPage>> pending = new LinkedList<>();
+		final Iterator<Path> files                   = pageFiles.iterator();
+
+		try {
+
+			while (files.hasNext() || !pending.isEmpty()) {
+
+				while (files.hasNext() && pending.size() < 2 * threads) {
+
+					final Path file = files.next();
+
+					pending.add(executor.submit(() -> parsePage(file)));
+				}
+
+				try {
+
+					final ParsedPage page = pending.removeFirst().get();
+					if (page != null) {
+
+						createPage(page);
+					}
+
+				} catch (ExecutionException eex) {
+
+					logger.warn("Exception while parsing page: {}", eex.getCause().toString());
+
+				} catch (FrameworkException fex) {
+
+					logger.warn("Exception while importing page: {}", fex.toString());
+
+				} catch (RuntimeException rex) {
+
+					logger.warn("", rex);
+				}
+			}
+
+		} catch (InterruptedException iex) {
+
+			logger.warn("Interrupted while importing pages");
+
+		} finally {
+
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the UUIDs of the templates that were kept when re-importing
+	 * pages. Templates that are not re-attached by the new page sources are
+	 * orphaned and must be removed after the import.
+	 *
+	 * @return the UUIDs of the kept templates
+	 */
+	public Set<String> getKeptTemplates() {
+		return keptTemplates;
+	}
+
 	// ----- private methods -----
 	private Page getExistingPage(final String name) throws FrameworkException {
 		return StructrApp.getInstance().nodeQuery(Page.class).andName(name).getFirst();
@@ -126,6 +219,13 @@ public class PageImportVisitor implements FileVisitor<Path> {
 		if (page != null) {
 
 			for (final DOMNode child : page.getElements()) {
+
+				if (keepTemplates && child instanceof Template) {
+
+					keptTemplates.add(child.getUuid());
+					continue;
+				}
+
 				app.delete(child);
 			}
 
@@ -150,20 +250,6 @@ public class PageImportVisitor implements FileVisitor<Path> {
 		return null;
 	}
 
-	private <T> T get(final PropertyMap src, final PropertyKey<T> key, final T defaultValue) {
-
-		if (src != null) {
-
-			final T t = src.get(key);
-			if (t != null) {
-
-				return t;
-			}
-		}
-
-		return defaultValue;
-	}
-
 	private void createFolder(final Path file) {
 
 		try (final Tx tx = app.tx(true, false, false)) {
@@ -178,86 +264,90 @@ public class PageImportVisitor implements FileVisitor<Path> {
 		}
 	}
 
-	private void createPage(final Path file, final String fileName) throws IOException, FrameworkException {
+	private ParsedPage parsePage(final Path file) throws IOException, FrameworkException {
 
-		final String name = StringUtils.substringBeforeLast(fileName, ".html");
-
-		try (final Tx tx = app.tx(true, false, false)) {
+		final String fileName = file.getFileName().toString();
+		final String name     = StringUtils.substringBeforeLast(fileName, ".html");
 
-			final PropertyMap properties = getPropertiesForPage(name);
-
-			if (properties == null) {
-
-				logger.info("Ignoring {} (not in pages.json)", fileName);
-			} else {
+		if (unchangedPages.contains(name)) {
 
-				final Page existingPage      = getExistingPage(name);
+			logger.debug("Skipping unchanged page {}", name);
+			return null;
+		}
 
-				if (existingPage != null) {
+		final Object data = pagesConfiguration.get(name);
+		if (!(data instanceof Map)) {
 
-					deletePage(app, name);
-				}
+			logger.info("Ignoring {} (not in pages.json)", fileName);
+			return null;
+		}
 
-				final String src         = new String(Files.readAllBytes(file),Charset.forName("UTF-8"));
-				final String contentType = get(properties, StructrApp.key(Page.class, "contentType"), "text/html");
+		final Map<String, Object> config = (Map<String, Object>)data;
+		final String src                 = new String(Files.readAllBytes(file),Charset.forName("UTF-8"));
+		final Object contentTypeValue    = config.get("contentType");
+		final String contentType         = contentTypeValue != null ? contentTypeValue.toString() : "text/html";
+		final boolean visibleToPublic    = Boolean.TRUE.equals(config.get(GraphObject.visibleToPublicUsers.jsonName()));
+		final boolean visibleToAuth      = Boolean.TRUE.equals(config.get(GraphObject.visibleToAuthenticatedUsers.jsonName()));
+		final Importer importer          = new Importer(securityContext, src, null, name, visibleToPublic, visibleToAuth);
 
-				boolean visibleToPublic = get(properties, GraphObject.visibleToPublicUsers, false);
-				boolean visibleToAuth   = get(properties, GraphObject.visibleToAuthenticatedUsers, false);
+		// enable literal import of href attributes
+		importer.setIsDeployment(true);
 
-				final Importer importer = new Importer(securityContext, src, null, name, visibleToPublic, visibleToAuth);
+		// Import documents that start with a <!DOCTYPE> definition are treated as HTML
+		// documents, everything else is parsed as a template or shared component.
+		final boolean isDocument = StringUtils.startsWithIgnoreCase(src, DoctypeString) && "text/html".equals(contentType);
+		final boolean parseOk    = importer.parse(!isDocument);
 
-				// enable literal import of href attributes
-				importer.setIsDeployment(true);
+		return new ParsedPage(name, fileName, importer, isDocument, parseOk);
+	}
 
-				if (StringUtils.startsWithIgnoreCase(src, DoctypeString) && "text/html".equals(contentType)) {
+	private void createPage(final ParsedPage parsedPage) throws FrameworkException {
 
-					// Import document starts with <!DOCTYPE> definition, so we treat it as an HTML
-					// document and use the Structr HTML importer.
+		final String name = parsedPage.name;
 
-					final boolean parseOk = importer.parse();
-					if (parseOk) {
+		try (final Tx tx = app.tx(true, false, false)) {
 
-						logger.info("Importing page {} from {}..", new Object[] { name, fileName } );
+			final PropertyMap properties = getPropertiesForPage(name);
+			final Importer importer      = parsedPage.importer;
+			final Page existingPage      = getExistingPage(name);
 
-						// set comment handler that can parse and apply special Structr comments in HTML source files
-						importer.setCommentHandler(new DeploymentCommentHandler());
+			if (existingPage != null) {
 
-						// parse page
-						final Page newPage = importer.readPage();
+				deletePage(app, name);
+			}
 
-						// remove duplicate elements
-						fixDocumentElements(newPage);
+			if (parsedPage.parseOk) {
 
-						// store properties from pages.json if present
-						if (properties != null) {
-							newPage.setProperties(securityContext, properties);
-						}
-					}
+				logger.info("Importing page {} from {}..", new Object[] { name, parsedPage.fileName } );
 
-				} else {
+				// set comment handler that can parse and apply special Structr comments in HTML source files
+				importer.setCommentHandler(new DeploymentCommentHandler());
 
-					// Import document does NOT start with a <!DOCTYPE> definition, so we assume a
-					// template or shared component that we need to parse.
+				if (parsedPage.isDocument) {
 
-					final boolean parseOk = importer.parse(true);
-					if (parseOk) {
+					// parse page
+					final Page newPage = importer.readPage();
 
-						logger.info("Importing page {} from {}..", new Object[] { name, fileName } );
+					// remove duplicate elements
+					fixDocumentElements(newPage);
 
-						// set comment handler that can parse and apply special Structr comments in HTML source files
-						importer.setCommentHandler(new DeploymentCommentHandler());
+					// store properties from pages.json if present
+					if (properties != null) {
+						newPage.setProperties(securityContext, properties);
+					}
 
-						// parse page
-						final Page newPage = app.create(Page.class, name);
+				} else {
 
-						// store properties from pages.json if present
-						if (properties != null) {
-							newPage.setProperties(securityContext, properties);
-						}
+					// parse page
+					final Page newPage = app.create(Page.class, name);
 
-						// add children
-						importer.createChildNodes(newPage, newPage);
+					// store properties from pages.json if present
+					if (properties != null) {
+						newPage.setProperties(securityContext, properties);
 					}
+
+					// add children
+					importer.createChildNodes(newPage, newPage);
 				}
 			}
 
@@ -309,4 +399,23 @@ public class PageImportVisitor implements FileVisitor<Path> {
 			}
 		}
 	}
+
+	// ----- nested classes -----
+	private static class ParsedPage {
+
+		private Importer importer  = null;
+		private String fileName    = null;
+		private String name        = null;
+		private boolean isDocument = false;
+		private boolean parseOk    = false;
+
+		public ParsedPage(final String name, final String fileName, final Importer importer, final boolean isDocument, final boolean parseOk) {
+
+			this.isDocument = isDocument;
+			this.fileName   = fileName;
+			this.importer   = importer;
+			this.parseOk    = parseOk;
+			this.name       = name;
+		}
+	}
 }
@@ -58,6 +58,7 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.structr.api.config.Settings;
+import org.structr.api.metrics.Metrics;
 import org.structr.common.AccessMode;
 import org.structr.common.GraphObjectComparator;
 import org.structr.common.PathHelper;
@@ -82,9 +83,12 @@ import org.structr.rest.auth.AuthHelper;
 import org.structr.rest.service.HttpServiceServlet;
 import org.structr.rest.service.StructrHttpServiceConfig;
 import org.structr.schema.ConfigurationProvider;
+import org.structr.schema.action.QueryMemo;
 import org.structr.util.Base64;
 import org.structr.web.auth.UiAuthenticator;
+import org.structr.web.common.ByteRenderBuffer;
 import org.structr.web.common.FileHelper;
+import org.structr.web.common.ParallelRenderer;
 import org.structr.web.common.RenderContext;
 import org.structr.web.common.RenderContext.EditMode;
 import org.structr.web.common.StringRenderBuffer;
@@ -250,6 +254,7 @@ public class HtmlServlet extends HttpServlet implements HttpServiceServlet {
 				final RenderContext renderContext = RenderContext.getInstance(securityContext, request, response);
 
 				renderContext.setResourceProvider(config.getResourceProvider());
+				renderContext.setParallelRenderer(ParallelRenderer.getInstance());
 
 				final EditMode edit = renderContext.getEditMode(user);
 
@@ -478,10 +483,16 @@ public class HtmlServlet extends HttpServlet implements HttpServiceServlet {
 
 									try (final Tx tx = app.tx()) {
 
+										final long t0 = System.nanoTime();
+
 										// render
 										rootNode.render(renderContext, 0);
 										finished.set(true);
 
+										Metrics.record(Metrics.CATEGORY_HTML, rootNode.getName(), t0);
+
+										logQueryMemo(rootNode, renderContext);
+
 										tx.success();
 
 									} catch (Throwable t) {
@@ -550,20 +561,44 @@ public class HtmlServlet extends HttpServlet implements HttpServiceServlet {
 
 						} else {
 
-							final StringRenderBuffer buffer = new StringRenderBuffer();
-							renderContext.setBuffer(buffer);
+							// pooled byte buffers stream the page while it is rendered
+							final ByteRenderBuffer byteBuffer     = Settings.RenderByteBuffers.getValue() ? new ByteRenderBuffer(response.getOutputStream()) : null;
+							final StringRenderBuffer stringBuffer = byteBuffer == null ? new StringRenderBuffer() : null;
 
-							// render
-							rootElement.render(renderContext, 0);
+							renderContext.setBuffer(byteBuffer != null ? byteBuffer : stringBuffer);
 
 							try {
 
-								response.getOutputStream().write(buffer.getBuffer().toString().getBytes("utf-8"));
+								final long t0 = System.nanoTime();
+
+								// render
+								rootElement.render(renderContext, 0);
+
+								Metrics.record(Metrics.CATEGORY_HTML, rootElement.getName(), t0);
+
+								logQueryMemo(rootElement, renderContext);
+
+								if (byteBuffer != null) {
+
+									byteBuffer.flush();
+
+								} else {
+
+									response.getOutputStream().write(stringBuffer.getBuffer().toString().getBytes("utf-8"));
+								}
+
 								response.getOutputStream().flush();
 								response.getOutputStream().close();
 
 							} catch (IOException ioex) {
+
 								logger.warn("", ioex);
+
+							} finally {
+
+								if (byteBuffer != null) {
+									byteBuffer.release();
+								}
 							}
 						}
 					}
@@ -897,6 +932,16 @@ public class HtmlServlet extends HttpServlet implements HttpServiceServlet {
 		}
 	}
 
+	private void logQueryMemo(final DOMNode rootNode, final RenderContext renderContext) {
+
+		if (logger.isDebugEnabled()) {
+
+			final QueryMemo memo = renderContext.getQueryMemo();
+
+			logger.debug("Rendered {}, query memo: {} hits, {} misses, {} results cached", rootNode.getName(), memo.getHitCount(), memo.getMissCount(), memo.size());
+		}
+	}
+
 	/**
 	 * Handle 404 Not Found
 	 *
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.files.cmis;
+
+import java.math.BigInteger;
+import java.util.LinkedList;
+import java.util.List;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.data.ObjectList;
+import org.apache.chemistry.opencmis.commons.enums.ChangeType;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConstraintException;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.structr.common.AccessMode;
+import org.structr.common.SecurityContext;
+import org.structr.common.error.FrameworkException;
+import org.structr.core.GraphObject;
+import org.structr.core.entity.AbstractNode;
+import org.structr.core.graph.NodeAttribute;
+import org.structr.core.graph.TransactionCommand;
+import org.structr.core.graph.Tx;
+import org.structr.web.StructrUiTest;
+import org.structr.web.entity.File;
+import org.structr.web.entity.User;
+
+/**
+ * Tests query execution, paging and content changes of the CMIS
+ * discovery service.
+ */
+public class CMISDiscoveryServiceTest extends StructrUiTest {
+
+	@Test
+	public void testQueryPaging() {
+
+		try (final Tx tx = app.tx()) {
+
+			for (int i=0; i<5; i++) {
+				createTestNode(File.class, new NodeAttribute<>(AbstractNode.name, "file" + i));
+			}
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fail("Unexpected exception");
+		}
+
+		final CMISDiscoveryService service = new CMISDiscoveryService(null, securityContext);
+		final String statement             = "SELECT * FROM cmis:document ORDER BY cmis:name";
+
+		// aligned pages are fetched from the database
+		final ObjectList page1 = query(service, statement, 2, 0);
+		final ObjectList page2 = query(service, statement, 2, 2);
+		final ObjectList page3 = query(service, statement, 2, 4);
+
+		assertEquals("Invalid query result", list("file0", "file1"), getNames(page1));
+		assertEquals("Invalid query result", list("file2", "file3"), getNames(page2));
+		assertEquals("Invalid query result", list("file4"),          getNames(page3));
+
+		assertEquals("Invalid number of items", BigInteger.valueOf(5), page1.getNumItems());
+		assertTrue("Invalid hasMoreItems value",  page1.hasMoreItems());
+		assertFalse("Invalid hasMoreItems value", page3.hasMoreItems());
+
+		// unaligned pages
+		assertEquals("Invalid query result", list("file1", "file2", "file3"), getNames(query(service, statement, 3, 1)));
+
+		// conditions
+		assertEquals("Invalid query result", list("file3"), getNames(query(service, "SELECT * FROM cmis:document WHERE cmis:name = 'file3'", 10, 0)));
+
+		// strict bounds beyond the value range must not overflow into a match-all range
+		final ObjectList empty = query(service, "SELECT * FROM cmis:document WHERE cmis:contentStreamLength > 9223372036854775807", 10, 0);
+
+		assertTrue("Invalid query result", empty.getObjects().isEmpty());
+		assertEquals("Invalid number of items", BigInteger.ZERO, empty.getNumItems());
+	}
+
+	@Test
+	public void testContentChanges() {
+
+		final CMISChangeLog changeLog = CMISChangeLog.getInstance();
+		final String initialToken     = changeLog.getLatestToken();
+		SecurityContext userContext   = null;
+		String privateId              = null;
+		String sharedId               = null;
+
+		TransactionCommand.registerTransactionListener(changeLog);
+
+		try {
+
+			try (final Tx tx = app.tx()) {
+
+				final User user = createTestNode(User.class, new NodeAttribute<>(AbstractNode.name, "tester"));
+
+				privateId = createTestNode(File.class, new NodeAttribute<>(AbstractNode.name, "private")).getUuid();
+				sharedId  = createTestNode(File.class, new NodeAttribute<>(AbstractNode.name, "shared"), new NodeAttribute<>(GraphObject.visibleToAuthenticatedUsers, true)).getUuid();
+
+				userContext = SecurityContext.getInstance(user, AccessMode.Backend);
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+				fail("Unexpected exception");
+			}
+
+			final CMISDiscoveryService adminService = new CMISDiscoveryService(null, securityContext);
+			final CMISDiscoveryService userService  = new CMISDiscoveryService(null, userContext);
+			final Holder<String> token              = new Holder<>(initialToken);
+
+			// the changes are paged with the change log token
+			final ObjectList created1 = getChanges(adminService, token, 1);
+			final String firstToken   = token.getValue();
+
+			assertEquals("Invalid content changes", list(privateId), getIds(created1));
+			assertEquals("Invalid change type", ChangeType.CREATED, created1.getObjects().get(0).getChangeEventInfo().getChangeType());
+			assertTrue("Invalid hasMoreItems value", created1.hasMoreItems());
+			assertNotEquals("Change log token was not advanced", initialToken, firstToken);
+
+			final ObjectList created2 = getChanges(adminService, token, 10);
+
+			assertEquals("Invalid content changes", list(sharedId), getIds(created2));
+			assertFalse("Invalid hasMoreItems value", created2.hasMoreItems());
+
+			// changes of objects that are not visible are not reported
+			assertEquals("Invalid content changes", list(sharedId), getIds(getChanges(userService, new Holder<>(initialToken), 10)));
+
+			try (final Tx tx = app.tx()) {
+
+				app.delete(app.get(File.class, privateId));
+				app.delete(app.get(File.class, sharedId));
+
+				tx.success();
+
+			} catch (FrameworkException fex) {
+				fail("Unexpected exception");
+			}
+
+			// deletions are reported to admins, and to other users only if the object was visible to them
+			final ObjectList adminDeletions = getChanges(adminService, new Holder<>(token.getValue()), 10);
+			final ObjectList userDeletions  = getChanges(userService,  new Holder<>(token.getValue()), 10);
+
+			assertEquals("Invalid content changes", list(privateId, sharedId), getIds(adminDeletions));
+			assertEquals("Invalid change type", ChangeType.DELETED, adminDeletions.getObjects().get(0).getChangeEventInfo().getChangeType());
+			assertEquals("Invalid content changes", list(sharedId), getIds(userDeletions));
+
+			// tokens from another log are rejected
+			try {
+
+				getChanges(adminService, new Holder<>("0-1"), 10);
+				fail("Foreign change log token should be rejected");
+
+			} catch (CmisConstraintException expected) {}
+
+		} finally {
+
+			TransactionCommand.removeTransactionListener(changeLog);
+		}
+	}
+
+	// ----- private methods -----
+	private ObjectList query(final CMISDiscoveryService service, final String statement, final int maxItems, final int skipCount) {
+		return service.query(null, statement, false, false, null, null, BigInteger.valueOf(maxItems), BigInteger.valueOf(skipCount), null);
+	}
+
+	private ObjectList getChanges(final CMISDiscoveryService service, final Holder<String> token, final int maxItems) {
+		return service.getContentChanges(null, token, false, null, false, false, BigInteger.valueOf(maxItems), null);
+	}
+
+	private List<String> getNames(final ObjectList objects) {
+		return getValues(objects, PropertyIds.NAME);
+	}
+
+	private List<String> getIds(final ObjectList objects) {
+		return getValues(objects, PropertyIds.OBJECT_ID);
+	}
+
+	private List<String> getValues(final ObjectList objects, final String propertyId) {
+
+		final List<String> values = new LinkedList<>();
+
+		for (final ObjectData data : objects.getObjects()) {
+			values.add((String)data.getProperties().getProperties().get(propertyId).getFirstValue());
+		}
+
+		return values;
+	}
+
+	private List<String> list(final String... values) {
+
+		final List<String> list = new LinkedList<>();
+
+		for (final String value : values) {
+			list.add(value);
+		}
+
+		return list;
+	}
+}
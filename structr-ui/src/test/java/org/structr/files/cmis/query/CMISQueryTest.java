@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.files.cmis.query;
+
+import java.util.Date;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisInvalidArgumentException;
+import org.junit.Test;
+
+/**
+ *
+ *
+ */
+public class CMISQueryTest {
+
+	@Test
+	public void testParseQuery() {
+
+		final CMISQuery query = CMISQuery.parse("select d.cmis:name, cmis:objectId from cmis:document as d where d.cmis:name = 'it''s' and IN_FOLDER(d, 'abc') and cmis:contentStreamLength >= 100 order by d.cmis:name desc, cmis:creationDate");
+
+		assertEquals("Invalid type",            "cmis:document",          query.getTypeId());
+		assertEquals("Invalid property filter", "cmis:name,cmis:objectId", query.getPropertyFilter());
+		assertEquals("Invalid condition count", 3,                        query.getConditions().size());
+		assertEquals("Invalid order count",     2,                        query.getOrders().size());
+
+		assertEquals("Invalid property", "cmis:name",                   query.getConditions().get(0).getProperty());
+		assertEquals("Invalid operator", CMISQuery.Operator.Equals,     query.getConditions().get(0).getOperator());
+		assertEquals("Invalid value",    "it's",                        query.getConditions().get(0).getValue());
+		assertEquals("Invalid operator", CMISQuery.Operator.InFolder,   query.getConditions().get(1).getOperator());
+		assertEquals("Invalid value",    "abc",                         query.getConditions().get(1).getValue());
+		assertEquals("Invalid operator", CMISQuery.Operator.GreaterOrEqual, query.getConditions().get(2).getOperator());
+		assertEquals("Invalid value",    100L,                          query.getConditions().get(2).getValue());
+
+		assertEquals("Invalid sort property", "cmis:name", query.getOrders().get(0).getProperty());
+		assertTrue("Invalid sort order",                   query.getOrders().get(0).isDescending());
+	}
+
+	@Test
+	public void testParseSelectAll() {
+
+		final CMISQuery query = CMISQuery.parse("SELECT * FROM cmis:folder WHERE cmis:lastModificationDate > TIMESTAMP '2018-01-02T03:04:05.000Z' AND cmis:description IS NOT NULL");
+
+		assertEquals("Invalid type", "cmis:folder", query.getTypeId());
+		assertNull("Invalid property filter",       query.getPropertyFilter());
+		assertTrue("Invalid value",                 query.getConditions().get(0).getValue() instanceof Date);
+		assertEquals("Invalid operator", CMISQuery.Operator.IsNotNull, query.getConditions().get(1).getOperator());
+	}
+
+	@Test
+	public void testUnsupportedQueries() {
+
+		assertInvalid("SELECT * FROM cmis:document WHERE cmis:name = 'a' OR cmis:name = 'b'");
+		assertInvalid("SELECT * FROM cmis:document WHERE NOT cmis:name = 'a'");
+		assertInvalid("SELECT * FROM cmis:document WHERE cmis:name <> 'a'");
+		assertInvalid("SELECT * FROM cmis:document WHERE CONTAINS('a')");
+		assertInvalid("SELECT * FROM cmis:document d JOIN cmis:folder f ON d.cmis:parentId = f.cmis:objectId");
+		assertInvalid("SELECT * FROM cmis:document WHERE cmis:name = 'a");
+	}
+
+	// ----- private methods -----
+	private void assertInvalid(final String statement) {
+
+		try {
+
+			CMISQuery.parse(statement);
+			fail("Query " + statement + " should not be accepted");
+
+		} catch (CmisInvalidArgumentException expected) {}
+	}
+}
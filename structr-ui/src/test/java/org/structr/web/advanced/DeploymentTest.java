@@ -32,6 +32,8 @@ import java.util.function.Function;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Test;
@@ -1967,6 +1969,210 @@ public class DeploymentTest extends StructrUiTest {
 		compare(calculateHash(), true);
 	}
 
+	@Test
+	public void test42IncrementalImport() {
+
+		final Path tmp = Paths.get("/tmp/structr-deployment-test" + System.currentTimeMillis() + System.nanoTime());
+		String unchangedId = null;
+		String changedId   = null;
+
+		// setup
+		try (final Tx tx = app.tx()) {
+
+			unchangedId = Page.createSimplePage(securityContext, "test42a").getUuid();
+			changedId   = Page.createSimplePage(securityContext, "test42b").getUuid();
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fail("Unexpected exception.");
+		}
+
+		try {
+
+			final DeployCommand cmd = app.command(DeployCommand.class);
+
+			final Map<String, Object> exportParams = new HashMap<>();
+			exportParams.put("mode", "export");
+			exportParams.put("target", tmp.toString());
+
+			cmd.execute(exportParams);
+
+			assertTrue("Export should write a deployment manifest", Files.exists(tmp.resolve("deployment-manifest.json")));
+
+			// modify one of the pages after export
+			try (final Tx tx = app.tx()) {
+
+				final Page page = app.get(Page.class, changedId);
+				final Div div   = (Div)page.getElementsByTagName("div").item(0);
+
+				createElement(page, div, "p", "modified");
+
+				tx.success();
+			}
+
+			final Map<String, Object> importParams = new HashMap<>();
+			importParams.put("source", tmp.toString());
+			importParams.put("incremental", "true");
+
+			cmd.execute(importParams);
+
+			try (final Tx tx = app.tx()) {
+
+				final Page unchanged = app.nodeQuery(Page.class).andName("test42a").getFirst();
+				final Page changed   = app.nodeQuery(Page.class).andName("test42b").getFirst();
+
+				assertEquals("Unchanged page should not be re-imported", unchangedId, unchanged.getUuid());
+				assertTrue("Changed page should be re-imported", !changedId.equals(changed.getUuid()));
+				assertEquals("Changes made after export should be reverted", 0, changed.getElementsByTagName("p").getLength());
+
+				tx.success();
+			}
+
+		} catch (FrameworkException fex) {
+
+			fex.printStackTrace();
+			fail("Unexpected exception.");
+
+		} finally {
+
+			try {
+				Files.walkFileTree(tmp, new DeletingFileVisitor());
+				Files.delete(tmp);
+
+			} catch (IOException ioex) {}
+		}
+	}
+
+	@Test
+	public void test43ExportOverwritesModifiedFiles() {
+
+		final Path tmp = Paths.get("/tmp/structr-deployment-test" + System.currentTimeMillis() + System.nanoTime());
+
+		// setup
+		try (final Tx tx = app.tx()) {
+
+			Page.createSimplePage(securityContext, "test43");
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fail("Unexpected exception.");
+		}
+
+		try {
+
+			final DeployCommand cmd = app.command(DeployCommand.class);
+
+			final Map<String, Object> exportParams = new HashMap<>();
+			exportParams.put("mode", "export");
+			exportParams.put("target", tmp.toString());
+
+			cmd.execute(exportParams);
+
+			final Path pageFile = Files.walk(tmp).filter(p -> p.getFileName().toString().equals("test43.html")).findFirst().orElse(null);
+			assertNotNull("Export should write the page file", pageFile);
+
+			final String original = new String(Files.readAllBytes(pageFile), "utf-8");
+			final String modified = original.replaceFirst("html", "HTML");
+
+			assertEquals("Modification must not change the file size", original.length(), modified.length());
+			assertTrue("Modification must change the file content", !original.equals(modified));
+
+			// modify the exported file without changing its size
+			Files.write(pageFile, modified.getBytes("utf-8"));
+
+			cmd.execute(exportParams);
+
+			assertEquals("Export should overwrite files that were modified on disk", original, new String(Files.readAllBytes(pageFile), "utf-8"));
+
+		} catch (IOException | FrameworkException ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+
+		} finally {
+
+			try {
+				Files.walkFileTree(tmp, new DeletingFileVisitor());
+				Files.delete(tmp);
+
+			} catch (IOException ioex) {}
+		}
+	}
+
+	@Test
+	public void test44IncrementalImportRemovesOrphanedTemplates() {
+
+		final Path tmp    = Paths.get("/tmp/structr-deployment-test" + System.currentTimeMillis() + System.nanoTime());
+		String templateId = null;
+
+		// setup
+		try (final Tx tx = app.tx()) {
+
+			Page.createSimplePage(securityContext, "test44a");
+
+			final Page page = Page.createNewPage(securityContext,   "test44b");
+			final Html html = createElement(page, page, "html");
+			final Head head = createElement(page, html, "head");
+			createElement(page, head, "title", "test44b");
+
+			final Body body = createElement(page, html, "body");
+			final Div div1  = createElement(page, body, "div");
+
+			templateId = createTemplate(page, div1, "template source").getUuid();
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+			fail("Unexpected exception.");
+		}
+
+		try {
+
+			final DeployCommand cmd = app.command(DeployCommand.class);
+
+			final Map<String, Object> exportParams = new HashMap<>();
+			exportParams.put("mode", "export");
+			exportParams.put("target", tmp.toString());
+
+			cmd.execute(exportParams);
+
+			// remove the page with the template from the export
+			final Path pageFile = Files.walk(tmp).filter(p -> p.getFileName().toString().equals("test44b.html")).findFirst().orElse(null);
+			assertNotNull("Export should write the page file", pageFile);
+
+			Files.delete(pageFile);
+
+			final Map<String, Object> importParams = new HashMap<>();
+			importParams.put("source", tmp.toString());
+			importParams.put("incremental", "true");
+
+			cmd.execute(importParams);
+
+			try (final Tx tx = app.tx()) {
+
+				assertNotNull("Remaining page should not be removed", app.nodeQuery(Page.class).andName("test44a").getFirst());
+				assertNull("Removed page should be deleted", app.nodeQuery(Page.class).andName("test44b").getFirst());
+				assertNull("Template of a removed page should not be left behind", app.get(Template.class, templateId));
+
+				tx.success();
+			}
+
+		} catch (IOException | FrameworkException ex) {
+
+			ex.printStackTrace();
+			fail("Unexpected exception.");
+
+		} finally {
+
+			try {
+				Files.walkFileTree(tmp, new DeletingFileVisitor());
+				Files.delete(tmp);
+
+			} catch (IOException ioex) {}
+		}
+	}
+
 	// ----- private methods -----
 	private void compare(final String sourceHash, final boolean deleteTestDirectory) {
 		compare(sourceHash, deleteTestDirectory, true);
@@ -52,7 +52,9 @@ import org.structr.core.script.Scripting;
 import org.structr.schema.ConfigurationProvider;
 import org.structr.schema.action.ActionContext;
 import org.structr.web.StructrUiTest;
+import org.structr.web.common.ParallelRenderer;
 import org.structr.web.common.RenderContext;
+import org.structr.web.common.StringRenderBuffer;
 import org.structr.web.entity.TestOne;
 import org.structr.web.entity.User;
 import org.structr.web.entity.dom.DOMElement;
@@ -821,4 +823,88 @@ public class RenderContextTest extends StructrUiTest {
                 }
 
 	}
+
+	@Test
+	public void testParallelRenderingMatchesSequentialRendering() {
+
+		Page page = null;
+
+		try (final Tx tx = app.tx()) {
+
+			page = Page.createNewPage(securityContext, "parallel");
+
+			final DOMNode html = (DOMNode) page.createElement("html");
+			final DOMNode head = (DOMNode) page.createElement("head");
+			final DOMNode body = (DOMNode) page.createElement("body");
+
+			page.appendChild(html);
+			html.appendChild(head);
+			html.appendChild(body);
+
+			for (int i=0; i<10; i++) {
+
+				final DOMNode div  = (DOMNode) page.createElement("div");
+				final DOMNode span = (DOMNode) page.createElement("span");
+				final DOMNode p    = (DOMNode) page.createElement("p");
+
+				div.setProperty(StructrApp.key(DOMNode.class, "renderIndependently"), true);
+
+				body.appendChild(div);
+				div.appendChild(span);
+				div.appendChild(p);
+
+				span.appendChild(page.createTextNode("${concat('item ', " + i + ")}"));
+
+				if (i == 3) {
+
+					// stored values must be visible for the following siblings
+					p.appendChild(page.createTextNode("${store('stored', 'from item 3')}"));
+				}
+			}
+
+			final DOMNode last = (DOMNode) page.createElement("div");
+
+			body.appendChild(last);
+			last.appendChild(page.createTextNode("${retrieve('stored')}"));
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception");
+		}
+
+		try (final Tx tx = app.tx()) {
+
+			final String sequential = render(page, null);
+			final String parallel   = render(page, new ParallelRenderer(4));
+
+			assertTrue("Invalid rendering result", sequential.contains("item 9"));
+			assertTrue("Stored value is not visible", sequential.contains("from item 3"));
+			assertEquals("Parallel rendering differs from sequential rendering", sequential, parallel);
+
+			tx.success();
+
+		} catch (FrameworkException fex) {
+
+			logger.warn("", fex);
+			fail("Unexpected exception");
+		}
+	}
+
+	// ----- private methods -----
+	private String render(final Page page, final ParallelRenderer parallelRenderer) throws FrameworkException {
+
+		// a new security context for each run, stored values must not leak into the next run
+		final RenderContext renderContext = new RenderContext(SecurityContext.getSuperUserInstance(), null, null, RenderContext.EditMode.NONE);
+		final StringRenderBuffer buffer   = new StringRenderBuffer();
+
+		renderContext.setBuffer(buffer);
+		renderContext.setParallelRenderer(parallelRenderer);
+
+		page.render(renderContext, 0);
+
+		return buffer.getBuffer().toString();
+	}
 }
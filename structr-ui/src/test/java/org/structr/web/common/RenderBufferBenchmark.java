@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2010-2018 Structr GmbH
+ *
+ * This file is part of Structr <http://structr.org>.
+ *
+ * Structr is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * Structr is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Structr.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.structr.web.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the allocation rate and the throughput of the string based
+ * render buffer with the pooled byte buffer when rendering a large page
+ * and writing it to an output stream.
+ *
+ * The second part renders the pages in several threads at once and
+ * reports the throughput and the time spent in garbage collection.
+ *
+ * Usage: RenderBufferBenchmark [iterations] [fragments per page] [threads]
+ */
+public class RenderBufferBenchmark {
+
+	public static void main(final String[] args) throws Exception {
+
+		final int iterations       = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		final int fragmentCount    = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		final int threadCount      = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		final String[] fragments   = createFragments(fragmentCount);
+		final ByteBufferPool pool  = new ByteBufferPool(65536, 256);
+
+		// warmup
+		run("StringRenderBuffer", fragments, iterations / 10, null, false);
+		run("ByteRenderBuffer", fragments, iterations / 10, pool, false);
+
+		run("StringRenderBuffer", fragments, iterations, null, true);
+		run("ByteRenderBuffer", fragments, iterations, pool, true);
+
+		runConcurrent("StringRenderBuffer", fragments, iterations, null, threadCount);
+		runConcurrent("ByteRenderBuffer", fragments, iterations, pool, threadCount);
+
+		System.out.println("Buffers allocated by pool: " + pool.getAllocationCount());
+	}
+
+	// ----- private methods -----
+	private static void run(final String name, final String[] fragments, final int iterations, final ByteBufferPool pool, final boolean report) throws IOException {
+
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		final long threadId                           = Thread.currentThread().getId();
+		final CountingOutputStream out                = new CountingOutputStream();
+		final long allocatedBefore                    = threads.getThreadAllocatedBytes(threadId);
+		final long start                              = System.nanoTime();
+
+		for (int i=0; i<iterations; i++) {
+
+			if (pool != null) {
+
+				final ByteRenderBuffer buffer = new ByteRenderBuffer(pool, out);
+
+				for (final String fragment : fragments) {
+					buffer.append(fragment);
+				}
+
+				buffer.flush();
+
+			} else {
+
+				final StringRenderBuffer buffer = new StringRenderBuffer();
+
+				for (final String fragment : fragments) {
+					buffer.append(fragment);
+				}
+
+				out.write(buffer.getBuffer().toString().getBytes("utf-8"));
+			}
+		}
+
+		final long duration  = System.nanoTime() - start;
+		final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+		if (report) {
+
+			System.out.println(name + ":");
+			System.out.println("        Pages rendered: " + iterations + " (" + (out.getCount() / iterations / 1024) + " KB each)");
+			System.out.println("        Time per page: " + (duration / iterations / 1000) + " us");
+			System.out.println("        Heap allocated per page: " + (allocated / iterations / 1024) + " KB");
+			System.out.println("        Allocation rate: " + (allocated * 1000L / Math.max(1L, duration)) + " MB/s");
+		}
+	}
+
+	private static void runConcurrent(final String name, final String[] fragments, final int iterations, final ByteBufferPool pool, final int threadCount) throws Exception {
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final List<Future> futures     = new LinkedList<>();
+		final long gcBefore            = getCollectionTime();
+		final long start               = System.nanoTime();
+
+		for (int i=0; i<threadCount; i++) {
+
+			futures.add(executor.submit(() -> {
+
+				run(name, fragments, iterations / threadCount, pool, false);
+				return null;
+			}));
+		}
+
+		for (final Future future : futures) {
+			future.get();
+		}
+
+		final long duration = System.nanoTime() - start;
+		final long pages    = (iterations / threadCount) * threadCount;
+
+		executor.shutdown();
+
+		System.out.println(name + " (" + threadCount + " threads):");
+		System.out.println("        Pages per second: " + (pages * 1000000000L / duration));
+		System.out.println("        Time spent in GC: " + (getCollectionTime() - gcBefore) + " ms");
+	}
+
+	private static long getCollectionTime() {
+
+		long time = 0L;
+
+		for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0L, gc.getCollectionTime());
+		}
+
+		return time;
+	}
+
+	private static String[] createFragments(final int count) {
+
+		final String[] fragments = new String[count];
+
+		for (int i=0; i<count; i++) {
+
+			switch (i % 5) {
+
+				case 0:
+					fragments[i] = "\n\t\t\t";
+					break;
+
+				case 1:
+					fragments[i] = "<div class=\"row item-" + i + "\"";
+					break;
+
+				case 2:
+					fragments[i] = " data-structr-id=\"" + Integer.toHexString(i * 31) + "\">";
+					break;
+
+				case 3:
+					fragments[i] = "Grüße aus Frankfurt, Zeile " + i;
+					break;
+
+				default:
+					fragments[i] = "</div>";
+					break;
+			}
+		}
+
+		return fragments;
+	}
+
+	// ----- nested classes -----
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count = 0L;
+
+		@Override
+		public void write(final int b) throws IOException {
+			count++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			count += len;
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+}